@@ -0,0 +1,217 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link PositionListIndex} that stores all clusters in one flat row array (compressed sparse row
+ * layout). The rows of cluster i are stored at the positions offsets[i] (inclusive) to
+ * offsets[i + 1] (exclusive). Row ids are stored as ints as long as all of them fit into an int,
+ * otherwise the index falls back to a long array. The nested cluster lists of {@link
+ * #getClusters()} are only materialized on request and are not cached.
+ */
+public class CompactPositionListIndex extends PositionListIndex {
+
+  /**
+   * The row ids of all clusters, if all row ids fit into an int; null otherwise.
+   */
+  protected int[] intRows;
+  /**
+   * The row ids of all clusters, if at least one row id does not fit into an int; null otherwise.
+   */
+  protected long[] longRows;
+  protected int[] offsets;
+
+  /**
+   * Constructs a {@link CompactPositionListIndex} from the given flat row array.
+   *
+   * @param rows    the row ids of all clusters
+   * @param offsets the start position of every cluster followed by the total number of rows
+   */
+  public CompactPositionListIndex(int[] rows, int[] offsets) {
+    super(null);
+    this.intRows = rows;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Constructs a {@link CompactPositionListIndex} from the given flat row array.
+   *
+   * @param rows    the row ids of all clusters
+   * @param offsets the start position of every cluster followed by the total number of rows
+   */
+  public CompactPositionListIndex(long[] rows, int[] offsets) {
+    super(null);
+    this.longRows = rows;
+    this.offsets = offsets;
+  }
+
+  /**
+   * Constructs a {@link CompactPositionListIndex} containing the given clusters.
+   *
+   * @param clusters the clusters
+   */
+  public CompactPositionListIndex(List<LongArrayList> clusters) {
+    super(null);
+
+    int rowCount = 0;
+    long maxRowId = -1;
+    for (LongArrayList cluster : clusters) {
+      rowCount += cluster.size();
+      long[] rows = cluster.elements();
+      for (int i = 0; i < cluster.size(); i++) {
+        maxRowId = Math.max(maxRowId, rows[i]);
+      }
+    }
+
+    this.offsets = new int[clusters.size() + 1];
+    if (maxRowId <= Integer.MAX_VALUE) {
+      this.intRows = new int[rowCount];
+    } else {
+      this.longRows = new long[rowCount];
+    }
+
+    int position = 0;
+    int clusterIndex = 0;
+    for (LongArrayList cluster : clusters) {
+      this.offsets[clusterIndex++] = position;
+      long[] rows = cluster.elements();
+      for (int i = 0; i < cluster.size(); i++) {
+        if (this.intRows != null) {
+          this.intRows[position++] = (int) rows[i];
+        } else {
+          this.longRows[position++] = rows[i];
+        }
+      }
+    }
+    this.offsets[clusterIndex] = position;
+  }
+
+  /**
+   * Converts the given {@link PositionListIndex} into a {@link CompactPositionListIndex}. Compact
+   * position list indices are returned as they are.
+   *
+   * @param pli the {@link PositionListIndex} to convert
+   * @return the compact {@link PositionListIndex}
+   */
+  public static CompactPositionListIndex compact(PositionListIndex pli) {
+    if (pli instanceof CompactPositionListIndex) {
+      return (CompactPositionListIndex) pli;
+    }
+    CompactPositionListIndex compactPLI = new CompactPositionListIndex(pli.getClusters());
+    compactPLI.rawKeyError = pli.rawKeyError;
+    return compactPLI;
+  }
+
+  /**
+   * @return the position of the first row of every cluster followed by the total number of rows
+   */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /**
+   * @return the row ids as ints or null, if the row ids are stored as longs
+   */
+  public int[] getIntRows() {
+    return intRows;
+  }
+
+  /**
+   * @return the row ids as longs or null, if the row ids are stored as ints
+   */
+  public long[] getLongRows() {
+    return longRows;
+  }
+
+  /**
+   * Returns the row id stored at the given position of the flat row array.
+   *
+   * @param position the position in the row array
+   * @return the row id
+   */
+  public long getRow(int position) {
+    return intRows != null ? intRows[position] : longRows[position];
+  }
+
+  /**
+   * Materializes the clusters as nested lists. The lists are newly created on every call, so
+   * modifying them does not change the index.
+   *
+   * @return the clusters of the {@link PositionListIndex}
+   */
+  @Override
+  public List<LongArrayList> getClusters() {
+    List<LongArrayList> clusters = new ArrayList<>(offsets.length - 1);
+    for (int clusterIndex = 0; clusterIndex < offsets.length - 1; clusterIndex++) {
+      LongArrayList cluster =
+        new LongArrayList(offsets[clusterIndex + 1] - offsets[clusterIndex]);
+      for (int i = offsets[clusterIndex]; i < offsets[clusterIndex + 1]; i++) {
+        cluster.add(getRow(i));
+      }
+      clusters.add(cluster);
+    }
+    return clusters;
+  }
+
+  @Override
+  public CompactPositionListIndex clone() {
+    CompactPositionListIndex clone;
+    if (intRows != null) {
+      clone = new CompactPositionListIndex(intRows.clone(), offsets.clone());
+    } else {
+      clone = new CompactPositionListIndex(longRows.clone(), offsets.clone());
+    }
+    clone.rawKeyError = this.rawKeyError;
+    return clone;
+  }
+
+  @Override
+  public Long2LongOpenHashMap asHashMap() {
+    Long2LongOpenHashMap hashedPLI = new Long2LongOpenHashMap(offsets.length - 1);
+    for (int clusterIndex = 0; clusterIndex < offsets.length - 1; clusterIndex++) {
+      for (int i = offsets[clusterIndex]; i < offsets[clusterIndex + 1]; i++) {
+        hashedPLI.put(getRow(i), clusterIndex);
+      }
+    }
+    return hashedPLI;
+  }
+
+  @Override
+  public long size() {
+    return offsets.length - 1;
+  }
+
+  @Override
+  protected long calculateRawKeyError() {
+    return offsets[offsets.length - 1] - size();
+  }
+
+  @Override
+  public long estimatedBytes() {
+    long rowBytes = intRows != null ? 4L * intRows.length : 8L * longRows.length;
+    // the index itself with its four fields and the two arrays
+    return OBJECT_HEADER_BYTES + 8 + 3 * REFERENCE_BYTES
+      + ARRAY_HEADER_BYTES + rowBytes
+      + ARRAY_HEADER_BYTES + 4L * offsets.length;
+  }
+
+}
@@ -0,0 +1,514 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Constructs the same {@link PositionListIndex}es as the {@link PLIBuilder} within a bounded
+ * amount of memory. The (value, row) pairs of all columns are buffered until the estimated size of
+ * the buffers exceeds the memory budget. Then the pairs of every column are sorted by value and
+ * written as one sorted run to a temporary file of the given {@link FileGenerator}. Finally, the
+ * runs of each column are merged and consecutive rows with equal values form the clusters of the
+ * column. Only the clusters of the resulting plis and one read buffer per run are held in memory
+ * during the merge.
+ */
+public class ExternalPLIBuilder extends PLIBuilder {
+
+  public static final long DEFAULT_MEMORY_BUDGET = Runtime.getRuntime().maxMemory() / 4;
+
+  /**
+   * Estimated bytes of a buffered pair without the characters of the value: the string object,
+   * its character array, the reference to the string, the row id and the sort index.
+   */
+  protected static final long PAIR_OVERHEAD_BYTES = 24 + 16 + 4 + 8 + 4;
+  protected static final int BUFFER_SIZE = 64 * 1024;
+
+  protected static final byte NULL_VALUE = 0;
+  protected static final byte NON_NULL_VALUE = 1;
+
+  protected FileGenerator fileGenerator;
+  protected long memoryBudget;
+
+  protected List<ColumnBuffer> buffers = null;
+  protected long bufferedBytes;
+  protected List<Run> runs = new ArrayList<>();
+
+  public ExternalPLIBuilder(RelationalInput input, FileGenerator fileGenerator) {
+    this(input, true, fileGenerator, DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * @param input          the input to build the plis for
+   * @param nullEqualsNull whether null values should be treated as equal
+   * @param fileGenerator  the generator for the temporary run files
+   * @param memoryBudget   the number of bytes the buffered pairs may occupy before they are spilled
+   */
+  public ExternalPLIBuilder(RelationalInput input, boolean nullEqualsNull,
+                            FileGenerator fileGenerator, long memoryBudget) {
+    super(input, nullEqualsNull);
+    this.fileGenerator = fileGenerator;
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * @return the number of runs that were spilled to disk
+   */
+  public int getNumberOfRuns() {
+    return runs.size();
+  }
+
+  @Override
+  protected List<List<LongArrayList>> getRawPLIs() throws InputIterationException {
+    if (buffers == null) {
+      buffers = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    try {
+      List<List<LongArrayList>> rawPLIList = new ArrayList<>();
+      for (int column = 0; column < buffers.size(); column++) {
+        rawPLIList.add(mergeColumn(column, null));
+      }
+      return rawPLIList;
+    } catch (IOException e) {
+      throw new InputIterationException("Could not merge the sorted runs.", e);
+    } finally {
+      // Free buffers and runs.
+      buffers.clear();
+      deleteRuns();
+    }
+  }
+
+  /**
+   * Builds a {@link TreeSet} of the values of every column in the input. "null" values are filtered
+   * as they are not required for spider. The values are read from the sorted runs.
+   *
+   * @return all comlumns' sorted distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  public List<TreeSet<String>> getDistinctSortedColumns() throws InputIterationException {
+    if (buffers == null) {
+      buffers = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    List<TreeSet<String>> distinctSortedColumns = new LinkedList<>();
+    try {
+      for (int column = 0; column < buffers.size(); column++) {
+        TreeSet<String> distinctValues = new TreeSet<>();
+        mergeColumn(column, distinctValues);
+        distinctSortedColumns.add(distinctValues);
+      }
+    } catch (IOException e) {
+      throw new InputIterationException("Could not merge the sorted runs.", e);
+    }
+    return distinctSortedColumns;
+  }
+
+  /**
+   * Returns the distinct values of every column, which are read from the sorted runs.
+   *
+   * @return all columns' distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  protected List<? extends Collection<String>> getDistinctValues()
+    throws InputIterationException {
+    if (buffers == null) {
+      buffers = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    List<List<String>> distinctValues = new ArrayList<>();
+    try {
+      for (int column = 0; column < buffers.size(); column++) {
+        List<String> columnValues = new ArrayList<>();
+        mergeColumn(column, columnValues);
+        distinctValues.add(columnValues);
+      }
+    } catch (IOException e) {
+      throw new InputIterationException("Could not merge the sorted runs.", e);
+    }
+    return distinctValues;
+  }
+
+  @Override
+  protected void calculateUnpurgedPLI() throws InputIterationException {
+    long rowCount = 0;
+    this.numberOfTuples = 0;
+    this.bufferedBytes = 0;
+    try {
+      while (input.hasNext()) {
+        this.numberOfTuples++;
+        List<String> row = input.next();
+        int columnCount = 0;
+        for (String cellValue : row) {
+          addValue(rowCount, columnCount, cellValue);
+          columnCount++;
+        }
+        rowCount++;
+
+        if (bufferedBytes > memoryBudget) {
+          spill();
+        }
+      }
+      // The last buffers are only spilled, if earlier runs have to be merged with them.
+      if (!runs.isEmpty() && bufferedBytes > 0) {
+        spill();
+      }
+    } catch (IOException | FileCreationException e) {
+      throw new InputIterationException("Could not spill the sorted runs.", e);
+    }
+  }
+
+  @Override
+  protected void addValue(long rowCount, int columnCount, String attributeCell) {
+    while (buffers.size() <= columnCount) {
+      buffers.add(new ColumnBuffer());
+    }
+
+    if (!this.nullEqualsNull && attributeCell == null) {
+      return;
+    }
+
+    buffers.get(columnCount).add(attributeCell, rowCount);
+    bufferedBytes += PAIR_OVERHEAD_BYTES;
+    if (attributeCell != null) {
+      bufferedBytes += 2L * attributeCell.length();
+    }
+  }
+
+  /**
+   * Sorts the buffered pairs of every column and writes them as one run into a new temporary file.
+   *
+   * @throws IOException           if the run cannot be written
+   * @throws FileCreationException if the temporary file cannot be created
+   */
+  protected void spill() throws IOException, FileCreationException {
+    Run run = new Run(fileGenerator.getTemporaryFile(), buffers.size());
+    long position = 0;
+
+    try (DataOutputStream output = new DataOutputStream(
+      new BufferedOutputStream(new FileOutputStream(run.file), BUFFER_SIZE))) {
+      for (int column = 0; column < buffers.size(); column++) {
+        ColumnBuffer buffer = buffers.get(column);
+        run.columnOffsets[column] = position;
+        run.columnSizes[column] = buffer.size();
+
+        for (int index : buffer.sortedIndices()) {
+          String value = buffer.values.get(index);
+          if (value == null) {
+            output.writeByte(NULL_VALUE);
+            position += 1;
+          } else {
+            output.writeByte(NON_NULL_VALUE);
+            output.writeInt(value.length());
+            output.writeChars(value);
+            position += 1 + 4 + 2L * value.length();
+          }
+          output.writeLong(buffer.rows.getLong(index));
+          position += 8;
+        }
+        buffer.clear();
+      }
+    }
+
+    runs.add(run);
+    bufferedBytes = 0;
+  }
+
+  /**
+   * Merges the sorted pairs of the given column and groups the rows by value. If runs were spilled,
+   * the runs are merged; otherwise the buffer is sorted in memory.
+   *
+   * @param column         the index of the column
+   * @param distinctValues if not null, the distinct non null values are collected in sorted order
+   *                       instead of building the clusters
+   * @return the clusters of size two or larger
+   * @throws IOException if a run cannot be read
+   */
+  protected List<LongArrayList> mergeColumn(int column, Collection<String> distinctValues)
+    throws IOException {
+    List<SortedPairs> sources = new ArrayList<>();
+    try {
+      if (runs.isEmpty()) {
+        sources.add(new BufferPairs(buffers.get(column)));
+      } else {
+        for (Run run : runs) {
+          sources.add(new RunPairs(run, column));
+        }
+      }
+
+      PriorityQueue<SortedPairs> queue = new PriorityQueue<>(Math.max(1, sources.size()));
+      for (SortedPairs source : sources) {
+        if (source.advance()) {
+          queue.add(source);
+        }
+      }
+
+      List<LongArrayList> clusters = new ArrayList<>();
+      LongArrayList cluster = null;
+      boolean clusterIsNull = false;
+      String clusterValue = null;
+      while (!queue.isEmpty()) {
+        SortedPairs source = queue.poll();
+
+        if (cluster == null || source.isNull != clusterIsNull
+          || (!source.isNull && !source.value.equals(clusterValue))) {
+          addCluster(clusters, cluster);
+          cluster = new LongArrayList();
+          clusterIsNull = source.isNull;
+          clusterValue = source.value;
+          if (distinctValues != null && !clusterIsNull) {
+            distinctValues.add(clusterValue);
+          }
+        }
+        if (distinctValues == null) {
+          cluster.add(source.row);
+        }
+
+        if (source.advance()) {
+          queue.add(source);
+        }
+      }
+      addCluster(clusters, cluster);
+
+      return clusters;
+    } finally {
+      for (SortedPairs source : sources) {
+        source.close();
+      }
+    }
+  }
+
+  protected void addCluster(List<LongArrayList> clusters, LongArrayList cluster) {
+    if (cluster != null && cluster.size() >= 2) {
+      cluster.trim();
+      clusters.add(cluster);
+    }
+  }
+
+  protected void deleteRuns() {
+    for (Run run : runs) {
+      run.file.delete();
+    }
+    runs.clear();
+  }
+
+  /**
+   * Buffers the (value, row) pairs of one column in insertion order.
+   */
+  protected static class ColumnBuffer {
+
+    protected List<String> values = new ArrayList<>();
+    protected LongArrayList rows = new LongArrayList();
+
+    protected void add(String value, long row) {
+      values.add(value);
+      rows.add(row);
+    }
+
+    protected int size() {
+      return values.size();
+    }
+
+    /**
+     * Returns the indices of the pairs sorted by value with null values first. The sort is stable,
+     * so the rows of equal values stay in ascending order.
+     *
+     * @return the sorted indices
+     */
+    protected int[] sortedIndices() {
+      int[] indices = new int[values.size()];
+      for (int i = 0; i < indices.length; i++) {
+        indices[i] = i;
+      }
+      IntArrays.mergeSort(indices, new AbstractIntComparator() {
+        @Override
+        public int compare(int first, int second) {
+          return compareValues(values.get(first), values.get(second));
+        }
+      });
+      return indices;
+    }
+
+    protected void clear() {
+      values = new ArrayList<>();
+      rows = new LongArrayList();
+    }
+  }
+
+  protected static int compareValues(String first, String second) {
+    if (first == null) {
+      return second == null ? 0 : -1;
+    }
+    if (second == null) {
+      return 1;
+    }
+    return first.compareTo(second);
+  }
+
+  /**
+   * A spilled run. The pairs of all columns are stored one column after another in the same file.
+   */
+  protected static class Run {
+
+    protected File file;
+    protected long[] columnOffsets;
+    protected int[] columnSizes;
+
+    protected Run(File file, int columnCount) {
+      this.file = file;
+      this.columnOffsets = new long[columnCount];
+      this.columnSizes = new int[columnCount];
+    }
+  }
+
+  /**
+   * A source of (value, row) pairs sorted by value and row.
+   */
+  protected abstract static class SortedPairs implements Comparable<SortedPairs> {
+
+    protected boolean isNull;
+    protected String value;
+    protected long row;
+
+    /**
+     * Moves to the next pair.
+     *
+     * @return false, if the source is exhausted
+     * @throws IOException if the pair cannot be read
+     */
+    protected abstract boolean advance() throws IOException;
+
+    protected void close() throws IOException {
+    }
+
+    @Override
+    public int compareTo(SortedPairs other) {
+      int result = compareValues(this.value, other.value);
+      if (result != 0) {
+        return result;
+      }
+      return Long.compare(this.row, other.row);
+    }
+  }
+
+  /**
+   * Sorts the pairs of an in-memory {@link ColumnBuffer}.
+   */
+  protected static class BufferPairs extends SortedPairs {
+
+    protected ColumnBuffer buffer;
+    protected int[] sortedIndices;
+    protected int position = 0;
+
+    protected BufferPairs(ColumnBuffer buffer) {
+      this.buffer = buffer;
+      this.sortedIndices = buffer.sortedIndices();
+    }
+
+    @Override
+    protected boolean advance() {
+      if (position >= sortedIndices.length) {
+        return false;
+      }
+      int index = sortedIndices[position++];
+      value = buffer.values.get(index);
+      isNull = value == null;
+      row = buffer.rows.getLong(index);
+      return true;
+    }
+  }
+
+  /**
+   * Reads the pairs of one column from a spilled {@link Run}.
+   */
+  protected static class RunPairs extends SortedPairs {
+
+    protected DataInputStream input;
+    protected int remaining;
+    protected char[] characters = new char[64];
+
+    protected RunPairs(Run run, int column) throws IOException {
+      this.remaining = column < run.columnSizes.length ? run.columnSizes[column] : 0;
+      if (this.remaining > 0) {
+        FileInputStream fileInput = new FileInputStream(run.file);
+        fileInput.getChannel().position(run.columnOffsets[column]);
+        this.input = new DataInputStream(new BufferedInputStream(fileInput, BUFFER_SIZE));
+      }
+    }
+
+    @Override
+    protected boolean advance() throws IOException {
+      if (remaining == 0) {
+        return false;
+      }
+      remaining--;
+
+      byte type = input.readByte();
+      if (type == NULL_VALUE) {
+        isNull = true;
+        value = null;
+      } else if (type == NON_NULL_VALUE) {
+        int length = input.readInt();
+        if (characters.length < length) {
+          characters = new char[Math.max(length, characters.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+          characters[i] = input.readChar();
+        }
+        isNull = false;
+        value = new String(characters, 0, length);
+      } else {
+        throw new EOFException("Corrupt run file.");
+      }
+      row = input.readLong();
+      return true;
+    }
+
+    @Override
+    protected void close() throws IOException {
+      if (input != null) {
+        input.close();
+      }
+    }
+  }
+}
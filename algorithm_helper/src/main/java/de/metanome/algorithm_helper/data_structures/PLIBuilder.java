@@ -15,10 +15,13 @@
  */
 package de.metanome.algorithm_helper.data_structures;
 
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -58,6 +61,25 @@ public class PLIBuilder {
     return result;
   }
 
+  /**
+   * Builds a {@link CompactPositionListIndex} for every column in the input. The clusters of each
+   * column are released as soon as the column has been converted.
+   *
+   * @return list of compact plis for all columns
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public List<PositionListIndex> getCompactPLIList() throws InputIterationException {
+    List<List<LongArrayList>> rawPLIs = getRawPLIs();
+    List<PositionListIndex> result = new ArrayList<>();
+    Iterator<List<LongArrayList>> rawPLIIterator = rawPLIs.iterator();
+    while (rawPLIIterator.hasNext()) {
+      result.add(new CompactPositionListIndex(rawPLIIterator.next()));
+      // Free cluster lists.
+      rawPLIIterator.remove();
+    }
+    return result;
+  }
+
   /**
    * Calculates the raw PositionListIndices
    *
@@ -112,6 +134,57 @@ public class PLIBuilder {
     return distinctSortedColumns;
   }
 
+  /**
+   * Builds the {@link SortedDistinctColumn} of every column in the input on the heap. The columns
+   * are sorted in parallel. "null" values are filtered as they are not required for spider.
+   *
+   * @return all columns' sorted distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  public List<SortedDistinctColumn> getSortedDistinctColumnIndex()
+    throws InputIterationException {
+    return getSortedDistinctColumnIndex(null);
+  }
+
+  /**
+   * Builds the {@link SortedDistinctColumn} of every column in the input. The columns are sorted in
+   * parallel and memory-mapped from temporary files of the given {@link FileGenerator}. "null"
+   * values are filtered as they are not required for spider.
+   *
+   * @param fileGenerator the generator for the temporary files or null to keep the values on the
+   *                      heap
+   * @return all columns' sorted distinct values
+   * @throws InputIterationException if the input cannot be iterated or the files cannot be written
+   */
+  public List<SortedDistinctColumn> getSortedDistinctColumnIndex(FileGenerator fileGenerator)
+    throws InputIterationException {
+    try {
+      return SortedDistinctColumn.buildAll(getDistinctValues(), fileGenerator);
+    } catch (IOException | FileCreationException e) {
+      throw new InputIterationException("Could not write the sorted distinct columns.", e);
+    }
+  }
+
+  /**
+   * Returns the distinct values of every column. The collections may contain null.
+   *
+   * @return all columns' distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  protected List<? extends Collection<String>> getDistinctValues()
+    throws InputIterationException {
+    if (columns == null) {
+      columns = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    List<Set<String>> distinctValues = new ArrayList<>();
+    for (HashMap<String, LongArrayList> columnMap : columns) {
+      distinctValues.add(columnMap.keySet());
+    }
+    return distinctValues;
+  }
+
   protected void calculateUnpurgedPLI() throws InputIterationException {
     long rowCount = 0;
     this.numberOfTuples = 0;
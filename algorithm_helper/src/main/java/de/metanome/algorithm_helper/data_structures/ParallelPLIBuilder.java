@@ -0,0 +1,295 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Constructs the same {@link PositionListIndex}es as the {@link PLIBuilder}, but encodes the
+ * columns in parallel. The input is read in blocks of rows. While the next block is read, the
+ * columns of the current block are dictionary encoded on a {@link ForkJoinPool}, one task per
+ * stripe of columns. Every distinct value of a column is mapped to an int value id, which indexes
+ * the row list of the value. The dictionaries are released as soon as the plis are purged.
+ */
+public class ParallelPLIBuilder extends PLIBuilder {
+
+  public static final int DEFAULT_BLOCK_SIZE = 4096;
+  public static final int DEFAULT_COLUMNS_PER_TASK = 4;
+
+  protected static final int NO_VALUE = -1;
+
+  protected ForkJoinPool pool;
+  protected int blockSize = DEFAULT_BLOCK_SIZE;
+  protected int columnsPerTask = DEFAULT_COLUMNS_PER_TASK;
+  protected List<ColumnEncoder> encoders = null;
+
+  public ParallelPLIBuilder(RelationalInput input) {
+    super(input);
+  }
+
+  public ParallelPLIBuilder(RelationalInput input, boolean nullEqualsNull) {
+    super(input, nullEqualsNull);
+  }
+
+  /**
+   * @param input          the input to build the plis for
+   * @param nullEqualsNull whether null values should be treated as equal
+   * @param pool           the pool to encode the columns on; the pool is not shut down
+   */
+  public ParallelPLIBuilder(RelationalInput input, boolean nullEqualsNull, ForkJoinPool pool) {
+    super(input, nullEqualsNull);
+    this.pool = pool;
+  }
+
+  public ParallelPLIBuilder setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+    return this;
+  }
+
+  public ParallelPLIBuilder setColumnsPerTask(int columnsPerTask) {
+    this.columnsPerTask = columnsPerTask;
+    return this;
+  }
+
+  @Override
+  protected List<List<LongArrayList>> getRawPLIs() throws InputIterationException {
+    if (encoders == null) {
+      encoders = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+    return purgePLIEntries();
+  }
+
+  /**
+   * Builds a {@link TreeSet} of the values of every column in the input. "null" values are filtered
+   * as they are not required for spider.
+   *
+   * @return all comlumns' sorted distinct values
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  public List<TreeSet<String>> getDistinctSortedColumns() throws InputIterationException {
+    if (encoders == null) {
+      encoders = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    List<TreeSet<String>> distinctSortedColumns = new LinkedList<>();
+    for (ColumnEncoder encoder : encoders) {
+      distinctSortedColumns.add(new TreeSet<>(encoder.dictionary.keySet()));
+    }
+
+    return distinctSortedColumns;
+  }
+
+  @Override
+  protected List<? extends Collection<String>> getDistinctValues()
+    throws InputIterationException {
+    if (encoders == null) {
+      encoders = new ArrayList<>();
+      calculateUnpurgedPLI();
+    }
+
+    List<Set<String>> distinctValues = new ArrayList<>();
+    for (ColumnEncoder encoder : encoders) {
+      distinctValues.add(encoder.dictionary.keySet());
+    }
+    return distinctValues;
+  }
+
+  /**
+   * Reads the input block by block and encodes each block on the pool while the next block is
+   * read.
+   *
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  @Override
+  protected void calculateUnpurgedPLI() throws InputIterationException {
+    boolean ownPool = pool == null;
+    ForkJoinPool encodingPool = ownPool ? new ForkJoinPool() : pool;
+
+    try {
+      @SuppressWarnings("unchecked")
+      List<String>[] currentBlock = new List[blockSize];
+      @SuppressWarnings("unchecked")
+      List<String>[] nextBlock = new List[blockSize];
+
+      this.numberOfTuples = 0;
+      ForkJoinTask<Void> pendingTask = null;
+      while (input.hasNext()) {
+        int blockRowCount = readBlock(currentBlock);
+
+        // an encoder must not be used by the tasks of two blocks at the same time
+        if (pendingTask != null) {
+          pendingTask.join();
+        }
+        // the task gets its own copy of the encoder list, which is extended while reading
+        ColumnEncoder[] blockEncoders = encoders.toArray(new ColumnEncoder[encoders.size()]);
+        pendingTask = encodingPool.submit(
+          new EncodeBlockTask(blockEncoders, currentBlock, blockRowCount, this.numberOfTuples, 0,
+            blockEncoders.length));
+        this.numberOfTuples += blockRowCount;
+
+        List<String>[] swap = currentBlock;
+        currentBlock = nextBlock;
+        nextBlock = swap;
+      }
+      if (pendingTask != null) {
+        pendingTask.join();
+      }
+    } finally {
+      if (ownPool) {
+        encodingPool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Fills the given block with the next rows of the input and adds encoders for new columns.
+   *
+   * @param block the block to fill
+   * @return the number of rows read
+   * @throws InputIterationException if the input cannot be iterated
+   */
+  protected int readBlock(List<String>[] block) throws InputIterationException {
+    int blockRowCount = 0;
+    while (blockRowCount < block.length && input.hasNext()) {
+      List<String> row = input.next();
+      block[blockRowCount++] = row;
+      while (encoders.size() < row.size()) {
+        encoders.add(new ColumnEncoder());
+      }
+    }
+    return blockRowCount;
+  }
+
+  @Override
+  protected List<List<LongArrayList>> purgePLIEntries() {
+    List<List<LongArrayList>> rawPLIList = new ArrayList<>();
+    Iterator<ColumnEncoder> encoderIterator = encoders.iterator();
+    while (encoderIterator.hasNext()) {
+      List<LongArrayList> clusters = new ArrayList<>();
+      for (LongArrayList cluster : encoderIterator.next().clusters) {
+        if (cluster.size() < 2) {
+          continue;
+        }
+        clusters.add(cluster);
+      }
+      rawPLIList.add(clusters);
+      // Free dictionaries.
+      encoderIterator.remove();
+    }
+    return rawPLIList;
+  }
+
+  /**
+   * Dictionary encodes the values of a single column. Every encoder is only used by one task at a
+   * time.
+   */
+  protected class ColumnEncoder {
+
+    protected Object2IntOpenHashMap<String> dictionary = new Object2IntOpenHashMap<>();
+    protected int nullValueId = NO_VALUE;
+    protected List<LongArrayList> clusters = new ArrayList<>();
+
+    public ColumnEncoder() {
+      dictionary.defaultReturnValue(NO_VALUE);
+    }
+
+    protected void encode(String value, long row) {
+      int valueId;
+      if (value == null) {
+        if (!nullEqualsNull) {
+          return;
+        }
+        if (nullValueId == NO_VALUE) {
+          nullValueId = clusters.size();
+          clusters.add(new LongArrayList());
+        }
+        valueId = nullValueId;
+      } else {
+        valueId = dictionary.getInt(value);
+        if (valueId == NO_VALUE) {
+          valueId = clusters.size();
+          dictionary.put(value, valueId);
+          clusters.add(new LongArrayList());
+        }
+      }
+      clusters.get(valueId).add(row);
+    }
+  }
+
+  /**
+   * Encodes a stripe of columns of one block. Stripes wider than {@link #columnsPerTask} are split
+   * into two sub tasks.
+   */
+  protected class EncodeBlockTask extends RecursiveAction {
+
+    protected ColumnEncoder[] blockEncoders;
+    protected List<String>[] block;
+    protected int blockRowCount;
+    protected long firstRow;
+    protected int fromColumn;
+    protected int toColumn;
+
+    public EncodeBlockTask(ColumnEncoder[] blockEncoders, List<String>[] block, int blockRowCount,
+                           long firstRow, int fromColumn, int toColumn) {
+      this.blockEncoders = blockEncoders;
+      this.block = block;
+      this.blockRowCount = blockRowCount;
+      this.firstRow = firstRow;
+      this.fromColumn = fromColumn;
+      this.toColumn = toColumn;
+    }
+
+    @Override
+    protected void compute() {
+      if (toColumn - fromColumn > columnsPerTask) {
+        int middleColumn = (fromColumn + toColumn) >>> 1;
+        invokeAll(
+          new EncodeBlockTask(blockEncoders, block, blockRowCount, firstRow, fromColumn,
+            middleColumn),
+          new EncodeBlockTask(blockEncoders, block, blockRowCount, firstRow, middleColumn,
+            toColumn));
+        return;
+      }
+
+      for (int column = fromColumn; column < toColumn; column++) {
+        ColumnEncoder encoder = blockEncoders[column];
+        for (int rowIndex = 0; rowIndex < blockRowCount; rowIndex++) {
+          List<String> row = block[rowIndex];
+          if (column < row.size()) {
+            encoder.encode(row.get(column), firstRow + rowIndex);
+          }
+        }
+      }
+    }
+  }
+}
@@ -27,6 +27,11 @@ import java.util.*;
  */
 public class PositionListIndex {
 
+  protected static final long OBJECT_HEADER_BYTES = 16;
+  protected static final long ARRAY_HEADER_BYTES = 16;
+  protected static final long REFERENCE_BYTES = 4;
+  protected static final long ARRAY_LIST_BYTES = 24;
+
   protected List<LongArrayList> clusters;
   protected long rawKeyError = -1;
 
@@ -54,6 +59,20 @@ public class PositionListIndex {
     return calculateIntersection(otherPLI);
   }
 
+  /**
+   * Intersects the given PositionListIndex with this PositionListIndex using the given
+   * {@link PositionListIndexIntersector}. The intersector reuses its buffers, so no objects are
+   * allocated per row.
+   *
+   * @param otherPLI    the other {@link PositionListIndex} to intersect
+   * @param intersector the intersector holding the reusable buffers
+   * @return the intersected {@link PositionListIndex}
+   */
+  public PositionListIndex intersect(PositionListIndex otherPLI,
+                                     PositionListIndexIntersector intersector) {
+    return intersector.intersect(this, otherPLI);
+  }
+
   public List<LongArrayList> getClusters() {
     return clusters;
   }
@@ -80,7 +99,7 @@ public class PositionListIndex {
     final int prime = 31;
     int result = 1;
 
-    List<LongOpenHashSet> setCluster = convertClustersToSets(clusters);
+    List<LongOpenHashSet> setCluster = convertClustersToSets(getClusters());
 
     Collections.sort(setCluster, new Comparator<LongSet>() {
 
@@ -102,17 +121,22 @@ public class PositionListIndex {
     if (obj == null) {
       return false;
     }
-    if (getClass() != obj.getClass()) {
+    if (!(obj instanceof PositionListIndex)) {
       return false;
     }
     PositionListIndex other = (PositionListIndex) obj;
+    List<LongArrayList> clusters = getClusters();
+    List<LongArrayList> otherClusters = other.getClusters();
     if (clusters == null) {
-      if (other.clusters != null) {
+      if (otherClusters != null) {
         return false;
       }
     } else {
+      if (otherClusters == null) {
+        return false;
+      }
       List<LongOpenHashSet> setCluster = convertClustersToSets(clusters);
-      List<LongOpenHashSet> otherSetCluster = convertClustersToSets(other.clusters);
+      List<LongOpenHashSet> otherSetCluster = convertClustersToSets(otherClusters);
 
       for (LongOpenHashSet cluster : setCluster) {
         if (!otherSetCluster.contains(cluster)) {
@@ -163,7 +187,7 @@ public class PositionListIndex {
   protected void buildMap(PositionListIndex otherPLI, Long2LongOpenHashMap hashedPLI,
                           Map<LongPair, LongArrayList> map) {
     long uniqueValueCount = 0;
-    for (LongArrayList sameValues : otherPLI.clusters) {
+    for (LongArrayList sameValues : otherPLI.getClusters()) {
       for (long rowCount : sameValues) {
         if (hashedPLI.containsKey(rowCount)) {
           LongPair pair = new LongPair(uniqueValueCount, hashedPLI.get(rowCount));
@@ -251,4 +275,21 @@ public class PositionListIndex {
     return sumClusterSize - clusters.size();
   }
 
+  /**
+   * Estimates the number of bytes this {@link PositionListIndex} occupies on the heap. The estimate
+   * assumes compressed object pointers and includes the cluster lists and their backing arrays.
+   *
+   * @return the estimated heap footprint in bytes
+   */
+  public long estimatedBytes() {
+    // the index itself, the cluster list and its backing array
+    long bytes = OBJECT_HEADER_BYTES + 8 + REFERENCE_BYTES
+      + ARRAY_LIST_BYTES + ARRAY_HEADER_BYTES + REFERENCE_BYTES * clusters.size();
+    for (LongArrayList cluster : clusters) {
+      // every cluster list and its backing array
+      bytes += ARRAY_LIST_BYTES + ARRAY_HEADER_BYTES + 8L * cluster.elements().length;
+    }
+    return bytes;
+  }
+
 }
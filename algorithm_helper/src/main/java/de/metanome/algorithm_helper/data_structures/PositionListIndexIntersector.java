@@ -0,0 +1,281 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Intersects {@link PositionListIndex}es without allocating objects per row. The left PLI is
+ * written into a dense probing table that maps every row id to its cluster number. Each cluster of
+ * the right PLI is then split by the cluster numbers of its rows using counters that are indexed by
+ * the left cluster number. The resulting clusters are collected in a flat row buffer. All scratch
+ * buffers are kept between calls and only grow, so an intersector should be reused for many
+ * intersections. Instances are not thread-safe.
+ */
+public class PositionListIndexIntersector {
+
+  protected static final int NO_CLUSTER = -1;
+
+  /**
+   * Maps a row id to the number of the left cluster containing it or to {@link #NO_CLUSTER}.
+   */
+  protected int[] probingTable = new int[0];
+  /**
+   * Number of rows of the current right cluster per left cluster.
+   */
+  protected int[] clusterCounts = new int[0];
+  /**
+   * The next write position in the output buffer per left cluster.
+   */
+  protected int[] writePositions = new int[0];
+  /**
+   * The left cluster numbers touched by the current right cluster.
+   */
+  protected int[] touchedClusters = new int[0];
+
+  /**
+   * The rows of all clusters of the last intersection.
+   */
+  protected int[] outputRows = new int[0];
+  protected int outputRowCount;
+  /**
+   * The start positions of all clusters of the last intersection in {@link #outputRows}.
+   */
+  protected int[] outputOffsets = new int[1];
+  protected int outputClusterCount;
+
+  /**
+   * Intersects the two given {@link PositionListIndex}es. The result contains the same clusters
+   * as {@link PositionListIndex#intersect(PositionListIndex)}.
+   *
+   * @param left  the {@link PositionListIndex} used to build the probing table
+   * @param right the {@link PositionListIndex} whose clusters are split
+   * @return the intersected {@link PositionListIndex}
+   */
+  public PositionListIndex intersect(PositionListIndex left, PositionListIndex right) {
+    if (!calculateIntersection(left, right)) {
+      // row ids do not fit into the dense probing table
+      return left.calculateIntersection(right);
+    }
+
+    List<LongArrayList> clusters = new ArrayList<>(outputClusterCount);
+    for (int clusterIndex = 0; clusterIndex < outputClusterCount; clusterIndex++) {
+      int from = outputOffsets[clusterIndex];
+      int to = outputOffsets[clusterIndex + 1];
+      LongArrayList cluster = new LongArrayList(to - from);
+      for (int i = from; i < to; i++) {
+        cluster.add(outputRows[i]);
+      }
+      clusters.add(cluster);
+    }
+
+    PositionListIndex intersection = new PositionListIndex(clusters);
+    intersection.rawKeyError = outputRowCount - outputClusterCount;
+    return intersection;
+  }
+
+  /**
+   * Intersects the two given {@link PositionListIndex}es and returns the result as {@link
+   * CompactPositionListIndex}. The result contains the same clusters as {@link
+   * PositionListIndex#intersect(PositionListIndex)}.
+   *
+   * @param left  the {@link PositionListIndex} used to build the probing table
+   * @param right the {@link PositionListIndex} whose clusters are split
+   * @return the intersected {@link CompactPositionListIndex}
+   */
+  public CompactPositionListIndex intersectCompact(PositionListIndex left,
+                                                   PositionListIndex right) {
+    if (!calculateIntersection(left, right)) {
+      // row ids do not fit into the dense probing table
+      return CompactPositionListIndex.compact(left.calculateIntersection(right));
+    }
+
+    CompactPositionListIndex intersection = new CompactPositionListIndex(
+      Arrays.copyOf(outputRows, outputRowCount),
+      Arrays.copyOf(outputOffsets, outputClusterCount + 1));
+    intersection.rawKeyError = outputRowCount - outputClusterCount;
+    return intersection;
+  }
+
+  /**
+   * Intersects the given {@link PositionListIndex}es into the output buffers.
+   *
+   * @param left  the {@link PositionListIndex} used to build the probing table
+   * @param right the {@link PositionListIndex} whose clusters are split
+   * @return false, if the row ids of the left pli are too large for the probing table
+   */
+  protected boolean calculateIntersection(PositionListIndex left, PositionListIndex right) {
+    long maxRowId = maxRowId(left);
+    if (maxRowId >= Integer.MAX_VALUE - 1) {
+      return false;
+    }
+
+    int tableSize = (int) maxRowId + 1;
+    outputRowCount = 0;
+    outputClusterCount = 0;
+    writeProbingTable(left, tableSize, false);
+
+    if (right instanceof CompactPositionListIndex) {
+      CompactPositionListIndex compactRight = (CompactPositionListIndex) right;
+      int[] offsets = compactRight.offsets;
+      for (int clusterIndex = 0; clusterIndex < offsets.length - 1; clusterIndex++) {
+        splitCluster(compactRight.longRows, compactRight.intRows, offsets[clusterIndex],
+          offsets[clusterIndex + 1], tableSize);
+      }
+    } else {
+      for (LongArrayList cluster : right.clusters) {
+        splitCluster(cluster.elements(), null, 0, cluster.size(), tableSize);
+      }
+    }
+
+    writeProbingTable(left, tableSize, true);
+    return true;
+  }
+
+  /**
+   * Splits the given right cluster by the left cluster numbers of its rows and appends all parts
+   * with at least two rows to the output buffers. The rows are either given as longs or as ints.
+   */
+  protected void splitCluster(long[] longRows, int[] intRows, int from, int to, int tableSize) {
+    // count the rows per left cluster
+    int touchedCount = 0;
+    for (int i = from; i < to; i++) {
+      long row = intRows != null ? intRows[i] : longRows[i];
+      if (row >= tableSize) {
+        continue;
+      }
+      int leftCluster = probingTable[(int) row];
+      if (leftCluster == NO_CLUSTER) {
+        continue;
+      }
+      if (clusterCounts[leftCluster] == 0) {
+        touchedClusters[touchedCount++] = leftCluster;
+      }
+      clusterCounts[leftCluster]++;
+    }
+
+    // reserve an output range for all left clusters hit at least twice
+    for (int i = 0; i < touchedCount; i++) {
+      int leftCluster = touchedClusters[i];
+      int count = clusterCounts[leftCluster];
+      if (count > 1) {
+        ensureOutputCapacity(count);
+        writePositions[leftCluster] = outputRowCount;
+        outputRowCount += count;
+        outputClusterCount++;
+        outputOffsets[outputClusterCount] = outputRowCount;
+      }
+    }
+
+    // distribute the rows into their output ranges
+    for (int i = from; i < to; i++) {
+      long row = intRows != null ? intRows[i] : longRows[i];
+      if (row >= tableSize) {
+        continue;
+      }
+      int leftCluster = probingTable[(int) row];
+      if (leftCluster != NO_CLUSTER && clusterCounts[leftCluster] > 1) {
+        outputRows[writePositions[leftCluster]++] = (int) row;
+      }
+    }
+
+    // reset the counters for the next cluster
+    for (int i = 0; i < touchedCount; i++) {
+      clusterCounts[touchedClusters[i]] = 0;
+    }
+  }
+
+  protected long maxRowId(PositionListIndex pli) {
+    long maxRowId = -1;
+    if (pli instanceof CompactPositionListIndex) {
+      CompactPositionListIndex compactPLI = (CompactPositionListIndex) pli;
+      int rowCount = compactPLI.offsets[compactPLI.offsets.length - 1];
+      for (int i = 0; i < rowCount; i++) {
+        maxRowId = Math.max(maxRowId, compactPLI.getRow(i));
+      }
+      return maxRowId;
+    }
+
+    for (LongArrayList cluster : pli.clusters) {
+      long[] rows = cluster.elements();
+      int size = cluster.size();
+      for (int i = 0; i < size; i++) {
+        maxRowId = Math.max(maxRowId, rows[i]);
+      }
+    }
+    return maxRowId;
+  }
+
+  /**
+   * Writes the cluster number of every row of the given {@link PositionListIndex} into the probing
+   * table. Clearing resets only the written entries, so that the table does not need to be
+   * refilled completely for the next intersection.
+   *
+   * @param pli       the left {@link PositionListIndex}
+   * @param tableSize the required size of the probing table
+   * @param clear     whether to reset the entries instead of setting them
+   */
+  protected void writeProbingTable(PositionListIndex pli, int tableSize, boolean clear) {
+    if (!clear && probingTable.length < tableSize) {
+      probingTable = new int[Math.max(tableSize, probingTable.length * 2)];
+      Arrays.fill(probingTable, NO_CLUSTER);
+    }
+
+    int clusterNumber = 0;
+    if (pli instanceof CompactPositionListIndex) {
+      CompactPositionListIndex compactPLI = (CompactPositionListIndex) pli;
+      int[] offsets = compactPLI.offsets;
+      for (; clusterNumber < offsets.length - 1; clusterNumber++) {
+        int value = clear ? NO_CLUSTER : clusterNumber;
+        for (int i = offsets[clusterNumber]; i < offsets[clusterNumber + 1]; i++) {
+          probingTable[(int) compactPLI.getRow(i)] = value;
+        }
+      }
+    } else {
+      for (LongArrayList cluster : pli.clusters) {
+        int value = clear ? NO_CLUSTER : clusterNumber;
+        long[] rows = cluster.elements();
+        int size = cluster.size();
+        for (int i = 0; i < size; i++) {
+          probingTable[(int) rows[i]] = value;
+        }
+        clusterNumber++;
+      }
+    }
+
+    if (!clear && clusterCounts.length < clusterNumber) {
+      int capacity = Math.max(clusterNumber, clusterCounts.length * 2);
+      clusterCounts = new int[capacity];
+      writePositions = new int[capacity];
+      touchedClusters = new int[capacity];
+    }
+  }
+
+  protected void ensureOutputCapacity(int clusterSize) {
+    if (outputRows.length - outputRowCount < clusterSize) {
+      outputRows = Arrays.copyOf(outputRows,
+        Math.max(outputRowCount + clusterSize, outputRows.length * 2));
+    }
+    if (outputOffsets.length < outputClusterCount + 2) {
+      outputOffsets = Arrays.copyOf(outputOffsets, outputOffsets.length * 2);
+    }
+  }
+
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The sorted distinct values of a column. All values are UTF-8 encoded and stored one after
+ * another in a single byte buffer; the value i occupies the bytes offsets[i] (inclusive) to
+ * offsets[i + 1] (exclusive). The values are sorted by their unsigned bytes, which is the code
+ * point order of the values. The buffer is either held on the heap or memory-mapped from a
+ * temporary file. A {@link Cursor} iterates the values without allocating objects per value.
+ */
+public class SortedDistinctColumn {
+
+  public static final Charset CHARSET = Charset.forName("UTF-8");
+
+  protected static final Comparator<byte[]> BYTE_ORDER = new Comparator<byte[]>() {
+    @Override
+    public int compare(byte[] first, byte[] second) {
+      return compareBytes(first, 0, first.length, second, 0, second.length);
+    }
+  };
+
+  protected ByteBuffer values;
+  protected IntBuffer offsets;
+  protected int size;
+
+  protected SortedDistinctColumn(ByteBuffer values, IntBuffer offsets, int size) {
+    this.values = values;
+    this.offsets = offsets;
+    this.size = size;
+  }
+
+  /**
+   * Sorts and encodes the given distinct values on the heap. Null values are skipped.
+   *
+   * @param distinctValues the distinct values of the column
+   * @return the sorted distinct column
+   */
+  public static SortedDistinctColumn build(Collection<String> distinctValues) {
+    byte[][] encodedValues = encodeAndSort(distinctValues);
+
+    int[] offsets = new int[encodedValues.length + 1];
+    for (int i = 0; i < encodedValues.length; i++) {
+      offsets[i + 1] = offsets[i] + encodedValues[i].length;
+    }
+    byte[] values = new byte[offsets[encodedValues.length]];
+    for (int i = 0; i < encodedValues.length; i++) {
+      System.arraycopy(encodedValues[i], 0, values, offsets[i], encodedValues[i].length);
+    }
+
+    return new SortedDistinctColumn(ByteBuffer.wrap(values), IntBuffer.wrap(offsets),
+      encodedValues.length);
+  }
+
+  /**
+   * Sorts and encodes the given distinct values and memory-maps them from a temporary file of the
+   * given {@link FileGenerator}. Null values are skipped.
+   *
+   * @param distinctValues the distinct values of the column
+   * @param fileGenerator  the generator for the temporary file
+   * @return the sorted distinct column
+   * @throws IOException           if the file cannot be written or mapped
+   * @throws FileCreationException if the temporary file cannot be created
+   */
+  public static SortedDistinctColumn build(Collection<String> distinctValues,
+                                           FileGenerator fileGenerator)
+    throws IOException, FileCreationException {
+    return build(distinctValues, fileGenerator.getTemporaryFile());
+  }
+
+  protected static SortedDistinctColumn build(Collection<String> distinctValues, File file)
+    throws IOException {
+    byte[][] encodedValues = encodeAndSort(distinctValues);
+
+    // layout: offsets (size + 1 ints) followed by the values
+    try (DataOutputStream output = new DataOutputStream(
+      new BufferedOutputStream(new FileOutputStream(file)))) {
+      int offset = 0;
+      output.writeInt(offset);
+      for (byte[] encodedValue : encodedValues) {
+        offset += encodedValue.length;
+        output.writeInt(offset);
+      }
+      for (byte[] encodedValue : encodedValues) {
+        output.write(encodedValue);
+      }
+    }
+
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+      FileChannel channel = randomAccessFile.getChannel();
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      int offsetBytes = 4 * (encodedValues.length + 1);
+
+      mapped.limit(offsetBytes);
+      IntBuffer offsets = mapped.slice().asIntBuffer();
+      mapped.limit(mapped.capacity());
+      mapped.position(offsetBytes);
+      ByteBuffer values = mapped.slice();
+
+      return new SortedDistinctColumn(values, offsets, encodedValues.length);
+    }
+  }
+
+  /**
+   * Builds the sorted distinct columns of all given columns in parallel, one task per column.
+   *
+   * @param columns       the distinct values of every column
+   * @param fileGenerator the generator for temporary files or null to keep the columns on the heap
+   * @return the sorted distinct columns in the order of the given columns
+   * @throws IOException           if a file cannot be written or mapped
+   * @throws FileCreationException if a temporary file cannot be created
+   */
+  public static List<SortedDistinctColumn> buildAll(List<? extends Collection<String>> columns,
+                                                    FileGenerator fileGenerator)
+    throws IOException, FileCreationException {
+    // the files are created up front, as file generators are not thread-safe
+    List<BuildTask> tasks = new ArrayList<>();
+    for (Collection<String> column : columns) {
+      File file = fileGenerator == null ? null : fileGenerator.getTemporaryFile();
+      tasks.add(new BuildTask(column, file));
+    }
+
+    ForkJoinPool pool = new ForkJoinPool();
+    try {
+      for (BuildTask task : tasks) {
+        pool.execute(task);
+      }
+      List<SortedDistinctColumn> sortedColumns = new ArrayList<>();
+      for (BuildTask task : tasks) {
+        sortedColumns.add(task.join());
+      }
+      return sortedColumns;
+    } catch (BuildException e) {
+      // joining may wrap the exception of the task into another build exception
+      Throwable cause = e;
+      while (cause instanceof BuildException) {
+        cause = cause.getCause();
+      }
+      throw (IOException) cause;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  protected static byte[][] encodeAndSort(Collection<String> distinctValues) {
+    byte[][] encodedValues = new byte[distinctValues.size()][];
+    int size = 0;
+    for (String value : distinctValues) {
+      if (value != null) {
+        encodedValues[size++] = value.getBytes(CHARSET);
+      }
+    }
+    encodedValues = Arrays.copyOf(encodedValues, size);
+    Arrays.sort(encodedValues, BYTE_ORDER);
+    return encodedValues;
+  }
+
+  /**
+   * Compares two byte ranges lexicographically by their unsigned bytes.
+   */
+  protected static int compareBytes(byte[] first, int firstFrom, int firstTo, byte[] second,
+                                    int secondFrom, int secondTo) {
+    int length = Math.min(firstTo - firstFrom, secondTo - secondFrom);
+    for (int i = 0; i < length; i++) {
+      int result = (first[firstFrom + i] & 0xff) - (second[secondFrom + i] & 0xff);
+      if (result != 0) {
+        return result;
+      }
+    }
+    return (firstTo - firstFrom) - (secondTo - secondFrom);
+  }
+
+  /**
+   * @return the number of distinct values
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of bytes of all encoded values
+   */
+  public int getValueBytes() {
+    return offsets.get(size);
+  }
+
+  /**
+   * @return true, if the values are memory-mapped from a file
+   */
+  public boolean isMapped() {
+    return values.isDirect();
+  }
+
+  /**
+   * Decodes the value at the given index. This allocates a new {@link String}.
+   *
+   * @param index the index of the value
+   * @return the value
+   */
+  public String getValue(int index) {
+    int from = offsets.get(index);
+    byte[] bytes = new byte[offsets.get(index + 1) - from];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = values.get(from + i);
+    }
+    return new String(bytes, CHARSET);
+  }
+
+  /**
+   * @return a new {@link Cursor} positioned before the first value
+   */
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Iterates the values of the column. The current value is only exposed as a byte range, so
+   * advancing the cursor does not allocate.
+   */
+  public class Cursor {
+
+    protected int index = -1;
+    protected int from;
+    protected int to;
+
+    /**
+     * Moves to the next value.
+     *
+     * @return false, if there is no further value
+     */
+    public boolean next() {
+      if (index + 1 >= size) {
+        index = size;
+        return false;
+      }
+      index++;
+      from = offsets.get(index);
+      to = offsets.get(index + 1);
+      return true;
+    }
+
+    /**
+     * Moves the cursor before the first value.
+     */
+    public void reset() {
+      index = -1;
+    }
+
+    public int getIndex() {
+      return index;
+    }
+
+    /**
+     * @return the number of bytes of the current value
+     */
+    public int length() {
+      return to - from;
+    }
+
+    /**
+     * @param position the position in the current value
+     * @return the byte at the given position of the current value
+     */
+    public byte byteAt(int position) {
+      return values.get(from + position);
+    }
+
+    /**
+     * Copies the bytes of the current value into the given array, which has to be large enough.
+     *
+     * @param target the array to copy to
+     * @return the number of copied bytes
+     */
+    public int copyTo(byte[] target) {
+      for (int i = from; i < to; i++) {
+        target[i - from] = values.get(i);
+      }
+      return to - from;
+    }
+
+    /**
+     * Compares the current value with the current value of another cursor by their unsigned
+     * bytes. The cursors may belong to different columns.
+     *
+     * @param other the other cursor
+     * @return a negative number, zero or a positive number, if the current value is smaller, equal
+     * or larger than the other cursor's value
+     */
+    public int compareTo(Cursor other) {
+      int length = Math.min(length(), other.length());
+      for (int i = 0; i < length; i++) {
+        int result = (byteAt(i) & 0xff) - (other.byteAt(i) & 0xff);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return length() - other.length();
+    }
+
+    /**
+     * Decodes the current value. This allocates a new {@link String}.
+     *
+     * @return the current value
+     */
+    public String getValue() {
+      return SortedDistinctColumn.this.getValue(index);
+    }
+  }
+
+  protected static class BuildException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public BuildException(Throwable cause) {
+      super(cause);
+    }
+  }
+
+  protected static class BuildTask extends RecursiveTask<SortedDistinctColumn> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected Collection<String> distinctValues;
+    protected File file;
+
+    public BuildTask(Collection<String> distinctValues, File file) {
+      this.distinctValues = distinctValues;
+      this.file = file;
+    }
+
+    @Override
+    protected SortedDistinctColumn compute() {
+      if (file == null) {
+        return build(distinctValues);
+      }
+      try {
+        return build(distinctValues, file);
+      } catch (IOException e) {
+        throw new BuildException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.CompactPositionListIndex}
+ */
+public class CompactPositionListIndexTest {
+
+  protected PositionListIndexFixture fixture;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#CompactPositionListIndex(java.util.List)} <p/>
+   * The compact index should contain the same clusters and store them as ints.
+   */
+  @Test
+  public void testConstructor() {
+    // Setup
+    PositionListIndex pli = fixture.getFirstPLI();
+
+    // Execute functionality
+    CompactPositionListIndex compactPLI = CompactPositionListIndex.compact(pli);
+
+    // Check result
+    assertEquals(pli, compactPLI);
+    assertEquals(compactPLI, pli);
+    assertEquals(pli.hashCode(), compactPLI.hashCode());
+    assertEquals(pli.size(), compactPLI.size());
+    assertEquals(fixture.getExpectedFirstPLIRawKeyError(), compactPLI.getRawKeyError());
+    assertEquals(pli.asHashMap(), compactPLI.asHashMap());
+    assertNotNull(compactPLI.getIntRows());
+    assertNull(compactPLI.getLongRows());
+    assertArrayEquals(new int[]{0, 3, 6}, compactPLI.getOffsets());
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#CompactPositionListIndex(java.util.List)} <p/>
+   * Row ids exceeding the int range should be stored as longs.
+   */
+  @Test
+  public void testConstructorLongRows() {
+    // Setup
+    List<LongArrayList> clusters = new ArrayList<>();
+    clusters.add(new LongArrayList(new long[]{1, Integer.MAX_VALUE + 1L}));
+    PositionListIndex pli = new PositionListIndex(clusters);
+
+    // Execute functionality
+    CompactPositionListIndex compactPLI = CompactPositionListIndex.compact(pli);
+
+    // Check result
+    assertNull(compactPLI.getIntRows());
+    assertNotNull(compactPLI.getLongRows());
+    assertEquals(Integer.MAX_VALUE + 1L, compactPLI.getRow(1));
+    assertEquals(pli, compactPLI);
+  }
+
+  /**
+   * Test method for {@link PositionListIndexIntersector#intersectCompact(PositionListIndex,
+   * PositionListIndex)} <p/> Compact indices should be intersected correctly.
+   */
+  @Test
+  public void testIntersect() {
+    // Setup
+    PositionListIndex firstPLI = CompactPositionListIndex.compact(fixture.getFirstPLI());
+    PositionListIndex secondPLI = CompactPositionListIndex.compact(fixture.getSecondPLI());
+    PositionListIndexIntersector intersector = new PositionListIndexIntersector();
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    CompactPositionListIndex actualPLI = intersector.intersectCompact(firstPLI, secondPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualPLI);
+    assertEquals(expectedPLI, firstPLI.intersect(secondPLI));
+    assertEquals(fixture.getExpectedIntersectedPLIRawKeyError(), actualPLI.getRawKeyError());
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#estimatedBytes()} <p/> The compact index
+   * should be estimated smaller than the list based index.
+   */
+  @Test
+  public void testEstimatedBytes() {
+    // Setup
+    PositionListIndex pli = fixture.getFirstPLI();
+
+    // Execute functionality
+    CompactPositionListIndex compactPLI = CompactPositionListIndex.compact(pli);
+
+    // Check result
+    assertTrue(compactPLI.estimatedBytes() > 0);
+    assertTrue(compactPLI.estimatedBytes() < pli.estimatedBytes());
+  }
+
+  /**
+   * Test method for {@link CompactPositionListIndex#clone()}
+   */
+  @Test
+  public void testClone() {
+    // Setup
+    CompactPositionListIndex compactPLI =
+      CompactPositionListIndex.compact(fixture.getFirstPLI());
+
+    // Execute functionality
+    CompactPositionListIndex copy = compactPLI.clone();
+
+    // Check result
+    assertEquals(compactPLI, copy);
+    assertNotSame(compactPLI.getIntRows(), copy.getIntRows());
+    assertNotSame(compactPLI.getOffsets(), copy.getOffsets());
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ExternalPLIBuilder}
+ */
+public class ExternalPLIBuilderTest {
+
+  protected PLIBuilderFixture fixture;
+  protected FileGenerator fileGenerator;
+  protected List<File> createdFiles;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+    createdFiles = new LinkedList<>();
+    fileGenerator = new FileGenerator() {
+      @Override
+      public File getTemporaryFile() throws FileCreationException {
+        try {
+          File file = File.createTempFile("pli_run", null);
+          file.deleteOnExit();
+          createdFiles.add(file);
+          return file;
+        } catch (IOException e) {
+          throw new FileCreationException("Could not create temporary file.", e);
+        }
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (File file : createdFiles) {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link ExternalPLIBuilder#getPLIList()} <p/> With a budget of zero bytes
+   * every row is spilled into its own run. The merged plis should equal the ones of the {@link
+   * PLIBuilder} and all runs should be deleted afterwards.
+   */
+  @Test
+  public void testCalculatePLISpilled() throws Exception {
+    // Setup
+    ExternalPLIBuilder builder =
+      new ExternalPLIBuilder(fixture.getInputGenerator().generateNewCopy(), true, fileGenerator,
+        0);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+    assertEquals(fixture.getExpectedNumberOfTuples(), builder.getNumberOfTuples());
+    assertEquals(fixture.getExpectedNumberOfTuples(), createdFiles.size());
+    assertEquals(0, builder.getNumberOfRuns());
+    for (File file : createdFiles) {
+      assertFalse(file.exists());
+    }
+  }
+
+  /**
+   * Test method for {@link ExternalPLIBuilder#getPLIList()} <p/> Null values should not be
+   * clustered, if null does not equal null.
+   */
+  @Test
+  public void testCalculatePLINullNotEqualsNull() throws Exception {
+    // Setup
+    ExternalPLIBuilder builder =
+      new ExternalPLIBuilder(fixture.getInputGenerator().generateNewCopy(), false, fileGenerator,
+        0);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(false);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+  }
+
+  /**
+   * Test method for {@link ExternalPLIBuilder#getPLIList()} <p/> If the budget is not exceeded, no
+   * run should be written.
+   */
+  @Test
+  public void testCalculatePLIInMemory() throws Exception {
+    // Setup
+    ExternalPLIBuilder builder =
+      new ExternalPLIBuilder(fixture.getInputGenerator().generateNewCopy(), fileGenerator);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+    assertTrue(createdFiles.isEmpty());
+  }
+
+  /**
+   * Test method for {@link ExternalPLIBuilder#getDistinctSortedColumns()}
+   */
+  @Test
+  public void testGetDistinctSortedColumns() throws Exception {
+    // Setup
+    ExternalPLIBuilder builder =
+      new ExternalPLIBuilder(fixture.getInputGenerator().generateNewCopy(), true, fileGenerator,
+        0);
+    // Expected values
+    List<TreeSet<String>>
+      expectedDistinctSortedColumns =
+      fixture.getExpectedDistinctSortedColumns();
+
+    // Execute functionality
+    List<TreeSet<String>> actualDistinctSortedColumns = builder.getDistinctSortedColumns();
+
+    // Check result
+    assertEquals(expectedDistinctSortedColumns, actualDistinctSortedColumns);
+  }
+}
@@ -88,6 +88,29 @@ public class PLIBuilderTest {
     assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
   }
 
+  /**
+   * Test method for {@link PLIBuilder#getCompactPLIList()} <p/> Tests that {@link
+   * de.metanome.algorithm_helper.data_structures.CompactPositionListIndex}es are build correctly.
+   */
+  @Test
+  public void testCalculateCompactPLI() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getCompactPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+    for (PositionListIndex actualPLI : actualPLIList) {
+      assertTrue(actualPLI instanceof CompactPositionListIndex);
+    }
+  }
+
   /**
    * Test method for {@link PLIBuilder#getDistinctSortedColumns()} <p/> Creates the distinct sorted
    * columns from the raw plis.
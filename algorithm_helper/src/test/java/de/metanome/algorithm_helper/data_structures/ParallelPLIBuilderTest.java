@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.hamcrest.collection.IsIterableContainingInAnyOrder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.ParallelPLIBuilder}
+ */
+public class ParallelPLIBuilderTest {
+
+  protected PLIBuilderFixture fixture;
+  protected ParallelPLIBuilder builder;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+    // small blocks and stripes to force multiple blocks and sub tasks
+    builder = new ParallelPLIBuilder(fixture.getInputGenerator().generateNewCopy())
+      .setBlockSize(2)
+      .setColumnsPerTask(1);
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getPLIList()} <p/> The plis should equal the ones
+   * of the {@link PLIBuilder}.
+   */
+  @Test
+  public void testCalculatePLINullEqualsNull() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(true);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+    assertEquals(fixture.getExpectedNumberOfTuples(), builder.getNumberOfTuples());
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getPLIList()} <p/> The plis should equal the ones
+   * of the {@link PLIBuilder}, if null values are not equal.
+   */
+  @Test
+  public void testCalculatePLINullNotEqualsNull()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    // Setup
+    this.builder =
+      new ParallelPLIBuilder(fixture.getInputGenerator().generateNewCopy(), false)
+        .setBlockSize(3);
+    // Expected values
+    List<PositionListIndex> expectedPLIList = fixture.getExpectedPLIList(false);
+    PositionListIndex[]
+      expectedPLIArray =
+      expectedPLIList.toArray(new PositionListIndex[expectedPLIList.size()]);
+
+    // Execute functionality
+    List<PositionListIndex> actualPLIList = builder.getPLIList();
+
+    // Check result
+    assertThat(actualPLIList, IsIterableContainingInAnyOrder.containsInAnyOrder(expectedPLIArray));
+  }
+
+  /**
+   * Test method for {@link ParallelPLIBuilder#getDistinctSortedColumns()}
+   */
+  @Test
+  public void testGetDistinctSortedColumns() throws InputIterationException {
+    // Setup
+    // Expected values
+    List<TreeSet<String>>
+      expectedDistinctSortedColumns =
+      fixture.getExpectedDistinctSortedColumns();
+
+    // Execute functionality
+    List<TreeSet<String>> actualDistinctSortedColumns = builder.getDistinctSortedColumns();
+
+    // Check result
+    assertEquals(expectedDistinctSortedColumns, actualDistinctSortedColumns);
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.PositionListIndexIntersector}
+ */
+public class PositionListIndexIntersectorTest {
+
+  protected PositionListIndexFixture fixture;
+  protected PositionListIndexIntersector intersector;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PositionListIndexFixture();
+    intersector = new PositionListIndexIntersector();
+  }
+
+  /**
+   * Test method for {@link PositionListIndexIntersector#intersect(PositionListIndex,
+   * PositionListIndex)} <p/> The intersection should be equal to the one calculated by {@link
+   * PositionListIndex#intersect(PositionListIndex)}.
+   */
+  @Test
+  public void testIntersect() {
+    // Setup
+    PositionListIndex firstPLI = fixture.getFirstPLI();
+    PositionListIndex secondPLI = fixture.getSecondPLI();
+    // Expected values
+    PositionListIndex expectedPLI = fixture.getExpectedIntersectedPLI();
+
+    // Execute functionality
+    PositionListIndex actualIntersectedPLI = intersector.intersect(firstPLI, secondPLI);
+    PositionListIndex actualSwappedPLI = intersector.intersect(secondPLI, firstPLI);
+
+    // Check result
+    assertEquals(expectedPLI, actualIntersectedPLI);
+    assertEquals(expectedPLI, actualSwappedPLI);
+    assertEquals(firstPLI.intersect(secondPLI), actualIntersectedPLI);
+    assertEquals(fixture.getExpectedIntersectedPLIRawKeyError(),
+      actualIntersectedPLI.getRawKeyError());
+  }
+
+  /**
+   * Test method for {@link PositionListIndexIntersector#intersect(PositionListIndex,
+   * PositionListIndex)} <p/> Reusing the intersector for plis of different sizes should not leak
+   * state between the intersections.
+   */
+  @Test
+  public void testIntersectReused() {
+    // Setup
+    List<LongArrayList> clusters = new ArrayList<>();
+    clusters.add(new LongArrayList(new long[]{0, 1, 2, 3}));
+    clusters.add(new LongArrayList(new long[]{20, 21}));
+    PositionListIndex largePLI = new PositionListIndex(clusters);
+    clusters = new ArrayList<>();
+    clusters.add(new LongArrayList(new long[]{0, 1, 20}));
+    clusters.add(new LongArrayList(new long[]{2, 3, 21}));
+    PositionListIndex otherLargePLI = new PositionListIndex(clusters);
+
+    // Execute functionality
+    PositionListIndex largeIntersection = intersector.intersect(largePLI, otherLargePLI);
+    PositionListIndex smallIntersection =
+      intersector.intersect(fixture.getFirstPLI(), fixture.getSecondPLI());
+    PositionListIndex emptyIntersection =
+      intersector.intersect(largePLI, new PositionListIndex());
+
+    // Check result
+    assertEquals(largePLI.intersect(otherLargePLI), largeIntersection);
+    assertEquals(2, largeIntersection.size());
+    assertEquals(fixture.getExpectedIntersectedPLI(), smallIntersection);
+    assertTrue(emptyIntersection.isEmpty());
+    assertEquals(0, emptyIntersection.getRawKeyError());
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_helper.data_structures;
+
+import de.metanome.algorithm_integration.algorithm_execution.FileCreationException;
+import de.metanome.algorithm_integration.algorithm_execution.FileGenerator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link de.metanome.algorithm_helper.data_structures.SortedDistinctColumn}
+ */
+public class SortedDistinctColumnTest {
+
+  protected PLIBuilderFixture fixture;
+  protected FileGenerator fileGenerator;
+  protected List<File> createdFiles;
+
+  @Before
+  public void setUp() throws Exception {
+    fixture = new PLIBuilderFixture();
+    createdFiles = new LinkedList<>();
+    fileGenerator = new FileGenerator() {
+      @Override
+      public File getTemporaryFile() throws FileCreationException {
+        try {
+          File file = File.createTempFile("sorted_column", null);
+          file.deleteOnExit();
+          createdFiles.add(file);
+          return file;
+        } catch (IOException e) {
+          throw new FileCreationException("Could not create temporary file.", e);
+        }
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    for (File file : createdFiles) {
+      file.delete();
+    }
+  }
+
+  /**
+   * Test method for {@link SortedDistinctColumn#build(java.util.Collection)} <p/> The values
+   * should be iterated in sorted order without null values.
+   */
+  @Test
+  public void testBuild() {
+    // Setup
+    List<String> values = Arrays.asList("b", null, "ab", "a", "c");
+
+    // Execute functionality
+    SortedDistinctColumn column = SortedDistinctColumn.build(values);
+
+    // Check result
+    assertEquals(4, column.size());
+    assertFalse(column.isMapped());
+    assertEquals(Arrays.asList("a", "ab", "b", "c"), readValues(column));
+    assertEquals("ab", column.getValue(1));
+  }
+
+  /**
+   * Test method for {@link SortedDistinctColumn#build(java.util.Collection, FileGenerator)} <p/>
+   * Memory-mapped columns should contain the same values.
+   */
+  @Test
+  public void testBuildMapped() throws Exception {
+    // Setup
+    List<String> values = Arrays.asList("b", "ä", "a", "");
+
+    // Execute functionality
+    SortedDistinctColumn column = SortedDistinctColumn.build(values, fileGenerator);
+
+    // Check result
+    assertTrue(column.isMapped());
+    assertEquals(1, createdFiles.size());
+    assertEquals(Arrays.asList("", "a", "b", "ä"), readValues(column));
+    assertEquals(1 + 1 + 2, column.getValueBytes());
+  }
+
+  /**
+   * Test method for {@link SortedDistinctColumn.Cursor#compareTo(SortedDistinctColumn.Cursor)}
+   * <p/> Cursors of different columns should be comparable.
+   */
+  @Test
+  public void testCursorCompareTo() {
+    // Setup
+    SortedDistinctColumn first = SortedDistinctColumn.build(Arrays.asList("a", "c"));
+    SortedDistinctColumn second = SortedDistinctColumn.build(Arrays.asList("c", "ca"));
+    SortedDistinctColumn.Cursor firstCursor = first.cursor();
+    SortedDistinctColumn.Cursor secondCursor = second.cursor();
+
+    // Execute functionality
+    // Check result
+    assertTrue(firstCursor.next());
+    assertTrue(secondCursor.next());
+    assertTrue(firstCursor.compareTo(secondCursor) < 0);
+    assertTrue(firstCursor.next());
+    assertEquals(0, firstCursor.compareTo(secondCursor));
+    assertTrue(secondCursor.next());
+    assertTrue(firstCursor.compareTo(secondCursor) < 0);
+    assertTrue(secondCursor.compareTo(firstCursor) > 0);
+    assertFalse(secondCursor.next());
+  }
+
+  /**
+   * Test method for {@link PLIBuilder#getSortedDistinctColumnIndex(FileGenerator)} <p/> The index
+   * should contain the same values as {@link PLIBuilder#getDistinctSortedColumns()}.
+   */
+  @Test
+  public void testGetSortedDistinctColumnIndex() throws Exception {
+    // Setup
+    PLIBuilder builder = new PLIBuilder(fixture.getInputGenerator().generateNewCopy());
+    // Expected values
+    List<TreeSet<String>> expectedDistinctSortedColumns =
+      fixture.getExpectedDistinctSortedColumns();
+
+    // Execute functionality
+    List<SortedDistinctColumn> actualColumns =
+      builder.getSortedDistinctColumnIndex(fileGenerator);
+
+    // Check result
+    assertEquals(expectedDistinctSortedColumns.size(), actualColumns.size());
+    for (int i = 0; i < actualColumns.size(); i++) {
+      assertEquals(new ArrayList<>(expectedDistinctSortedColumns.get(i)),
+        readValues(actualColumns.get(i)));
+    }
+  }
+
+  protected List<String> readValues(SortedDistinctColumn column) {
+    List<String> values = new ArrayList<>();
+    SortedDistinctColumn.Cursor cursor = column.cursor();
+    while (cursor.next()) {
+      values.add(cursor.getValue());
+    }
+    return values;
+  }
+}
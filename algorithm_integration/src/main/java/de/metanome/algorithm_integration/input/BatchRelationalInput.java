@@ -0,0 +1,37 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.input;
+
+/**
+ * A {@link RelationalInput} that can return many rows per call in a column-major {@link
+ * ColumnBatch}. Calls to {@link #next()} and {@link #nextBatch(int)} can be mixed, both continue
+ * after the last returned row. Inputs not implementing this interface can be wrapped with {@link
+ * BatchRelationalInputAdapter#of(RelationalInput)}.
+ */
+public interface BatchRelationalInput extends RelationalInput {
+
+  /**
+   * Retrieves up to maxRows next rows. The returned batch is reused by the input and overwritten on
+   * the next call, so the values have to be processed or copied before. An empty batch is returned
+   * once the input is exhausted.
+   *
+   * @param maxRows the maximum number of rows to return
+   * @return the batch holding the next rows
+   * @throws InputIterationException if the next rows could not be read
+   */
+  ColumnBatch nextBatch(int maxRows) throws InputIterationException;
+
+}
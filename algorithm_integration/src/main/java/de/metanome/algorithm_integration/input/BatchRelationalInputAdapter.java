@@ -0,0 +1,109 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.input;
+
+import java.util.List;
+
+/**
+ * Offers the {@link BatchRelationalInput} interface for any {@link RelationalInput} by collecting
+ * the rows of {@link RelationalInput#next()} into a reused {@link ColumnBatch}.
+ */
+public class BatchRelationalInputAdapter implements BatchRelationalInput {
+
+  protected RelationalInput input;
+  protected ColumnBatch batch;
+
+  public BatchRelationalInputAdapter(RelationalInput input) {
+    this.input = input;
+  }
+
+  /**
+   * Returns the input itself, if it supports batches natively, and an adapter otherwise.
+   *
+   * @param input the input to read batches from
+   * @return a batch input returning the rows of the given input
+   */
+  public static BatchRelationalInput of(RelationalInput input) {
+    if (input instanceof BatchRelationalInput) {
+      return (BatchRelationalInput) input;
+    }
+    return new BatchRelationalInputAdapter(input);
+  }
+
+  @Override
+  public ColumnBatch nextBatch(int maxRows) throws InputIterationException {
+    batch = reuseBatch(batch, input.numberOfColumns(), maxRows);
+    while (batch.size() < maxRows && input.hasNext()) {
+      List<String> row = input.next();
+      if (row.size() != batch.numberOfColumns()) {
+        throw new InputIterationException(
+          "Row length " + row.size() + " did not match the number of columns "
+            + batch.numberOfColumns());
+      }
+      batch.addRow(row);
+    }
+    return batch;
+  }
+
+  /**
+   * Clears the given batch, if it fits, and creates a new one otherwise. Can be used by
+   * implementations of {@link BatchRelationalInput#nextBatch(int)} to manage their batch.
+   *
+   * @param batch           the previously returned batch or null
+   * @param numberOfColumns the number of columns of the input
+   * @param maxRows         the requested number of rows
+   * @return an empty batch with the given number of columns and at least maxRows capacity
+   */
+  public static ColumnBatch reuseBatch(ColumnBatch batch, int numberOfColumns, int maxRows) {
+    if (batch == null || batch.numberOfColumns() != numberOfColumns
+      || batch.capacity() < maxRows) {
+      return new ColumnBatch(numberOfColumns, maxRows);
+    }
+    batch.clear();
+    return batch;
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    return input.hasNext();
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    return input.next();
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return input.numberOfColumns();
+  }
+
+  @Override
+  public String relationName() {
+    return input.relationName();
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return input.columnNames();
+  }
+
+  @Override
+  public void close() throws Exception {
+    input.close();
+  }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.input;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A block of rows stored column by column. The value of row r in column c is
+ * getColumns()[c][r]. Only the first {@link #size()} rows are valid. The arrays are reused, so a
+ * batch returned by {@link BatchRelationalInput#nextBatch(int)} is only valid until the next
+ * call.
+ */
+public class ColumnBatch {
+
+  protected String[][] columns;
+  protected int size = 0;
+
+  /**
+   * Creates an empty batch.
+   *
+   * @param numberOfColumns the number of columns of the rows
+   * @param capacity        the maximum number of rows
+   */
+  public ColumnBatch(int numberOfColumns, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("The capacity has to be positive.");
+    }
+    this.columns = new String[numberOfColumns][capacity];
+  }
+
+  /**
+   * @return the column-major values, only the first {@link #size()} rows of each column are valid
+   */
+  public String[][] getColumns() {
+    return columns;
+  }
+
+  /**
+   * @param columnIndex the index of the column
+   * @return the values of the column, only the first {@link #size()} values are valid
+   */
+  public String[] getColumn(int columnIndex) {
+    return columns[columnIndex];
+  }
+
+  /**
+   * @param rowIndex    the index of the row in the batch
+   * @param columnIndex the index of the column
+   * @return the value at the given position
+   */
+  public String getValue(int rowIndex, int columnIndex) {
+    if (rowIndex >= size) {
+      throw new IndexOutOfBoundsException("Row " + rowIndex + " of " + size);
+    }
+    return columns[columnIndex][rowIndex];
+  }
+
+  public int numberOfColumns() {
+    return columns.length;
+  }
+
+  public int capacity() {
+    return columns.length == 0 ? Integer.MAX_VALUE : columns[0].length;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean isFull() {
+    return size >= capacity();
+  }
+
+  /**
+   * Sets the number of valid rows after the column arrays have been filled directly.
+   *
+   * @param size the number of valid rows
+   */
+  public void setSize(int size) {
+    if (size < 0 || size > capacity()) {
+      throw new IndexOutOfBoundsException("Size " + size + " of capacity " + capacity());
+    }
+    this.size = size;
+  }
+
+  /**
+   * Removes all rows. The values are released so that they can be garbage collected.
+   */
+  public void clear() {
+    for (String[] column : columns) {
+      Arrays.fill(column, 0, size, null);
+    }
+    size = 0;
+  }
+
+  /**
+   * Appends a row to the batch.
+   *
+   * @param row the values of the row
+   * @throws IllegalArgumentException if the row has not as many values as the batch has columns
+   */
+  public void addRow(List<String> row) {
+    if (row.size() != columns.length) {
+      throw new IllegalArgumentException(
+        "The row has " + row.size() + " values, but the batch has " + columns.length + " columns.");
+    }
+    if (isFull()) {
+      throw new IndexOutOfBoundsException("The batch is full.");
+    }
+    for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+      columns[columnIndex][size] = row.get(columnIndex);
+    }
+    size++;
+  }
+
+  /**
+   * Dictionary encodes a column of the batch. Values missing in the dictionary are added with the
+   * next free code, i.e. the size of the dictionary. Passing the same dictionary for every batch of
+   * an input gives codes that are consistent across batches. Null is encoded like any other value.
+   *
+   * @param columnIndex the index of the column
+   * @param dictionary  the codes of the values seen so far
+   * @param codes       the array to fill or null, a new array is allocated if it is too small
+   * @return the codes of the column's first {@link #size()} values
+   */
+  public int[] encodeColumn(int columnIndex, Map<String, Integer> dictionary, int[] codes) {
+    if (codes == null || codes.length < size) {
+      codes = new int[capacity()];
+    }
+    String[] column = columns[columnIndex];
+    for (int rowIndex = 0; rowIndex < size; rowIndex++) {
+      Integer code = dictionary.get(column[rowIndex]);
+      if (code == null) {
+        code = dictionary.size();
+        dictionary.put(column[rowIndex], code);
+      }
+      codes[rowIndex] = code;
+    }
+    return codes;
+  }
+
+  /**
+   * Dictionary encodes all columns of the batch, see {@link #encodeColumn(int, Map, int[])}.
+   *
+   * @param dictionaries one dictionary per column
+   * @param codes        the column-major array to fill or null
+   * @return the column-major codes of the first {@link #size()} rows
+   */
+  public int[][] encode(List<? extends Map<String, Integer>> dictionaries, int[][] codes) {
+    if (codes == null || codes.length < columns.length) {
+      codes = new int[columns.length][];
+    }
+    for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+      codes[columnIndex] =
+        encodeColumn(columnIndex, dictionaries.get(columnIndex), codes[columnIndex]);
+    }
+    return codes;
+  }
+
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.results;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Converts objects to JSON and vice versa. In contrast to the {@link JsonConverter}, which used to
+ * build its own object mapper, a codec is meant to be shared: the mapper is configured once and
+ * the object readers and writers are built once per class and cached. All methods are
+ * thread-safe.
+ * <p/>
+ * Results and other types without mix-ins should use the {@link #getDefault()} codec.
+ */
+public class JsonCodec {
+
+  private static final JsonCodec DEFAULT = new JsonCodec();
+
+  protected final ObjectMapper mapper;
+  protected final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+  protected final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a codec without mix-ins. Use {@link #getDefault()} instead, if possible.
+   */
+  public JsonCodec() {
+    this(Collections.<Class<?>, Class<?>>emptyMap());
+  }
+
+  /**
+   * Creates a codec, which handles every target class as if it had all annotations of its mix-in
+   * class.
+   *
+   * @param mixIns the mix-in classes mapped by their target classes
+   */
+  public JsonCodec(Map<Class<?>, Class<?>> mixIns) {
+    this.mapper =
+      new ObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    for (Map.Entry<Class<?>, Class<?>> mixIn : mixIns.entrySet()) {
+      this.mapper.addMixInAnnotations(mixIn.getKey(), mixIn.getValue());
+    }
+  }
+
+  /**
+   * @return the shared codec without mix-ins
+   */
+  public static JsonCodec getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * @param clazz the class of the objects to read
+   * @return the cached reader for objects of the given class
+   */
+  public ObjectReader getReader(Class<?> clazz) {
+    ObjectReader reader = this.readers.get(clazz);
+    if (reader == null) {
+      reader = this.mapper.reader(clazz);
+      ObjectReader existing = this.readers.putIfAbsent(clazz, reader);
+      if (existing != null) {
+        reader = existing;
+      }
+    }
+    return reader;
+  }
+
+  /**
+   * @param clazz the class of the objects to write
+   * @return the cached writer for objects of the given class
+   */
+  public ObjectWriter getWriter(Class<?> clazz) {
+    ObjectWriter writer = this.writers.get(clazz);
+    if (writer == null) {
+      writer = this.mapper.writerWithType(clazz);
+      ObjectWriter existing = this.writers.putIfAbsent(clazz, writer);
+      if (existing != null) {
+        writer = existing;
+      }
+    }
+    return writer;
+  }
+
+  /**
+   * Converts the given object to a json string.
+   *
+   * @param value the object
+   * @return the json string
+   * @throws com.fasterxml.jackson.core.JsonProcessingException if the object could not be
+   *                                                            converted to a json string
+   */
+  public String toJsonString(Object value) throws JsonProcessingException {
+    if (value == null) {
+      return this.mapper.writeValueAsString(null);
+    }
+    return this.getWriter(value.getClass()).writeValueAsString(value);
+  }
+
+  /**
+   * Converts the given json string to an object of the given class.
+   *
+   * @param json  the json string
+   * @param clazz the class of the object
+   * @param <T>   the type of the object
+   * @return the object
+   * @throws java.io.IOException if the json string could not be converted into the given class
+   */
+  public <T> T fromJsonString(String json, Class<T> clazz) throws IOException {
+    return this.getReader(clazz).readValue(json);
+  }
+
+  /**
+   * Writes the given objects as json strings to the writer, one object per line. The writer is
+   * neither flushed nor closed.
+   *
+   * @param writer the writer
+   * @param values the objects to write
+   * @throws java.io.IOException if an object could not be converted or written
+   */
+  public void writeJsonLines(Writer writer, Iterable<?> values) throws IOException {
+    for (Object value : values) {
+      writer.write(this.toJsonString(value));
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Reads json objects of the given class from the reader one by one. The objects may be separated
+   * by any white space, e.g. one object per line. The returned iterator closes the reader when
+   * it is closed.
+   *
+   * @param reader the reader
+   * @param clazz  the class of the objects
+   * @param <T>    the type of the objects
+   * @return an iterator over the objects
+   * @throws java.io.IOException if the reader could not be read
+   */
+  public <T> MappingIterator<T> readJsonLines(Reader reader, Class<T> clazz) throws IOException {
+    return this.getReader(clazz).readValues(reader);
+  }
+
+}
@@ -16,24 +16,32 @@
 package de.metanome.algorithm_integration.results;
 
 
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Converts a object from a string to Json and vice versa.
+ * Converts a object from a string to Json and vice versa. Without mix-ins the shared
+ * {@link JsonCodec#getDefault()} codec is used, so that creating a converter is cheap.
  *
  * @param <T> the type object, which should be converted
  */
 public class JsonConverter<T> {
 
-  ObjectMapper mapper =
-    new ObjectMapper().setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+  JsonCodec codec = JsonCodec.getDefault();
+  Map<Class<?>, Class<?>> mixIns = new LinkedHashMap<>();
+
+  protected JsonCodec getCodec() {
+    // The mix-ins are collected and the codec is only created on first use
+    if (this.codec == null) {
+      this.codec = new JsonCodec(this.mixIns);
+    }
+    return this.codec;
+  }
 
   /**
    * Converts the given object to a json string.
@@ -43,14 +51,14 @@ public class JsonConverter<T> {
    * @throws com.fasterxml.jackson.core.JsonProcessingException if type could not be converted to a json string
    */
   public String toJsonString(T type) throws JsonProcessingException {
-    return this.mapper.writeValueAsString(type);
+    return this.getCodec().toJsonString(type);
   }
 
   public List<String> toJsonStrings(List<T> tList) {
     List<String> result = new ArrayList<>();
     for (T t : tList) {
       try {
-        result.add(this.mapper.writeValueAsString(t));
+        result.add(this.getCodec().toJsonString(t));
       } catch (JsonProcessingException e) {
         e.printStackTrace();
       }
@@ -67,7 +75,7 @@ public class JsonConverter<T> {
    * @throws java.io.IOException if json string could not be converted into type
    */
   public T fromJsonString(String json, Class<T> clazz) throws IOException {
-    return this.mapper.readValue(json, clazz);
+    return this.getCodec().fromJsonString(json, clazz);
   }
 
   /**
@@ -79,7 +87,8 @@ public class JsonConverter<T> {
    * @param mixIn  mixin class
    */
   public void addMixIn(Class<?> target, Class<?> mixIn) {
-    this.mapper.addMixInAnnotations(target, mixIn);
+    this.mixIns.put(target, mixIn);
+    this.codec = null;
   }
 
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.input;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link BatchRelationalInputAdapter}
+ */
+public class BatchRelationalInputAdapterTest {
+
+  /**
+   * Test method for {@link BatchRelationalInputAdapter#nextBatch(int)}
+   * <p/>
+   * The rows of the wrapped input should be collected into batches of the requested size and the
+   * batch should be reused.
+   */
+  @Test
+  public void testNextBatch() throws InputIterationException {
+    // Setup
+    RelationalInput input = mock(RelationalInput.class);
+    when(input.numberOfColumns()).thenReturn(2);
+    when(input.hasNext()).thenReturn(true, true, true, false);
+    when(input.next()).thenReturn(Arrays.asList("a", "b"), Arrays.asList("c", "d"),
+      Arrays.asList("e", "f"));
+    BatchRelationalInput batchInput = BatchRelationalInputAdapter.of(input);
+
+    // Execute functionality
+    ColumnBatch firstBatch = batchInput.nextBatch(2);
+
+    // Check result
+    assertEquals(2, firstBatch.size());
+    assertEquals("c", firstBatch.getValue(1, 0));
+
+    // Execute functionality
+    ColumnBatch secondBatch = batchInput.nextBatch(2);
+
+    // Check result
+    assertSame(firstBatch, secondBatch);
+    assertEquals(1, secondBatch.size());
+    assertEquals("f", secondBatch.getValue(0, 1));
+    assertTrue(batchInput.nextBatch(2).isEmpty());
+  }
+
+  /**
+   * Test method for {@link BatchRelationalInputAdapter#of(RelationalInput)}
+   * <p/>
+   * Inputs supporting batches natively should not be wrapped.
+   */
+  @Test
+  public void testOf() {
+    // Setup
+    BatchRelationalInput input = mock(BatchRelationalInput.class);
+
+    // Execute functionality
+    // Check result
+    assertSame(input, BatchRelationalInputAdapter.of(input));
+  }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.input;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ColumnBatch}
+ */
+public class ColumnBatchTest {
+
+  /**
+   * Test method for {@link ColumnBatch#addRow(List)}
+   * <p/>
+   * The rows should be stored column by column.
+   */
+  @Test
+  public void testAddRow() {
+    // Setup
+    ColumnBatch batch = new ColumnBatch(2, 3);
+
+    // Execute functionality
+    batch.addRow(Arrays.asList("a", "b"));
+    batch.addRow(Arrays.asList(null, "d"));
+
+    // Check result
+    assertEquals(2, batch.size());
+    assertEquals(3, batch.capacity());
+    assertEquals("a", batch.getColumn(0)[0]);
+    assertNull(batch.getColumn(0)[1]);
+    assertEquals("d", batch.getValue(1, 1));
+    try {
+      batch.addRow(Arrays.asList("too", "many", "values"));
+      fail("Expected an IllegalArgumentException to be thrown.");
+    } catch (IllegalArgumentException e) {
+      // Intentionally left blank
+    }
+  }
+
+  /**
+   * Test method for {@link ColumnBatch#clear()}
+   * <p/>
+   * A cleared batch should be empty and release its values.
+   */
+  @Test
+  public void testClear() {
+    // Setup
+    ColumnBatch batch = new ColumnBatch(1, 2);
+    batch.addRow(Arrays.asList("a"));
+    batch.addRow(Arrays.asList("b"));
+
+    // Execute functionality
+    batch.clear();
+
+    // Check result
+    assertTrue(batch.isEmpty());
+    assertArrayEquals(new String[]{null, null}, batch.getColumn(0));
+  }
+
+  /**
+   * Test method for {@link ColumnBatch#encode(List, int[][])}
+   * <p/>
+   * Equal values should get equal codes per column, also across batches.
+   */
+  @Test
+  public void testEncode() {
+    // Setup
+    ColumnBatch batch = new ColumnBatch(2, 3);
+    batch.addRow(Arrays.asList("x", "1"));
+    batch.addRow(Arrays.asList("y", null));
+    batch.addRow(Arrays.asList("x", "1"));
+    List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    dictionaries.add(new HashMap<String, Integer>());
+    dictionaries.add(new HashMap<String, Integer>());
+
+    // Execute functionality
+    int[][] codes = batch.encode(dictionaries, null);
+
+    // Check result
+    assertArrayEquals(new int[]{0, 1, 0}, codes[0]);
+    assertArrayEquals(new int[]{0, 1, 0}, codes[1]);
+
+    // Execute functionality
+    batch.clear();
+    batch.addRow(Arrays.asList("z", null));
+    int[][] reusedCodes = batch.encode(dictionaries, codes);
+
+    // Check result
+    assertTrue(codes == reusedCodes);
+    assertEquals(2, codes[0][0]);
+    assertEquals(1, codes[1][0]);
+    assertEquals(3, dictionaries.get(0).size());
+  }
+
+}
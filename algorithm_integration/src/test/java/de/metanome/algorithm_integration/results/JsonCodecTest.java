@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.algorithm_integration.results;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests for {@link JsonCodec}
+ */
+public class JsonCodecTest {
+
+  /**
+   * Test method for {@link JsonCodec#getReader(Class)} and {@link JsonCodec#getWriter(Class)}
+   * <p/>
+   * Readers and writers should be built once per class.
+   */
+  @Test
+  public void testReadersAndWritersAreCached() {
+    // Setup
+    JsonCodec codec = new JsonCodec();
+
+    // Execute functionality
+    // Check result
+    assertSame(codec.getReader(FunctionalDependency.class),
+      codec.getReader(FunctionalDependency.class));
+    assertSame(codec.getWriter(FunctionalDependency.class),
+      codec.getWriter(FunctionalDependency.class));
+    assertSame(JsonCodec.getDefault(), JsonCodec.getDefault());
+  }
+
+  /**
+   * Test method for {@link JsonCodec#toJsonString(Object)} and {@link
+   * JsonCodec#fromJsonString(String, Class)}
+   * <p/>
+   * The json string should equal the one of the {@link JsonConverter}.
+   */
+  @Test
+  public void testToAndFromJsonString() throws IOException {
+    // Setup
+    FunctionalDependency expectedFd = new FunctionalDependency(
+      new ColumnCombination(new ColumnIdentifier("table1", "column1")),
+      new ColumnIdentifier("table1", "column7"));
+
+    // Expected values
+    String expectedJson = new JsonConverter<FunctionalDependency>().toJsonString(expectedFd);
+
+    // Execute functionality
+    String actualJson = JsonCodec.getDefault().toJsonString(expectedFd);
+
+    // Check result
+    assertEquals(expectedJson, actualJson);
+    assertEquals(expectedFd,
+      JsonCodec.getDefault().fromJsonString(actualJson, FunctionalDependency.class));
+  }
+
+  /**
+   * Test method for {@link JsonCodec#writeJsonLines(java.io.Writer, Iterable)} and {@link
+   * JsonCodec#readJsonLines(java.io.Reader, Class)}
+   * <p/>
+   * All written objects should be read one by one in the same order.
+   */
+  @Test
+  public void testWriteAndReadJsonLines() throws IOException {
+    // Setup
+    List<UniqueColumnCombination> expectedUccs = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      expectedUccs.add(new UniqueColumnCombination(new ColumnIdentifier("table1", "column" + i),
+        new ColumnIdentifier("table2", "column" + i)));
+    }
+    StringWriter writer = new StringWriter();
+
+    // Execute functionality
+    JsonCodec.getDefault().writeJsonLines(writer, expectedUccs);
+
+    // Check result
+    String[] lines = writer.toString().split("\n");
+    assertEquals(expectedUccs.size(), lines.length);
+
+    // Execute functionality
+    List<UniqueColumnCombination> actualUccs = new ArrayList<>();
+    MappingIterator<UniqueColumnCombination> iterator = JsonCodec.getDefault()
+      .readJsonLines(new StringReader(writer.toString()), UniqueColumnCombination.class);
+    while (iterator.hasNextValue()) {
+      actualUccs.add(iterator.nextValue());
+    }
+    iterator.close();
+
+    // Check result
+    assertEquals(expectedUccs, actualUccs);
+    assertFalse(iterator.hasNext());
+  }
+
+}
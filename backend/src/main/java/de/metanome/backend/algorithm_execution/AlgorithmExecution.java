@@ -25,6 +25,8 @@ import de.metanome.backend.algorithm_loading.InputDataFinder;
 import de.metanome.backend.helper.*;
 import de.metanome.backend.input.file.DefaultFileInputGenerator;
 import de.metanome.backend.resources.AlgorithmResource;
+import de.metanome.backend.result_receiver.AsyncResultPrinter;
+import de.metanome.backend.result_receiver.BinaryResultPrinter;
 import de.metanome.backend.result_receiver.ResultCache;
 import de.metanome.backend.result_receiver.ResultCounter;
 import de.metanome.backend.result_receiver.ResultPrinter;
@@ -128,6 +130,10 @@ public class AlgorithmExecution {
       resultReceiver = new ResultCache(identifier, acceptedColumns);
     } else if (executionSetting.getCountResults()) {
       resultReceiver = new ResultCounter(identifier);
+    } else if (Boolean.TRUE.equals(executionSetting.getWriteBinaryResults())) {
+      resultReceiver = new BinaryResultPrinter(identifier, acceptedColumns);
+    } else if (Boolean.TRUE.equals(executionSetting.getWriteResultsAsynchronously())) {
+      resultReceiver = new AsyncResultPrinter(identifier, acceptedColumns);
     } else {
       resultReceiver = new ResultPrinter(identifier, acceptedColumns);
     }
@@ -196,38 +202,63 @@ public class AlgorithmExecution {
     Long algorithmId = Long.valueOf(args[0]);
     String executionIdentifier = args[1];
 
-    // Get the algorithm object
-    AlgorithmResource algorithmResource = new AlgorithmResource();
-    de.metanome.backend.results_db.Algorithm algorithm = algorithmResource.get(algorithmId);
+    try {
+      executeAlgorithm(algorithmId, executionIdentifier);
+    } catch (Exception e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+    System.exit(0);
+  }
+
+  /**
+   * Loads the algorithm and the execution setting from the database and executes the algorithm
+   * with the setting in the current process.
+   *
+   * @param algorithmId         the id of the algorithm
+   * @param executionIdentifier the identifier of the stored execution setting
+   * @throws Exception if the algorithm could not be executed
+   */
+  public static void executeAlgorithm(Long algorithmId, String executionIdentifier)
+    throws Exception {
+    // Report the progress to the backend through the progress file
+    ExecutionProgressReporter progressReporter = new ExecutionProgressReporter(executionIdentifier);
+    progressReporter.start(ExecutionProgressReporter.DEFAULT_REPORT_INTERVAL);
+    try {
+      // Get the algorithm object
+      AlgorithmResource algorithmResource = new AlgorithmResource();
+      de.metanome.backend.results_db.Algorithm algorithm = algorithmResource.get(algorithmId);
 
-    // Get the execution setting from hibernate
-    Session session = HibernateUtil.getSessionFactory().openSession();
-    Criteria cr2 = session.createCriteria(ExecutionSetting.class);
-    cr2.add(Restrictions.eq("executionIdentifier", executionIdentifier));
-    ExecutionSetting executionSetting = (ExecutionSetting) cr2.list().get(0);
+      // Get the execution setting from hibernate
+      Session session = HibernateUtil.getSessionFactory().openSession();
+      Criteria cr2 = session.createCriteria(ExecutionSetting.class);
+      cr2.add(Restrictions.eq("executionIdentifier", executionIdentifier));
+      ExecutionSetting executionSetting = (ExecutionSetting) cr2.list().get(0);
 
-    // Parse the parameters
-    List<ConfigurationValue> parameters = parseConfigurationValues(executionSetting.getParameterValuesJson());
-    List<Input> inputs = parseInputs(executionSetting.getInputsJson());
+      // Parse the parameters
+      List<ConfigurationValue> parameters = parseConfigurationValues(executionSetting.getParameterValuesJson());
+      List<Input> inputs = parseInputs(executionSetting.getInputsJson());
 
-    session.close();
+      session.close();
 
-    try {
       // Extract column names from the inputs
       List<ColumnIdentifier> columnNames = extractColumnNames(inputs);
 
       // Get the algorithm executor
       AlgorithmExecutor executor = buildExecutor(executionSetting, columnNames);
+      executor.setProgressReporter(progressReporter);
       executor
         .executeAlgorithm(algorithm, parameters, inputs, executionIdentifier,
           executionSetting);
 
       executor.close();
+      progressReporter.setPhase(ExecutionProgress.Phase.FINISHED);
     } catch (Exception e) {
-      e.printStackTrace();
-      System.exit(1);
+      progressReporter.failed(e);
+      throw e;
+    } finally {
+      progressReporter.close();
     }
-    System.exit(0);
   }
 
 
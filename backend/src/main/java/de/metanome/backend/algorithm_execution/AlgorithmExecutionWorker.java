@@ -0,0 +1,71 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.backend.results_db.HibernateUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+
+/**
+ * Main class of a pooled executor process. Unlike {@link AlgorithmExecution}, which executes a
+ * single algorithm and exits, the worker initializes the database connection once and then
+ * executes one algorithm after another.
+ * <p/>
+ * The executions are received on the standard input, one per line, as the algorithm id followed
+ * by a space and the execution identifier. After each execution a line starting with
+ * {@link #EXECUTION_FINISHED} followed by the exit status is written to the standard output. The
+ * worker exits, once the standard input is closed.
+ */
+public class AlgorithmExecutionWorker {
+
+  public static final String EXECUTION_FINISHED = "#metanome-execution-finished ";
+  public static final String EXECUTION_SEPARATOR = " ";
+
+  /**
+   * @param args the program parameters, which are not used
+   */
+  public static void main(String args[]) {
+    // Warm up, while the worker is idle
+    HibernateUtil.getSessionFactory();
+
+    BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+    try {
+      String line;
+      while ((line = input.readLine()) != null) {
+        String[] execution = line.split(EXECUTION_SEPARATOR, 2);
+
+        int status = 0;
+        try {
+          AlgorithmExecution.executeAlgorithm(Long.valueOf(execution[0]), execution[1]);
+        } catch (Exception e) {
+          e.printStackTrace();
+          status = 1;
+        }
+
+        System.err.flush();
+        System.out.println(EXECUTION_FINISHED + status);
+        System.out.flush();
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+    System.exit(0);
+  }
+
+}
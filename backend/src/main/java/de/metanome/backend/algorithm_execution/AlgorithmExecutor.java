@@ -22,6 +22,7 @@ import de.metanome.algorithm_integration.algorithm_types.*;
 import de.metanome.algorithm_integration.configuration.ConfigurationValue;
 import de.metanome.backend.algorithm_loading.AlgorithmAnalyzer;
 import de.metanome.backend.result_receiver.CloseableOmniscientResultReceiver;
+import de.metanome.backend.result_receiver.CountingResultReceiver;
 import de.metanome.backend.results_db.*;
 
 import java.io.Closeable;
@@ -37,8 +38,11 @@ import java.util.Set;
 public class AlgorithmExecutor implements Closeable {
 
   protected CloseableOmniscientResultReceiver resultReceiver;
+  // Counts and times the results on their way to the result receiver
+  protected CountingResultReceiver countingResultReceiver;
   protected FileGenerator fileGenerator;
   protected String resultPathPrefix;
+  protected ExecutionProgressReporter progressReporter = null;
 
   /**
    * Constructs a new executor with new result receivers and generators.
@@ -49,6 +53,7 @@ public class AlgorithmExecutor implements Closeable {
   public AlgorithmExecutor(CloseableOmniscientResultReceiver resultReceiver,
                            FileGenerator fileGenerator) {
     this.resultReceiver = resultReceiver;
+    this.countingResultReceiver = new CountingResultReceiver(resultReceiver);
     this.fileGenerator = fileGenerator;
   }
 
@@ -56,7 +61,7 @@ public class AlgorithmExecutor implements Closeable {
   /**
    * Executes an algorithm. The algorithm is loaded from the jar, configured and all receivers and
    * generators are set before execution. The execution containing the elapsed time while executing
-   * the algorithm in nano seconds is returned.
+   * the algorithm in nano seconds and the measured {@link ExecutionMetrics} is returned.
    *
    * @param storedAlgorithm     the algorithm
    * @param parameters          parameters for algorithm execution
@@ -76,7 +81,11 @@ public class AlgorithmExecutor implements Closeable {
     ExecutionSetting executionSetting)
     throws Exception {
 
-    AlgorithmAnalyzer analyzer = new AlgorithmAnalyzer(storedAlgorithm.getFileName());
+    ExecutionMetricsCollector metricsCollector = new ExecutionMetricsCollector();
+
+    // A new class loader keeps static state of the algorithm from leaking between executions of a
+    // pooled worker
+    AlgorithmAnalyzer analyzer = new AlgorithmAnalyzer(storedAlgorithm.getFileName(), true);
     Algorithm algorithm = analyzer.getAlgorithm();
 
     Set<Result> results = new HashSet<>();
@@ -87,14 +96,14 @@ public class AlgorithmExecutor implements Closeable {
 
     if (analyzer.hasType(AlgorithmType.FD)) {
       FunctionalDependencyAlgorithm fdAlgorithm = (FunctionalDependencyAlgorithm) algorithm;
-      fdAlgorithm.setResultReceiver(resultReceiver);
+      fdAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.FD));
     }
 
     if (analyzer.hasType(AlgorithmType.IND)) {
       InclusionDependencyAlgorithm indAlgorithm = (InclusionDependencyAlgorithm) algorithm;
-      indAlgorithm.setResultReceiver(resultReceiver);
+      indAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.IND));
     }
@@ -103,7 +112,7 @@ public class AlgorithmExecutor implements Closeable {
       UniqueColumnCombinationsAlgorithm
         uccAlgorithm =
         (UniqueColumnCombinationsAlgorithm) algorithm;
-      uccAlgorithm.setResultReceiver(resultReceiver);
+      uccAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.UCC));
     }
@@ -112,28 +121,28 @@ public class AlgorithmExecutor implements Closeable {
       ConditionalUniqueColumnCombinationAlgorithm
         cuccAlgorithm =
         (ConditionalUniqueColumnCombinationAlgorithm) algorithm;
-      cuccAlgorithm.setResultReceiver(resultReceiver);
+      cuccAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.CUCC));
     }
 
     if (analyzer.hasType(AlgorithmType.OD)) {
       OrderDependencyAlgorithm odAlgorithm = (OrderDependencyAlgorithm) algorithm;
-      odAlgorithm.setResultReceiver(resultReceiver);
+      odAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.OD));
     }
     
     if (analyzer.hasType(AlgorithmType.MVD)) {
       MultivaluedDependencyAlgorithm mvdAlgorithm = (MultivaluedDependencyAlgorithm) algorithm;
-      mvdAlgorithm.setResultReceiver(resultReceiver);
+      mvdAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.MVD));
       }
 
     if (analyzer.hasType(AlgorithmType.BASIC_STAT)) {
       BasicStatisticsAlgorithm basicStatAlgorithm = (BasicStatisticsAlgorithm) algorithm;
-      basicStatAlgorithm.setResultReceiver(resultReceiver);
+      basicStatAlgorithm.setResultReceiver(countingResultReceiver);
 
       results.add(new Result(resultPathPrefix, ResultType.STAT));
     }
@@ -154,14 +163,21 @@ public class AlgorithmExecutor implements Closeable {
     execution.setExecutionSetting(executionSetting);
     HibernateUtil.store(execution);
 
+    if (progressReporter != null) {
+      progressReporter.setPhase(ExecutionProgress.Phase.EXECUTING);
+    }
+
+    metricsCollector.algorithmStarted();
     try {
       algorithm.execute();
     } catch (Throwable e) {
       // Update DB entry when execution of Algorithm throws an exception
+      metricsCollector.algorithmFinished();
 
       execution = execution
               .setRunning(false)
-              .setAborted(true);
+              .setAborted(true)
+              .setExecutionMetrics(metricsCollector.collect(countingResultReceiver));
 
       for (Result result : results) {
         result.setExecution(execution);
@@ -173,6 +189,7 @@ public class AlgorithmExecutor implements Closeable {
       throw new AlgorithmExecutionException("Algorithm execution failed.", e);
     }
     long after = System.nanoTime(); // nanoseconds
+    metricsCollector.algorithmFinished();
     long executionTimeInNanos = after - before;
     long executionTimeInMs = executionTimeInNanos / 1000000; // milliseconds
 
@@ -180,7 +197,8 @@ public class AlgorithmExecutor implements Closeable {
       .setRunning(false)
       .setEnd(beforeWallClockTime + executionTimeInMs)
       .setResults(results)
-      .setCountResult(executionSetting.getCountResults());
+      .setCountResult(executionSetting.getCountResults())
+      .setExecutionMetrics(metricsCollector.collect(countingResultReceiver));
 
     for (Result result : results) {
       result.setExecution(execution);
@@ -197,6 +215,17 @@ public class AlgorithmExecutor implements Closeable {
     this.resultPathPrefix = prefix;
   }
 
+  /**
+   * Reports the progress of the executed algorithm including the number of results received so
+   * far.
+   *
+   * @param progressReporter the reporter of the execution
+   */
+  public void setProgressReporter(ExecutionProgressReporter progressReporter) {
+    this.progressReporter = progressReporter;
+    progressReporter.setResultReceiver(countingResultReceiver);
+  }
+
   @Override
   public void close() throws IOException {
     resultReceiver.close();
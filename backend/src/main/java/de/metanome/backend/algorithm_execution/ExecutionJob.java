@@ -0,0 +1,200 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * An algorithm execution scheduled by the {@link ExecutionScheduler}. The job is a future of the
+ * result of its task, so that the submitter can wait for it or poll its state.
+ *
+ * @param <V> the type of the result of the task
+ */
+@JsonIgnoreProperties({"done", "cancelled", "cancelRequested"})
+public class ExecutionJob<V> extends FutureTask<V> {
+
+  public enum State {
+    QUEUED, RUNNING, FINISHED, FAILED, CANCELED
+  }
+
+  protected String identifier;
+  protected int priority;
+  protected long memory;
+  // Either QUEUED or RUNNING, the state of a finished job is given by the future
+  protected volatile State state = State.QUEUED;
+  // Order of submission, used to break ties between equal priorities
+  protected long sequence;
+  protected long submitted;
+  protected long started;
+  protected long finished;
+  protected volatile ExecutionProgress progress;
+  // Set, if the running job should be stopped, also before its process is registered
+  protected volatile boolean cancelRequested = false;
+  protected final List<ExecutionProgressListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param identifier the execution identifier
+   * @param priority   jobs with a higher priority are started first
+   * @param memory     the memory the execution needs in MB
+   * @param task       the task executing the algorithm
+   */
+  public ExecutionJob(String identifier, int priority, long memory, Callable<V> task) {
+    super(task);
+    this.identifier = identifier;
+    this.priority = priority;
+    this.memory = memory;
+    this.progress = new ExecutionProgress(identifier);
+  }
+
+  protected void queued(long sequence) {
+    this.sequence = sequence;
+    this.submitted = System.currentTimeMillis();
+  }
+
+  protected void starting() {
+    this.started = System.currentTimeMillis();
+    this.state = State.RUNNING;
+  }
+
+  @Override
+  protected void done() {
+    this.finished = System.currentTimeMillis();
+    ExecutionProgress.Phase phase = this.getState() == State.FINISHED ?
+      ExecutionProgress.Phase.FINISHED : ExecutionProgress.Phase.FAILED;
+    if (this.progress.getPhase() != phase) {
+      this.setPhase(phase);
+    }
+    for (ExecutionProgressListener listener : this.listeners) {
+      // The listener may have been notified by addProgressListener already
+      if (this.listeners.remove(listener)) {
+        listener.jobFinished(this);
+      }
+    }
+  }
+
+  /**
+   * Publishes a new progress of the execution to all listeners.
+   *
+   * @param progress the progress
+   */
+  public void setProgress(ExecutionProgress progress) {
+    this.progress = progress;
+    for (ExecutionProgressListener listener : this.listeners) {
+      listener.progressChanged(this, progress);
+    }
+  }
+
+  /**
+   * Publishes the current progress in the given phase.
+   *
+   * @param phase the new phase of the execution
+   */
+  public void setPhase(ExecutionProgress.Phase phase) {
+    this.setProgress(this.progress.copy().setPhase(phase));
+  }
+
+  /**
+   * Adds the listener and notifies it about the current progress. If the job is already done, the
+   * listener is notified about its end right away.
+   *
+   * @param listener the listener
+   */
+  public void addProgressListener(ExecutionProgressListener listener) {
+    this.listeners.add(listener);
+    listener.progressChanged(this, this.progress);
+    if (this.isDone() && this.listeners.remove(listener)) {
+      listener.jobFinished(this);
+    }
+  }
+
+  public void removeProgressListener(ExecutionProgressListener listener) {
+    this.listeners.remove(listener);
+  }
+
+  public String getIdentifier() {
+    return identifier;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  public long getMemory() {
+    return memory;
+  }
+
+  public State getState() {
+    // Waiters of the future are woken up before done() is called, so the final state is derived
+    // from the future itself
+    if (!this.isDone()) {
+      return state;
+    }
+    if (this.isCancelled()) {
+      return State.CANCELED;
+    }
+    try {
+      this.get();
+      return State.FINISHED;
+    } catch (ExecutionException | InterruptedException e) {
+      return State.FAILED;
+    }
+  }
+
+  public long getSubmitted() {
+    return submitted;
+  }
+
+  public long getStarted() {
+    return started;
+  }
+
+  public long getFinished() {
+    return finished;
+  }
+
+  public ExecutionProgress getProgress() {
+    return progress;
+  }
+
+  /**
+   * Requests to stop the running job. The executing task kills its process, as soon as it
+   * registered the process.
+   */
+  public void requestCancel() {
+    this.cancelRequested = true;
+  }
+
+  /**
+   * @return true, if the running job should be stopped
+   */
+  public boolean isCancelRequested() {
+    return this.cancelRequested;
+  }
+
+  /**
+   * @return true, if the job was not started yet
+   */
+  public boolean isQueued() {
+    return this.getState() == State.QUEUED;
+  }
+
+}
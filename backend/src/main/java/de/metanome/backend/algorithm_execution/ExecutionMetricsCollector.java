@@ -0,0 +1,158 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.backend.result_receiver.CountingResultReceiver;
+import de.metanome.backend.results_db.ExecutionMetrics;
+import de.metanome.backend.results_db.ResultType;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the performance of an algorithm execution in the executor process with the management
+ * beans of the jvm. The collector is created, when the execution starts loading the algorithm,
+ * and the measurements are relative to that point in time, so that previous executions of a
+ * pooled worker are not included.
+ */
+public class ExecutionMetricsCollector {
+
+  protected static final long NANOS_PER_MILLI = 1000000;
+
+  protected long loadStart;
+  protected long algorithmStart = -1;
+  protected long algorithmEnd = -1;
+  protected long cpuTimeStart;
+  protected long gcTimeStart;
+  protected long gcCountStart;
+
+  /**
+   * Starts measuring and resets the peaks of the heap and the thread count.
+   */
+  public ExecutionMetricsCollector() {
+    this.loadStart = System.nanoTime();
+    this.cpuTimeStart = getProcessCpuTime();
+    this.gcTimeStart = getGcTime();
+    this.gcCountStart = getGcCount();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        pool.resetPeakUsage();
+      }
+    }
+    ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+  }
+
+  /**
+   * Marks the end of loading and the start of the algorithm.
+   */
+  public void algorithmStarted() {
+    this.algorithmStart = System.nanoTime();
+  }
+
+  /**
+   * Marks the end of the algorithm, whether it succeeded or not.
+   */
+  public void algorithmFinished() {
+    this.algorithmEnd = System.nanoTime();
+  }
+
+  /**
+   * @param resultReceiver the receiver, which counted the results of the algorithm, or null
+   * @return the metrics measured since the collector was created
+   */
+  public ExecutionMetrics collect(CountingResultReceiver resultReceiver) {
+    long now = System.nanoTime();
+    long algorithmStart = this.algorithmStart < 0 ? now : this.algorithmStart;
+    long algorithmEnd = this.algorithmEnd < 0 ? now : this.algorithmEnd;
+
+    ExecutionMetrics metrics = new ExecutionMetrics()
+      .setLoadTime((algorithmStart - this.loadStart) / NANOS_PER_MILLI)
+      .setAlgorithmTime((algorithmEnd - algorithmStart) / NANOS_PER_MILLI)
+      .setGcTime(getGcTime() - this.gcTimeStart)
+      .setGcCount(getGcCount() - this.gcCountStart)
+      .setPeakHeap(getPeakHeap())
+      .setPeakThreadCount(ManagementFactory.getThreadMXBean().getPeakThreadCount());
+
+    long cpuTime = getProcessCpuTime();
+    if (cpuTime >= 0 && this.cpuTimeStart >= 0) {
+      metrics.setCpuTime((cpuTime - this.cpuTimeStart) / NANOS_PER_MILLI);
+    }
+
+    if (resultReceiver != null) {
+      metrics.setResultEmitTime(resultReceiver.getReceiveTime() / NANOS_PER_MILLI);
+      Map<String, Long> resultCounts = new HashMap<>();
+      for (Map.Entry<ResultType, Long> count : resultReceiver.getReceivedResultCounts()
+        .entrySet()) {
+        resultCounts.put(count.getKey().getName(), count.getValue());
+      }
+      metrics.setResultCounts(resultCounts);
+    }
+    return metrics;
+  }
+
+  /**
+   * @return the cpu time of the process in nanoseconds or a negative value, if it is unknown
+   */
+  protected static long getProcessCpuTime() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    // Fall back to the threads, which are alive at the time of the measurement
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!threads.isThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled()) {
+      return ExecutionMetrics.UNKNOWN;
+    }
+    long cpuTime = 0;
+    for (long threadId : threads.getAllThreadIds()) {
+      cpuTime += Math.max(0, threads.getThreadCpuTime(threadId));
+    }
+    return cpuTime;
+  }
+
+  protected static long getGcTime() {
+    long gcTime = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcTime += Math.max(0, collector.getCollectionTime());
+    }
+    return gcTime;
+  }
+
+  protected static long getGcCount() {
+    long gcCount = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      gcCount += Math.max(0, collector.getCollectionCount());
+    }
+    return gcCount;
+  }
+
+  protected static long getPeakHeap() {
+    long peakHeap = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        peakHeap += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peakHeap;
+  }
+
+}
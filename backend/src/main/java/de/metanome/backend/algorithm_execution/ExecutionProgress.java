@@ -0,0 +1,144 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.backend.results_db.ResultType;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Snapshot of the progress of an algorithm execution. The executor process reports it through
+ * the {@link ExecutionProgressReporter}, the backend reads it with the {@link
+ * ExecutionProgressMonitor}.
+ */
+public class ExecutionProgress implements Serializable {
+
+  private static final long serialVersionUID = 2519087616455215432L;
+
+  public enum Phase {
+    QUEUED, LOADING, EXECUTING, POST_PROCESSING, FINISHED, FAILED
+  }
+
+  protected String executionIdentifier;
+  protected Phase phase = Phase.QUEUED;
+  protected long rowsRead = 0;
+  protected Map<ResultType, Long> resultCounts = new EnumMap<>(ResultType.class);
+  // Heap of the executor process in bytes
+  protected long heapUsed = 0;
+  protected long heapMax = 0;
+  protected long timestamp;
+  protected String error;
+
+  /**
+   * Exists for json serialization
+   */
+  protected ExecutionProgress() {
+  }
+
+  public ExecutionProgress(String executionIdentifier) {
+    this.executionIdentifier = executionIdentifier;
+    this.timestamp = System.currentTimeMillis();
+  }
+
+  /**
+   * @return a copy of this progress, which can be changed independently
+   */
+  public ExecutionProgress copy() {
+    ExecutionProgress copy = new ExecutionProgress(this.executionIdentifier)
+      .setPhase(this.phase)
+      .setRowsRead(this.rowsRead)
+      .setHeapUsed(this.heapUsed)
+      .setHeapMax(this.heapMax)
+      .setError(this.error);
+    copy.resultCounts.putAll(this.resultCounts);
+    return copy;
+  }
+
+  public String getExecutionIdentifier() {
+    return executionIdentifier;
+  }
+
+  public ExecutionProgress setExecutionIdentifier(String executionIdentifier) {
+    this.executionIdentifier = executionIdentifier;
+    return this;
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  public ExecutionProgress setPhase(Phase phase) {
+    this.phase = phase;
+    return this;
+  }
+
+  public long getRowsRead() {
+    return rowsRead;
+  }
+
+  public ExecutionProgress setRowsRead(long rowsRead) {
+    this.rowsRead = rowsRead;
+    return this;
+  }
+
+  public Map<ResultType, Long> getResultCounts() {
+    return resultCounts;
+  }
+
+  public ExecutionProgress setResultCounts(Map<ResultType, Long> resultCounts) {
+    this.resultCounts = resultCounts;
+    return this;
+  }
+
+  public long getHeapUsed() {
+    return heapUsed;
+  }
+
+  public ExecutionProgress setHeapUsed(long heapUsed) {
+    this.heapUsed = heapUsed;
+    return this;
+  }
+
+  public long getHeapMax() {
+    return heapMax;
+  }
+
+  public ExecutionProgress setHeapMax(long heapMax) {
+    this.heapMax = heapMax;
+    return this;
+  }
+
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public ExecutionProgress setTimestamp(long timestamp) {
+    this.timestamp = timestamp;
+    return this;
+  }
+
+  public String getError() {
+    return error;
+  }
+
+  public ExecutionProgress setError(String error) {
+    this.error = error;
+    return this;
+  }
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+/**
+ * Is notified about the progress of an {@link ExecutionJob}.
+ */
+public interface ExecutionProgressListener {
+
+  /**
+   * Called whenever a new progress of the job was reported.
+   *
+   * @param job      the job
+   * @param progress the new progress
+   */
+  void progressChanged(ExecutionJob<?> job, ExecutionProgress progress);
+
+  /**
+   * Called once, after the job finished, failed or was canceled. The listener is removed from the
+   * job afterwards.
+   *
+   * @param job the job
+   */
+  void jobFinished(ExecutionJob<?> job);
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.algorithm_integration.results.JsonConverter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the progress file written by the {@link ExecutionProgressReporter} of an executor
+ * process and publishes every new progress to the {@link ExecutionJob} of the execution.
+ */
+public class ExecutionProgressMonitor implements Closeable {
+
+  public static final long DEFAULT_POLL_INTERVAL = 500;
+
+  protected ExecutionJob<?> job;
+  protected File progressFile;
+  protected String lastJson = null;
+  protected JsonConverter<ExecutionProgress> jsonConverter = new JsonConverter<>();
+  protected ScheduledExecutorService scheduler = null;
+
+  /**
+   * @param job the job of the running execution
+   */
+  public ExecutionProgressMonitor(ExecutionJob<?> job) {
+    this(job, ExecutionProgressReporter.getProgressFile(job.getIdentifier()));
+  }
+
+  protected ExecutionProgressMonitor(ExecutionJob<?> job, File progressFile) {
+    this.job = job;
+    this.progressFile = progressFile;
+    // A progress file of an earlier execution with the same identifier is outdated
+    this.progressFile.delete();
+  }
+
+  /**
+   * Starts following the progress file.
+   *
+   * @param pollInterval the interval between two reads of the progress file in milliseconds
+   */
+  public synchronized void start(long pollInterval) {
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "execution-progress-monitor");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        poll();
+      }
+    }, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Reads the progress file and publishes the progress, if it changed since the last read.
+   *
+   * @return the progress read or null, if there was no new progress
+   */
+  public synchronized ExecutionProgress poll() {
+    if (!this.progressFile.exists()) {
+      return null;
+    }
+    try {
+      String json = new String(Files.readAllBytes(this.progressFile.toPath()),
+        StandardCharsets.UTF_8);
+      if (json.equals(this.lastJson)) {
+        return null;
+      }
+      ExecutionProgress progress = this.jsonConverter.fromJsonString(json,
+        ExecutionProgress.class);
+      this.lastJson = json;
+      this.job.setProgress(progress);
+      return progress;
+    } catch (IOException e) {
+      // The file is replaced atomically, so it is only missing, if the execution ended meanwhile
+      return null;
+    }
+  }
+
+  /**
+   * Stops following the progress file, publishes the final progress and deletes the file.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.scheduler != null) {
+      this.scheduler.shutdownNow();
+      this.scheduler = null;
+    }
+    this.poll();
+    this.progressFile.delete();
+  }
+
+}
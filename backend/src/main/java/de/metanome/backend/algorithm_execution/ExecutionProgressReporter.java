@@ -0,0 +1,181 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.algorithm_integration.results.JsonConverter;
+import de.metanome.backend.input.InputProgress;
+import de.metanome.backend.result_receiver.CountingResultReceiver;
+import de.metanome.backend.result_receiver.ResultReceiver;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports the progress of the execution running in the executor process to the backend. The
+ * progress is written as json to a progress file next to the result files, which replaces the
+ * previous progress atomically. The backend follows the file with the {@link
+ * ExecutionProgressMonitor}.
+ */
+public class ExecutionProgressReporter implements Closeable {
+
+  public static final long DEFAULT_REPORT_INTERVAL = 1000;
+  public static final String PROGRESS_FILE_ENDING = "_progress.json";
+
+  protected String executionIdentifier;
+  protected File progressFile;
+  protected volatile ExecutionProgress.Phase phase = ExecutionProgress.Phase.LOADING;
+  protected volatile String error = null;
+  protected volatile CountingResultReceiver resultReceiver = null;
+  protected JsonConverter<ExecutionProgress> jsonConverter = new JsonConverter<>();
+  protected ScheduledExecutorService scheduler = null;
+
+  /**
+   * @param executionIdentifier the identifier of the running execution
+   */
+  public ExecutionProgressReporter(String executionIdentifier) {
+    this(executionIdentifier, getProgressFile(executionIdentifier));
+  }
+
+  protected ExecutionProgressReporter(String executionIdentifier, File progressFile) {
+    this.executionIdentifier = executionIdentifier;
+    this.progressFile = progressFile;
+    // The inputs of previous executions in the same process must not be counted
+    InputProgress.reset();
+  }
+
+  /**
+   * @param executionIdentifier the execution identifier
+   * @return the file, to which the progress of the execution is reported
+   */
+  public static File getProgressFile(String executionIdentifier) {
+    return new File(ResultReceiver.RESULT_DIR, executionIdentifier + PROGRESS_FILE_ENDING);
+  }
+
+  /**
+   * Reports the progress periodically.
+   *
+   * @param reportInterval the interval between two reports in milliseconds
+   */
+  public synchronized void start(long reportInterval) {
+    this.report();
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "execution-progress-reporter");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        report();
+      }
+    }, reportInterval, reportInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Changes the phase of the execution and reports it immediately.
+   *
+   * @param phase the new phase
+   */
+  public void setPhase(ExecutionProgress.Phase phase) {
+    this.phase = phase;
+    this.report();
+  }
+
+  /**
+   * Reports the execution as failed with the message of the root cause of the given exception.
+   *
+   * @param exception the exception, which stopped the execution
+   */
+  public void failed(Throwable exception) {
+    Throwable cause = exception;
+    while (cause.getCause() != null && cause.getCause() != cause) {
+      cause = cause.getCause();
+    }
+    this.error = cause.toString();
+    this.setPhase(ExecutionProgress.Phase.FAILED);
+  }
+
+  /**
+   * @param resultReceiver the receiver counting the results of the algorithm
+   */
+  public void setResultReceiver(CountingResultReceiver resultReceiver) {
+    this.resultReceiver = resultReceiver;
+  }
+
+  /**
+   * @return the current progress of the execution in this process
+   */
+  public ExecutionProgress getProgress() {
+    MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    ExecutionProgress progress = new ExecutionProgress(this.executionIdentifier)
+      .setPhase(this.phase)
+      .setRowsRead(InputProgress.getRowsRead())
+      .setHeapUsed(heap.getUsed())
+      .setHeapMax(heap.getMax())
+      .setError(this.error);
+    if (this.resultReceiver != null) {
+      progress.setResultCounts(this.resultReceiver.getReceivedResultCounts());
+    }
+    return progress;
+  }
+
+  /**
+   * Writes the current progress to the progress file. A failed report is skipped, the next one
+   * carries the newer progress anyway.
+   */
+  public synchronized void report() {
+    try {
+      File directory = this.progressFile.getAbsoluteFile().getParentFile();
+      if (!directory.exists()) {
+        directory.mkdirs();
+      }
+      File tempFile = new File(directory, this.progressFile.getName() + ".tmp");
+      byte[] json = this.jsonConverter.toJsonString(this.getProgress())
+        .getBytes(StandardCharsets.UTF_8);
+      Files.write(tempFile.toPath(), json);
+      Files.move(tempFile.toPath(), this.progressFile.toPath(),
+        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * Stops the periodic reports and reports the final progress.
+   */
+  @Override
+  public synchronized void close() {
+    if (this.scheduler != null) {
+      this.scheduler.shutdownNow();
+      this.scheduler = null;
+    }
+    this.report();
+  }
+
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queues algorithm executions and starts them, once there is capacity for them. At most
+ * {@link #getMaxConcurrentExecutions()} executions run at the same time and their requested
+ * memory must fit into {@link #getMemoryBudget()}. Queued jobs are started by priority and in the
+ * order of submission.
+ * <p/>
+ * The first job in the queue is never skipped for a smaller one, so that executions, which need
+ * a lot of memory, are not starved. A job, which requests more memory than the budget, is started
+ * once nothing else is running.
+ * <p/>
+ * The idle workers of the {@link ExecutorWorkerPool} count against the budget as well. They are
+ * killed, once a job does not fit into the budget besides them.
+ */
+public class ExecutionScheduler {
+
+  public static final int DEFAULT_MAX_CONCURRENT_EXECUTIONS =
+    Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  protected static final long MB = 1024 * 1024;
+
+  private static final ExecutionScheduler INSTANCE =
+    new ExecutionScheduler(DEFAULT_MAX_CONCURRENT_EXECUTIONS, getDefaultMemoryBudget());
+
+  public static ExecutionScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  protected int maxConcurrentExecutions;
+  // Memory available to the executor processes in MB
+  protected long memoryBudget;
+  protected int running = 0;
+  protected long memoryInUse = 0;
+  protected long sequence = 0;
+  protected final PriorityQueue<ExecutionJob<?>> queue =
+    new PriorityQueue<>(11, new Comparator<ExecutionJob<?>>() {
+      @Override
+      public int compare(ExecutionJob<?> job1, ExecutionJob<?> job2) {
+        if (job1.getPriority() != job2.getPriority()) {
+          return job1.getPriority() > job2.getPriority() ? -1 : 1;
+        }
+        return Long.compare(job1.sequence, job2.sequence);
+      }
+    });
+  protected final ExecutorService executor;
+  protected final ProcessRegistry registry;
+  protected final ExecutorWorkerPool workerPool;
+
+  /**
+   * @param maxConcurrentExecutions the maximal number of executions running at the same time
+   * @param memoryBudget            the memory available to all running executions in MB
+   */
+  protected ExecutionScheduler(int maxConcurrentExecutions, long memoryBudget) {
+    this(maxConcurrentExecutions, memoryBudget, ExecutorWorkerPool.getInstance());
+  }
+
+  /**
+   * @param maxConcurrentExecutions the maximal number of executions running at the same time
+   * @param memoryBudget            the memory available to all running executions in MB
+   * @param workerPool              the pool of the idle executor workers
+   */
+  protected ExecutionScheduler(int maxConcurrentExecutions, long memoryBudget,
+                               ExecutorWorkerPool workerPool) {
+    this.maxConcurrentExecutions = Math.max(1, maxConcurrentExecutions);
+    this.memoryBudget = memoryBudget;
+    this.registry = ProcessRegistry.getInstance();
+    this.workerPool = workerPool;
+    this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "algorithm-execution-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Queues the job and starts it, if there is capacity for it.
+   *
+   * @param job the job
+   * @param <V> the type of the result of the job
+   * @return the job, which can be used to wait for the result
+   * @throws IllegalStateException if a job with the same identifier is queued or running
+   */
+  public synchronized <V> ExecutionJob<V> submit(ExecutionJob<V> job) {
+    ExecutionJob<?> existing = this.registry.getJob(job.getIdentifier());
+    if (existing != null && !existing.isDone()) {
+      throw new IllegalStateException(
+        "An execution with the identifier " + job.getIdentifier() + " is already scheduled!");
+    }
+    job.queued(this.sequence++);
+    this.registry.putJob(job);
+    this.queue.add(job);
+    this.dispatch();
+    return job;
+  }
+
+  /**
+   * @param identifier the execution identifier
+   * @return the queued, running or recently finished job with the given identifier or null
+   */
+  public ExecutionJob<?> getJob(String identifier) {
+    return this.registry.getJob(identifier);
+  }
+
+  /**
+   * Removes the job from the queue, if it was not started yet, or kills the process of the
+   * running execution. A running job, whose process is not registered yet, kills its process
+   * right after the registration.
+   *
+   * @param identifier the execution identifier
+   * @return false, if there is neither a queued or running job nor a process with the given
+   * identifier
+   */
+  public synchronized boolean cancel(String identifier) {
+    ExecutionJob<?> job = this.registry.getJob(identifier);
+    if (job != null && this.queue.remove(job)) {
+      job.cancel(false);
+      this.registry.finishJob(job);
+      return true;
+    }
+    if (job != null && job.getState() == ExecutionJob.State.RUNNING) {
+      // Requested before the process is looked up, so that either the process is found here or
+      // the job sees the request after registering its process
+      job.requestCancel();
+      Process process = this.registry.get(identifier);
+      if (process != null) {
+        this.registry.remove(identifier);
+        process.destroy();
+      }
+      return true;
+    }
+    Process process = this.registry.get(identifier);
+    if (process == null) {
+      return false;
+    }
+    this.registry.remove(identifier);
+    process.destroy();
+    return true;
+  }
+
+  /**
+   * Pre-forks an idle worker with the given memory setting for the next execution in the
+   * background, if it fits into the budget besides the running executions and the other idle and
+   * starting workers.
+   *
+   * @param memory the memory of the worker in MB or an empty string for the default memory
+   * @return the refill, which may be waited for or cancelled, or null, if no worker is started
+   */
+  public synchronized Future<Boolean> refillWorkerPool(String memory) {
+    if (this.memoryInUse + this.workerPool.getIdleMemory() + parseMemory(memory)
+      > this.memoryBudget) {
+      return null;
+    }
+    return this.workerPool.refill(memory);
+  }
+
+  /**
+   * @return the number of jobs waiting to be started
+   */
+  public synchronized int getQueueLength() {
+    return this.queue.size();
+  }
+
+  /**
+   * @return the number of running jobs
+   */
+  public synchronized int getRunning() {
+    return this.running;
+  }
+
+  public synchronized int getMaxConcurrentExecutions() {
+    return this.maxConcurrentExecutions;
+  }
+
+  public synchronized void setMaxConcurrentExecutions(int maxConcurrentExecutions) {
+    this.maxConcurrentExecutions = Math.max(1, maxConcurrentExecutions);
+    this.dispatch();
+  }
+
+  public synchronized long getMemoryBudget() {
+    return this.memoryBudget;
+  }
+
+  public synchronized void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+    this.dispatch();
+  }
+
+  /**
+   * Converts the memory setting of an execution to the memory, which is reserved for it.
+   *
+   * @param memory the memory in MB or an empty string for the default memory
+   * @return the memory in MB
+   */
+  public static long parseMemory(String memory) {
+    if (memory == null || memory.trim().isEmpty()) {
+      // The default maximal heap of a JVM is a quarter of the physical memory
+      return getPhysicalMemory() / 4;
+    }
+    return Long.parseLong(memory.trim());
+  }
+
+  /**
+   * @return the physical memory of the machine without the memory of the backend in MB
+   */
+  protected static long getDefaultMemoryBudget() {
+    return Math.max(1, getPhysicalMemory() - Runtime.getRuntime().maxMemory() / MB);
+  }
+
+  protected static long getPhysicalMemory() {
+    OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize() / MB;
+    }
+    // The physical memory is unknown, assume that the backend got a quarter of it
+    return 4 * Runtime.getRuntime().maxMemory() / MB;
+  }
+
+  /**
+   * Starts the queued jobs in order, as long as there is capacity for them.
+   */
+  protected void dispatch() {
+    while (this.running < this.maxConcurrentExecutions && !this.queue.isEmpty()) {
+      ExecutionJob<?> job = this.queue.peek();
+      if (this.running > 0 && this.memoryInUse + job.getMemory() > this.memoryBudget) {
+        return;
+      }
+      if (this.memoryInUse + this.workerPool.getIdleMemory() + job.getMemory()
+        > this.memoryBudget) {
+        // The idle workers give way to the job
+        this.workerPool.shutdown();
+      }
+      this.queue.poll();
+      this.start(job);
+    }
+  }
+
+  protected void start(final ExecutionJob<?> job) {
+    this.running++;
+    this.memoryInUse += job.getMemory();
+    job.starting();
+    this.executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          job.run();
+        } finally {
+          completed(job);
+        }
+      }
+    });
+  }
+
+  protected synchronized void completed(ExecutionJob<?> job) {
+    this.running--;
+    this.memoryInUse -= job.getMemory();
+    this.registry.finishJob(job);
+    this.dispatch();
+  }
+
+}
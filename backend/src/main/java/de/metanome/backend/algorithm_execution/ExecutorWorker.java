@@ -0,0 +1,243 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handle of a pooled executor process running the {@link AlgorithmExecutionWorker}. The worker
+ * executes one algorithm at a time.
+ * <p/>
+ * The console output of the process is read continuously by a separate thread. While the worker
+ * is idle, its output is dropped, so that a full pipe never blocks the process, e.g. while it
+ * warms up.
+ */
+public class ExecutorWorker {
+
+  // Interval, in which a reader waiting for output checks the end of the process, in ms
+  protected static final long OUTPUT_POLL_INTERVAL = 100;
+
+  protected Process process;
+  protected String memory;
+  protected Writer input;
+  protected ExecutionOutputReader output;
+  protected int runs = 0;
+  // Exit status of the current execution, null while it is running
+  protected Integer exitValue = null;
+  // Output lines of the current execution, which were not read yet
+  protected final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+  protected boolean idle = false;
+  protected long idleSince = 0;
+  protected long droppedLines = 0;
+  protected volatile boolean outputEnded = false;
+
+  /**
+   * @param process the started worker process
+   * @param memory  the memory setting the process was started with
+   */
+  public ExecutorWorker(Process process, String memory) {
+    this.process = process;
+    this.memory = memory;
+    this.input = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+    this.output = new ExecutionOutputReader(process);
+    this.startOutputPump();
+  }
+
+  /**
+   * Sends the execution to the worker process.
+   *
+   * @param algorithmId         the id of the algorithm
+   * @param executionIdentifier the identifier of the stored execution setting
+   * @throws IOException if the worker process is not running anymore
+   */
+  public void execute(long algorithmId, String executionIdentifier) throws IOException {
+    this.runs++;
+    this.exitValue = null;
+    this.input.write(algorithmId + AlgorithmExecutionWorker.EXECUTION_SEPARATOR
+      + executionIdentifier + "\n");
+    this.input.flush();
+  }
+
+  /**
+   * The returned reader reaches its end, once the current execution finished.
+   *
+   * @return the console output of the current execution
+   */
+  public BufferedReader getOutput() {
+    return this.output;
+  }
+
+  /**
+   * @return the exit status of the last execution
+   * @throws IllegalThreadStateException if the execution did not finish
+   */
+  public int getExitValue() {
+    if (this.exitValue != null) {
+      return this.exitValue;
+    }
+    // The worker process exited during the execution
+    return this.process.exitValue();
+  }
+
+  /**
+   * @param maxRuns the maximal number of executions per worker
+   * @return true, if the last execution succeeded and the worker can execute another algorithm
+   */
+  public boolean isReusable(int maxRuns) {
+    return this.exitValue != null && this.exitValue == 0 && this.runs < maxRuns && this.isAlive();
+  }
+
+  public boolean isAlive() {
+    try {
+      this.process.exitValue();
+      return false;
+    } catch (IllegalThreadStateException e) {
+      return true;
+    }
+  }
+
+  public Process getProcess() {
+    return this.process;
+  }
+
+  public String getMemory() {
+    return this.memory;
+  }
+
+  public int getRuns() {
+    return this.runs;
+  }
+
+  /**
+   * Marks the worker as idle or as used by an execution. The output, which was not read yet, is
+   * dropped in both cases.
+   *
+   * @param idle true, if the worker waits for its next execution
+   */
+  public void setIdle(boolean idle) {
+    synchronized (this.lines) {
+      this.idle = idle;
+      this.idleSince = System.currentTimeMillis();
+      this.lines.clear();
+    }
+  }
+
+  /**
+   * @return the time in ms, since which the worker is idle
+   */
+  public long getIdleSince() {
+    synchronized (this.lines) {
+      return this.idleSince;
+    }
+  }
+
+  /**
+   * @return the number of output lines, which were dropped while the worker was idle
+   */
+  public long getDroppedLines() {
+    synchronized (this.lines) {
+      return this.droppedLines;
+    }
+  }
+
+  /**
+   * Kills the worker process.
+   */
+  public void destroy() {
+    this.process.destroy();
+  }
+
+  /**
+   * Starts the thread, which reads the output of the process until the process exits.
+   */
+  protected void startOutputPump() {
+    Thread pump = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          String line;
+          while ((line = output.readProcessLine()) != null) {
+            synchronized (lines) {
+              if (idle) {
+                droppedLines++;
+              } else {
+                lines.add(line);
+              }
+            }
+          }
+        } catch (IOException e) {
+          // The process was destroyed
+        } finally {
+          outputEnded = true;
+        }
+      }
+    }, "executor-worker-output");
+    pump.setDaemon(true);
+    pump.start();
+  }
+
+  /**
+   * Reads the console output of the worker process until the end of the current execution. The
+   * lines are handed over by the output pump of the worker.
+   */
+  protected class ExecutionOutputReader extends BufferedReader {
+
+    protected ExecutionOutputReader(Process process) {
+      super(new InputStreamReader(process.getInputStream()));
+    }
+
+    @Override
+    public String readLine() throws IOException {
+      while (exitValue == null) {
+        String line;
+        try {
+          line = lines.poll(OUTPUT_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          throw new InterruptedIOException();
+        }
+        if (line == null) {
+          if (outputEnded && lines.isEmpty()) {
+            return null;
+          }
+        } else if (line.startsWith(AlgorithmExecutionWorker.EXECUTION_FINISHED)) {
+          exitValue = Integer.valueOf(
+            line.substring(AlgorithmExecutionWorker.EXECUTION_FINISHED.length()).trim());
+        } else {
+          return line;
+        }
+      }
+      return null;
+    }
+
+    /**
+     * @return the next line of the process output, which is only read by the output pump
+     * @throws IOException if the output could not be read
+     */
+    protected String readProcessLine() throws IOException {
+      return super.readLine();
+    }
+  }
+
+}
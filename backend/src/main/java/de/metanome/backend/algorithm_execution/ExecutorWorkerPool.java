@@ -0,0 +1,398 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps pre-forked executor processes warm, so that short executions do not pay the start-up of
+ * a new JVM, the database connection and the JIT compilation every time.
+ * <p/>
+ * Workers are pooled by their memory setting, because the heap size of a JVM is fixed at start.
+ * Whenever a worker is acquired, a replacement is forked in the background, which warms up
+ * meanwhile, if it fits into the memory budget of the {@link ExecutionScheduler}. A worker is
+ * recycled after {@link #DEFAULT_MAX_RUNS_PER_WORKER} executions or a failed execution, so that
+ * state left behind by an algorithm does not pile up. Stopping an execution still kills its
+ * process.
+ * <p/>
+ * Idle workers are killed after {@link #DEFAULT_IDLE_TIMEOUT} ms and at most
+ * {@link #DEFAULT_MAX_IDLE_WORKERS} workers are kept idle over all memory settings, the longest
+ * idle ones are killed first. The memory of the idle workers is reserved by the
+ * {@link ExecutionScheduler}.
+ */
+public class ExecutorWorkerPool {
+
+  public static final int DEFAULT_IDLE_WORKERS = 1;
+  public static final int DEFAULT_MAX_RUNS_PER_WORKER = 20;
+  public static final int DEFAULT_MAX_IDLE_WORKERS = 4;
+  // 5 minutes
+  public static final long DEFAULT_IDLE_TIMEOUT = 5 * 60 * 1000;
+
+  private static final ExecutorWorkerPool INSTANCE =
+    new ExecutorWorkerPool(DEFAULT_IDLE_WORKERS, DEFAULT_MAX_RUNS_PER_WORKER,
+      DEFAULT_MAX_IDLE_WORKERS, DEFAULT_IDLE_TIMEOUT);
+
+  public static ExecutorWorkerPool getInstance() {
+    return INSTANCE;
+  }
+
+  protected int idleWorkers;
+  protected int maxRunsPerWorker;
+  protected int maxIdleWorkers;
+  protected long idleTimeout;
+  // Idle workers by memory setting, the most used worker first
+  protected final Map<String, Deque<ExecutorWorker>> idle = new HashMap<>();
+  // Memory settings and memory in MB of the workers, which are pre-forked at the moment
+  protected final Map<String, Integer> starting = new HashMap<>();
+  protected long startingMemory = 0;
+  // Changes, whenever the idle workers are killed, so that pre-forked workers are killed as well
+  protected int generation = 0;
+  // Pre-forks the workers and kills the idle workers, which timed out
+  protected final ScheduledExecutorService background =
+    Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "executor-worker-pool");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+  /**
+   * @param idleWorkers      the number of idle workers kept per memory setting
+   * @param maxRunsPerWorker the number of executions, after which a worker is recycled
+   * @param maxIdleWorkers   the number of idle workers kept over all memory settings
+   * @param idleTimeout      the time in ms, after which an idle worker is killed
+   */
+  protected ExecutorWorkerPool(int idleWorkers, int maxRunsPerWorker, int maxIdleWorkers,
+                               long idleTimeout) {
+    this.idleWorkers = idleWorkers;
+    this.maxRunsPerWorker = maxRunsPerWorker;
+    this.maxIdleWorkers = maxIdleWorkers;
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Returns an idle worker with the given memory setting or starts a new one, if there is none.
+   * The pool is refilled by the {@link ExecutionScheduler}, as far as the memory budget allows it.
+   *
+   * @param memory the memory of the worker in MB or an empty string for the default memory
+   * @return a worker, which is not used by any other execution
+   * @throws IOException if the worker process could not be started
+   */
+  public synchronized ExecutorWorker acquire(String memory) throws IOException {
+    Deque<ExecutorWorker> workers = this.getIdleWorkers(memory);
+    ExecutorWorker worker = null;
+    while (worker == null && !workers.isEmpty()) {
+      ExecutorWorker candidate = workers.pollFirst();
+      if (candidate.isAlive()) {
+        worker = candidate;
+      } else {
+        candidate.destroy();
+      }
+    }
+    if (worker == null) {
+      worker = this.startWorker(memory);
+    }
+    worker.setIdle(false);
+    this.pruneIdleWorkers();
+    return worker;
+  }
+
+  /**
+   * Pre-forks an idle worker with the given memory setting in the background, so that it can warm
+   * up for the next execution, unless there are enough idle or starting workers with this setting.
+   * The memory of the starting worker counts as idle memory right away. The memory budget is
+   * checked by the {@link ExecutionScheduler} beforehand.
+   *
+   * @param memory the memory of the worker in MB or an empty string for the default memory
+   * @return the refill, which may be waited for or cancelled and results in true, if the worker
+   * was added to the pool, or null, if no worker is needed
+   */
+  protected synchronized Future<Boolean> refill(String memory) {
+    String key = memory == null ? "" : memory;
+    Integer startingWorkers = this.starting.get(key);
+    int startingCount = startingWorkers == null ? 0 : startingWorkers;
+    Deque<ExecutorWorker> workers = this.idle.get(key);
+    if ((workers == null ? 0 : workers.size()) + startingCount >= this.idleWorkers) {
+      return null;
+    }
+
+    this.starting.put(key, startingCount + 1);
+    this.startingMemory += ExecutionScheduler.parseMemory(memory);
+    final Refill refill = new Refill(key, this.generation);
+    FutureTask<Boolean> future = new FutureTask<Boolean>(refill) {
+      @Override
+      protected void done() {
+        if (this.isCancelled()) {
+          refill.finishStart();
+        }
+      }
+    };
+    this.background.execute(future);
+    return future;
+  }
+  /**
+   * Returns the worker after its execution. Workers, which failed, were killed or reached the
+   * maximal number of executions are destroyed. A returned worker is kept besides the pre-forked
+   * ones, so that consecutive executions do not fork a new worker each time.
+   *
+   * @param worker the worker, whose execution finished
+   */
+  public synchronized void release(ExecutorWorker worker) {
+    if (!worker.isReusable(this.maxRunsPerWorker)) {
+      worker.destroy();
+      return;
+    }
+    Deque<ExecutorWorker> workers = this.getIdleWorkers(worker.getMemory());
+    this.addIdleWorker(workers, worker, true);
+    while (workers.size() > this.idleWorkers + 1) {
+      workers.pollLast().destroy();
+    }
+    this.pruneIdleWorkers();
+  }
+
+  /**
+   * @return the memory of all idle and starting workers in MB
+   */
+  public synchronized long getIdleMemory() {
+    long memory = this.startingMemory;
+    for (Deque<ExecutorWorker> workers : this.idle.values()) {
+      for (ExecutorWorker worker : workers) {
+        memory += ExecutionScheduler.parseMemory(worker.getMemory());
+      }
+    }
+    return memory;
+  }
+
+  /**
+   * Kills all idle workers. The workers, which are starting at the moment, are killed, once they
+   * started.
+   */
+  public synchronized void shutdown() {
+    for (Deque<ExecutorWorker> workers : this.idle.values()) {
+      for (ExecutorWorker worker : workers) {
+        worker.destroy();
+      }
+    }
+    this.idle.clear();
+    this.generation++;
+  }
+
+  protected Deque<ExecutorWorker> getIdleWorkers(String memory) {
+    String key = memory == null ? "" : memory;
+    Deque<ExecutorWorker> workers = this.idle.get(key);
+    if (workers == null) {
+      workers = new ArrayDeque<>();
+      this.idle.put(key, workers);
+    }
+    return workers;
+  }
+
+  protected void addIdleWorker(Deque<ExecutorWorker> workers, ExecutorWorker worker,
+                               boolean first) {
+    worker.setIdle(true);
+    if (first) {
+      workers.addFirst(worker);
+    } else {
+      workers.addLast(worker);
+    }
+    this.background.schedule(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (ExecutorWorkerPool.this) {
+          pruneIdleWorkers();
+        }
+      }
+    }, this.idleTimeout, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Kills the idle workers, which timed out or exited, and the longest idle workers exceeding the
+   * maximal number of idle workers. Memory settings without idle workers are forgotten.
+   */
+  protected void pruneIdleWorkers() {
+    long timeout = System.currentTimeMillis() - this.idleTimeout;
+    int idleCount = 0;
+    for (Deque<ExecutorWorker> workers : this.idle.values()) {
+      Iterator<ExecutorWorker> iterator = workers.iterator();
+      while (iterator.hasNext()) {
+        ExecutorWorker worker = iterator.next();
+        if (worker.getIdleSince() <= timeout || !worker.isAlive()) {
+          iterator.remove();
+          worker.destroy();
+        }
+      }
+      idleCount += workers.size();
+    }
+
+    for (; idleCount > this.maxIdleWorkers; idleCount--) {
+      Deque<ExecutorWorker> longestIdleWorkers = null;
+      ExecutorWorker longestIdle = null;
+      for (Deque<ExecutorWorker> workers : this.idle.values()) {
+        for (ExecutorWorker worker : workers) {
+          if (longestIdle == null || worker.getIdleSince() < longestIdle.getIdleSince()) {
+            longestIdle = worker;
+            longestIdleWorkers = workers;
+          }
+        }
+      }
+      longestIdleWorkers.remove(longestIdle);
+      longestIdle.destroy();
+    }
+    Iterator<Deque<ExecutorWorker>> emptyIterator = this.idle.values().iterator();
+    while (emptyIterator.hasNext()) {
+      if (emptyIterator.next().isEmpty()) {
+        emptyIterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Starts a worker outside of the pool lock and adds it to the idle workers, unless the idle
+   * workers were killed or the refill was cancelled meanwhile.
+   */
+  protected class Refill implements Callable<Boolean> {
+
+    protected String memory;
+    protected int generation;
+    protected boolean reserved = true;
+
+    protected Refill(String memory, int generation) {
+      this.memory = memory;
+      this.generation = generation;
+    }
+
+    @Override
+    public Boolean call() {
+      ExecutorWorker worker = null;
+      try {
+        worker = startWorker(this.memory);
+      } catch (IOException e) {
+        // The next execution starts its worker on demand
+        e.printStackTrace();
+      }
+
+      synchronized (ExecutorWorkerPool.this) {
+        boolean valid = this.finishStart() && this.generation == ExecutorWorkerPool.this.generation;
+        if (worker == null) {
+          return false;
+        }
+        if (!valid) {
+          worker.destroy();
+          return false;
+        }
+        addIdleWorker(getIdleWorkers(this.memory), worker, false);
+        pruneIdleWorkers();
+        return true;
+      }
+    }
+
+    /**
+     * Releases the reserved memory of the starting worker.
+     *
+     * @return false, if the memory was released already, because the refill was cancelled
+     */
+    protected boolean finishStart() {
+      synchronized (ExecutorWorkerPool.this) {
+        if (!this.reserved) {
+          return false;
+        }
+        this.reserved = false;
+        int startingCount = starting.get(this.memory) - 1;
+        if (startingCount == 0) {
+          starting.remove(this.memory);
+        } else {
+          starting.put(this.memory, startingCount);
+        }
+        startingMemory -= ExecutionScheduler.parseMemory(this.memory);
+        return true;
+      }
+    }
+  }
+
+  protected ExecutorWorker startWorker(String memory) throws IOException {
+    return new ExecutorWorker(
+      createProcessBuilder(AlgorithmExecutionWorker.class, memory).start(), memory);
+  }
+
+  /**
+   * Builds a process, which runs the main method of the given class with the class path of the
+   * backend.
+   *
+   * @param mainClass the class, whose main method is executed
+   * @param memory    the memory of the process in MB or an empty string for the default memory
+   * @param arguments the program arguments
+   * @return the process builder
+   */
+  public static ProcessBuilder createProcessBuilder(Class<?> mainClass, String memory,
+                                                    String... arguments) {
+    /**
+     * NOTE: Depending on the Java ApplicationServer paths have to be adjusted
+     */
+    String javaHome = System.getProperty("java.home");
+    String javaBin = javaHome +
+      File.separator + "bin" +
+      File.separator + "java";
+    String myPath = System.getProperty("java.class.path");
+    String className = mainClass.getCanonicalName();
+
+    try {
+      URL baseUrl = mainClass.getProtectionDomain().getCodeSource().getLocation();
+      File file = new File(baseUrl.toURI());
+      String webinf = file.getAbsoluteFile().getParentFile().getParent() + File.separator;
+      String classesFolder = webinf + "classes";
+      String parentPathWildCard = webinf + "lib" + File.separator + "*";
+      myPath += File.pathSeparator + parentPathWildCard + File.pathSeparator + classesFolder;
+    } catch (URISyntaxException ex) {
+      ex.printStackTrace();
+    }
+
+    List<String> command = new ArrayList<>();
+    command.add(javaBin);
+    if (memory != null && !memory.equals("")) {
+      command.add("-Xmx" + memory + "m");
+      command.add("-Xms" + memory + "m");
+    }
+    command.add("-classpath");
+    command.add(myPath);
+    command.add(className);
+    command.addAll(Arrays.asList(arguments));
+
+    ProcessBuilder builder = new ProcessBuilder(command);
+    builder.redirectErrorStream(true);
+    return builder;
+  }
+
+}
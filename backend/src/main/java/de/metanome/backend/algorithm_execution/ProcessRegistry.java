@@ -15,11 +15,18 @@
  */
 package de.metanome.backend.algorithm_execution;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Used to manage/maintain process instances
+ * Used to manage/maintain process instances and the jobs of the {@link ExecutionScheduler}. The
+ * registry can be used concurrently. Queued and running jobs are kept, finished jobs only until
+ * {@link #MAX_FINISHED_JOBS} newer jobs finished.
  */
 public class ProcessRegistry {
 
@@ -27,13 +34,18 @@ public class ProcessRegistry {
 
   }
 
+  public static final int MAX_FINISHED_JOBS = 100;
+
   private static final ProcessRegistry INSTANCE = new ProcessRegistry();
 
   public static ProcessRegistry getInstance() {
     return INSTANCE;
   }
 
-  private final Map<String, Process> _processes = new HashMap<String, Process>();
+  private final Map<String, Process> _processes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ExecutionJob<?>> jobs = new ConcurrentHashMap<>();
+  // Finished jobs, the oldest first
+  private final Queue<ExecutionJob<?>> finishedJobs = new ConcurrentLinkedQueue<>();
 
   public void put(String key, Process p) {
     _processes.put(key, p);
@@ -46,4 +58,49 @@ public class ProcessRegistry {
   public void remove(String key) {
     _processes.remove(key);
   }
+
+  public void putJob(ExecutionJob<?> job) {
+    jobs.put(job.getIdentifier(), job);
+  }
+
+  public ExecutionJob<?> getJob(String key) {
+    return jobs.get(key);
+  }
+
+  /**
+   * @return all queued, running and recently finished jobs
+   */
+  public List<ExecutionJob<?>> getJobs() {
+    return new ArrayList<>(jobs.values());
+  }
+
+  /**
+   * @param state the state of the jobs
+   * @return all known jobs in the given state
+   */
+  public List<ExecutionJob<?>> getJobs(ExecutionJob.State state) {
+    List<ExecutionJob<?>> jobsInState = new ArrayList<>();
+    for (ExecutionJob<?> job : jobs.values()) {
+      if (job.getState() == state) {
+        jobsInState.add(job);
+      }
+    }
+    return jobsInState;
+  }
+
+  /**
+   * Marks the job as finished. The oldest finished jobs are dropped.
+   *
+   * @param job the finished job
+   */
+  public void finishJob(ExecutionJob<?> job) {
+    finishedJobs.add(job);
+    while (finishedJobs.size() > MAX_FINISHED_JOBS) {
+      ExecutionJob<?> oldest = finishedJobs.poll();
+      if (oldest != null) {
+        // The identifier may have been reused by a newer job
+        jobs.remove(oldest.getIdentifier(), oldest);
+      }
+    }
+  }
 }
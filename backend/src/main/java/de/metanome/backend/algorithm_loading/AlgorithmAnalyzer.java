@@ -49,7 +49,23 @@ public class AlgorithmAnalyzer {
   public AlgorithmAnalyzer(String algorithmPath)
     throws IllegalAccessException, IOException, InstantiationException, NoSuchMethodException,
     InvocationTargetException, ClassNotFoundException {
-    AlgorithmJarLoader loader = new AlgorithmJarLoader();
+    this(algorithmPath, false);
+  }
+
+  /**
+   * @param algorithmPath the algorithm file, which should be analyzed.
+   * @param isolated      true, if the algorithm should be loaded by a new class loader
+   * @throws IllegalAccessException    if loading fails
+   * @throws IOException               if loading fails
+   * @throws InstantiationException    if loading fails
+   * @throws NoSuchMethodException     if loading fails
+   * @throws InvocationTargetException if loading fails
+   * @throws ClassNotFoundException    if loading fails
+   */
+  public AlgorithmAnalyzer(String algorithmPath, boolean isolated)
+    throws IllegalAccessException, IOException, InstantiationException, NoSuchMethodException,
+    InvocationTargetException, ClassNotFoundException {
+    AlgorithmJarLoader loader = new AlgorithmJarLoader(isolated);
 
     this.algorithm = loader.loadAlgorithm(algorithmPath);
 
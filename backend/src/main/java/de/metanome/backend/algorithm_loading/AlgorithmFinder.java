@@ -15,30 +15,20 @@
  */
 package de.metanome.backend.algorithm_loading;
 
-import de.metanome.algorithm_integration.Algorithm;
-import org.apache.commons.lang3.ClassUtils;
-
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.net.URLDecoder;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
-import java.util.jar.Attributes;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
 
 /**
  * Class that provides utilities to retrieve information on the available algorithm jars.
  */
 public class AlgorithmFinder {
 
-  protected static final String bootstrapClassTagName = "Algorithm-Bootstrap-Class";
-
   /**
    * @param algorithmSubclass Class of algorithms to retrieve, or null if all subclasses
    * @return an array with the names of the available algorithms
@@ -57,12 +47,14 @@ public class AlgorithmFinder {
       // The algorithm folder does not exist
       return new String[]{};
     }
+    File folder = new File(URLDecoder.decode(pathToFolder, "utf-8"));
     File[] jarFiles = retrieveJarFiles(pathToFolder);
 
-    for (File jarFile : jarFiles) {
+    // Only new and changed jars are analyzed
+    for (AlgorithmJarMetadata metadata : AlgorithmJarIndex.getInstance(folder).refresh(jarFiles)) {
       if (algorithmSubclass == null ||
-        getAlgorithmInterfaces(jarFile).contains(algorithmSubclass)) {
-        availableAlgorithms.add(jarFile.getName());
+        metadata.getInterfaceNames().contains(algorithmSubclass.getName())) {
+        availableAlgorithms.add(metadata.getFileName());
       }
     }
 
@@ -133,7 +125,8 @@ public class AlgorithmFinder {
 
   /**
    * Finds out which subclass of Algorithm is implemented by the source code in the
-   * algorithmJarFile.
+   * algorithmJarFile. The interfaces are taken from the {@link AlgorithmJarIndex}, if the jar did
+   * not change since it was indexed.
    *
    * @param algorithmJarFile the algorithm's jar file
    * @return the interfaces of the algorithm implementation in algorithmJarFile
@@ -142,25 +135,7 @@ public class AlgorithmFinder {
    */
   public Set<Class<?>> getAlgorithmInterfaces(File algorithmJarFile)
     throws IOException, ClassNotFoundException {
-    JarFile jar = new JarFile(algorithmJarFile);
-
-    Manifest man = jar.getManifest();
-    Attributes attr = man.getMainAttributes();
-    String className = attr.getValue(bootstrapClassTagName);
-
-    URL[] url = {algorithmJarFile.toURI().toURL()};
-    ClassLoader loader = new URLClassLoader(url, Algorithm.class.getClassLoader());
-
-    Class<?> algorithmClass;
-    try {
-      algorithmClass = Class.forName(className, false, loader);
-    } catch (ClassNotFoundException e) {
-      System.out.println("Could not find class " + className);
-      return new HashSet<>();
-    } finally {
-      jar.close();
-    }
-
-    return new HashSet<>(ClassUtils.getAllInterfaces(algorithmClass));
+    AlgorithmJarIndex index = AlgorithmJarIndex.getInstance(algorithmJarFile.getParentFile());
+    return index.getInterfaces(algorithmJarFile, index.getMetadata(algorithmJarFile));
   }
 }
@@ -0,0 +1,329 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_loading;
+
+import de.metanome.algorithm_integration.Algorithm;
+import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
+import de.metanome.algorithm_integration.results.JsonConverter;
+import de.metanome.backend.helper.ConfigurationRequirementMixIn;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Index of the algorithm jars in a directory. The bootstrap class, the implemented interfaces,
+ * the authors, the description and the configuration requirements of every jar are analyzed once
+ * and stored in an index file next to the jars, so that they survive a restart of the backend. A
+ * jar is analyzed again, as soon as its modification time or size changes.
+ * <p/>
+ * The index also caches one class loader per jar, so that the classes of an algorithm are only
+ * loaded once.
+ */
+public class AlgorithmJarIndex {
+
+  public static final String INDEX_FILE_NAME = ".algorithm-index.json";
+  protected static final String bootstrapClassTagName = "Algorithm-Bootstrap-Class";
+
+  private static final Map<String, AlgorithmJarIndex> INSTANCES = new ConcurrentHashMap<>();
+
+  protected File indexFile;
+  // Metadata of the jars by their file names
+  protected Map<String, AlgorithmJarMetadata> entries = new HashMap<>();
+  protected Map<String, CachedClassLoader> classLoaders = new HashMap<>();
+  protected JsonConverter<AlgorithmJarMetadata[]> jsonConverter = new JsonConverter<>();
+
+  /**
+   * @param directory the directory containing the algorithm jars
+   * @return the index of the given directory
+   */
+  public static AlgorithmJarIndex getInstance(File directory) {
+    String key = directory.getAbsolutePath();
+    synchronized (INSTANCES) {
+      AlgorithmJarIndex index = INSTANCES.get(key);
+      if (index == null) {
+        index = new AlgorithmJarIndex(new File(directory, INDEX_FILE_NAME));
+        INSTANCES.put(key, index);
+      }
+      return index;
+    }
+  }
+
+  protected AlgorithmJarIndex(File indexFile) {
+    this.indexFile = indexFile;
+    this.jsonConverter.addMixIn(ConfigurationRequirement.class,
+      ConfigurationRequirementMixIn.class);
+    this.read();
+  }
+
+  /**
+   * Returns the metadata of the given jar. The jar is only analyzed, if it is not indexed yet or
+   * changed since it was indexed.
+   *
+   * @param jarFile the algorithm jar
+   * @return the metadata of the jar
+   * @throws IOException if the jar could not be read
+   */
+  public synchronized AlgorithmJarMetadata getMetadata(File jarFile) throws IOException {
+    AlgorithmJarMetadata metadata = this.getIndexedMetadata(jarFile);
+    if (metadata == null) {
+      metadata = this.analyze(jarFile);
+      this.tryWrite();
+    }
+    return metadata;
+  }
+
+  /**
+   * Brings the index up to date with the given jars. Only new and changed jars are analyzed and
+   * jars, which are not given anymore, are removed from the index.
+   *
+   * @param jarFiles all algorithm jars of the directory
+   * @return the metadata of the given jars in the same order
+   */
+  public synchronized List<AlgorithmJarMetadata> refresh(File[] jarFiles) {
+    boolean changed = false;
+    Set<String> fileNames = new HashSet<>();
+    List<AlgorithmJarMetadata> metadata = new ArrayList<>();
+
+    for (File jarFile : jarFiles) {
+      fileNames.add(jarFile.getName());
+      AlgorithmJarMetadata jarMetadata = this.getIndexedMetadata(jarFile);
+      if (jarMetadata == null) {
+        try {
+          jarMetadata = this.analyze(jarFile);
+          changed = true;
+        } catch (IOException e) {
+          // Not a readable jar, which should not fail the whole refresh and is analyzed again on
+          // the next refresh
+          System.out.println("Could not read algorithm jar " + jarFile.getName());
+          this.entries.remove(jarFile.getName());
+          jarMetadata = new AlgorithmJarMetadata(jarFile);
+        }
+      }
+      metadata.add(jarMetadata);
+    }
+
+    Iterator<String> indexedFileNames = this.entries.keySet().iterator();
+    while (indexedFileNames.hasNext()) {
+      String fileName = indexedFileNames.next();
+      if (!fileNames.contains(fileName)) {
+        indexedFileNames.remove();
+        this.closeClassLoader(fileName);
+        changed = true;
+      }
+    }
+
+    if (changed) {
+      this.tryWrite();
+    }
+    return metadata;
+  }
+
+  /**
+   * Returns the cached class loader of the given jar. A new class loader is created, if the jar
+   * changed since the cached one was created.
+   *
+   * @param jarFile the algorithm jar
+   * @return the class loader of the jar
+   * @throws IOException if the class loader could not be created
+   */
+  public synchronized ClassLoader getClassLoader(File jarFile) throws IOException {
+    CachedClassLoader cached = this.classLoaders.get(jarFile.getName());
+    if (cached != null && cached.lastModified == jarFile.lastModified()
+      && cached.length == jarFile.length()) {
+      return cached.loader;
+    }
+    this.closeClassLoader(jarFile.getName());
+    cached = new CachedClassLoader(jarFile);
+    this.classLoaders.put(jarFile.getName(), cached);
+    return cached.loader;
+  }
+
+  /**
+   * Resolves the interface names of the metadata. Interfaces of the algorithm integration are
+   * resolved by the backend, all others by the class loader of the jar.
+   *
+   * @param jarFile  the algorithm jar
+   * @param metadata the metadata of the jar
+   * @return the interfaces implemented by the bootstrap class of the jar
+   * @throws IOException if the class loader of the jar could not be created
+   */
+  public Set<Class<?>> getInterfaces(File jarFile, AlgorithmJarMetadata metadata)
+    throws IOException {
+    Set<Class<?>> interfaces = new HashSet<>();
+    for (String interfaceName : metadata.getInterfaceNames()) {
+      try {
+        interfaces.add(Class.forName(interfaceName, false, Algorithm.class.getClassLoader()));
+      } catch (ClassNotFoundException e) {
+        try {
+          interfaces.add(Class.forName(interfaceName, false, this.getClassLoader(jarFile)));
+        } catch (ClassNotFoundException e1) {
+          // The jar changed meanwhile
+          System.out.println("Could not find class " + interfaceName);
+        }
+      }
+    }
+    return interfaces;
+  }
+
+  protected AlgorithmJarMetadata getIndexedMetadata(File jarFile) {
+    AlgorithmJarMetadata metadata = this.entries.get(jarFile.getName());
+    if (metadata != null && metadata.isUpToDate(jarFile)) {
+      return metadata;
+    }
+    return null;
+  }
+
+  /**
+   * Reads the bootstrap class from the manifest of the jar and loads it without initialization
+   * to find its interfaces. The algorithm is instantiated for its authors, description and
+   * configuration requirements, which are left empty, if this fails.
+   */
+  protected AlgorithmJarMetadata analyze(File jarFile) throws IOException {
+    AlgorithmJarMetadata metadata = new AlgorithmJarMetadata(jarFile);
+
+    try (JarFile jar = new JarFile(jarFile)) {
+      Manifest man = jar.getManifest();
+      if (man != null) {
+        Attributes attr = man.getMainAttributes();
+        metadata.setBootstrapClassName(attr.getValue(bootstrapClassTagName));
+      }
+    }
+    this.entries.put(jarFile.getName(), metadata);
+
+    String className = metadata.getBootstrapClassName();
+    if (className == null) {
+      return metadata;
+    }
+
+    Class<?> algorithmClass;
+    try {
+      algorithmClass = Class.forName(className, false, this.getClassLoader(jarFile));
+    } catch (ClassNotFoundException | LinkageError e) {
+      System.out.println("Could not find class " + className);
+      return metadata;
+    }
+    for (Class<?> algorithmInterface : ClassUtils.getAllInterfaces(algorithmClass)) {
+      metadata.getInterfaceNames().add(algorithmInterface.getName());
+    }
+
+    try {
+      Algorithm algorithm = algorithmClass.asSubclass(Algorithm.class).getConstructor()
+        .newInstance();
+      metadata
+        .setAuthors(algorithm.getAuthors())
+        .setDescription(algorithm.getDescription())
+        .setConfigurationRequirements(
+          new ArrayList<ConfigurationRequirement<?>>(algorithm.getConfigurationRequirements()));
+    } catch (Exception | LinkageError e) {
+      // Loading the algorithm reports the error, when the algorithm is used
+      System.out.println("Could not instantiate class " + className);
+    }
+    return metadata;
+  }
+
+  protected void closeClassLoader(String fileName) {
+    CachedClassLoader cached = this.classLoaders.remove(fileName);
+    if (cached == null) {
+      return;
+    }
+    try {
+      cached.loader.close();
+    } catch (IOException e) {
+      // The loader is not used anymore anyway
+    }
+  }
+
+  protected void read() {
+    if (!this.indexFile.exists()) {
+      return;
+    }
+    try {
+      String json = new String(Files.readAllBytes(this.indexFile.toPath()),
+        StandardCharsets.UTF_8);
+      for (AlgorithmJarMetadata metadata : this.jsonConverter.fromJsonString(json,
+        AlgorithmJarMetadata[].class)) {
+        this.entries.put(metadata.getFileName(), metadata);
+      }
+    } catch (IOException e) {
+      // An unreadable index is rebuilt from the jars
+      this.entries.clear();
+    }
+  }
+
+  /**
+   * Writes the index file. The index is only a cache, so a failed write does not fail the caller,
+   * the jars are analyzed again after a restart then.
+   */
+  protected void tryWrite() {
+    try {
+      this.write();
+    } catch (IOException e) {
+      System.out.println("Could not write algorithm index " + this.indexFile.getPath() + ": "
+        + e.getMessage());
+    }
+  }
+
+  /**
+   * Replaces the index file atomically, so that other processes never read a partial index.
+   */
+  protected void write() throws IOException {
+    Collection<AlgorithmJarMetadata> metadata = this.entries.values();
+    String json = this.jsonConverter.toJsonString(
+      metadata.toArray(new AlgorithmJarMetadata[metadata.size()]));
+
+    File tmpFile = File.createTempFile(INDEX_FILE_NAME, ".tmp", this.indexFile.getParentFile());
+    try {
+      Files.write(tmpFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+      Files.move(tmpFile.toPath(), this.indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      tmpFile.delete();
+    }
+  }
+
+  protected static class CachedClassLoader {
+
+    protected long lastModified;
+    protected long length;
+    protected URLClassLoader loader;
+
+    protected CachedClassLoader(File jarFile) throws IOException {
+      this.lastModified = jarFile.lastModified();
+      this.length = jarFile.length();
+      URL[] url = {jarFile.toURI().toURL()};
+      this.loader = new URLClassLoader(url, Algorithm.class.getClassLoader());
+    }
+  }
+
+}
@@ -18,19 +18,38 @@ package de.metanome.backend.algorithm_loading;
 import de.metanome.algorithm_integration.Algorithm;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLDecoder;
-import java.util.jar.Attributes;
-import java.util.jar.JarFile;
-import java.util.jar.Manifest;
 
+/**
+ * Loads algorithms from their jars. The jars are looked up in the {@link AlgorithmJarIndex} of
+ * the algorithm directory, so that the manifest is only read once per jar and the classes are
+ * loaded by the cached class loader of the jar.
+ */
 public class AlgorithmJarLoader {
 
   protected static final String bootstrapClassTagName = "Algorithm-Bootstrap-Class";
   protected Algorithm algorithmSubclass;
+  protected boolean isolated;
+
+  /**
+   * Constructs a loader, which shares the cached class loaders of the jars.
+   */
+  public AlgorithmJarLoader() {
+    this(false);
+  }
+
+  /**
+   * @param isolated true, if every algorithm should be loaded by a new class loader, so that it
+   *                 does not share static state with earlier loaded instances of the algorithm
+   */
+  public AlgorithmJarLoader(boolean isolated) {
+    this.isolated = isolated;
+  }
 
   /**
    * Loads a jar file containing an algorithm and returns an instance of the bootstrap class.
@@ -50,27 +69,48 @@ public class AlgorithmJarLoader {
     throws IOException, ClassNotFoundException, InstantiationException, IllegalAccessException,
     IllegalArgumentException, InvocationTargetException, NoSuchMethodException,
     SecurityException {
-    String
-      pathToFolder =
-      Thread.currentThread().getContextClassLoader().getResource("algorithms" + System.getProperty("file.separator") + filePath)
-        .getPath();
-
-    File file = new File(URLDecoder.decode(pathToFolder, "utf-8"));
-    JarFile jar = new JarFile(file);
+    File file = getJarFile(filePath);
+    AlgorithmJarIndex index = AlgorithmJarIndex.getInstance(file.getParentFile());
+    String className = index.getMetadata(file).getBootstrapClassName();
+    if (className == null) {
+      throw new ClassNotFoundException(
+        "The manifest of " + filePath + " does not name the " + bootstrapClassTagName + ".");
+    }
 
-    Manifest man = jar.getManifest();
-    Attributes attr = man.getMainAttributes();
-    String className = attr.getValue(bootstrapClassTagName);
-
-    URL[] url = {file.toURI().toURL()};
-    ClassLoader loader = new URLClassLoader(url, Algorithm.class.getClassLoader());
+    ClassLoader loader;
+    if (this.isolated) {
+      URL[] url = {file.toURI().toURL()};
+      loader = new URLClassLoader(url, Algorithm.class.getClassLoader());
+    } else {
+      loader = index.getClassLoader(file);
+    }
 
     Class<? extends Algorithm> algorithmClass =
       Class.forName(className, true, loader).asSubclass(Algorithm.class);
 
-    jar.close();
-
     return algorithmClass.getConstructor().newInstance();
   }
 
+  /**
+   * Returns the metadata of an algorithm jar from the {@link AlgorithmJarIndex} without loading
+   * the algorithm, unless the jar is not indexed yet.
+   *
+   * @param filePath the file path to the algorithm jar
+   * @return the metadata of the algorithm jar
+   * @throws IOException if the jar could not be read
+   */
+  public AlgorithmJarMetadata loadMetadata(String filePath) throws IOException {
+    File file = getJarFile(filePath);
+    return AlgorithmJarIndex.getInstance(file.getParentFile()).getMetadata(file);
+  }
+
+  protected static File getJarFile(String filePath) throws IOException {
+    URL resource = Thread.currentThread().getContextClassLoader()
+      .getResource("algorithms" + System.getProperty("file.separator") + filePath);
+    if (resource == null) {
+      throw new FileNotFoundException("The algorithm jar " + filePath + " does not exist.");
+    }
+    return new File(URLDecoder.decode(resource.getPath(), "utf-8"));
+  }
+
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_loading;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The information about an algorithm jar, which is stored in the {@link AlgorithmJarIndex}. The
+ * metadata is only valid as long as the modification time and the size of the jar did not change.
+ */
+public class AlgorithmJarMetadata {
+
+  protected String fileName;
+  protected long lastModified;
+  protected long length;
+  protected String bootstrapClassName;
+  protected List<String> interfaceNames = new ArrayList<>();
+  protected String authors;
+  protected String description;
+  // Null, if the algorithm could not be instantiated
+  protected List<ConfigurationRequirement<?>> configurationRequirements;
+
+  /**
+   * Exists for serialization.
+   */
+  public AlgorithmJarMetadata() {
+  }
+
+  /**
+   * @param jarFile the algorithm jar described by the metadata
+   */
+  public AlgorithmJarMetadata(File jarFile) {
+    this.fileName = jarFile.getName();
+    this.lastModified = jarFile.lastModified();
+    this.length = jarFile.length();
+  }
+
+  /**
+   * @param jarFile the algorithm jar
+   * @return true, if the metadata still describes the current version of the jar
+   */
+  public boolean isUpToDate(File jarFile) {
+    return this.lastModified == jarFile.lastModified() && this.length == jarFile.length();
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public AlgorithmJarMetadata setFileName(String fileName) {
+    this.fileName = fileName;
+    return this;
+  }
+
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  public AlgorithmJarMetadata setLastModified(long lastModified) {
+    this.lastModified = lastModified;
+    return this;
+  }
+
+  public long getLength() {
+    return length;
+  }
+
+  public AlgorithmJarMetadata setLength(long length) {
+    this.length = length;
+    return this;
+  }
+
+  /**
+   * @return the name of the bootstrap class or null, if the manifest does not name one
+   */
+  public String getBootstrapClassName() {
+    return bootstrapClassName;
+  }
+
+  public AlgorithmJarMetadata setBootstrapClassName(String bootstrapClassName) {
+    this.bootstrapClassName = bootstrapClassName;
+    return this;
+  }
+
+  /**
+   * @return the names of all interfaces implemented by the bootstrap class
+   */
+  public List<String> getInterfaceNames() {
+    return interfaceNames;
+  }
+
+  public AlgorithmJarMetadata setInterfaceNames(List<String> interfaceNames) {
+    this.interfaceNames = interfaceNames;
+    return this;
+  }
+
+  public String getAuthors() {
+    return authors;
+  }
+
+  public AlgorithmJarMetadata setAuthors(String authors) {
+    this.authors = authors;
+    return this;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public AlgorithmJarMetadata setDescription(String description) {
+    this.description = description;
+    return this;
+  }
+
+  public List<ConfigurationRequirement<?>> getConfigurationRequirements() {
+    return configurationRequirements;
+  }
+
+  public AlgorithmJarMetadata setConfigurationRequirements(
+    List<ConfigurationRequirement<?>> configurationRequirements) {
+    this.configurationRequirements = configurationRequirements;
+    return this;
+  }
+
+}
@@ -19,6 +19,7 @@ package de.metanome.backend.api;
 
 import org.glassfish.jersey.filter.LoggingFilter;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
+import org.glassfish.jersey.media.sse.SseFeature;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -37,6 +38,9 @@ public class ApplicationConfig extends Application {
 
     //Classes for Multipart Upload
     classes.add(MultiPartFeature.class);
+
+    //Server-sent events for the progress of executions
+    classes.add(SseFeature.class);
     classes.add(LoggingFilter.class);
     return classes;
   }
@@ -15,8 +15,10 @@
  */
 package de.metanome.backend.initializer;
 
+import de.metanome.backend.algorithm_execution.ExecutorWorkerPool;
 import de.metanome.backend.algorithm_loading.AlgorithmFinder;
 import de.metanome.backend.algorithm_loading.AlgorithmJarLoader;
+import de.metanome.backend.algorithm_loading.AlgorithmJarMetadata;
 import de.metanome.backend.algorithm_loading.InputDataFinder;
 import de.metanome.backend.results_db.Algorithm;
 import de.metanome.backend.results_db.EntityStorageException;
@@ -98,9 +100,15 @@ public class DatabaseInitializer implements ServletContextListener {
 
     for (String filePath : algorithmFileNames) {
       try {
-        de.metanome.algorithm_integration.Algorithm algorithm = loader.loadAlgorithm(filePath);
-        String authors = algorithm.getAuthors();
-        String description = algorithm.getDescription();
+        // The jars were indexed while searching them, so the algorithms are not loaded again
+        AlgorithmJarMetadata metadata = loader.loadMetadata(filePath);
+        String authors = metadata.getAuthors();
+        String description = metadata.getDescription();
+        if (metadata.getConfigurationRequirements() == null) {
+          de.metanome.algorithm_integration.Algorithm algorithm = loader.loadAlgorithm(filePath);
+          authors = algorithm.getAuthors();
+          description = algorithm.getDescription();
+        }
 
         Set<Class<?>> algorithmInterfaces = jarFinder.getAlgorithmInterfaces(filePath);
 
@@ -140,6 +148,8 @@ public class DatabaseInitializer implements ServletContextListener {
 
   @Override
   public void contextDestroyed(ServletContextEvent servletContextEvent) {
+    // The idle executor workers are connected to the database
+    ExecutorWorkerPool.getInstance().shutdown();
     server.shutdown();
   }
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the rows read from all relational inputs of this process, so that the progress of an
+ * execution can be reported. The inputs count their rows locally and add them in steps of {@link
+ * #REPORT_INTERVAL} rows, so that parallel readers do not contend for the counter on every row.
+ */
+public final class InputProgress {
+
+  public static final int REPORT_INTERVAL = 1024;
+
+  private static final AtomicLong ROWS_READ = new AtomicLong();
+
+  private InputProgress() {
+  }
+
+  /**
+   * @param rows the number of rows read since the last call
+   */
+  public static void addRows(long rows) {
+    if (rows > 0) {
+      ROWS_READ.addAndGet(rows);
+    }
+  }
+
+  /**
+   * @return the number of rows read by all inputs since the last reset
+   */
+  public static long getRowsRead() {
+    return ROWS_READ.get();
+  }
+
+  public static void reset() {
+    ROWS_READ.set(0);
+  }
+
+}
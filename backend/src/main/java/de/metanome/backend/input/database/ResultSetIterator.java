@@ -16,8 +16,11 @@
 package de.metanome.backend.input.database;
 
 import com.google.common.collect.ImmutableList;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
-import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.backend.input.InputProgress;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -26,7 +29,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.ArrayList;
 
-public class ResultSetIterator implements RelationalInput {
+public class ResultSetIterator implements BatchRelationalInput {
 
   /**
    * Surrogate for when the name of the iterated relation could not be retrieved.
@@ -39,6 +42,9 @@ public class ResultSetIterator implements RelationalInput {
   protected boolean hasNext;
   protected String relationName;
   protected ImmutableList<String> columnNames;
+  protected ColumnBatch batch;
+  // Rows read, but not added to the InputProgress yet
+  protected int unreportedRows = 0;
 
   public ResultSetIterator(ResultSet resultSet) throws SQLException {
     this(resultSet, null);
@@ -95,6 +101,10 @@ public class ResultSetIterator implements RelationalInput {
     }
 
     nextCalled = false;
+    if (++unreportedRows == InputProgress.REPORT_INTERVAL) {
+      InputProgress.addRows(unreportedRows);
+      unreportedRows = 0;
+    }
 
     List<String> resultRow = new ArrayList<>();
 
@@ -109,6 +119,45 @@ public class ResultSetIterator implements RelationalInput {
     return resultRow;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * The values are read from the result set directly into the batch without creating row lists.
+   */
+  @Override
+  public ColumnBatch nextBatch(int maxRows) throws InputIterationException {
+    batch = BatchRelationalInputAdapter.reuseBatch(batch, numberOfColumns, maxRows);
+    String[][] columns = batch.getColumns();
+    int rowCount = 0;
+
+    try {
+      while (rowCount < maxRows) {
+        if (nextCalled) {
+          // The result set was already advanced by hasNext.
+          if (!hasNext) {
+            break;
+          }
+          nextCalled = false;
+        } else if (!resultSet.next()) {
+          // Remember the end so that hasNext does not advance the result set again.
+          nextCalled = true;
+          hasNext = false;
+          break;
+        }
+        for (int columnIndex = 0; columnIndex < numberOfColumns; columnIndex++) {
+          columns[columnIndex][rowCount] = resultSet.getString(columnIndex + 1);
+        }
+        rowCount++;
+      }
+    } catch (SQLException e) {
+      throw new InputIterationException("Could not retrieve rows from result set", e);
+    }
+
+    batch.setSize(rowCount);
+    InputProgress.addRows(rowCount);
+    return batch;
+  }
+
   @Override
   public int numberOfColumns() {
     return numberOfColumns;
@@ -126,6 +175,8 @@ public class ResultSetIterator implements RelationalInput {
 
   @Override
   public void close() throws Exception {
+    InputProgress.addRows(unreportedRows);
+    unreportedRows = 0;
     if (!resultSet.isClosed()) {
       resultSet.close();
     }
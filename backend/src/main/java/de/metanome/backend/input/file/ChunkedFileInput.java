@@ -0,0 +1,564 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A file input that splits the file into byte ranges (chunks) aligned to line boundaries and parses
+ * the chunks concurrently with {@link MappedFileIterator}s. The rows can either be iterated in file
+ * order like any other {@link RelationalInput} or be handed to a {@link BatchHandler} in parallel
+ * and without a global order (see {@link #parse(BatchHandler)}).
+ * <p/>
+ * Quoted values may contain line breaks, so a chunk has to start at a record boundary. The state
+ * of the tokenizer at every line start is not known without reading the file up to that line, so
+ * the state transitions of all chunks are computed in parallel for every possible start state
+ * first and are chained afterwards (see {@link #calculateChunks(long, long, int)}). The rows
+ * therefore do not depend on the number of chunks.
+ */
+public class ChunkedFileInput implements RelationalInput {
+
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  public static final int DEFAULT_CHUNKS_PER_THREAD = 4;
+  public static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+  protected static final int QUEUE_CAPACITY = 4;
+  // the states of the tokenizer at a line start
+  protected static final int IN_FIELD = 1;
+  protected static final int IN_QUOTES = 2;
+  protected static final int STATES = 4;
+  protected static final List<List<String>> END_OF_CHUNK = new ArrayList<>();
+
+  protected File inputFile;
+  protected ConfigurationSettingFileInput setting;
+  protected Charset charset;
+  protected String relationName;
+  protected List<String> headerLine;
+  protected int numberOfColumns = 0;
+  protected int batchSize = DEFAULT_BATCH_SIZE;
+  protected AtomicLong numberOfSkippedLines = new AtomicLong();
+
+  protected ExecutorService executor;
+  /**
+   * The first byte of every chunk followed by the end of the file.
+   */
+  protected long[] chunkStarts;
+  /**
+   * The state of the tokenizer at the start of every chunk.
+   */
+  protected int[] chunkStartStates;
+  protected int dataStartState = 0;
+
+  // state of the ordered iteration
+  protected List<BlockingQueue<List<List<String>>>> queues;
+  protected List<Future<Long>> chunkResults;
+  protected int currentChunk = 0;
+  protected List<List<String>> currentBatch = Collections.emptyList();
+  protected int currentBatchPosition = 0;
+
+  public ChunkedFileInput(File inputFile, ConfigurationSettingFileInput setting)
+    throws InputIterationException {
+    this(inputFile, setting, Charset.defaultCharset(), Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Splits the given file into {@link #DEFAULT_CHUNKS_PER_THREAD} chunks per thread, but into
+   * chunks of at least {@link #MIN_CHUNK_SIZE} bytes.
+   *
+   * @param inputFile   the file to read
+   * @param setting     the setting of the file
+   * @param charset     the charset of the file
+   * @param parallelism the number of threads parsing the chunks
+   * @throws InputIterationException if the file cannot be read
+   */
+  public ChunkedFileInput(File inputFile, ConfigurationSettingFileInput setting, Charset charset,
+                          int parallelism)
+    throws InputIterationException {
+    this(inputFile, setting, charset, parallelism, (int) Math.min(
+      parallelism * DEFAULT_CHUNKS_PER_THREAD, Math.max(1, inputFile.length() / MIN_CHUNK_SIZE)));
+  }
+
+  /**
+   * Splits the given file into chunks. The header line is read right away.
+   *
+   * @param inputFile      the file to read
+   * @param setting        the setting of the file
+   * @param charset        the charset of the file
+   * @param parallelism    the number of threads parsing the chunks
+   * @param numberOfChunks the number of chunks to split the file into; small files may result in
+   *                       fewer chunks
+   * @throws InputIterationException if the file cannot be read
+   */
+  public ChunkedFileInput(File inputFile, ConfigurationSettingFileInput setting, Charset charset,
+                          int parallelism, int numberOfChunks)
+    throws InputIterationException {
+    this.inputFile = inputFile;
+    this.setting = setting;
+    this.charset = charset;
+    this.relationName = inputFile.getName();
+    this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        // inputs that are not closed must not keep the virtual machine alive
+        Thread thread = new Thread(runnable, "chunked-file-input");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
+    try {
+      long dataStart = readFirstLine();
+      calculateChunks(dataStart, inputFile.length(), numberOfChunks);
+    } catch (InputIterationException e) {
+      this.executor.shutdownNow();
+      throw e;
+    } catch (IOException e) {
+      this.executor.shutdownNow();
+      throw new InputIterationException("Could not split the file input", e);
+    }
+  }
+
+  public ChunkedFileInput setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  /**
+   * Reads the header or the first line to determine the number of columns.
+   *
+   * @return the offset of the first line after the skipped lines and the header
+   */
+  protected long readFirstLine() throws InputIterationException, IOException {
+    MappedFileIterator reader = openRange(0, -1);
+    try {
+      for (int i = 0; i < setting.getSkipLines(); i++) {
+        reader.skipLine();
+      }
+      reader.skipLines = 0;
+      long dataStart = reader.position();
+
+      List<String> firstLine = reader.readNextLine();
+      if (firstLine != null) {
+        this.numberOfColumns = firstLine.size();
+      }
+      if (setting.hasHeader()) {
+        this.headerLine = firstLine;
+        this.dataStartState = reader.inField ? IN_FIELD : 0;
+        dataStart = reader.position();
+      }
+      if (this.headerLine == null) {
+        List<String> headerList = new ArrayList<>();
+        for (int i = 1; i <= this.numberOfColumns; i++) {
+          headerList.add(FileIterator.DEFAULT_HEADER_STRING + i);
+        }
+        this.headerLine = Collections.unmodifiableList(headerList);
+      }
+      return dataStart;
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Splits the byte range into the given number of chunks starting at record boundaries. The
+   * byte range is split at line starts first. Then the state transitions of the tokenizer are
+   * computed for every range and every start state in parallel. Chaining the transitions yields
+   * the exact state at every range start. Ranges starting within quotes are moved to the end of
+   * the quoted record.
+   */
+  protected void calculateChunks(long dataStart, long end, int chunkCount)
+    throws InputIterationException, IOException {
+    // split at line starts without considering quotes
+    List<Long> lineStarts = new ArrayList<>();
+    lineStarts.add(dataStart);
+    for (int chunk = 1; chunk < chunkCount; chunk++) {
+      long offset = dataStart + (end - dataStart) * chunk / chunkCount;
+      if (offset <= dataStart) {
+        continue;
+      }
+      long lineStart = nextLineStart(offset);
+      if (lineStart > lineStarts.get(lineStarts.size() - 1) && lineStart < end) {
+        lineStarts.add(lineStart);
+      }
+    }
+    lineStarts.add(end);
+
+    // compute the end state of every range for every start state in parallel
+    List<Future<int[]>> transitions = new ArrayList<>();
+    for (int range = 0; range < lineStarts.size() - 2; range++) {
+      final long from = lineStarts.get(range);
+      final long to = lineStarts.get(range + 1);
+      // only the start state of the first range is known
+      final int stateMask = range == 0 ? 1 << dataStartState : (1 << STATES) - 1;
+      transitions.add(executor.submit(new Callable<int[]>() {
+        @Override
+        public int[] call() throws Exception {
+          return tokenizeRange(from, to, stateMask);
+        }
+      }));
+    }
+
+    List<Long> starts = new ArrayList<>();
+    List<Integer> states = new ArrayList<>();
+    starts.add(dataStart);
+    states.add(dataStartState);
+    int state = dataStartState;
+    for (int range = 1; range < lineStarts.size() - 1; range++) {
+      state = getResult(transitions.get(range - 1))[state];
+      long start = lineStarts.get(range);
+      int startState = state;
+      if ((state & IN_QUOTES) != 0) {
+        // move the start behind the quoted record
+        MappedFileIterator reader = openTokenizer(start, end, state);
+        try {
+          reader.tokenizeLine();
+          start = reader.position();
+          startState = reader.inField ? IN_FIELD : 0;
+        } finally {
+          reader.close();
+        }
+      }
+      if (start > starts.get(starts.size() - 1) && start < end) {
+        starts.add(start);
+        states.add(startState);
+      }
+    }
+
+    this.chunkStarts = new long[starts.size() + 1];
+    this.chunkStartStates = new int[starts.size()];
+    for (int chunk = 0; chunk < starts.size(); chunk++) {
+      this.chunkStarts[chunk] = starts.get(chunk);
+      this.chunkStartStates[chunk] = states.get(chunk);
+    }
+    this.chunkStarts[starts.size()] = end;
+  }
+
+  /**
+   * @return the first line start at or after the given offset
+   */
+  protected long nextLineStart(long offset) throws InputIterationException, IOException {
+    MappedFileIterator reader = openRange(offset - 1, -1);
+    try {
+      int previous = reader.read();
+      if (previous == '\n' || (previous == '\r' && reader.peek() != '\n')) {
+        return offset;
+      }
+      reader.skipLine();
+      return reader.position();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Tokenizes the given byte range from all given start states without storing the values. The
+   * tokenizers of the different start states run in lock-step record by record. As soon as two
+   * tokenizers reach the same record start in the same state, only one of them continues, which
+   * is usually the case after the first record.
+   *
+   * @param from      the first byte of the range, which has to be a line start
+   * @param to        the end of the range
+   * @param stateMask the start states to compute the end states for as bit mask
+   * @return the end state for every requested start state
+   */
+  protected int[] tokenizeRange(long from, long to, int stateMask)
+    throws InputIterationException, IOException {
+    List<MappedFileIterator> readers = new ArrayList<>();
+    List<Integer> startStates = new ArrayList<>();
+    int[] endStates = new int[STATES];
+    try {
+      for (int state = 0; state < STATES; state++) {
+        if ((stateMask & (1 << state)) != 0) {
+          readers.add(openTokenizer(from, to, state));
+          startStates.add(1 << state);
+        }
+      }
+
+      while (!readers.isEmpty()) {
+        // advance the tokenizer that is furthest behind
+        int behind = 0;
+        for (int i = 1; i < readers.size(); i++) {
+          if (readers.get(i).position() < readers.get(behind).position()) {
+            behind = i;
+          }
+        }
+        MappedFileIterator reader = readers.get(behind);
+        boolean finished = !reader.tokenizeLine();
+
+        int mergeTarget = -1;
+        for (int i = 0; i < readers.size() && !finished; i++) {
+          MappedFileIterator other = readers.get(i);
+          if (i != behind && other.position() == reader.position()
+            && other.inField == reader.inField && other.inQuotes == reader.inQuotes) {
+            mergeTarget = i;
+            break;
+          }
+        }
+        if (finished) {
+          int endState = (reader.inQuotes ? IN_QUOTES : 0) | (reader.inField ? IN_FIELD : 0);
+          for (int state = 0; state < STATES; state++) {
+            if ((startStates.get(behind) & (1 << state)) != 0) {
+              endStates[state] = endState;
+            }
+          }
+        } else if (mergeTarget >= 0) {
+          startStates.set(mergeTarget, startStates.get(mergeTarget) | startStates.get(behind));
+        } else {
+          continue;
+        }
+        reader.close();
+        readers.remove(behind);
+        startStates.remove(behind);
+      }
+      return endStates;
+    } finally {
+      for (MappedFileIterator reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  protected MappedFileIterator openTokenizer(long from, long to, int state)
+    throws InputIterationException {
+    MappedFileIterator reader = openRange(from, to);
+    reader.discardValues = true;
+    reader.inQuotes = (state & IN_QUOTES) != 0;
+    reader.inField = (state & IN_FIELD) != 0;
+    return reader;
+  }
+
+  protected MappedFileIterator openRange(long start, long end) throws InputIterationException {
+    return new MappedFileIterator(relationName, inputFile, setting, charset,
+      MappedFileIterator.DEFAULT_WINDOW_SIZE, start, end);
+  }
+
+  /**
+   * @return the number of chunks the file is split into
+   */
+  public int getNumberOfChunks() {
+    return chunkStarts.length - 1;
+  }
+
+  /**
+   * Parses all chunks in parallel and hands the lines to the given handler in batches. The handler
+   * is called concurrently from several threads. The batches of one chunk are handed over in file
+   * order, the chunks in no particular order.
+   *
+   * @param handler the handler for the batches
+   * @return the number of lines per chunk, which can be used to compute global line numbers
+   * @throws InputIterationException if a chunk cannot be parsed or the handler fails
+   */
+  public long[] parse(final BatchHandler handler) throws InputIterationException {
+    List<Future<Long>> results = new ArrayList<>();
+    for (int chunk = 0; chunk < getNumberOfChunks(); chunk++) {
+      final int chunkIndex = chunk;
+      results.add(executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws Exception {
+          return parseChunk(chunkIndex, handler);
+        }
+      }));
+    }
+
+    long[] lineCounts = new long[results.size()];
+    try {
+      for (int chunk = 0; chunk < lineCounts.length; chunk++) {
+        lineCounts[chunk] = getResult(results.get(chunk));
+      }
+    } finally {
+      for (Future<Long> result : results) {
+        result.cancel(true);
+      }
+    }
+    return lineCounts;
+  }
+
+  /**
+   * Parses one chunk and hands its lines to the handler in batches.
+   *
+   * @return the number of lines in the chunk
+   */
+  protected long parseChunk(int chunk, BatchHandler handler) throws Exception {
+    MappedFileIterator reader = openRange(chunkStarts[chunk], chunkStarts[chunk + 1]);
+    reader.inField = (chunkStartStates[chunk] & IN_FIELD) != 0;
+    try {
+      long lineCount = 0;
+      List<List<String>> batch = new ArrayList<>(batchSize);
+      List<String> line;
+      while ((line = reader.readNextLine()) != null) {
+        if (line.size() != numberOfColumns) {
+          if (!setting.isSkipDifferingLines()) {
+            throw new InputIterationException(
+              "Csv line length did not match on line " + reader.currentLineNumber + " of chunk "
+                + chunk);
+          }
+          numberOfSkippedLines.incrementAndGet();
+          continue;
+        }
+        batch.add(line);
+        if (batch.size() == batchSize) {
+          handler.handle(chunk, lineCount, batch);
+          lineCount += batch.size();
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        handler.handle(chunk, lineCount, batch);
+        lineCount += batch.size();
+      }
+      return lineCount;
+    } finally {
+      reader.close();
+    }
+  }
+
+  protected <T> T getResult(Future<T> future) throws InputIterationException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InputIterationException("Interrupted while parsing the file input", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof InputIterationException) {
+        throw (InputIterationException) e.getCause();
+      }
+      throw new InputIterationException("Could not parse the file input", e.getCause());
+    }
+  }
+
+  /**
+   * Starts parsing all chunks for the ordered iteration. Every chunk fills a bounded queue of
+   * batches, which is drained in chunk order.
+   */
+  protected void startOrderedIteration() {
+    queues = new ArrayList<>();
+    chunkResults = new ArrayList<>();
+    for (int chunk = 0; chunk < getNumberOfChunks(); chunk++) {
+      final BlockingQueue<List<List<String>>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+      final int chunkIndex = chunk;
+      queues.add(queue);
+      chunkResults.add(executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws Exception {
+          try {
+            return parseChunk(chunkIndex, new BatchHandler() {
+              @Override
+              public void handle(int chunk, long firstLine, List<List<String>> lines)
+                throws InterruptedException {
+                queue.put(lines);
+              }
+            });
+          } finally {
+            queue.put(END_OF_CHUNK);
+          }
+        }
+      }));
+    }
+  }
+
+  @Override
+  public boolean hasNext() throws InputIterationException {
+    if (queues == null) {
+      startOrderedIteration();
+    }
+    while (currentBatchPosition >= currentBatch.size()) {
+      if (currentChunk >= queues.size()) {
+        return false;
+      }
+      List<List<String>> batch;
+      try {
+        batch = queues.get(currentChunk).take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InputIterationException("Interrupted while parsing the file input", e);
+      }
+      if (batch == END_OF_CHUNK) {
+        // propagates the exception of a failed chunk
+        getResult(chunkResults.get(currentChunk));
+        currentChunk++;
+        continue;
+      }
+      currentBatch = batch;
+      currentBatchPosition = 0;
+    }
+    return true;
+  }
+
+  @Override
+  public List<String> next() throws InputIterationException {
+    if (!hasNext()) {
+      return null;
+    }
+    return currentBatch.get(currentBatchPosition++);
+  }
+
+  @Override
+  public int numberOfColumns() {
+    return numberOfColumns;
+  }
+
+  @Override
+  public String relationName() {
+    return relationName;
+  }
+
+  @Override
+  public List<String> columnNames() {
+    return headerLine;
+  }
+
+  public long getNumberOfSkippedDifferingLines() {
+    return numberOfSkippedLines.get();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Receives the lines of a chunk in batches.
+   */
+  public interface BatchHandler {
+
+    /**
+     * @param chunk     the index of the chunk
+     * @param firstLine the number of the first line of the batch within the chunk
+     * @param lines     the lines of the batch, which may be kept by the handler
+     * @throws Exception if the handler fails; the parsing is stopped
+     */
+    void handle(int chunk, long firstLine, List<List<String>> lines) throws Exception;
+  }
+
+}
@@ -18,6 +18,7 @@ package de.metanome.backend.input.file;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.nio.charset.Charset;
 
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
@@ -37,6 +38,8 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
 
   File inputFile;
   protected ConfigurationSettingFileInput setting;
+  protected boolean memoryMapped = false;
+  protected int parallelism = 1;
 
   protected DefaultFileInputGenerator() {
   }
@@ -80,6 +83,13 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
   @Override
   public RelationalInput generateNewCopy() throws InputGenerationException {
     try {
+      boolean supported = MappedFileIterator.isSupported(setting, Charset.defaultCharset());
+      if (parallelism > 1 && supported) {
+        return new ChunkedFileInput(inputFile, setting, Charset.defaultCharset(), parallelism);
+      }
+      if (memoryMapped && supported) {
+        return new MappedFileIterator(inputFile.getName(), inputFile, setting);
+      }
       return new FileIterator(inputFile.getName(), new FileReader(inputFile), setting);
     } catch (FileNotFoundException e) {
       throw new InputGenerationException("File not found!", e);
@@ -111,6 +121,34 @@ public class DefaultFileInputGenerator implements FileInputGenerator {
     return this.setting;
   }
 
+  public boolean isMemoryMapped() {
+    return memoryMapped;
+  }
+
+  /**
+   * @param memoryMapped whether new copies should be {@link MappedFileIterator}s; settings that
+   *                     cannot be tokenized on bytes still use a {@link FileIterator}
+   * @return the generator
+   */
+  public DefaultFileInputGenerator setMemoryMapped(boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+    return this;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @param parallelism the number of threads parsing a file; with more than one thread new copies
+   *                    are {@link ChunkedFileInput}s, if the setting can be tokenized on bytes
+   * @return the generator
+   */
+  public DefaultFileInputGenerator setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
+
   @Override
   public void close() throws Exception {
     // Nothing to close
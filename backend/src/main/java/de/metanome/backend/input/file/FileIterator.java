@@ -17,12 +17,16 @@ package de.metanome.backend.input.file;
 
 import au.com.bytecode.opencsv.CSVReader;
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
-import de.metanome.algorithm_integration.input.RelationalInput;
+import de.metanome.backend.input.InputProgress;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,7 +35,7 @@ import java.util.List;
  *
  * @author Jakob Zwiener
  */
-public class FileIterator implements RelationalInput {
+public class FileIterator implements BatchRelationalInput {
 
   public static final boolean DEFAULT_HAS_HEADER = true;
   public static final boolean DEFAULT_SKIP_DIFFERING_LINES = false;
@@ -47,19 +51,18 @@ public class FileIterator implements RelationalInput {
   // Initialized to -1 because of lookahead
   protected int currentLineNumber = -1;
   protected int numberOfSkippedLines = 0;
+  // Lines read, but not added to the InputProgress yet
+  protected int unreportedLines = 0;
 
   protected boolean hasHeader;
   protected boolean skipDifferingLines;
   protected String nullValue;
 
+  protected ColumnBatch batch;
 
   public FileIterator(String relationName, Reader reader, ConfigurationSettingFileInput setting)
     throws InputIterationException {
-    this.relationName = relationName;
-
-    this.hasHeader = setting.hasHeader();
-    this.skipDifferingLines = setting.isSkipDifferingLines();
-    this.nullValue = setting.getNullValue();
+    this(relationName, setting);
 
     this.csvReader =
       new CSVReader(reader,
@@ -70,6 +73,30 @@ public class FileIterator implements RelationalInput {
         setting.isStrictQuotes(),
         setting.isIgnoreLeadingWhiteSpace());
 
+    readFirstLines();
+  }
+
+  /**
+   * Initializes the settings without opening a reader. Subclasses reading the file on their own
+   * have to call {@link #readFirstLines()} after opening the file.
+   *
+   * @param relationName the name of the relation
+   * @param setting      the setting of the file
+   */
+  protected FileIterator(String relationName, ConfigurationSettingFileInput setting) {
+    this.relationName = relationName;
+
+    this.hasHeader = setting.hasHeader();
+    this.skipDifferingLines = setting.isSkipDifferingLines();
+    this.nullValue = setting.getNullValue();
+  }
+
+  /**
+   * Reads the first line to determine the number of columns and the header.
+   *
+   * @throws InputIterationException if the first lines cannot be read
+   */
+  protected void readFirstLines() throws InputIterationException {
     this.nextLine = readNextLine();
     if (this.nextLine != null) {
       this.numberOfColumns = this.nextLine.size();
@@ -109,6 +136,58 @@ public class FileIterator implements RelationalInput {
     return currentLine;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p/>
+   * Only the values of the rows are allocated. The lines are read directly into the batch and
+   * only the lookahead line following the batch is wrapped in a list.
+   */
+  @Override
+  public ColumnBatch nextBatch(int maxRows) throws InputIterationException {
+    this.batch = BatchRelationalInputAdapter.reuseBatch(this.batch, this.numberOfColumns, maxRows);
+    if (this.nextLine == null) {
+      return this.batch;
+    }
+
+    String[][] columns = this.batch.getColumns();
+    if (!this.skipDifferingLines) {
+      failDifferingLine(this.nextLine);
+    }
+    for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++) {
+      columns[columnIndex][0] = this.nextLine.get(columnIndex);
+    }
+    int rowCount = 1;
+
+    while (rowCount < maxRows) {
+      String[] values = readNextValues();
+      if (values == null) {
+        this.nextLine = null;
+        this.batch.setSize(rowCount);
+        return this.batch;
+      }
+      if (values.length != this.numberOfColumns) {
+        if (this.skipDifferingLines) {
+          this.numberOfSkippedLines++;
+          continue;
+        }
+        // The lookahead of next() reports one line further, so do the same.
+        throw new InputIterationException(
+          "Csv line length did not match on line " + (currentLineNumber + 1));
+      }
+      for (int columnIndex = 0; columnIndex < this.numberOfColumns; columnIndex++) {
+        columns[columnIndex][rowCount] = values[columnIndex];
+      }
+      rowCount++;
+    }
+    this.batch.setSize(rowCount);
+
+    this.nextLine = readNextLine();
+    if (this.skipDifferingLines) {
+      readToNextValidLine();
+    }
+    return this.batch;
+  }
+
   protected void failDifferingLine(List<String> currentLine)
     throws InputIterationException {
     if (currentLine.size() != this.numberOfColumns()) {
@@ -140,6 +219,21 @@ public class FileIterator implements RelationalInput {
   }
 
   protected List<String> readNextLine() throws InputIterationException {
+    String[] values = readNextValues();
+    if (values == null) {
+      return null;
+    }
+    // Return an immutable list
+    return Collections.unmodifiableList(Arrays.asList(values));
+  }
+
+  /**
+   * Reads the values of the next line. Values equal to the null value are converted to null.
+   *
+   * @return the values of the next line or null if the end of the input was reached
+   * @throws InputIterationException if the next line could not be read
+   */
+  protected String[] readNextValues() throws InputIterationException {
     String[] lineArray;
     try {
       lineArray = this.csvReader.readNext();
@@ -150,21 +244,33 @@ public class FileIterator implements RelationalInput {
     if (lineArray == null) {
       return null;
     }
-	// Convert empty Strings to null
-    List<String> list = new ArrayList<String>();
-    for (String val : lineArray) {
-      if (val.equals(this.nullValue)) {
-        list.add(null);
-      } else {
-        list.add(val);
+    lineRead();
+    // Convert empty Strings to null
+    for (int i = 0; i < lineArray.length; i++) {
+      if (lineArray[i].equals(this.nullValue)) {
+        lineArray[i] = null;
       }
     }
-    // Return an immutable list
-    return Collections.unmodifiableList(list);
+    return lineArray;
+  }
+
+  /**
+   * Counts a read line. The lines are added to the {@link InputProgress} in steps.
+   */
+  protected void lineRead() {
+    if (++this.unreportedLines == InputProgress.REPORT_INTERVAL) {
+      reportLines();
+    }
+  }
+
+  protected void reportLines() {
+    InputProgress.addRows(this.unreportedLines);
+    this.unreportedLines = 0;
   }
 
   @Override
   public void close() throws IOException {
+    reportLines();
     csvReader.close();
   }
 
@@ -0,0 +1,430 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * A {@link FileIterator} that memory-maps the file and tokenizes the raw bytes itself instead of
+ * decoding the whole file into characters first. Only the bytes of the values are decoded. The
+ * tokenizer follows the rules of the opencsv parser used by the {@link FileIterator}, so both
+ * iterators return the same lines for the same setting. The file is mapped in windows, so files
+ * larger than 2 GB can be read.
+ * <p/>
+ * The separator, quote and escape characters have to be ASCII characters and the charset has to
+ * encode ASCII characters as single bytes (see {@link #isSupported(ConfigurationSettingFileInput,
+ * Charset)}).
+ */
+public class MappedFileIterator extends FileIterator {
+
+  public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  protected static final int END_OF_FILE = -1;
+  protected static final int NO_CHARACTER = -2;
+
+  protected RandomAccessFile file;
+  protected FileChannel channel;
+  /**
+   * The offset after the last byte to read.
+   */
+  protected long end;
+  protected int windowSize;
+  protected MappedByteBuffer window;
+  protected long windowStart = 0;
+
+  protected Charset charset;
+  protected boolean utf8;
+  protected byte separator;
+  protected byte quoteChar;
+  protected byte escapeChar;
+  protected boolean strictQuotes;
+  protected boolean ignoreLeadingWhiteSpace;
+  protected int skipLines;
+  protected boolean linesSkipped = false;
+  protected byte[] nullValueBytes;
+  /**
+   * Whether the tokenizer is within a value. Like in the opencsv parser, the flag is kept between
+   * lines.
+   */
+  protected boolean inField = false;
+  /**
+   * Whether the next line starts within quotes. This is only the case, if the byte range ended
+   * within a quoted value.
+   */
+  protected boolean inQuotes = false;
+  /**
+   * Whether the values are only tokenized to track the state without storing them.
+   */
+  protected boolean discardValues = false;
+
+  /**
+   * The bytes of all values of the current line, which are reused for every line.
+   */
+  protected byte[] lineBytes = new byte[1024];
+  protected int lineByteCount;
+  /**
+   * The end positions of all values of the current line in {@link #lineBytes}.
+   */
+  protected int[] valueEnds = new int[16];
+  protected int valueCount;
+
+  public MappedFileIterator(String relationName, File inputFile,
+                            ConfigurationSettingFileInput setting)
+    throws InputIterationException {
+    this(relationName, inputFile, setting, Charset.defaultCharset(), DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * @param relationName the name of the relation
+   * @param inputFile    the file to read
+   * @param setting      the setting of the file
+   * @param charset      the charset of the file
+   * @param windowSize   the number of bytes mapped at once
+   * @throws InputIterationException if the file cannot be mapped or the first line cannot be read
+   */
+  public MappedFileIterator(String relationName, File inputFile,
+                            ConfigurationSettingFileInput setting, Charset charset,
+                            int windowSize)
+    throws InputIterationException {
+    this(relationName, inputFile, setting, charset, windowSize, 0, -1);
+
+    readFirstLines();
+  }
+
+  /**
+   * Constructs an iterator over the lines in the given byte range of the file, which has to start
+   * at the beginning of a line. The header is not read and lines are only skipped, if the range
+   * starts at the beginning of the file.
+   *
+   * @param relationName the name of the relation
+   * @param inputFile    the file to read
+   * @param setting      the setting of the file
+   * @param charset      the charset of the file
+   * @param windowSize   the number of bytes mapped at once
+   * @param start        the offset of the first byte to read
+   * @param end          the offset after the last byte to read or -1 to read to the end of the file
+   * @throws InputIterationException if the file cannot be mapped
+   */
+  protected MappedFileIterator(String relationName, File inputFile,
+                               ConfigurationSettingFileInput setting, Charset charset,
+                               int windowSize, long start, long end)
+    throws InputIterationException {
+    super(relationName, setting);
+
+    if (!isSupported(setting, charset)) {
+      throw new InputIterationException(
+        "The setting cannot be tokenized on bytes of the charset " + charset.name());
+    }
+
+    this.charset = charset;
+    this.utf8 = charset.name().equals("UTF-8");
+    this.windowSize = windowSize;
+    this.separator = (byte) setting.getSeparatorAsChar();
+    this.quoteChar = (byte) setting.getQuoteCharAsChar();
+    this.escapeChar = (byte) setting.getEscapeCharAsChar();
+    this.strictQuotes = setting.isStrictQuotes();
+    this.ignoreLeadingWhiteSpace = setting.isIgnoreLeadingWhiteSpace();
+    this.skipLines = start == 0 ? setting.getSkipLines() : 0;
+    this.nullValueBytes = this.nullValue == null ? null : this.nullValue.getBytes(charset);
+
+    try {
+      this.file = new RandomAccessFile(inputFile, "r");
+      this.channel = this.file.getChannel();
+      this.end = end < 0 ? this.channel.size() : Math.min(end, this.channel.size());
+      mapWindow(start);
+    } catch (IOException e) {
+      throw new InputIterationException("Could not map the file input", e);
+    }
+  }
+
+  /**
+   * Checks whether the given setting can be tokenized on the bytes of the given charset. This is
+   * the case, if the separator, quote and escape characters are ASCII characters and the charset
+   * encodes them as single bytes.
+   *
+   * @param setting the setting of the file
+   * @param charset the charset of the file
+   * @return true, if a {@link MappedFileIterator} can read the file
+   */
+  public static boolean isSupported(ConfigurationSettingFileInput setting, Charset charset) {
+    if (!charset.name().equals("UTF-8") && charset.newEncoder().maxBytesPerChar() != 1) {
+      return false;
+    }
+    char[] specialChars = {setting.getSeparatorAsChar(), setting.getQuoteCharAsChar(),
+      setting.getEscapeCharAsChar(), '\n', '\r'};
+    for (char specialChar : specialChars) {
+      if (specialChar >= 0x80) {
+        return false;
+      }
+      byte[] encoded = String.valueOf(specialChar).getBytes(charset);
+      if (encoded.length != 1 || encoded[0] != specialChar) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  protected String[] readNextValues() throws InputIterationException {
+    try {
+      if (!linesSkipped) {
+        for (int i = 0; i < skipLines; i++) {
+          skipLine();
+        }
+        linesSkipped = true;
+      }
+      boolean hasLine = tokenizeLine();
+      currentLineNumber++;
+      if (!hasLine) {
+        return null;
+      }
+      lineRead();
+    } catch (IOException e) {
+      throw new InputIterationException("Could not read next line in file input", e);
+    }
+
+    // Only the values of the line are allocated, the line buffers are reused.
+    String[] values = new String[valueCount];
+    int from = 0;
+    for (int i = 0; i < valueCount; i++) {
+      int to = valueEnds[i];
+      if (!isNullValue(from, to)) {
+        values[i] = new String(lineBytes, from, to - from, charset);
+      }
+      from = to;
+    }
+    return values;
+  }
+
+  /**
+   * Tokenizes the next line into the line buffers. Quoted values may span several physical lines.
+   * The rules follow the opencsv parser: escaped quotes and escape characters as well as doubled
+   * quotes within quotes are literal characters, quotes within unquoted values are kept and
+   * strict quotes drop all characters outside of quotes.
+   *
+   * @return false, if the end of the file is reached
+   * @throws IOException if the next window cannot be mapped
+   */
+  protected boolean tokenizeLine() throws IOException {
+    lineByteCount = 0;
+    valueCount = 0;
+
+    if (peek() == END_OF_FILE) {
+      return false;
+    }
+
+    boolean inQuotes = this.inQuotes;
+    this.inQuotes = false;
+    // position of the character in the physical line and the previous character of the line
+    int position = 0;
+    int previous = NO_CHARACTER;
+    while (true) {
+      int current = read();
+
+      if (current == END_OF_FILE || current == '\n' || current == '\r') {
+        if (current == '\r' && peek() == '\n') {
+          read();
+        }
+        if (inQuotes && current != END_OF_FILE) {
+          // the quoted value continues on the next physical line
+          appendByte((byte) '\n');
+          position = 0;
+          previous = NO_CHARACTER;
+          continue;
+        }
+        if (inQuotes) {
+          // an unterminated quoted value at the end of the file is dropped
+          this.inQuotes = true;
+          return valueCount > 0;
+        }
+        endValue();
+        return true;
+      }
+
+      byte currentByte = (byte) current;
+      int next = peekInLine();
+      if (currentByte == escapeChar) {
+        if ((inQuotes || inField) && next != NO_CHARACTER
+          && ((byte) next == quoteChar || (byte) next == escapeChar)) {
+          appendByte((byte) read());
+          current = next;
+          position++;
+        }
+      } else if (currentByte == quoteChar) {
+        if ((inQuotes || inField) && next != NO_CHARACTER && (byte) next == quoteChar) {
+          appendByte((byte) read());
+          current = next;
+          position++;
+        } else {
+          if (!strictQuotes && position > 2 && previous != NO_CHARACTER
+            && (byte) previous != separator && next != NO_CHARACTER && (byte) next != separator) {
+            // a quote within an unquoted value
+            if (ignoreLeadingWhiteSpace && isValueWhiteSpace()) {
+              lineByteCount = valueCount == 0 ? 0 : valueEnds[valueCount - 1];
+            } else {
+              appendByte(currentByte);
+            }
+          }
+          inQuotes = !inQuotes;
+        }
+        inField = !inField;
+      } else if (currentByte == separator && !inQuotes) {
+        endValue();
+        inField = false;
+      } else if (!strictQuotes || inQuotes) {
+        appendByte(currentByte);
+        inField = true;
+      }
+
+      previous = current;
+      if (!isContinuationByte(current)) {
+        position++;
+      }
+    }
+  }
+
+  protected void skipLine() throws IOException {
+    int current = read();
+    while (current != END_OF_FILE && current != '\n' && current != '\r') {
+      current = read();
+    }
+    if (current == '\r' && peek() == '\n') {
+      read();
+    }
+  }
+
+  /**
+   * The position counts characters, so continuation bytes of multi-byte UTF-8 characters are not
+   * counted.
+   */
+  protected boolean isContinuationByte(int current) {
+    return utf8 && (current & 0xC0) == 0x80;
+  }
+
+  protected boolean isValueWhiteSpace() {
+    int from = valueCount == 0 ? 0 : valueEnds[valueCount - 1];
+    if (from == lineByteCount) {
+      return false;
+    }
+    for (int i = from; i < lineByteCount; i++) {
+      if (!Character.isWhitespace((char) (lineBytes[i] & 0xff))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected boolean isNullValue(int from, int to) {
+    if (nullValueBytes == null || nullValueBytes.length != to - from) {
+      return false;
+    }
+    for (int i = 0; i < nullValueBytes.length; i++) {
+      if (nullValueBytes[i] != lineBytes[from + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  protected void appendByte(byte value) {
+    if (discardValues) {
+      return;
+    }
+    if (lineByteCount == lineBytes.length) {
+      lineBytes = Arrays.copyOf(lineBytes, lineBytes.length * 2);
+    }
+    lineBytes[lineByteCount++] = value;
+  }
+
+  protected void endValue() {
+    if (valueCount == valueEnds.length) {
+      valueEnds = Arrays.copyOf(valueEnds, valueEnds.length * 2);
+    }
+    valueEnds[valueCount++] = lineByteCount;
+  }
+
+  /**
+   * @return the next byte of the file or {@link #END_OF_FILE}
+   */
+  protected int read() throws IOException {
+    if (!window.hasRemaining() && !nextWindow()) {
+      return END_OF_FILE;
+    }
+    return window.get() & 0xff;
+  }
+
+  /**
+   * @return the next byte of the file without consuming it or {@link #END_OF_FILE}
+   */
+  protected int peek() throws IOException {
+    if (!window.hasRemaining() && !nextWindow()) {
+      return END_OF_FILE;
+    }
+    return window.get(window.position()) & 0xff;
+  }
+
+  /**
+   * @return the next byte of the physical line without consuming it or {@link #NO_CHARACTER}, if
+   * the line ends
+   */
+  protected int peekInLine() throws IOException {
+    int next = peek();
+    if (next == END_OF_FILE || next == '\n' || next == '\r') {
+      return NO_CHARACTER;
+    }
+    return next;
+  }
+
+  protected boolean nextWindow() throws IOException {
+    long nextWindowStart = windowStart + window.limit();
+    if (nextWindowStart >= end) {
+      return false;
+    }
+    mapWindow(nextWindowStart);
+    return true;
+  }
+
+  protected void mapWindow(long start) throws IOException {
+    long size = Math.max(0, Math.min(windowSize, end - start));
+    this.window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    this.windowStart = start;
+  }
+
+  /**
+   * @return the offset of the next byte to read
+   */
+  protected long position() {
+    return windowStart + window.position();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reportLines();
+    // The mapped windows are released by the garbage collector.
+    this.window = null;
+    this.file.close();
+  }
+
+}
@@ -28,7 +28,12 @@ public class AlgorithmExecutionParams {
   private Boolean cacheResults = false;
   private Boolean writeResults = false;
   private Boolean countResults = false;
+  private Boolean writeResultsAsynchronously = false;
+  private Boolean writeBinaryResults = false;
+  private Boolean postProcessIncrementally = false;
+  private Boolean executeInWorkerPool = false;
   private String memory;
+  private int priority = 0;
 
   public long getAlgorithmId() {
     return algorithmId;
@@ -84,6 +89,52 @@ public class AlgorithmExecutionParams {
     return this;
   }
 
+  public Boolean getWriteResultsAsynchronously() {
+    return writeResultsAsynchronously;
+  }
+
+  public AlgorithmExecutionParams setWriteResultsAsynchronously(
+    Boolean writeResultsAsynchronously) {
+    this.writeResultsAsynchronously = writeResultsAsynchronously;
+    return this;
+  }
+
+  public Boolean getWriteBinaryResults() {
+    return writeBinaryResults;
+  }
+
+  public AlgorithmExecutionParams setWriteBinaryResults(Boolean writeBinaryResults) {
+    this.writeBinaryResults = writeBinaryResults;
+    return this;
+  }
+
+  public Boolean getPostProcessIncrementally() {
+    return postProcessIncrementally;
+  }
+
+  public AlgorithmExecutionParams setPostProcessIncrementally(Boolean postProcessIncrementally) {
+    this.postProcessIncrementally = postProcessIncrementally;
+    return this;
+  }
+
+  public Boolean getExecuteInWorkerPool() {
+    return executeInWorkerPool;
+  }
+
+  public AlgorithmExecutionParams setExecuteInWorkerPool(Boolean executeInWorkerPool) {
+    this.executeInWorkerPool = executeInWorkerPool;
+    return this;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  public AlgorithmExecutionParams setPriority(int priority) {
+    this.priority = priority;
+    return this;
+  }
+
   public String getMemory() {
     return memory;
   }
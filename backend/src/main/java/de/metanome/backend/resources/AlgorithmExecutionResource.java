@@ -29,6 +29,13 @@ import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.input.TableInputGenerator;
 import de.metanome.algorithm_integration.results.JsonConverter;
 import de.metanome.backend.algorithm_execution.AlgorithmExecution;
+import de.metanome.backend.algorithm_execution.ExecutionJob;
+import de.metanome.backend.algorithm_execution.ExecutionProgress;
+import de.metanome.backend.algorithm_execution.ExecutionProgressListener;
+import de.metanome.backend.algorithm_execution.ExecutionProgressMonitor;
+import de.metanome.backend.algorithm_execution.ExecutionScheduler;
+import de.metanome.backend.algorithm_execution.ExecutorWorker;
+import de.metanome.backend.algorithm_execution.ExecutorWorkerPool;
 import de.metanome.backend.algorithm_execution.ProcessRegistry;
 import de.metanome.backend.configuration.DefaultConfigurationFactory;
 import de.metanome.backend.helper.DatabaseConnectionGeneratorMixIn;
@@ -36,6 +43,7 @@ import de.metanome.backend.helper.ExecutionResponse;
 import de.metanome.backend.helper.FileInputGeneratorMixIn;
 import de.metanome.backend.helper.RelationalInputGeneratorMixIn;
 import de.metanome.backend.helper.TableInputGeneratorMixIn;
+import de.metanome.backend.result_postprocessing.IncrementalResultPostProcessor;
 import de.metanome.backend.result_postprocessing.ResultPostProcessor;
 import de.metanome.backend.results_db.EntityStorageException;
 import de.metanome.backend.results_db.Execution;
@@ -43,25 +51,30 @@ import de.metanome.backend.results_db.ExecutionSetting;
 import de.metanome.backend.results_db.HibernateUtil;
 import de.metanome.backend.results_db.Input;
 
+import org.glassfish.jersey.media.sse.EventOutput;
+import org.glassfish.jersey.media.sse.OutboundEvent;
+import org.glassfish.jersey.media.sse.SseFeature;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Restrictions;
 
 import java.io.BufferedReader;
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.net.URISyntaxException;
-import java.net.URL;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 @Path("algorithm-execution")
@@ -77,18 +90,59 @@ public class AlgorithmExecutionResource {
   @POST
   @Path("/stop/{identifier}")
   public void stopExecution(@PathParam("identifier") String executionIdentifier) {
-    try {
-      Process process = ProcessRegistry.getInstance().get(executionIdentifier);
-      ProcessRegistry.getInstance().remove(executionIdentifier);
-      process.destroy();
-    } catch (Exception e) {
-      e.printStackTrace();
-      throw new WebException(e, Response.Status.BAD_REQUEST);
+    // Queued executions are removed from the queue, running ones are killed
+    if (!ExecutionScheduler.getInstance().cancel(executionIdentifier)) {
+      throw new WebException("There is no execution with the identifier " + executionIdentifier,
+        Response.Status.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * @return the queued, running and recently finished executions
+   */
+  @GET
+  @Path("/jobs")
+  @Produces("application/json")
+  public List<ExecutionJob<?>> getJobs() {
+    return ProcessRegistry.getInstance().getJobs();
+  }
+
+  /**
+   * @param executionIdentifier the execution identifier
+   * @return the state of the queued, running or recently finished execution
+   */
+  @GET
+  @Path("/jobs/{identifier}")
+  @Produces("application/json")
+  public ExecutionJob<?> getJob(@PathParam("identifier") String executionIdentifier) {
+    ExecutionJob<?> job = ExecutionScheduler.getInstance().getJob(executionIdentifier);
+    if (job == null) {
+      throw new WebException("There is no execution with the identifier " + executionIdentifier,
+        Response.Status.NOT_FOUND);
     }
+    return job;
+  }
+
+  /**
+   * Streams the progress of the execution as server-sent events. A "progress" event is sent for
+   * the current progress and every reported progress, a "finished" event with the job ends the
+   * stream.
+   *
+   * @param executionIdentifier the execution identifier
+   * @return the event stream
+   */
+  @GET
+  @Path("/jobs/{identifier}/progress")
+  @Produces(SseFeature.SERVER_SENT_EVENTS)
+  public EventOutput getProgress(@PathParam("identifier") String executionIdentifier) {
+    ExecutionJob<?> job = getJob(executionIdentifier);
+    EventOutput eventOutput = new EventOutput();
+    job.addProgressListener(new ProgressEventWriter(eventOutput));
+    return eventOutput;
   }
 
   /**
-   * Executes an algorithm.
+   * Executes an algorithm and waits until the execution and the result post processing finished.
    *
    * @param params all parameters to execute the algorithm
    * @return the resulting execution
@@ -97,6 +151,36 @@ public class AlgorithmExecutionResource {
   @Consumes("application/json")
   @Produces("application/json")
   public Execution executeAlgorithm(AlgorithmExecutionParams params) {
+    ExecutionJob<Execution> job = submitAlgorithm(params);
+    try {
+      return job.get();
+    } catch (CancellationException e) {
+      // The execution was stopped before it was started
+      throw new WebException("The execution was canceled.", Response.Status.BAD_REQUEST);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof WebException) {
+        throw (WebException) e.getCause();
+      }
+      e.getCause().printStackTrace();
+      throw new WebException(e.getCause(), Response.Status.BAD_REQUEST);
+    } catch (InterruptedException e) {
+      throw new WebException(e, Response.Status.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Queues the execution of an algorithm and returns right away. The state of the execution can
+   * be polled at "/jobs/{identifier}" and its progress can be streamed from
+   * "/jobs/{identifier}/progress".
+   *
+   * @param params all parameters to execute the algorithm
+   * @return the job of the execution
+   */
+  @POST
+  @Path("/submit")
+  @Consumes("application/json")
+  @Produces("application/json")
+  public ExecutionJob<Execution> submitAlgorithm(AlgorithmExecutionParams params) {
     //TODO: Why is the executionIdentifier i.e. unique ID managed by the frontend?
     String executionIdentifier = params.getExecutionIdentifier();
 
@@ -114,39 +198,33 @@ public class AlgorithmExecutionResource {
       throw new WebException(message, Response.Status.BAD_REQUEST);
     }
 
-    String exceptionMessage = "";
+    // Queue the execution until there is capacity for it
+    ExecutionTask task = new ExecutionTask(params, executionSetting);
+    ExecutionJob<Execution> job = new ExecutionJob<>(executionIdentifier, params.getPriority(),
+      ExecutionScheduler.parseMemory(params.getMemory()), task);
+    task.job = job;
     try {
-      // Start the process, which executes the algorithm
-      Process process =
-        executeAlgorithm(String.valueOf(params.getAlgorithmId()),
-          executionIdentifier,
-          params.getMemory());
-      ProcessRegistry.getInstance().put(executionIdentifier, process);
-
-      // Forward messages from the process to the console output
-      InputStreamReader isr = new InputStreamReader(process.getInputStream());
-      BufferedReader br = new BufferedReader(isr);
-      String lineRead;
-      while ((lineRead = br.readLine()) != null) {
-        if (lineRead.contains("Exception") || lineRead.contains("Caused by: ")) {
-          exceptionMessage = lineRead;
-        }
-        System.out.println(lineRead);
-      }
-
-      try {
-        if (process.exitValue() != 0) {
-          exceptionMessage = "Error in algorithm execution. " +  exceptionMessage;
-        }
-      } catch (IllegalThreadStateException e) {
-        // The process has not exit, but it should be.
-        process.destroy();
-        exceptionMessage = "Error in algorithm execution. " + exceptionMessage;
-      }
-    } catch (IOException | InterruptedException e) {
-      e.printStackTrace();
+      return ExecutionScheduler.getInstance().submit(job);
+    } catch (IllegalStateException e) {
+      // An execution with the same identifier is queued or running
+      throw new WebException(e, Response.Status.BAD_REQUEST);
     }
+  }
 
+  /**
+   * Looks up the execution the algorithm stored and post-processes its results.
+   *
+   * @param executionSetting         the stored execution setting
+   * @param exceptionMessage         the error of the execution or an empty string
+   * @param incrementalPostProcessor the post processor following the results or null
+   * @param job                      the job of the execution
+   * @return the finished execution
+   * @throws WebException if the execution failed or its results could not be post-processed
+   */
+  protected Execution finishExecution(ExecutionSetting executionSetting, String exceptionMessage,
+                                      IncrementalResultPostProcessor incrementalPostProcessor,
+                                      ExecutionJob<Execution> job) {
+    String executionIdentifier = executionSetting.getExecutionIdentifier();
     Execution execution;
     try {
       // The algorithm execution was successful
@@ -187,8 +265,11 @@ public class AlgorithmExecutionResource {
 
     // Execute the result post processing
     if (!executionSetting.getCountResults()) {
+      job.setPhase(ExecutionProgress.Phase.POST_PROCESSING);
       try {
-        ResultPostProcessor.extractAndStoreResultsDataIndependent(execution);
+        if (incrementalPostProcessor == null || !incrementalPostProcessor.finish(execution)) {
+          ResultPostProcessor.extractAndStoreResultsDataIndependent(execution);
+        }
       } catch (Exception e) {
         e.printStackTrace();
         String message = "Could not execute result post processing";
@@ -208,6 +289,120 @@ public class AlgorithmExecutionResource {
     return execution;
   }
 
+  /**
+   * Starts the process executing the algorithm and forwards its console output until it exits.
+   * The progress and the error of the execution are read from the progress file of the process.
+   *
+   * @param params all parameters to execute the algorithm
+   * @param job    the job of the execution
+   * @return the error of the execution or an empty string
+   */
+  protected String runExecution(AlgorithmExecutionParams params, ExecutionJob<?> job) {
+    String executionIdentifier = params.getExecutionIdentifier();
+    String exceptionMessage = "";
+    ExecutorWorker worker = null;
+    ExecutionProgressMonitor progressMonitor = new ExecutionProgressMonitor(job);
+    try {
+      progressMonitor.start(ExecutionProgressMonitor.DEFAULT_POLL_INTERVAL);
+
+      // Start the process, which executes the algorithm
+      Process process;
+      BufferedReader br;
+      if (params.getExecuteInWorkerPool()) {
+        // Hand the execution to a warm worker process
+        worker = ExecutorWorkerPool.getInstance().acquire(params.getMemory());
+        worker.execute(params.getAlgorithmId(), executionIdentifier);
+        process = worker.getProcess();
+        br = worker.getOutput();
+      } else {
+        process =
+          executeAlgorithm(String.valueOf(params.getAlgorithmId()),
+            executionIdentifier,
+            params.getMemory());
+        br = new BufferedReader(new InputStreamReader(process.getInputStream()));
+      }
+      ProcessRegistry.getInstance().put(executionIdentifier, process);
+      if (job.isCancelRequested()) {
+        // The execution was stopped before its process was registered
+        ProcessRegistry.getInstance().remove(executionIdentifier);
+        process.destroy();
+      }
+      if (worker != null) {
+        // Warm up a worker for the next execution, if the memory budget allows it
+        ExecutionScheduler.getInstance().refillWorkerPool(params.getMemory());
+      }
+
+      // Forward messages from the process to the console output
+      String lineRead;
+      while ((lineRead = br.readLine()) != null) {
+        System.out.println(lineRead);
+      }
+
+      // Publish the final progress of the process
+      progressMonitor.close();
+      String error = job.getProgress().getError();
+      if (error != null) {
+        exceptionMessage = error;
+      }
+
+      try {
+        int exitValue = worker == null ? process.exitValue() : worker.getExitValue();
+        if (exitValue != 0) {
+          exceptionMessage = "Error in algorithm execution. " +  exceptionMessage;
+        }
+      } catch (IllegalThreadStateException e) {
+        // The process has not exit, but it should be.
+        process.destroy();
+        exceptionMessage = "Error in algorithm execution. " + exceptionMessage;
+      }
+    } catch (IOException | InterruptedException e) {
+      e.printStackTrace();
+    } finally {
+      progressMonitor.close();
+      if (worker != null) {
+        // The worker may execute other algorithms, which must not be stopped by this identifier
+        ProcessRegistry.getInstance().remove(executionIdentifier);
+        // Failed or killed workers are not reused
+        ExecutorWorkerPool.getInstance().release(worker);
+      }
+    }
+    return exceptionMessage;
+  }
+
+  /**
+   * Starts following the result files of the execution, so that the partial results can be paged
+   * and sorted while the algorithm is still running.
+   *
+   * @param executionSetting the execution setting
+   * @return the started post processor or null, if the inputs could not be converted
+   */
+  protected IncrementalResultPostProcessor startIncrementalPostProcessing(
+    ExecutionSetting executionSetting) {
+    try {
+      IncrementalResultPostProcessor incrementalPostProcessor = new IncrementalResultPostProcessor(
+        executionSetting.getExecutionIdentifier(),
+        AlgorithmExecution.parseInputs(executionSetting.getInputsJson()));
+      incrementalPostProcessor.start(IncrementalResultPostProcessor.DEFAULT_POLL_INTERVAL);
+      return incrementalPostProcessor;
+    } catch (Exception e) {
+      // The results are post-processed after the execution instead
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  private void closeIncrementalPostProcessing(
+    IncrementalResultPostProcessor incrementalPostProcessor) {
+    if (incrementalPostProcessor == null) {
+      return;
+    }
+    try {
+      incrementalPostProcessor.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
   /**
    * Builds {@link de.metanome.backend.results_db.ExecutionSetting} to persist information in AlgorithmExecutionParams to Database
    *
@@ -266,7 +461,9 @@ public class AlgorithmExecutionResource {
       new ExecutionSetting(parameterValuesJson, inputsJson, params.getExecutionIdentifier())
         .setCacheResults(params.getCacheResults())
         .setWriteResults(params.getWriteResults())
-        .setCountResults(params.getCountResults());
+        .setCountResults(params.getCountResults())
+        .setWriteResultsAsynchronously(params.getWriteResultsAsynchronously())
+        .setWriteBinaryResults(params.getWriteBinaryResults());
 
     return executionSetting;
   }
@@ -303,39 +500,94 @@ public class AlgorithmExecutionResource {
   private Process executeAlgorithm(String algorithmId, String executionIdentifier,
                                    String memory) throws IOException,
     InterruptedException {
-    /**
-     * NOTE: Dpeneding on the Java ApplicationServer paths have to be adjusted
-     */
-    String javaHome = System.getProperty("java.home");
-    String javaBin = javaHome +
-      File.separator + "bin" +
-      File.separator + "java";
-    String myPath = System.getProperty("java.class.path");
-    String className = algorithmExecutionClass.getCanonicalName();
+    return ExecutorWorkerPool.createProcessBuilder(algorithmExecutionClass, memory, algorithmId,
+      executionIdentifier).start();
+  }
 
-    try {
-      URL baseUrl = algorithmExecutionClass.getProtectionDomain().getCodeSource().getLocation();
-      File file = new File(baseUrl.toURI());
-      String webinf = file.getAbsoluteFile().getParentFile().getParent() + File.separator;
-      String classesFolder = webinf + "classes";
-      String parentPathWildCard = webinf + "lib" + File.separator + "*";
-      myPath += File.pathSeparator + parentPathWildCard + File.pathSeparator + classesFolder;
-    } catch (URISyntaxException ex) {
-      ex.printStackTrace();
+  /**
+   * Runs the execution and its result post processing in the thread of the scheduler.
+   */
+  protected class ExecutionTask implements Callable<Execution> {
+
+    protected AlgorithmExecutionParams params;
+    protected ExecutionSetting executionSetting;
+    protected ExecutionJob<Execution> job;
+
+    protected ExecutionTask(AlgorithmExecutionParams params, ExecutionSetting executionSetting) {
+      this.params = params;
+      this.executionSetting = executionSetting;
+    }
+
+    @Override
+    public Execution call() {
+      this.job.setPhase(ExecutionProgress.Phase.LOADING);
+
+      // Post-process the results, which are written while the algorithm is still running
+      IncrementalResultPostProcessor incrementalPostProcessor = null;
+      if (this.params.getPostProcessIncrementally() && !this.executionSetting.getCountResults()) {
+        incrementalPostProcessor = startIncrementalPostProcessing(this.executionSetting);
+      }
+
+      try {
+        String exceptionMessage = runExecution(this.params, this.job);
+        return finishExecution(this.executionSetting, exceptionMessage, incrementalPostProcessor,
+          this.job);
+      } finally {
+        closeIncrementalPostProcessing(incrementalPostProcessor);
+      }
+    }
+  }
+
+  /**
+   * Writes the progress of a job as server-sent events.
+   */
+  protected static class ProgressEventWriter implements ExecutionProgressListener {
+
+    protected EventOutput eventOutput;
+
+    protected ProgressEventWriter(EventOutput eventOutput) {
+      this.eventOutput = eventOutput;
+    }
+
+    @Override
+    public void progressChanged(ExecutionJob<?> job, ExecutionProgress progress) {
+      this.write(job, new OutboundEvent.Builder()
+        .name("progress")
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(ExecutionProgress.class, progress)
+        .build());
+    }
+
+    @Override
+    public void jobFinished(ExecutionJob<?> job) {
+      this.write(job, new OutboundEvent.Builder()
+        .name("finished")
+        .mediaType(MediaType.APPLICATION_JSON_TYPE)
+        .data(ExecutionJob.class, job)
+        .build());
+      this.close();
     }
-    
-    ProcessBuilder builder;
-    if (!memory.equals("")) {
-      builder = new ProcessBuilder(
-        javaBin, "-Xmx" + memory + "m", "-Xms" + memory + "m", "-classpath", myPath, className,
-        algorithmId, executionIdentifier);
-    } else {
-      builder = new ProcessBuilder(
-        javaBin, "-classpath", myPath, className, algorithmId, executionIdentifier);
+
+    protected synchronized void write(ExecutionJob<?> job, OutboundEvent event) {
+      if (this.eventOutput.isClosed()) {
+        return;
+      }
+      try {
+        this.eventOutput.write(event);
+      } catch (IOException e) {
+        // The client closed the connection
+        job.removeProgressListener(this);
+        this.close();
+      }
     }
-    builder.redirectErrorStream(true);
 
-    return builder.start();
+    protected synchronized void close() {
+      try {
+        this.eventOutput.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
   }
 
 }
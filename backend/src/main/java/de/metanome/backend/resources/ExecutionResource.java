@@ -16,13 +16,19 @@
 package de.metanome.backend.resources;
 
 import de.metanome.backend.result_receiver.ResultReader;
+import de.metanome.backend.results_db.EntityStorageException;
 import de.metanome.backend.results_db.Execution;
+import de.metanome.backend.results_db.ExecutionMetrics;
 import de.metanome.backend.results_db.HibernateUtil;
 import de.metanome.backend.results_db.Result;
 
+import org.hibernate.criterion.Restrictions;
+
 import javax.ws.rs.*;
 import javax.ws.rs.core.Response;
 import java.io.File;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -114,4 +120,57 @@ public class ExecutionResource {
     }
   }
 
+  /**
+   * Retrieves the performance metrics of an execution.
+   *
+   * @param id the execution's id
+   * @return the metrics measured during the execution
+   */
+  @GET
+  @Path("/metrics/{executionId}")
+  @Produces("application/json")
+  public ExecutionMetrics getMetrics(@PathParam("executionId") long id) {
+    try {
+      Execution execution = (Execution) HibernateUtil.retrieve(Execution.class, id);
+      if (execution == null) {
+        throw new EntityStorageException("There is no execution with id " + id + ".");
+      }
+      if (execution.getExecutionMetrics() == null) {
+        throw new EntityStorageException("No metrics were recorded for execution " + id + ".");
+      }
+      return execution.getExecutionMetrics();
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw new WebException(e, Response.Status.BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Retrieves all executions of an algorithm including their performance metrics, so that the
+   * performance of the algorithm can be compared across executions.
+   *
+   * @param algorithmId the algorithm's id
+   * @return the executions of the algorithm, the latest first
+   */
+  @GET
+  @Path("/algorithm/{algorithmId}")
+  @Produces("application/json")
+  @SuppressWarnings("unchecked")
+  public List<Execution> getAllForAlgorithm(@PathParam("algorithmId") long algorithmId) {
+    try {
+      List<Execution> executions = (List<Execution>) HibernateUtil.queryCriteria(Execution.class,
+        Restrictions.eq("algorithm.id", algorithmId));
+      Collections.sort(executions, new Comparator<Execution>() {
+        @Override
+        public int compare(Execution execution1, Execution execution2) {
+          return Long.compare(execution2.getBegin(), execution1.getBegin());
+        }
+      });
+      return executions;
+    } catch (Exception e) {
+      e.printStackTrace();
+      throw new WebException(e, Response.Status.BAD_REQUEST);
+    }
+  }
+
 }
@@ -18,6 +18,7 @@ package de.metanome.backend.resources;
 import de.metanome.algorithm_integration.Algorithm;
 import de.metanome.algorithm_integration.configuration.ConfigurationRequirement;
 import de.metanome.backend.algorithm_loading.AlgorithmJarLoader;
+import de.metanome.backend.algorithm_loading.AlgorithmJarMetadata;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
@@ -46,6 +47,11 @@ public class ParameterResource {
     @PathParam("algorithmFileName") String algorithmFileName) {
     try {
       AlgorithmJarLoader jarLoader = new AlgorithmJarLoader();
+      AlgorithmJarMetadata metadata = jarLoader.loadMetadata(algorithmFileName);
+      if (metadata.getConfigurationRequirements() != null) {
+        return new ArrayList<>(metadata.getConfigurationRequirements());
+      }
+      // The algorithm could not be instantiated, when it was indexed
       Algorithm algorithm = jarLoader.loadAlgorithm(algorithmFileName);
       return algorithm.getConfigurationRequirements();
     } catch (Exception e) {
@@ -66,8 +72,14 @@ public class ParameterResource {
   public Map<String, String> retrieveAuthorAndDescription(@PathParam("algorithmFileName") String algorithmFileName) {
     try {
       AlgorithmJarLoader jarLoader = new AlgorithmJarLoader();
-      Algorithm algorithm = jarLoader.loadAlgorithm(algorithmFileName);
+      AlgorithmJarMetadata metadata = jarLoader.loadMetadata(algorithmFileName);
       Map<String, String> map = new HashMap<>();
+      if (metadata.getConfigurationRequirements() != null) {
+        map.put("authors", metadata.getAuthors());
+        map.put("description", metadata.getDescription());
+        return map;
+      }
+      Algorithm algorithm = jarLoader.loadAlgorithm(algorithmFileName);
       map.put("authors", algorithm.getAuthors());
       map.put("description", algorithm.getDescription());
       return map;
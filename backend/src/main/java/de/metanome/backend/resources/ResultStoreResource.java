@@ -16,6 +16,7 @@
 package de.metanome.backend.resources;
 
 import de.metanome.backend.result_postprocessing.ResultPostProcessor;
+import de.metanome.backend.result_postprocessing.result_store.ResultsStore;
 import de.metanome.backend.result_postprocessing.result_store.ResultsStoreHolder;
 import de.metanome.backend.result_postprocessing.results.RankingResult;
 import de.metanome.backend.results_db.*;
@@ -37,8 +38,9 @@ public class ResultStoreResource {
   @Path("/count/{type}")
   @Produces("application/json")
   public Integer count(@PathParam("type") String type) {
+    ResultsStore<?> resultsStore = ResultsStoreHolder.acquireStore(type);
     try {
-      return (ResultsStoreHolder.getStore(type)).count();
+      return resultsStore.count();
     } catch (Exception e) {
       String message = "";
       if (e.getMessage() != null) {
@@ -46,6 +48,10 @@ public class ResultStoreResource {
       }
       e.printStackTrace();
       throw new WebException(message, Response.Status.BAD_REQUEST);
+    } finally {
+      if (resultsStore != null) {
+        resultsStore.release();
+      }
     }
   }
 
@@ -68,9 +74,85 @@ public class ResultStoreResource {
                                           @PathParam("sortOrder") boolean ascending,
                                           @PathParam("start") int start,
                                           @PathParam("end") int end) {
+    ResultsStore<?> resultsStore = ResultsStoreHolder.acquireStore(type);
+    try {
+      return (List<RankingResult>) resultsStore.subList(sortProperty, ascending, start, end);
+    } catch (Exception e) {
+      String message = "";
+      if (e.getMessage() != null) {
+        message += e.getMessage();
+      }
+      e.printStackTrace();
+      throw new WebException(message, Response.Status.BAD_REQUEST);
+    } finally {
+      if (resultsStore != null) {
+        resultsStore.release();
+      }
+    }
+  }
+
+  /**
+   * Returns the count of persisted results of the given type and execution. The results of the
+   * execution are loaded, if they are not cached.
+   *
+   * @param id              Execution id of the execution
+   * @param dataIndependent true, if no extended result post-processing should be executed, false otherwise
+   * @param type            The type of the result
+   * @return Returns the count of persisted results for given type
+   */
+  @GET
+  @Path("/count/{executionId}/{dataIndependent}/{type}")
+  @Produces("application/json")
+  public Integer count(@PathParam("executionId") long id,
+                       @PathParam("dataIndependent") boolean dataIndependent,
+                       @PathParam("type") String type) {
+    ResultsStore<?> resultsStore = null;
+    try {
+      resultsStore = acquireExecutionStore(id, dataIndependent, type);
+      return resultsStore.count();
+    } catch (Exception e) {
+      String message = "";
+      if (e.getMessage() != null) {
+        message += e.getMessage();
+      }
+      e.printStackTrace();
+      throw new WebException(message, Response.Status.BAD_REQUEST);
+    } finally {
+      if (resultsStore != null) {
+        resultsStore.release();
+      }
+    }
+  }
+
+  /**
+   * Returns a sublist of persisted results of the given execution sorted in given way. The results
+   * of the execution are loaded, if they are not cached.
+   *
+   * @param id              Execution id of the execution
+   * @param dataIndependent true, if no extended result post-processing should be executed, false otherwise
+   * @param type            The type of the result
+   * @param sortProperty    Name of the sort property
+   * @param ascending       Should the sort be performed in ascending or descending manner?
+   * @param start           Inclusive start index
+   * @param end             Exclusive end index
+   * @return Returns a sublist of persisted results sorted in given way
+   */
+  @GET
+  @Path("/get-from-to/{executionId}/{dataIndependent}/{type}"
+    + "/{sortProperty}/{sortOrder}/{start}/{end}")
+  @Produces("application/json")
+  @SuppressWarnings("unchecked")
+  public List<RankingResult> getAllFromTo(@PathParam("executionId") long id,
+                                          @PathParam("dataIndependent") boolean dataIndependent,
+                                          @PathParam("type") String type,
+                                          @PathParam("sortProperty") String sortProperty,
+                                          @PathParam("sortOrder") boolean ascending,
+                                          @PathParam("start") int start,
+                                          @PathParam("end") int end) {
+    ResultsStore<?> resultsStore = null;
     try {
-      return (List<RankingResult>) ResultsStoreHolder.getStore(type).subList(
-        sortProperty, ascending, start, end);
+      resultsStore = acquireExecutionStore(id, dataIndependent, type);
+      return (List<RankingResult>) resultsStore.subList(sortProperty, ascending, start, end);
     } catch (Exception e) {
       String message = "";
       if (e.getMessage() != null) {
@@ -78,7 +160,30 @@ public class ResultStoreResource {
       }
       e.printStackTrace();
       throw new WebException(message, Response.Status.BAD_REQUEST);
+    } finally {
+      if (resultsStore != null) {
+        resultsStore.release();
+      }
+    }
+  }
+
+  /**
+   * @param id              Execution id of the execution
+   * @param dataIndependent true, if no extended result post-processing should be executed, false otherwise
+   * @param type            The type of the result
+   * @return the retained store of the given result type of the execution, cached or freshly
+   * loaded, which has to be released afterwards
+   * @throws Exception if the execution could not be retrieved or its results could not be loaded
+   */
+  protected ResultsStore<?> acquireExecutionStore(long id, boolean dataIndependent, String type)
+    throws Exception {
+    Execution execution = (Execution) HibernateUtil.retrieve(Execution.class, id);
+    ResultsStore<?> resultsStore =
+      ResultPostProcessor.acquireStore(execution, dataIndependent, type);
+    if (resultsStore == null) {
+      throw new IllegalArgumentException("The execution has no results of type " + type + "!");
     }
+    return resultsStore;
   }
 
 
@@ -0,0 +1,263 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing;
+
+import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.InputGenerationException;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.algorithm_integration.input.RelationalInputGenerator;
+import de.metanome.algorithm_integration.results.*;
+import de.metanome.backend.result_postprocessing.result_analyzer.*;
+import de.metanome.backend.result_postprocessing.result_store.*;
+import de.metanome.backend.result_postprocessing.results.*;
+import de.metanome.backend.result_receiver.ResultFileTailer;
+import de.metanome.backend.result_receiver.ResultReceiver;
+import de.metanome.backend.results_db.Execution;
+import de.metanome.backend.results_db.Input;
+import de.metanome.backend.results_db.ResultType;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post-processes the results of an algorithm execution, while the algorithm is still running. The
+ * result files written by the {@link de.metanome.backend.result_receiver.ResultPrinter} are
+ * followed. New results are converted and appended to result stores, which are selected in the
+ * {@link ResultsStoreHolder}, so that the partial results can already be paged and sorted. Once
+ * the execution finished, only the rankings are left to be calculated.
+ * <p/>
+ * The results are analyzed without using the actual data, like the post processing following an
+ * execution.
+ */
+public class IncrementalResultPostProcessor implements Closeable {
+
+  public static final long DEFAULT_POLL_INTERVAL = 1000;
+
+  protected String outputFilePathPrefix;
+  protected List<RelationalInputGenerator> inputGenerators;
+  protected EnumMap<ResultType, Pipeline<?, ?>> pipelines = new EnumMap<>(ResultType.class);
+  // Stores of the partial results mapped by the names of their result types
+  protected Map<String, ResultsStore<?>> stores = new ConcurrentHashMap<>();
+  protected ScheduledExecutorService scheduler = null;
+  protected boolean failed = false;
+
+  /**
+   * @param executionIdentifier the identifier of the running execution
+   * @param inputs              the inputs used by the algorithm
+   * @throws java.io.IOException if an input file could not be found
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if the inputs could not be converted to values
+   */
+  public IncrementalResultPostProcessor(String executionIdentifier, Collection<Input> inputs)
+    throws IOException, AlgorithmConfigurationException {
+    this.outputFilePathPrefix = ResultReceiver.RESULT_DIR + "/" + executionIdentifier;
+    this.inputGenerators = ResultPostProcessor.getInputGenerators(inputs);
+  }
+
+  /**
+   * Selects the stores of the partial results and starts following the result files.
+   *
+   * @param pollInterval the interval between two reads of the result files in milliseconds
+   */
+  public synchronized void start(long pollInterval) {
+    ResultsStoreHolder.selectStores(this.stores);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "incremental-result-post-processor");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    this.scheduler.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (IncrementalResultPostProcessor.this) {
+          // The poll may have waited for the processor being stopped
+          if (scheduler != null) {
+            poll();
+          }
+        }
+      }
+    }, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Reads the results, which were written since the last poll, and appends them to the stores.
+   * If the results can not be read, following the result files is given up.
+   */
+  public synchronized void poll() {
+    if (this.failed) {
+      return;
+    }
+    try {
+      for (ResultType type : ResultType.values()) {
+        Pipeline<?, ?> pipeline = this.pipelines.get(type);
+        if (pipeline == null) {
+          File resultFile = new File(this.outputFilePathPrefix + type.getEnding());
+          if (!resultFile.exists()) {
+            continue;
+          }
+          pipeline = this.createPipeline(type, resultFile);
+          this.pipelines.put(type, pipeline);
+          this.stores.put(type.getName(), pipeline.store);
+        }
+        pipeline.poll();
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      this.failed = true;
+    }
+  }
+
+  /**
+   * Stops following the result files, reads the remaining results and calculates the rankings.
+   * The final stores are cached and selected in the {@link ResultsStoreHolder}.
+   *
+   * @param execution the finished execution
+   * @return true, if all results of the execution were post-processed, false, if the results have
+   * to be post-processed from scratch
+   */
+  public synchronized boolean finish(Execution execution) {
+    this.stop();
+    this.poll();
+    if (this.failed) {
+      return false;
+    }
+    for (de.metanome.backend.results_db.Result result : execution.getResults()) {
+      Pipeline<?, ?> pipeline = this.pipelines.get(result.getType());
+      if (pipeline == null || !pipeline.tailer.isFollowable()) {
+        return false;
+      }
+    }
+
+    Map<String, ResultsStore<?>> finalStores = new ConcurrentHashMap<>();
+    for (Map.Entry<ResultType, Pipeline<?, ?>> entry : this.pipelines.entrySet()) {
+      entry.getValue().rank(finalStores, entry.getKey().getName());
+    }
+    ResultsStoreHolder.selectStores(ResultsStoreHolder.cacheStores(
+      ResultPostProcessor.getStoreKey(execution.getResults(), true), finalStores));
+    return true;
+  }
+
+  /**
+   * Stops following the result files.
+   */
+  public synchronized void stop() {
+    if (this.scheduler != null) {
+      this.scheduler.shutdownNow();
+      this.scheduler = null;
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    this.stop();
+    for (Pipeline<?, ?> pipeline : this.pipelines.values()) {
+      pipeline.tailer.close();
+    }
+  }
+
+  protected Pipeline<?, ?> createPipeline(ResultType type, File resultFile)
+    throws InputGenerationException, InputIterationException, AlgorithmConfigurationException {
+    switch (type) {
+      case CUCC:
+        return new Pipeline<>(resultFile, type,
+          new ConditionalUniqueColumnCombinationResultAnalyzer(this.inputGenerators, true),
+          new ConditionalUniqueColumnCombinationResultStore(),
+          ConditionalUniqueColumnCombinationResult.class);
+      case OD:
+        return new Pipeline<>(resultFile, type,
+          new OrderDependencyResultAnalyzer(this.inputGenerators, true),
+          new OrderDependencyResultStore(), OrderDependencyResult.class);
+      case IND:
+        return new Pipeline<>(resultFile, type,
+          new InclusionDependencyResultAnalyzer(this.inputGenerators, true),
+          new InclusionDependencyResultsStore(), InclusionDependencyResult.class);
+      case FD:
+        return new Pipeline<>(resultFile, type,
+          new FunctionalDependencyResultAnalyzer(this.inputGenerators, true),
+          new FunctionalDependencyResultStore(), FunctionalDependencyResult.class);
+      case MVD:
+        return new Pipeline<>(resultFile, type,
+          new MultivaluedDependencyResultAnalyzer(this.inputGenerators, true),
+          new MultivaluedDependencyResultStore(), MultivaluedDependencyResult.class);
+      case UCC:
+        return new Pipeline<>(resultFile, type,
+          new UniqueColumnCombinationResultAnalyzer(this.inputGenerators, true),
+          new UniqueColumnCombinationResultStore(), UniqueColumnCombinationResult.class);
+      default:
+        return new Pipeline<>(resultFile, type,
+          new BasicStatisticResultAnalyzer(this.inputGenerators, true),
+          new BasicStatisticResultStore(), BasicStatisticResult.class);
+    }
+  }
+
+  /**
+   * Follows the result file of one result type and feeds its results to the analyzer and the
+   * store of the result type.
+   *
+   * @param <T> the type of the results
+   * @param <R> the type of the ranking results
+   */
+  protected static class Pipeline<T extends Result, R extends RankingResult> {
+
+    protected ResultFileTailer<T> tailer;
+    protected ResultAnalyzer<T, R> analyzer;
+    protected ResultsStore<R> store;
+    protected Class<R> resultClass;
+
+    protected Pipeline(File resultFile, ResultType type, ResultAnalyzer<T, R> analyzer,
+                       ResultsStore<R> store, Class<R> resultClass) {
+      this.tailer = new ResultFileTailer<>(resultFile, type.getName());
+      this.analyzer = analyzer;
+      this.store = store;
+      this.resultClass = resultClass;
+    }
+
+    protected void poll() throws IOException {
+      List<T> results = this.tailer.poll();
+      if (!results.isEmpty()) {
+        this.store.append(this.analyzer.convertPartialResults(results));
+      }
+    }
+
+    protected void rank(Map<String, ResultsStore<?>> stores, String name) {
+      List<R> convertedResults = this.store.list();
+      if (convertedResults == null) {
+        convertedResults = new ArrayList<>();
+      }
+      List<R> rankingResults = this.analyzer.rankResults(convertedResults);
+      ResultPostProcessor.registerStore(stores, name, this.store, rankingResults,
+        this.resultClass);
+      // Large results were moved to a mapped store
+      if (stores.get(name) != this.store) {
+        this.store.clear();
+      }
+    }
+  }
+
+}
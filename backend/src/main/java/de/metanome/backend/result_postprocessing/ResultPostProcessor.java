@@ -27,6 +27,7 @@ import de.metanome.backend.input.file.DefaultFileInputGenerator;
 import de.metanome.backend.result_postprocessing.result_analyzer.*;
 import de.metanome.backend.result_postprocessing.result_store.*;
 import de.metanome.backend.result_postprocessing.results.*;
+import de.metanome.backend.result_receiver.ResultIterator;
 import de.metanome.backend.result_receiver.ResultReader;
 import de.metanome.backend.results_db.*;
 import de.metanome.backend.results_db.Result;
@@ -36,8 +37,11 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Starting point for the result post processing. The results are extracted from disk, analyzed and
@@ -45,6 +49,9 @@ import java.util.Set;
  */
 public class ResultPostProcessor {
 
+  // Result sets with more ranking results are stored on disk
+  public static final int MAPPED_STORE_THRESHOLD = 100000;
+
   /**
    * Loads the results of an algorithm run from hard disk, analyze them without using the actual
    * data and stores them.
@@ -115,7 +122,8 @@ public class ResultPostProcessor {
 
 
   /**
-   * Loads the results of an algorithm run from hard disk, analyzes and stores them.
+   * Loads the results of an algorithm run from hard disk, analyzes and stores them. The stores are
+   * selected in the {@link ResultsStoreHolder}.
    *
    * @param results         the results
    * @param inputs          the inputs used by the algorithm
@@ -130,9 +138,133 @@ public class ResultPostProcessor {
                                                boolean dataIndependent)
     throws IOException, AlgorithmConfigurationException, InputGenerationException,
     InputIterationException, NullPointerException, IndexOutOfBoundsException {
-    ResultsStoreHolder.clearStores();
+    ResultsStoreHolder.selectStores(extractResults(results, inputs, dataIndependent));
+  }
+
+  /**
+   * Returns the stores of the given results. If the stores are not cached in the {@link
+   * ResultsStoreHolder}, the results are loaded from hard disk, analyzed and cached.
+   *
+   * @param execution       Execution containing the algorithm results file path
+   * @param dataIndependent true, if the result analyzes should use the actual data, false
+   *                        otherwise
+   * @return the stores mapped by the names of their result types
+   * @throws java.io.IOException if the result file could not be loaded
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if the inputs could not be converted to values
+   * @throws de.metanome.algorithm_integration.input.InputGenerationException if no input generator could be created
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the file could not be iterated
+   */
+  public static Map<String, ResultsStore<?>> extractResults(Execution execution,
+                                                            boolean dataIndependent)
+    throws IOException, AlgorithmConfigurationException, InputGenerationException,
+    InputIterationException, NullPointerException, IndexOutOfBoundsException {
+    return extractResults(execution.getResults(), execution.getInputs(), dataIndependent);
+  }
+
+  /**
+   * Returns the stores of the given results. If the stores are not cached in the {@link
+   * ResultsStoreHolder}, the results are loaded from hard disk, analyzed and cached.
+   *
+   * @param results         the results
+   * @param inputs          the inputs used by the algorithm
+   * @param dataIndependent true, if the result analyzes should use the actual data, false
+   *                        otherwise
+   * @return the stores mapped by the names of their result types
+   * @throws java.io.IOException if the result file could not be loaded
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if the inputs could not be converted to values
+   * @throws de.metanome.algorithm_integration.input.InputGenerationException if no input generator could be created
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the file could not be iterated
+   */
+  public static Map<String, ResultsStore<?>> extractResults(Set<Result> results,
+                                                            Collection<Input> inputs,
+                                                            boolean dataIndependent)
+    throws IOException, AlgorithmConfigurationException, InputGenerationException,
+    InputIterationException, NullPointerException, IndexOutOfBoundsException {
+    String key = getStoreKey(results, dataIndependent);
+    Map<String, ResultsStore<?>> stores = ResultsStoreHolder.getStores(key);
+    if (stores != null) {
+      return stores;
+    }
+    stores = new ConcurrentHashMap<>();
+
+    List<RelationalInputGenerator> inputGenerators = getInputGenerators(inputs);
+    for (de.metanome.backend.results_db.Result result : results) {
+      String fileName = result.getFileName();
+      String resultTypeName = result.getType().getName();
+
+      analyzeAndStoreResults(fileName, resultTypeName, inputGenerators, dataIndependent, stores);
+    }
 
-    // get input generators
+    // Another request may have loaded the same results meanwhile
+    Map<String, ResultsStore<?>> cachedStores = ResultsStoreHolder.cacheStores(key, stores);
+    if (cachedStores != stores) {
+      for (ResultsStore<?> resultsStore : stores.values()) {
+        resultsStore.clear();
+      }
+    }
+    return cachedStores;
+  }
+
+  /**
+   * Returns the store of the given result type of the execution and retains it, so that it is not
+   * cleared while it is read. The results are loaded, if they are not cached. The store has to be
+   * released by {@link ResultsStore#release()} afterwards.
+   *
+   * @param execution       Execution containing the algorithm results file path
+   * @param dataIndependent true, if the result analyzes should use the actual data, false
+   *                        otherwise
+   * @param type            the name of the result type
+   * @return the retained store or null, if the execution has no results of the given type
+   * @throws java.io.IOException if the result file could not be loaded
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if the inputs could not be converted to values
+   * @throws de.metanome.algorithm_integration.input.InputGenerationException if no input generator could be created
+   * @throws de.metanome.algorithm_integration.input.InputIterationException if the file could not be iterated
+   */
+  public static ResultsStore<?> acquireStore(Execution execution, boolean dataIndependent,
+                                             String type)
+    throws IOException, AlgorithmConfigurationException, InputGenerationException,
+    InputIterationException, NullPointerException, IndexOutOfBoundsException {
+    String key = getStoreKey(execution.getResults(), dataIndependent);
+    while (true) {
+      if (!extractResults(execution, dataIndependent).containsKey(type)) {
+        return null;
+      }
+      ResultsStore<?> resultsStore = ResultsStoreHolder.acquireStore(key, type);
+      if (resultsStore != null) {
+        return resultsStore;
+      }
+      // Another request evicted the stores meanwhile, they are loaded again
+    }
+  }
+
+  /**
+   * Builds the key of the stores of the given results. The key consists of the result file names
+   * and the kind of analysis.
+   *
+   * @param results         the results
+   * @param dataIndependent true, if the result analyzes should use the actual data, false
+   *                        otherwise
+   * @return the key of the stores
+   */
+  protected static String getStoreKey(Set<Result> results, boolean dataIndependent) {
+    List<String> fileNames = new ArrayList<>();
+    for (Result result : results) {
+      fileNames.add(result.getFileName());
+    }
+    Collections.sort(fileNames);
+    return fileNames + (dataIndependent ? " (data independent)" : " (data dependent)");
+  }
+
+  /**
+   * Converts the given inputs to input generators for the result analyzers.
+   *
+   * @param inputs the inputs used by the algorithm
+   * @return the input generators, empty if a database connection was used
+   * @throws java.io.IOException if an input file could not be found
+   * @throws de.metanome.algorithm_integration.AlgorithmConfigurationException if the inputs could not be converted to values
+   */
+  protected static List<RelationalInputGenerator> getInputGenerators(Collection<Input> inputs)
+    throws IOException, AlgorithmConfigurationException {
     List<RelationalInputGenerator> inputGenerators = new ArrayList<>();
     for (Input input : inputs) {
       if (input instanceof FileInput) {
@@ -169,13 +301,7 @@ public class ResultPostProcessor {
     boolean usedDatabaseConnection = inputGenerators.contains(null);
     inputGenerators =
       usedDatabaseConnection ? new ArrayList<RelationalInputGenerator>() : inputGenerators;
-
-    for (de.metanome.backend.results_db.Result result : results) {
-      String fileName = result.getFileName();
-      String resultTypeName = result.getType().getName();
-
-      analyzeAndStoreResults(fileName, resultTypeName, inputGenerators, dataIndependent);
-    }
+    return inputGenerators;
   }
 
   /**
@@ -185,141 +311,157 @@ public class ResultPostProcessor {
    * @param name            the name of the result type
    * @param dataIndependent true, if the result analyzes should use the actual data, false
    *                        otherwise
+   * @param stores          the stores mapped by the names of their result types
    * @throws java.io.IOException if the result file could not be loaded
    * @throws de.metanome.algorithm_integration.input.InputGenerationException if no input generator could be created
    * @throws de.metanome.algorithm_integration.input.InputIterationException if the file could not be iterated
    */
   private static void analyzeAndStoreResults(String fileName, String name,
                                              List<RelationalInputGenerator> inputGenerators,
-                                             boolean dataIndependent)
+                                             boolean dataIndependent,
+                                             Map<String, ResultsStore<?>> stores)
     throws IOException, InputGenerationException, InputIterationException, AlgorithmConfigurationException,
     NullPointerException, IndexOutOfBoundsException {
 
     if (name.equals(ResultType.CUCC.getName())) {
-      // read results
       ResultReader<ConditionalUniqueColumnCombination> resultReader =
         new ResultReader<>(ResultType.CUCC);
-      List<ConditionalUniqueColumnCombination>
-        conditionalUniqueColumnCombinations =
-        resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<ConditionalUniqueColumnCombination, ConditionalUniqueColumnCombinationResult>
         resultAnalyzer =
         new ConditionalUniqueColumnCombinationResultAnalyzer(inputGenerators, dataIndependent);
-      List<ConditionalUniqueColumnCombinationResult>
-        rankingResults =
-        resultAnalyzer.analyzeResults(conditionalUniqueColumnCombinations);
+      // read and analyze results
+      List<ConditionalUniqueColumnCombinationResult> rankingResults;
+      try (ResultIterator<ConditionalUniqueColumnCombination> results =
+             resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       ConditionalUniqueColumnCombinationResultStore
         resultsStore =
         new ConditionalUniqueColumnCombinationResultStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
-
+      registerStore(stores, name, resultsStore, rankingResults,
+        ConditionalUniqueColumnCombinationResult.class);
 
     } else if (name.equals(ResultType.OD.getName())) {
-      // read results
       ResultReader<OrderDependency> resultReader =
         new ResultReader<>(ResultType.OD);
-      List<OrderDependency> orderDependencies = resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<OrderDependency, OrderDependencyResult>
-        resultAnalyzer = new OrderDependencyResultAnalyzer(inputGenerators, dataIndependent);
-      List<OrderDependencyResult> rankingResults = resultAnalyzer.analyzeResults(orderDependencies);
+        resultAnalyzer =
+        new OrderDependencyResultAnalyzer(inputGenerators, dataIndependent);
+      // read and analyze results
+      List<OrderDependencyResult> rankingResults;
+      try (ResultIterator<OrderDependency> results = resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       OrderDependencyResultStore resultsStore = new OrderDependencyResultStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
-
+      registerStore(stores, name, resultsStore, rankingResults, OrderDependencyResult.class);
 
     } else if (name.equals(ResultType.IND.getName())) {
-      // read results
       ResultReader<InclusionDependency> resultReader =
         new ResultReader<>(ResultType.IND);
-      List<InclusionDependency> inclusionDependencies = resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<InclusionDependency, InclusionDependencyResult>
-        resultAnalyzer = new InclusionDependencyResultAnalyzer(inputGenerators, dataIndependent);
-      List<InclusionDependencyResult>
-        rankingResults =
-        resultAnalyzer.analyzeResults(inclusionDependencies);
+        resultAnalyzer =
+        new InclusionDependencyResultAnalyzer(inputGenerators, dataIndependent);
+      // read and analyze results
+      List<InclusionDependencyResult> rankingResults;
+      try (ResultIterator<InclusionDependency> results =
+             resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
-
+      registerStore(stores, name, resultsStore, rankingResults,
+        InclusionDependencyResult.class);
 
     } else if (name.equals(ResultType.FD.getName())) {
-      // read results
       ResultReader<FunctionalDependency> resultReader =
         new ResultReader<>(ResultType.FD);
-      List<FunctionalDependency>
-        functionalDependencies =
-        resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<FunctionalDependency, FunctionalDependencyResult>
         resultAnalyzer =
         new FunctionalDependencyResultAnalyzer(inputGenerators, dataIndependent);
-      List<FunctionalDependencyResult>
-        rankingResults =
-        resultAnalyzer.analyzeResults(functionalDependencies);
+      // read and analyze results
+      List<FunctionalDependencyResult> rankingResults;
+      try (ResultIterator<FunctionalDependency> results =
+             resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       FunctionalDependencyResultStore resultsStore = new FunctionalDependencyResultStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
+      registerStore(stores, name, resultsStore, rankingResults,
+        FunctionalDependencyResult.class);
 
     } else if (name.equals(ResultType.MVD.getName())) {
-      // read results
       ResultReader<MultivaluedDependency> resultReader =
         new ResultReader<>(ResultType.MVD);
-      List<MultivaluedDependency>
-        multivaluedDependencies =
-        resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<MultivaluedDependency, MultivaluedDependencyResult>
         resultAnalyzer =
         new MultivaluedDependencyResultAnalyzer(inputGenerators, dataIndependent);
-      List<MultivaluedDependencyResult>
-        rankingResults =
-        resultAnalyzer.analyzeResults(multivaluedDependencies);
+      // read and analyze results
+      List<MultivaluedDependencyResult> rankingResults;
+      try (ResultIterator<MultivaluedDependency> results =
+             resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       MultivaluedDependencyResultStore resultsStore = new MultivaluedDependencyResultStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
+      registerStore(stores, name, resultsStore, rankingResults,
+        MultivaluedDependencyResult.class);
 
     } else if (name.equals(ResultType.UCC.getName())) {
-      // read results
       ResultReader<UniqueColumnCombination> resultReader =
         new ResultReader<>(ResultType.UCC);
-      List<UniqueColumnCombination>
-        uniqueColumnCombinations =
-        resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<UniqueColumnCombination, UniqueColumnCombinationResult>
         resultAnalyzer =
         new UniqueColumnCombinationResultAnalyzer(inputGenerators, dataIndependent);
-      List<UniqueColumnCombinationResult>
-        rankingResult =
-        resultAnalyzer.analyzeResults(uniqueColumnCombinations);
+      // read and analyze results
+      List<UniqueColumnCombinationResult> rankingResults;
+      try (ResultIterator<UniqueColumnCombination> results =
+             resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       UniqueColumnCombinationResultStore resultsStore = new UniqueColumnCombinationResultStore();
-      resultsStore.store(rankingResult);
-      ResultsStoreHolder.register(name, resultsStore);
-
+      registerStore(stores, name, resultsStore, rankingResults,
+        UniqueColumnCombinationResult.class);
 
     } else if (name.equals(ResultType.STAT.getName())) {
-      // read results
       ResultReader<BasicStatistic> resultReader =
         new ResultReader<>(ResultType.STAT);
-      List<BasicStatistic> basicStatistics = resultReader.readResultsFromFile(fileName);
-      // analyze results
       ResultAnalyzer<BasicStatistic, BasicStatisticResult>
-        resultAnalyzer = new BasicStatisticResultAnalyzer(inputGenerators, dataIndependent);
-      List<BasicStatisticResult> rankingResults = resultAnalyzer.analyzeResults(basicStatistics);
+        resultAnalyzer =
+        new BasicStatisticResultAnalyzer(inputGenerators, dataIndependent);
+      // read and analyze results
+      List<BasicStatisticResult> rankingResults;
+      try (ResultIterator<BasicStatistic> results = resultReader.openResultsFromFile(fileName)) {
+        rankingResults = resultAnalyzer.analyzeResults(results);
+      }
       // store results
       BasicStatisticResultStore resultsStore = new BasicStatisticResultStore();
-      resultsStore.store(rankingResults);
-      ResultsStoreHolder.register(name, resultsStore);
+      registerStore(stores, name, resultsStore, rankingResults, BasicStatisticResult.class);
+    }
+  }
+
+  /**
+   * Stores the given ranking results and puts the store under the given name. Large result sets
+   * are moved to a {@link MappedResultsStore}, so that they do not occupy the heap.
+   *
+   * @param stores         the stores mapped by the names of their result types
+   * @param name           the name of the store
+   * @param resultsStore   the in-memory store of the result type
+   * @param rankingResults the ranking results
+   * @param resultClass    the class of the ranking results
+   * @param <R>            the type of the ranking results
+   */
+  static <R extends RankingResult> void registerStore(Map<String, ResultsStore<?>> stores,
+                                                      String name,
+                                                      ResultsStore<R> resultsStore,
+                                                      List<R> rankingResults,
+                                                      Class<R> resultClass) {
+    if (rankingResults.size() > MAPPED_STORE_THRESHOLD) {
+      resultsStore = new MappedResultsStore<>(resultsStore, resultClass);
     }
+    resultsStore.store(rankingResults);
+    stores.put(name, resultsStore);
   }
 }
@@ -0,0 +1,248 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing.helper;
+
+import de.metanome.backend.result_postprocessing.helper.ColumnInformation.ColumnType;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+
+/**
+ * Determines the {@link ColumnType} of cell values. The checks are hand-written scanners, which
+ * neither allocate objects nor compile patterns per value. Dates are pre-filtered and parsed with
+ * reused date formats without throwing exceptions. The decisions equal those of the former checks
+ * with lower casing, regular expressions and exception-based date parsing.
+ * <p/>
+ * The date formats are not thread-safe, so every thread has to use its own detector.
+ */
+public class CellTypeDetector {
+
+  protected static final String[] BOOLEAN_DESCRIPTORS =
+    {"0", "false", "f", "no", "n", "1", "true", "t", "yes", "y"};
+  // TODO optimize data formats and add further ones
+  protected static final String[] DATE_FORMATS = {"M/dd/yyyy",
+    "dd.M.yyyy",
+    "M/dd/yyyy hh:mm:ss a",
+    "dd.M.yyyy hh:mm:ss a",
+    "dd.MMM.yyyy",
+    "dd-MMM-yyyy"};
+
+  protected SimpleDateFormat[] dateFormats;
+  protected String[] dateSeparators;
+  protected ParsePosition parsePosition = new ParsePosition(0);
+
+  public CellTypeDetector() {
+    this.dateFormats = new SimpleDateFormat[DATE_FORMATS.length];
+    this.dateSeparators = new String[DATE_FORMATS.length];
+    for (int i = 0; i < DATE_FORMATS.length; i++) {
+      this.dateSeparators[i] = getSeparators(DATE_FORMATS[i]);
+      this.dateFormats[i] = new SimpleDateFormat(DATE_FORMATS[i]);
+      // Set it to lenient, otherwise illegal days in month and leap years will not be checked
+      this.dateFormats[i].setLenient(false);
+    }
+  }
+
+  /**
+   * Determine the type of the given cell value.
+   *
+   * @param cellValue the cell value
+   * @return the type of the cell value (boolean, integer, float, date or string)
+   */
+  public ColumnType getCellType(String cellValue) {
+    if (isBooleanValue(cellValue)) {
+      return ColumnType.BOOLEAN_COLUMN;
+    } else if (isIntegerValue(cellValue)) {
+      return ColumnType.INTEGER_COLUMN;
+    } else if (isFloatValue(cellValue)) {
+      return ColumnType.FLOAT_COLUMN;
+    } else if (isDateValue(cellValue)) {
+      return ColumnType.DATE_COLUMN;
+    }
+    return ColumnType.STRING_COLUMN;
+  }
+
+  /**
+   * Checks if the given value is a common boolean descriptor ignoring the case.
+   *
+   * @param value string value which should be checked
+   * @return true if the value has boolean format, false otherwise
+   */
+  public boolean isBooleanValue(String value) {
+    if (value.length() > 5) {
+      return false;
+    }
+    for (String descriptor : BOOLEAN_DESCRIPTORS) {
+      if (equalsLowerCase(value, descriptor)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compares the lower cased characters of the value with the lower case descriptor. The
+   * descriptors contain only ASCII letters and digits, which no other character lower cases to.
+   */
+  protected boolean equalsLowerCase(String value, String descriptor) {
+    if (value.length() != descriptor.length()) {
+      return false;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      if (Character.toLowerCase(value.charAt(i)) != descriptor.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the given value consists of ASCII digits only.
+   *
+   * @param value string value which should be checked
+   * @return true if the value has integer format, false otherwise
+   */
+  public boolean isIntegerValue(String value) {
+    if (value.isEmpty()) {
+      return false;
+    }
+    return skipDigits(value, 0) == value.length();
+  }
+
+  /**
+   * Checks if the given value is a float value, i.e. an optional sign, digits with a decimal point
+   * or an exponent and at least one digit before the exponent.
+   *
+   * @param value string value which should be checked
+   * @return true if the value have float format, false otherwise
+   */
+  public boolean isFloatValue(String value) {
+    int length = value.length();
+    int position = 0;
+    if (position < length && (value.charAt(position) == '+' || value.charAt(position) == '-')) {
+      position++;
+    }
+
+    // Digits before the decimal point
+    int mantissaStart = position;
+    position = skipDigits(value, position);
+    boolean hasDigits = position > mantissaStart;
+    if (position == length) {
+      // Neither decimal point nor exponent
+      return false;
+    }
+
+    // Optional decimal point and digits after it
+    if (value.charAt(position) == '.') {
+      int fractionStart = ++position;
+      position = skipDigits(value, position);
+      hasDigits |= position > fractionStart;
+    }
+    if (!hasDigits) {
+      return false;
+    }
+    if (position == length) {
+      return true;
+    }
+
+    // Optional exponent
+    char current = value.charAt(position);
+    if (current != 'e' && current != 'E') {
+      return false;
+    }
+    position++;
+    if (position < length && (value.charAt(position) == '+' || value.charAt(position) == '-')) {
+      position++;
+    }
+    int exponentStart = position;
+    position = skipDigits(value, position);
+    return position > exponentStart && position == length;
+  }
+
+  protected int skipDigits(String value, int position) {
+    while (position < value.length() && value.charAt(position) >= '0'
+      && value.charAt(position) <= '9') {
+      position++;
+    }
+    return position;
+  }
+
+  /**
+   * Checks if the given value can be parsed with one of the date formats. Values that cannot start
+   * with a valid day or month number are rejected without parsing. A format is only tried, if the
+   * value contains all of the format's separators.
+   *
+   * @param value string value which should be checked
+   * @return true if the value has date format, false otherwise
+   */
+  public boolean isDateValue(String value) {
+    if (!startsWithNumber(value)) {
+      return false;
+    }
+    for (int i = 0; i < dateFormats.length; i++) {
+      if (!containsAll(value, dateSeparators[i])) {
+        continue;
+      }
+      // As in DateFormat#parse(String) trailing characters are ignored.
+      parsePosition.setIndex(0);
+      parsePosition.setErrorIndex(-1);
+      dateFormats[i].parse(value, parsePosition);
+      if (parsePosition.getIndex() != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Every format starts with a day or month number, which may be preceded by spaces and tabs.
+   * Signed numbers are never valid days or months.
+   */
+  protected boolean startsWithNumber(String value) {
+    int position = 0;
+    while (position < value.length()
+      && (value.charAt(position) == ' ' || value.charAt(position) == '\t')) {
+      position++;
+    }
+    return position < value.length() && Character.isDigit(value.charAt(position));
+  }
+
+  protected boolean containsAll(String value, String characters) {
+    for (int i = 0; i < characters.length(); i++) {
+      if (value.indexOf(characters.charAt(i)) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param pattern a date format pattern without quoted text
+   * @return the literal characters of the pattern except white space, which every date in this
+   * format contains
+   */
+  protected static String getSeparators(String pattern) {
+    StringBuilder separators = new StringBuilder();
+    for (int i = 0; i < pattern.length(); i++) {
+      char current = pattern.charAt(i);
+      if (!Character.isLetter(current) && !Character.isWhitespace(current)
+        && separators.indexOf(String.valueOf(current)) < 0) {
+        separators.append(current);
+      }
+    }
+    return separators.toString();
+  }
+
+}
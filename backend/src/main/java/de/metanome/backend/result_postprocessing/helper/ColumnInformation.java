@@ -18,8 +18,6 @@ package de.metanome.backend.result_postprocessing.helper;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
@@ -63,6 +61,10 @@ public class ColumnInformation {
   private Histogram histogram = null;
   // Average length of cell values in string columns
   private float averageValueLength = 0.0f;
+  // Count of non-null values per cell type
+  private Map<ColumnType, Integer> columnTypeMap = null;
+  // Determines the type of the cell values
+  private CellTypeDetector cellTypeDetector = null;
 
   /**
    * Creates a new column information for given column name and index
@@ -125,32 +127,70 @@ public class ColumnInformation {
    */
   protected void createHistogramAndDetermineType(RelationalInput relationalInput)
     throws InputIterationException {
-    this.histogram = new Histogram();
-    this.rowCount = 0L;
-
-    Map<ColumnType, Integer> columnTypeMap = new EnumMap<>(ColumnType.class);
+    this.resetDataDependentStatistics();
 
     // iterate over data and add each cell value to the histogram
     while (relationalInput.hasNext()) {
       List<String> row = relationalInput.next();
-      String cellValue = row.get(this.columnIndex);
-
-      // determine type of cell and store it in a map
-      if (cellValue != null) {
-        ColumnType type = getCellType(cellValue);
-        if (columnTypeMap.containsKey(type)) {
-          columnTypeMap.put(type, columnTypeMap.get(type) + 1);
-        } else {
-          columnTypeMap.put(type, 1);
-        }
-      }
-      // add value to histogram
-      this.histogram.addValue(cellValue);
-
-      this.rowCount++;
+      this.addValue(row.get(this.columnIndex));
     }
     // determine column type
-    this.columnType = determineColumnType(columnTypeMap);
+    this.columnType = determineColumnType(this.columnTypeMap);
+  }
+
+  /**
+   * Clears the histogram and the counts, so that the values of the column can be added with {@link
+   * #addValues(String[], int)}. Used to compute the statistics of all columns in a single pass
+   * over the table.
+   */
+  protected void resetDataDependentStatistics() {
+    this.histogram = new Histogram();
+    this.rowCount = 0L;
+    this.columnTypeMap = new EnumMap<>(ColumnType.class);
+  }
+
+  /**
+   * Adds the first count values of the given array to the statistics.
+   *
+   * @param values the column values of several rows
+   * @param count  the number of valid values
+   */
+  protected void addValues(String[] values, int count) {
+    for (int i = 0; i < count; i++) {
+      this.addValue(values[i]);
+    }
+  }
+
+  /**
+   * Adds a cell value to the histogram and the type counts.
+   *
+   * @param cellValue the cell value
+   */
+  protected void addValue(String cellValue) {
+    // determine type of cell and store it in a map
+    if (cellValue != null) {
+      ColumnType type = getCellType(cellValue);
+      if (this.columnTypeMap.containsKey(type)) {
+        this.columnTypeMap.put(type, this.columnTypeMap.get(type) + 1);
+      } else {
+        this.columnTypeMap.put(type, 1);
+      }
+    }
+    // add value to histogram
+    this.histogram.addValue(cellValue);
+
+    this.rowCount++;
+  }
+
+  /**
+   * Computes the remaining statistics after all values were added with {@link
+   * #addValues(String[], int)}.
+   */
+  protected void completeDataDependentStatistics() {
+    this.columnType = determineColumnType(this.columnTypeMap);
+    this.computeDistinctValuesCount();
+    this.computeNullValuesCount();
+    this.computeAverageLength();
   }
 
   /**
@@ -160,16 +200,20 @@ public class ColumnInformation {
    * @return the type of the cell value (boolean, integer, float, date or string)
    */
   protected ColumnType getCellType(String cellValue) {
-    if (isBooleanValue(cellValue)) {
-      return ColumnType.BOOLEAN_COLUMN;
-    } else if (isIntegerValue(cellValue)) {
-      return ColumnType.INTEGER_COLUMN;
-    } else if (isFloatValue(cellValue)) {
-      return ColumnType.FLOAT_COLUMN;
-    } else if (isDateValue(cellValue)) {
-      return ColumnType.DATE_COLUMN;
+    return getCellTypeDetector().getCellType(cellValue);
+  }
+
+  /**
+   * The detector is created on first use, as its date formats are only needed for data dependent
+   * statistics.
+   *
+   * @return the cell type detector of this column
+   */
+  protected CellTypeDetector getCellTypeDetector() {
+    if (this.cellTypeDetector == null) {
+      this.cellTypeDetector = new CellTypeDetector();
     }
-    return ColumnType.STRING_COLUMN;
+    return this.cellTypeDetector;
   }
 
   /**
@@ -215,16 +259,7 @@ public class ColumnInformation {
    * @return true if the value has boolean format, false otherwise
    */
   protected boolean isBooleanValue(String value) {
-    // Check both values for a common boolean descriptor (lower case)
-    String[] commonNegativeDescriptorsArray = {"0", "false", "f", "no", "n"};
-    String[] commonPositiveDescriptorsArray = {"1", "true", "t", "yes", "y"};
-    Set<String> commonNegativeDescriptors =
-      new HashSet<>(Arrays.asList(commonNegativeDescriptorsArray));
-    Set<String> commonPositiveDescriptors =
-      new HashSet<>(Arrays.asList(commonPositiveDescriptorsArray));
-
-    return commonNegativeDescriptors.contains(value.toLowerCase()) ||
-      commonPositiveDescriptors.contains(value.toLowerCase());
+    return getCellTypeDetector().isBooleanValue(value);
   }
 
   /**
@@ -234,7 +269,7 @@ public class ColumnInformation {
    * @return true if the value has integer format, false otherwise
    */
   protected boolean isIntegerValue(String value) {
-    return value.matches("\\d+");
+    return getCellTypeDetector().isIntegerValue(value);
   }
 
   /**
@@ -244,7 +279,7 @@ public class ColumnInformation {
    * @return true if the value have float format, false otherwise
    */
   protected boolean isFloatValue(String value) {
-    return value.matches("[+-]?(?=\\d*[.eE])(?=\\.?\\d)\\d*\\.?\\d*(?:[eE][+-]?\\d+)?");
+    return getCellTypeDetector().isFloatValue(value);
   }
 
   /**
@@ -254,41 +289,7 @@ public class ColumnInformation {
    * @return true if the value has date format, false otherwise
    */
   protected boolean isDateValue(String value) {
-    // TODO optimize data formats and add further ones
-    String[] dateFormats = {"M/dd/yyyy",
-      "dd.M.yyyy",
-      "M/dd/yyyy hh:mm:ss a",
-      "dd.M.yyyy hh:mm:ss a",
-      "dd.MMM.yyyy",
-      "dd-MMM-yyyy"};
-
-    for (String dateFormat : dateFormats) {
-      // If one format fits then the value is a date
-      if (this.isDateValid(value, dateFormat)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  /**
-   * Checks if the provided value can be parsed to a date with provided format
-   *
-   * @param dateToValidate String which should be a date
-   * @param dateFormat     Format of the possible date
-   * @return true if the string can be parsed to a legal date using given format, false otherwise
-   */
-  protected boolean isDateValid(String dateToValidate, String dateFormat) {
-    SimpleDateFormat simpleDateFormat = new SimpleDateFormat(dateFormat);
-    // Set it to lenient, otherwise illegal days in month and leap years will not be checked
-    simpleDateFormat.setLenient(false);
-
-    try {
-      simpleDateFormat.parse(dateToValidate);
-    } catch (ParseException e) {
-      return false;
-    }
-    return true;
+    return getCellTypeDetector().isDateValue(value);
   }
 
   /**
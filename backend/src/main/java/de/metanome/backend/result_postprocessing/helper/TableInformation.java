@@ -17,18 +17,29 @@ package de.metanome.backend.result_postprocessing.helper;
 
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
+import de.metanome.algorithm_integration.input.BatchRelationalInput;
+import de.metanome.algorithm_integration.input.BatchRelationalInputAdapter;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInput;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Provides metadata and statistics about a table including all columns
  */
 public class TableInformation {
 
+  // Number of rows read at once when computing the data dependent statistics
+  protected static final int BATCH_SIZE = 4096;
+
   // Number of columns
   private int columnCount;
   // Table name
@@ -69,29 +80,107 @@ public class TableInformation {
     // Create the column information
     List<String> columnNames = relationalInput.columnNames();
     this.columnInformationMap = new HashMap<>();
+    ColumnInformation[] columns = new ColumnInformation[this.columnCount];
 
     for (int columnIndex = 0; columnIndex < this.columnCount; columnIndex++) {
       BitSet columnBitSet = new BitSet(this.columnCount);
       columnBitSet.set(columnIndex);
 
-      // Compute the column information for the current column
+      columns[columnIndex] =
+        new ColumnInformation(columnNames.get(columnIndex), columnIndex, columnBitSet);
+      this.columnInformationMap.put(columnNames.get(columnIndex), columns[columnIndex]);
+    }
+
+    try {
+      // Compute the column information of all columns in a single pass over the data
       if (!useDataIndependentStatistics) {
-        // Generate a new data iterator for each column
-        relationalInput = relationalInputGenerator.generateNewCopy();
-        this.columnInformationMap
-          .put(columnNames.get(columnIndex),
-            new ColumnInformation(columnNames.get(columnIndex),
-              columnIndex,
-              columnBitSet,
-              relationalInput,
-              true));
-      } else {
-        this.columnInformationMap.
-          put(columnNames.get(columnIndex),
-            new ColumnInformation(columnNames.get(columnIndex),
-              columnIndex,
-              columnBitSet));
+        computeDataDependentStatistics(relationalInput, columns);
+      }
+    } finally {
+      try {
+        relationalInput.close();
+      } catch (Exception e) {
+        // The statistics are complete, a failing close does not affect them.
+      }
+    }
+  }
+
+  /**
+   * Feeds the values of every column into its column information while iterating over the input
+   * once. The rows are read in batches. Every batch is processed in parallel by column, as the
+   * column information are independent of each other.
+   *
+   * @param relationalInput the input to read
+   * @param columns         the column information indexed by column
+   * @throws InputIterationException if the input is not iterable or the statistics could not be
+   *                                 computed
+   */
+  protected void computeDataDependentStatistics(RelationalInput relationalInput,
+                                                final ColumnInformation[] columns)
+    throws InputIterationException {
+    for (ColumnInformation column : columns) {
+      column.resetDataDependentStatistics();
+    }
+
+    BatchRelationalInput batchInput = BatchRelationalInputAdapter.of(relationalInput);
+    int threads = Math.min(Runtime.getRuntime().availableProcessors(), columns.length);
+    ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+    try {
+      ColumnBatch batch = batchInput.nextBatch(BATCH_SIZE);
+      while (!batch.isEmpty()) {
+        if (executor == null) {
+          addBatch(batch, columns, 0, 1);
+        } else {
+          addBatchInParallel(executor, threads, batch, columns);
+        }
+        batch = batchInput.nextBatch(BATCH_SIZE);
+      }
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+
+    for (ColumnInformation column : columns) {
+      column.completeDataDependentStatistics();
+    }
+  }
+
+  protected void addBatchInParallel(ExecutorService executor, int threads, final ColumnBatch batch,
+                                    final ColumnInformation[] columns)
+    throws InputIterationException {
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int thread = 0; thread < threads; thread++) {
+      final int firstColumn = thread;
+      final int step = threads;
+      tasks.add(new Callable<Void>() {
+        @Override
+        public Void call() {
+          addBatch(batch, columns, firstColumn, step);
+          return null;
+        }
+      });
+    }
+
+    try {
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
       }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InputIterationException("Interrupted while computing the column statistics", e);
+    } catch (ExecutionException e) {
+      throw new InputIterationException("Could not compute the column statistics", e.getCause());
+    }
+  }
+
+  /**
+   * Adds the batch's values of every step-th column starting with firstColumn.
+   */
+  protected void addBatch(ColumnBatch batch, ColumnInformation[] columns, int firstColumn,
+                          int step) {
+    for (int columnIndex = firstColumn; columnIndex < columns.length; columnIndex += step) {
+      columns[columnIndex].addValues(batch.getColumn(columnIndex), batch.size());
     }
   }
 
@@ -150,4 +239,20 @@ public class TableInformation {
   public void setPLIs(Map<BitSet, PositionListIndex> PLIs) {
     this.PLIs = PLIs;
   }
+
+  /**
+   * Sums up the estimated heap footprint of all position list indices of this table.
+   *
+   * @return the estimated size of all PLIs in bytes or 0, if no PLIs were created
+   */
+  public long getEstimatedPLIBytes() {
+    if (this.PLIs == null) {
+      return 0;
+    }
+    long bytes = 0;
+    for (PositionListIndex pli : this.PLIs.values()) {
+      bytes += pli.estimatedBytes();
+    }
+    return bytes;
+  }
 }
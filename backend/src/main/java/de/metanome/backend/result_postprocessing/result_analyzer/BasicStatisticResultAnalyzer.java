@@ -40,10 +40,8 @@ public class BasicStatisticResultAnalyzer
   }
 
   @Override
-  protected List<BasicStatisticResult> analyzeResultsDataIndependent(
-    List<BasicStatistic> prevResults) {
-    List<BasicStatisticResult> results = convertResults(prevResults);
-
+  protected List<BasicStatisticResult> rankResultsDataIndependent(
+    List<BasicStatisticResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        BasicStatisticRanking
@@ -59,10 +57,8 @@ public class BasicStatisticResultAnalyzer
   }
 
   @Override
-  protected List<BasicStatisticResult> analyzeResultsDataDependent(
-    List<BasicStatistic> prevResults) {
-    List<BasicStatisticResult> results = convertResults(prevResults);
-
+  protected List<BasicStatisticResult> rankResultsDataDependent(
+    List<BasicStatisticResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         BasicStatisticRanking
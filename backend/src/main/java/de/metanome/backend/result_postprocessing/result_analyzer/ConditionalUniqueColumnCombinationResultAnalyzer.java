@@ -40,10 +40,8 @@ public class ConditionalUniqueColumnCombinationResultAnalyzer extends
   }
 
   @Override
-  protected List<ConditionalUniqueColumnCombinationResult> analyzeResultsDataIndependent(
-    List<ConditionalUniqueColumnCombination> prevResults) {
-    List<ConditionalUniqueColumnCombinationResult> results = convertResults(prevResults);
-
+  protected List<ConditionalUniqueColumnCombinationResult> rankResultsDataIndependent(
+    List<ConditionalUniqueColumnCombinationResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        ConditionalUniqueColumnCombinationRanking
@@ -59,10 +57,8 @@ public class ConditionalUniqueColumnCombinationResultAnalyzer extends
   }
 
   @Override
-  protected List<ConditionalUniqueColumnCombinationResult> analyzeResultsDataDependent(
-    List<ConditionalUniqueColumnCombination> prevResults) {
-    List<ConditionalUniqueColumnCombinationResult> results = convertResults(prevResults);
-
+  protected List<ConditionalUniqueColumnCombinationResult> rankResultsDataDependent(
+    List<ConditionalUniqueColumnCombinationResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         ConditionalUniqueColumnCombinationRanking
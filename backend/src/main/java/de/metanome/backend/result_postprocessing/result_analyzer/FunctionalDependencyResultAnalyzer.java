@@ -42,10 +42,8 @@ public class FunctionalDependencyResultAnalyzer
   }
 
   @Override
-  protected List<FunctionalDependencyResult> analyzeResultsDataIndependent(
-    List<FunctionalDependency> prevResults) {
-    List<FunctionalDependencyResult> results = convertResults(prevResults);
-
+  protected List<FunctionalDependencyResult> rankResultsDataIndependent(
+    List<FunctionalDependencyResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        results = extendDependantSide(results);
@@ -61,10 +59,8 @@ public class FunctionalDependencyResultAnalyzer
   }
 
   @Override
-  protected List<FunctionalDependencyResult> analyzeResultsDataDependent(
-    List<FunctionalDependency> prevResults) {
-    List<FunctionalDependencyResult> results = convertResults(prevResults);
-
+  protected List<FunctionalDependencyResult> rankResultsDataDependent(
+    List<FunctionalDependencyResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         results = extendDependantSide(results);
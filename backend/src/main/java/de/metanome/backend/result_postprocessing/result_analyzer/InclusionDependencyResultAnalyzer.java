@@ -39,10 +39,8 @@ public class InclusionDependencyResultAnalyzer
   }
 
   @Override
-  protected List<InclusionDependencyResult> analyzeResultsDataIndependent(
-    List<InclusionDependency> prevResults) {
-    List<InclusionDependencyResult> results = convertResults(prevResults);
-
+  protected List<InclusionDependencyResult> rankResultsDataIndependent(
+    List<InclusionDependencyResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        InclusionDependencyRanking
@@ -58,10 +56,8 @@ public class InclusionDependencyResultAnalyzer
   }
 
   @Override
-  protected List<InclusionDependencyResult> analyzeResultsDataDependent(
-    List<InclusionDependency> prevResults) {
-    List<InclusionDependencyResult> results = convertResults(prevResults);
-
+  protected List<InclusionDependencyResult> rankResultsDataDependent(
+    List<InclusionDependencyResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         InclusionDependencyRanking ranking =
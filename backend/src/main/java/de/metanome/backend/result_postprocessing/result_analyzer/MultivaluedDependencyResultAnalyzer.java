@@ -42,10 +42,8 @@ public class MultivaluedDependencyResultAnalyzer
   }
 
   @Override
-  protected List<MultivaluedDependencyResult> analyzeResultsDataIndependent(
-    List<MultivaluedDependency> prevResults) {
-    List<MultivaluedDependencyResult> results = convertResults(prevResults);
-
+  protected List<MultivaluedDependencyResult> rankResultsDataIndependent(
+    List<MultivaluedDependencyResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        results = extendDependantSide(results);
@@ -61,10 +59,8 @@ public class MultivaluedDependencyResultAnalyzer
   }
 
   @Override
-  protected List<MultivaluedDependencyResult> analyzeResultsDataDependent(
-    List<MultivaluedDependency> prevResults) {
-    List<MultivaluedDependencyResult> results = convertResults(prevResults);
-
+  protected List<MultivaluedDependencyResult> rankResultsDataDependent(
+    List<MultivaluedDependencyResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
 //        results = extendDependantSide(results);
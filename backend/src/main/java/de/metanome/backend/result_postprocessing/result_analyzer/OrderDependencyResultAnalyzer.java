@@ -40,10 +40,8 @@ public class OrderDependencyResultAnalyzer
   }
 
   @Override
-  protected List<OrderDependencyResult> analyzeResultsDataIndependent(
-    List<OrderDependency> prevResults) {
-    List<OrderDependencyResult> results = convertResults(prevResults);
-
+  protected List<OrderDependencyResult> rankResultsDataIndependent(
+    List<OrderDependencyResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        OrderDependencyRanking ranking =
@@ -58,10 +56,8 @@ public class OrderDependencyResultAnalyzer
   }
 
   @Override
-  protected List<OrderDependencyResult> analyzeResultsDataDependent(
-    List<OrderDependency> prevResults) {
-    List<OrderDependencyResult> results = convertResults(prevResults);
-
+  protected List<OrderDependencyResult> rankResultsDataDependent(
+    List<OrderDependencyResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         OrderDependencyRanking ranking =
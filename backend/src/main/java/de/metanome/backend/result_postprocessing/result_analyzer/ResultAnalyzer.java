@@ -21,7 +21,9 @@ import de.metanome.algorithm_integration.input.InputIterationException;
 import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.results.Result;
 import de.metanome.backend.result_postprocessing.helper.TableInformation;
+import de.metanome.backend.result_receiver.ResultIterator;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -30,6 +32,8 @@ import java.util.*;
  */
 public abstract class ResultAnalyzer<T extends Result, R> {
 
+  protected static final int CHUNK_SIZE = 4096;
+
   protected boolean useDataIndependentStatistics = true;
   protected List<RelationalInputGenerator> inputGenerators = new ArrayList<>();
   protected Map<String, TableInformation> tableInformationMap;
@@ -67,13 +71,64 @@ public abstract class ResultAnalyzer<T extends Result, R> {
     }
   }
 
+  /**
+   * Analyzes the results read one by one from the given iterator. The results are converted in
+   * chunks, so that only the extended results are kept in memory and not all results of the
+   * algorithm in addition.
+   *
+   * @param results iterator over the results of the algorithm
+   * @return list of extended results
+   * @throws java.io.IOException if the results could not be read
+   */
+  public List<R> analyzeResults(ResultIterator<T> results) throws IOException {
+    List<R> convertedResults = new ArrayList<>();
+    List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+    while (results.hasNext()) {
+      chunk.add(results.next());
+      if (chunk.size() == CHUNK_SIZE) {
+        convertedResults.addAll(convertResults(chunk));
+        chunk.clear();
+      }
+    }
+    convertedResults.addAll(convertResults(chunk));
+    return rankResults(convertedResults);
+  }
+
+  /**
+   * Converts the given results without ranking them, e.g. while the algorithm is still running.
+   * The rankings depend on all results and have to be calculated with {@link #rankResults(List)}
+   * once all results are converted.
+   *
+   * @param results Results of the algorithm
+   * @return list of extended results without rankings
+   */
+  public List<R> convertPartialResults(List<T> results) {
+    return convertResults(results);
+  }
+
+  /**
+   * Calculates the rankings of the converted results.
+   *
+   * @param convertedResults all converted results
+   * @return list of extended results
+   */
+  public List<R> rankResults(List<R> convertedResults) {
+    if (useDataIndependentStatistics) {
+      return rankResultsDataIndependent(convertedResults);
+    } else {
+      return rankResultsDataDependent(convertedResults);
+    }
+  }
+
   /**
    * Analyzes the results without using the raw data from the inputs.
    *
    * @param prevResults Results of the algorithm
    * @return list of extended results
    */
-  protected abstract List<R> analyzeResultsDataIndependent(List<T> prevResults);
+  protected List<R> analyzeResultsDataIndependent(List<T> prevResults) {
+    return rankResultsDataIndependent(convertResults(prevResults));
+  }
 
   /**
    * Analyzes the results using the raw data from the inputs.
@@ -81,7 +136,25 @@ public abstract class ResultAnalyzer<T extends Result, R> {
    * @param prevResults Results of the algorithm
    * @return list of extended results
    */
-  protected abstract List<R> analyzeResultsDataDependent(List<T> prevResults);
+  protected List<R> analyzeResultsDataDependent(List<T> prevResults) {
+    return rankResultsDataDependent(convertResults(prevResults));
+  }
+
+  /**
+   * Calculates the rankings of the converted results without using the raw data from the inputs.
+   *
+   * @param results the converted results
+   * @return list of extended results
+   */
+  protected abstract List<R> rankResultsDataIndependent(List<R> results);
+
+  /**
+   * Calculates the rankings of the converted results using the raw data from the inputs.
+   *
+   * @param results the converted results
+   * @return list of extended results
+   */
+  protected abstract List<R> rankResultsDataDependent(List<R> results);
 
   /**
    * Converts a list of results into a list of ranking results. The ranking results contain
@@ -41,10 +41,8 @@ public class UniqueColumnCombinationResultAnalyzer
   }
 
   @Override
-  protected List<UniqueColumnCombinationResult> analyzeResultsDataIndependent(
-    List<UniqueColumnCombination> prevResults) {
-    List<UniqueColumnCombinationResult> results = convertResults(prevResults);
-
+  protected List<UniqueColumnCombinationResult> rankResultsDataIndependent(
+    List<UniqueColumnCombinationResult> results) {
 //    try {
 //      if (!this.tableInformationMap.isEmpty()) {
 //        UniqueColumnCombinationRanking ranking =
@@ -59,10 +57,8 @@ public class UniqueColumnCombinationResultAnalyzer
   }
 
   @Override
-  protected List<UniqueColumnCombinationResult> analyzeResultsDataDependent(
-    List<UniqueColumnCombination> prevResults) {
-    List<UniqueColumnCombinationResult> results = convertResults(prevResults);
-
+  protected List<UniqueColumnCombinationResult> rankResultsDataDependent(
+    List<UniqueColumnCombinationResult> results) {
     try {
       if (!this.tableInformationMap.isEmpty()) {
         UniqueColumnCombinationRanking ranking =
@@ -16,7 +16,9 @@
 package de.metanome.backend.result_postprocessing.result_ranking;
 
 import de.metanome.algorithm_helper.data_structures.PLIBuilder;
+import de.metanome.algorithm_helper.data_structures.ParallelPLIBuilder;
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_helper.data_structures.PositionListIndexIntersector;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.input.InputGenerationException;
@@ -34,6 +36,7 @@ public class FunctionalDependencyRanking extends Ranking {
 
   protected List<FunctionalDependencyResult> results;
   protected Map<BitSet, PositionListIndex> PLIs;
+  protected PositionListIndexIntersector intersector = new PositionListIndexIntersector();
 
   public FunctionalDependencyRanking(List<FunctionalDependencyResult> results,
                                      Map<String, TableInformation> tableInformationMap) {
@@ -246,7 +249,7 @@ public class FunctionalDependencyRanking extends Ranking {
     // calculate the new PLI
     PositionListIndex pli = this.PLIs.get(columns.get(0));
     for (int i = 1; i < columns.size(); i++) {
-      pli = pli.intersect(this.PLIs.get(columns.get(i)));
+      pli = this.intersector.intersectCompact(pli, this.PLIs.get(columns.get(i)));
     }
     this.PLIs.put(columnBitSet, pli);
 
@@ -350,8 +353,8 @@ public class FunctionalDependencyRanking extends Ranking {
     Map<BitSet, PositionListIndex> pliList = new HashMap<>();
 
     PLIBuilder pliBuilder =
-      new PLIBuilder(tableInformation.getRelationalInputGenerator().generateNewCopy());
-    List<PositionListIndex> PLIs = pliBuilder.getPLIList();
+      new ParallelPLIBuilder(tableInformation.getRelationalInputGenerator().generateNewCopy());
+    List<PositionListIndex> PLIs = pliBuilder.getCompactPLIList();
 
     int index = 0;
     for (PositionListIndex PLI : PLIs) {
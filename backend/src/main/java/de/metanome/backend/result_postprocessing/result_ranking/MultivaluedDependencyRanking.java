@@ -17,7 +17,9 @@
 package de.metanome.backend.result_postprocessing.result_ranking;
 
 import de.metanome.algorithm_helper.data_structures.PLIBuilder;
+import de.metanome.algorithm_helper.data_structures.ParallelPLIBuilder;
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_helper.data_structures.PositionListIndexIntersector;
 import de.metanome.algorithm_integration.AlgorithmConfigurationException;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.input.InputGenerationException;
@@ -35,6 +37,7 @@ public class MultivaluedDependencyRanking extends Ranking {
 
   protected List<MultivaluedDependencyResult> results;
   protected Map<BitSet, PositionListIndex> PLIs;
+  protected PositionListIndexIntersector intersector = new PositionListIndexIntersector();
 
   public MultivaluedDependencyRanking(List<MultivaluedDependencyResult> results,
                                      Map<String, TableInformation> tableInformationMap) {
@@ -249,7 +252,7 @@ public class MultivaluedDependencyRanking extends Ranking {
     // calculate the new PLI
     PositionListIndex pli = this.PLIs.get(columns.get(0));
     for (int i = 1; i < columns.size(); i++) {
-      pli = pli.intersect(this.PLIs.get(columns.get(i)));
+      pli = this.intersector.intersectCompact(pli, this.PLIs.get(columns.get(i)));
     }
     this.PLIs.put(columnBitSet, pli);
 
@@ -353,8 +356,8 @@ public class MultivaluedDependencyRanking extends Ranking {
     Map<BitSet, PositionListIndex> pliList = new HashMap<>();
 
     PLIBuilder pliBuilder =
-      new PLIBuilder(tableInformation.getRelationalInputGenerator().generateNewCopy());
-    List<PositionListIndex> PLIs = pliBuilder.getPLIList();
+      new ParallelPLIBuilder(tableInformation.getRelationalInputGenerator().generateNewCopy());
+    List<PositionListIndex> PLIs = pliBuilder.getCompactPLIList();
 
     int index = 0;
     for (PositionListIndex PLI : PLIs) {
@@ -0,0 +1,501 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing.result_store;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.metanome.algorithm_integration.results.JsonCodec;
+import de.metanome.backend.result_postprocessing.result_comparator.ResultComparator;
+import de.metanome.backend.result_postprocessing.results.RankingResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Stores the ranking results of one execution on disk instead of the heap. The results are
+ * written as JSON records to a temporary data file, the offsets of the records to a memory-mapped
+ * index file.
+ * <p/>
+ * The results are never sorted in place. For every requested sort property and direction a
+ * permutation of the record numbers is built once by an external merge sort and kept in a small
+ * LRU cache, so that switching back and forth between sort properties does not resort anything. A
+ * page is served by reading only the records of the page.
+ * <p/>
+ * The comparators are taken from the wrapped in-memory store of the same result type.
+ *
+ * @param <ResultType> the type of the ranking results
+ */
+public class MappedResultsStore<ResultType extends RankingResult> extends ResultsStore<ResultType> {
+
+  // Default number of cached permutations
+  public static final int DEFAULT_CACHED_PERMUTATIONS = 4;
+  // Default number of results, which are read at once to sort their record numbers
+  public static final int DEFAULT_SORT_CHUNK_SIZE = 1 << 16;
+
+  protected static final int STREAM_BUFFER_SIZE = 1 << 16;
+  protected static final int OFFSET_BYTES = 8;
+
+  // Store, which defines the comparators of the result type
+  protected ResultsStore<ResultType> comparatorStore;
+  protected ObjectReader reader;
+  protected ObjectWriter writer;
+
+  protected File dataFile = null;
+  protected File indexFile = null;
+  protected RandomAccessFile data = null;
+  // Start offsets of all records followed by the end offset of the last record
+  protected LongBuffer offsets = null;
+  protected int size = 0;
+
+  // Permutations of the record numbers by sort key, least recently used first
+  protected Map<String, int[]> permutations;
+  protected int sortChunkSize = DEFAULT_SORT_CHUNK_SIZE;
+
+  /**
+   * @param comparatorStore in-memory store of the same result type, which provides the comparators
+   * @param resultClass     the class of the ranking results
+   */
+  public MappedResultsStore(ResultsStore<ResultType> comparatorStore,
+                            Class<ResultType> resultClass) {
+    this(comparatorStore, resultClass, DEFAULT_CACHED_PERMUTATIONS);
+  }
+
+  /**
+   * @param comparatorStore    in-memory store of the same result type, which provides the
+   *                           comparators
+   * @param resultClass        the class of the ranking results
+   * @param cachedPermutations maximal number of permutations kept in memory
+   */
+  public MappedResultsStore(ResultsStore<ResultType> comparatorStore,
+                            Class<ResultType> resultClass, final int cachedPermutations) {
+    this.comparatorStore = comparatorStore;
+    // Derived properties like the dependant of a result are serialized for the frontend, but
+    // cannot be set
+    this.reader = JsonCodec.getDefault().getReader(resultClass)
+      .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.writer = JsonCodec.getDefault().getWriter(resultClass);
+    this.permutations = new LinkedHashMap<String, int[]>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+        return size() > cachedPermutations;
+      }
+    };
+  }
+
+  /**
+   * Writes the given results to disk. Previously stored results are discarded. The given list is
+   * not referenced afterwards and can be garbage collected.
+   *
+   * @param results List of results to be persisted
+   */
+  @Override
+  public synchronized void store(List<ResultType> results) {
+    this.clear();
+    try {
+      this.write(results);
+    } catch (IOException e) {
+      this.clear();
+      throw new IllegalStateException("Could not write the results to disk!", e);
+    }
+  }
+
+  protected void write(List<ResultType> results) throws IOException {
+    this.dataFile = File.createTempFile("metanome_results", ".data");
+    this.indexFile = File.createTempFile("metanome_results", ".index");
+    this.dataFile.deleteOnExit();
+    this.indexFile.deleteOnExit();
+
+    long offset = 0;
+    try (DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(
+      new FileOutputStream(this.dataFile), STREAM_BUFFER_SIZE));
+         DataOutputStream indexOutput = new DataOutputStream(new BufferedOutputStream(
+           new FileOutputStream(this.indexFile), STREAM_BUFFER_SIZE))) {
+      for (ResultType result : results) {
+        byte[] record = this.writer.writeValueAsBytes(result);
+        indexOutput.writeLong(offset);
+        dataOutput.write(record);
+        offset += record.length;
+      }
+      indexOutput.writeLong(offset);
+    }
+
+    this.size = results.size();
+    this.data = new RandomAccessFile(this.dataFile, "r");
+    this.mapOffsets();
+  }
+
+  /**
+   * Appends the given results to the data file and their offsets to the index file. The cached
+   * permutations are dropped and built again on the next request of their sort property.
+   *
+   * @param results List of results to be appended
+   */
+  @Override
+  public synchronized void append(List<ResultType> results) {
+    try {
+      if (this.dataFile == null) {
+        this.write(results);
+      } else {
+        this.writeAppended(results);
+      }
+    } catch (IOException e) {
+      this.clear();
+      throw new IllegalStateException("Could not write the results to disk!", e);
+    }
+    this.permutations.clear();
+  }
+
+  protected void writeAppended(List<ResultType> results) throws IOException {
+    // The index ends with the end offset of the last record, which is the start of the next one
+    long offset = this.offsets.get(this.size);
+    ByteBuffer endOffsets = ByteBuffer.allocate(results.size() * OFFSET_BYTES);
+    try (DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(
+      new FileOutputStream(this.dataFile, true), STREAM_BUFFER_SIZE))) {
+      for (ResultType result : results) {
+        byte[] record = this.writer.writeValueAsBytes(result);
+        dataOutput.write(record);
+        offset += record.length;
+        endOffsets.putLong(offset);
+      }
+    }
+    try (RandomAccessFile index = new RandomAccessFile(this.indexFile, "rw")) {
+      index.seek((long) (this.size + 1) * OFFSET_BYTES);
+      index.write(endOffsets.array());
+    }
+
+    this.size += results.size();
+    this.mapOffsets();
+  }
+
+  protected void mapOffsets() throws IOException {
+    try (RandomAccessFile index = new RandomAccessFile(this.indexFile, "r")) {
+      this.offsets = index.getChannel()
+        .map(FileChannel.MapMode.READ_ONLY, 0, index.length()).asLongBuffer();
+    }
+  }
+
+  /**
+   * Deletes the files of the store and drops all cached permutations
+   */
+  @Override
+  public synchronized void clear() {
+    this.permutations.clear();
+    this.offsets = null;
+    this.size = 0;
+    if (this.data != null) {
+      try {
+        this.data.close();
+      } catch (IOException e) {
+        // Intentionally left blank
+      }
+      this.data = null;
+    }
+    if (this.dataFile != null) {
+      this.dataFile.delete();
+      this.dataFile = null;
+    }
+    if (this.indexFile != null) {
+      this.indexFile.delete();
+      this.indexFile = null;
+    }
+  }
+
+  @Override
+  public synchronized Integer count() {
+    return this.size;
+  }
+
+  /**
+   * The results are held on disk, only the cached permutations take up memory.
+   *
+   * @return Returns 0
+   */
+  @Override
+  public long countRetainedResults() {
+    return 0;
+  }
+
+  /**
+   * Reads all results from disk in the order they were stored. Should only be used for small
+   * stores, pages should be requested via {@link #subList(String, boolean, int, int)}.
+   *
+   * @return Returns the results
+   */
+  @Override
+  public synchronized List<ResultType> list() {
+    try {
+      return this.readAll();
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the results from disk!", e);
+    }
+  }
+
+  /**
+   * Returns a part of persisted results following given properties. Only the records of the
+   * requested part are read from disk. The first request of a sort property and direction sorts
+   * the record numbers once.
+   *
+   * @param sortProperty Sort property the list should be sorted on
+   * @param ascending    Sort direction
+   * @param start        Inclusive start index
+   * @param end          Exclusive end index
+   * @return Returns a part of persisted results following given properties
+   */
+  @Override
+  public synchronized List<ResultType> subList(String sortProperty, boolean ascending,
+                                               int start, int end) {
+    start = Math.max(0, start);
+    end = Math.min(this.size, end);
+
+    List<ResultType> page = new ArrayList<>(Math.max(0, end - start));
+    try {
+      int[] permutation = this.getPermutation(sortProperty, ascending);
+      for (int i = start; i < end; i++) {
+        page.add(this.read(permutation[i]));
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read the results from disk!", e);
+    }
+    return page;
+  }
+
+  /**
+   * Returns the cached permutation of the record numbers for the given sort property and
+   * direction or builds it, if it is not cached.
+   *
+   * @param sortProperty Sort property
+   * @param ascending    Sort direction
+   * @return the record numbers in sort order
+   * @throws IOException if the results could not be read
+   */
+  protected int[] getPermutation(String sortProperty, boolean ascending) throws IOException {
+    String key = sortProperty + (ascending ? "+" : "-");
+    int[] permutation = this.permutations.get(key);
+    if (permutation == null) {
+      permutation = this.sort(sortProperty, ascending);
+      this.permutations.put(key, permutation);
+    }
+    return permutation;
+  }
+
+  /**
+   * Sorts the record numbers externally. Runs of consecutive records, which fit into one chunk,
+   * are read and their record numbers are sorted. The sorted runs are merged afterwards by reading
+   * only the current record of every run. Thereby at most one chunk of results is held on the heap.
+   * The sort is stable, results, which are equal regarding the sort property, keep the order in
+   * which they were stored.
+   *
+   * @param sortProperty Sort property
+   * @param ascending    Sort direction
+   * @return the record numbers in sort order
+   * @throws IOException if the results could not be read
+   */
+  protected int[] sort(String sortProperty, boolean ascending) throws IOException {
+    final ResultComparator<ResultType> comparator =
+      this.getResultComparator(sortProperty, ascending);
+
+    int[] runs = new int[this.size];
+    if (this.dataFile == null) {
+      return runs;
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+      new FileInputStream(this.dataFile), STREAM_BUFFER_SIZE))) {
+      for (int runStart = 0; runStart < this.size; runStart += this.sortChunkSize) {
+        int runEnd = Math.min(this.size, runStart + this.sortChunkSize);
+        final List<ResultType> chunk = this.read(input, runStart, runEnd);
+        final int firstRecordNumber = runStart;
+
+        int[] recordNumbers = new int[runEnd - runStart];
+        for (int i = 0; i < recordNumbers.length; i++) {
+          recordNumbers[i] = runStart + i;
+        }
+        mergeSort(recordNumbers, new int[recordNumbers.length], 0, recordNumbers.length,
+          new RecordComparator() {
+            @Override
+            public int compare(int recordNumber1, int recordNumber2) {
+              return comparator.compare(chunk.get(recordNumber1 - firstRecordNumber),
+                chunk.get(recordNumber2 - firstRecordNumber));
+            }
+          });
+        System.arraycopy(recordNumbers, 0, runs, runStart, recordNumbers.length);
+      }
+    }
+
+    if (this.size <= this.sortChunkSize) {
+      return runs;
+    }
+    return this.mergeRuns(runs, comparator);
+  }
+
+  /**
+   * Merges the sorted runs of the record numbers. The records of equal results are ordered by
+   * their record numbers, so that the merge is stable.
+   *
+   * @param runs       the record numbers, sorted in runs of the sort chunk size
+   * @param comparator Result comparator
+   * @return the record numbers in sort order
+   * @throws IOException if the results could not be read
+   */
+  protected int[] mergeRuns(final int[] runs, final ResultComparator<ResultType> comparator)
+    throws IOException {
+    PriorityQueue<Run> heads = new PriorityQueue<>(this.size / this.sortChunkSize + 1,
+      new Comparator<Run>() {
+        @Override
+        public int compare(Run run1, Run run2) {
+          int comparison = comparator.compare(run1.head, run2.head);
+          return comparison != 0 ? comparison :
+            Integer.compare(runs[run1.position], runs[run2.position]);
+        }
+      });
+    for (int runStart = 0; runStart < this.size; runStart += this.sortChunkSize) {
+      Run run = new Run(runStart, Math.min(this.size, runStart + this.sortChunkSize));
+      run.head = this.read(runs[run.position]);
+      heads.add(run);
+    }
+
+    int[] permutation = new int[this.size];
+    for (int i = 0; i < this.size; i++) {
+      Run run = heads.poll();
+      permutation[i] = runs[run.position];
+      run.position++;
+      if (run.position < run.end) {
+        run.head = this.read(runs[run.position]);
+        heads.add(run);
+      }
+    }
+    return permutation;
+  }
+
+  /**
+   * Sorts the given range of record numbers stably.
+   */
+  protected static void mergeSort(int[] recordNumbers, int[] buffer, int from, int to,
+                                  RecordComparator comparator) {
+    if (to - from < 2) {
+      return;
+    }
+    int middle = (from + to) >>> 1;
+    mergeSort(recordNumbers, buffer, from, middle, comparator);
+    mergeSort(recordNumbers, buffer, middle, to, comparator);
+    if (comparator.compare(recordNumbers[middle - 1], recordNumbers[middle]) <= 0) {
+      return;
+    }
+
+    System.arraycopy(recordNumbers, from, buffer, from, to - from);
+    int left = from;
+    int right = middle;
+    int i = from;
+    while (left < middle && right < to) {
+      if (comparator.compare(buffer[right], buffer[left]) < 0) {
+        recordNumbers[i++] = buffer[right++];
+      } else {
+        recordNumbers[i++] = buffer[left++];
+      }
+    }
+    System.arraycopy(buffer, left, recordNumbers, i, middle - left);
+    System.arraycopy(buffer, right, recordNumbers, i + middle - left, to - right);
+  }
+
+  /**
+   * Uses the result comparator of the wrapped in-memory store
+   *
+   * @param sortProperty Sort property
+   * @param ascending    Sort direction
+   * @return Returns a new result comparator of appropriate type
+   */
+  @Override
+  protected ResultComparator<ResultType> getResultComparator(String sortProperty,
+                                                             boolean ascending) {
+    return this.comparatorStore.getResultComparator(sortProperty, ascending);
+  }
+
+  protected ResultType read(int recordNumber) throws IOException {
+    long offset = this.offsets.get(recordNumber);
+    ByteBuffer record = ByteBuffer.allocate((int) (this.offsets.get(recordNumber + 1) - offset));
+    FileChannel channel = this.data.getChannel();
+    while (record.hasRemaining()) {
+      if (channel.read(record, offset + record.position()) < 0) {
+        throw new IOException("Unexpected end of the result data file!");
+      }
+    }
+    return this.reader.readValue(record.array());
+  }
+
+  protected List<ResultType> readAll() throws IOException {
+    if (this.dataFile == null) {
+      return new ArrayList<>();
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+      new FileInputStream(this.dataFile), STREAM_BUFFER_SIZE))) {
+      return this.read(input, 0, this.size);
+    }
+  }
+
+  /**
+   * Reads the given range of records from the given stream, which is positioned at the first
+   * record of the range.
+   */
+  protected List<ResultType> read(DataInputStream input, int from, int to) throws IOException {
+    List<ResultType> results = new ArrayList<>(to - from);
+    for (int i = from; i < to; i++) {
+      byte[] record = new byte[(int) (this.offsets.get(i + 1) - this.offsets.get(i))];
+      input.readFully(record);
+      results.add(this.reader.<ResultType>readValue(record));
+    }
+    return results;
+  }
+
+  /**
+   * Compares two results by their record numbers.
+   */
+  protected interface RecordComparator {
+
+    int compare(int recordNumber1, int recordNumber2);
+  }
+
+  /**
+   * A sorted run of record numbers while merging, with the result of its current record.
+   */
+  protected class Run {
+
+    protected int position;
+    protected int end;
+    protected ResultType head;
+
+    protected Run(int position, int end) {
+      this.position = position;
+      this.end = end;
+    }
+  }
+
+}
@@ -17,37 +17,129 @@ package de.metanome.backend.result_postprocessing.result_store;
 
 import de.metanome.backend.result_postprocessing.result_comparator.ResultComparator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * Abstract class providing basic functionality for storing ranking results of one execution
+ * Abstract class providing basic functionality for storing ranking results of one execution.
+ * <p/>
+ * The stored results are never sorted in place. Small result sets are sorted completely on the
+ * first request of a sort property. For larger result sets the requested page is selected with a
+ * bounded heap, while the complete sort runs in the background. Complete sorts are cached per
+ * sort property and direction. Appended results are merged into a cached sort, when it is read
+ * the next time.
  */
 public abstract class ResultsStore<ResultType> {
 
+  // Result sets up to this size are sorted completely on request
+  public static final int SYNCHRONOUS_SORT_LIMIT = 10000;
+  // Maximal number of cached sorted copies of the results
+  public static final int CACHED_ORDERINGS = 4;
+
+  // Sorts large result sets of all stores in the background
+  protected static final ExecutorService SORT_EXECUTOR =
+    Executors.newSingleThreadExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "results-store-sort");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+
   // List of results
   protected List<ResultType> results = null;
-  // Last sort property, to reduce resorting needs
-  protected String lastSortProperty = null;
-  // Last sort direction, to reduce resorting needs
-  protected boolean lastSortAscending = true;
+  // Sorted copies of the results by sort key, least recently used first. A sorted copy covers the
+  // results, which were stored, when it was created, later appended results are merged lazily.
+  protected Map<String, List<ResultType>> orderings =
+    new LinkedHashMap<String, List<ResultType>>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, List<ResultType>> eldest) {
+        return size() > CACHED_ORDERINGS;
+      }
+    };
+  // Background sorts by sort key, which did not finish yet
+  protected Map<String, Future<?>> pendingSorts = new HashMap<>();
+  // Changes with the stored results, outdated background sorts are discarded
+  protected int generation = 0;
+  protected int synchronousSortLimit = SYNCHRONOUS_SORT_LIMIT;
+  // Number of requests, which currently read the store
+  protected int references = 0;
+  // True, if the store is cleared as soon as no request reads it anymore
+  protected boolean discarded = false;
 
   /**
    * Stores the given results for given execution
    *
    * @param results List of results to be persisted
    */
-  public void store(List<ResultType> results) {
+  public synchronized void store(List<ResultType> results) {
     this.results = results;
+    this.invalidateOrderings();
+  }
+
+  /**
+   * Appends the given results to the stored results, e.g. while the algorithm is still running.
+   * The cached sorts are kept, the appended results are merged into them on the next request.
+   *
+   * @param results List of results to be appended
+   */
+  public synchronized void append(List<ResultType> results) {
+    if (this.results == null) {
+      this.results = new ArrayList<>();
+    }
+    this.results.addAll(results);
   }
 
   /**
    * Clears the store content
    */
-  public void clear() {
+  public synchronized void clear() {
     if (results != null) {
       this.results.clear();
     }
+    this.invalidateOrderings();
+  }
+
+  /**
+   * Marks the store as read by a request, so that it is not cleared before the request released
+   * it again
+   */
+  public synchronized void retain() {
+    this.references++;
+  }
+
+  /**
+   * Releases the store after a request read it. A discarded store is cleared by the last release.
+   */
+  public synchronized void release() {
+    this.references--;
+    if (this.references == 0 && this.discarded) {
+      this.clear();
+    }
+  }
+
+  /**
+   * Clears the store, as soon as no request reads it anymore
+   */
+  public synchronized void discard() {
+    this.discarded = true;
+    if (this.references == 0) {
+      this.clear();
+    }
   }
 
   /**
@@ -55,21 +147,31 @@ public abstract class ResultsStore<ResultType> {
    *
    * @return Returns the count of results
    */
-  public Integer count() {
+  public synchronized Integer count() {
     return results.size();
   }
 
   /**
-   * Returns the persisted results
+   * Returns the count of results held in memory, which is used to budget the cached stores
+   *
+   * @return Returns the count of results held in memory
+   */
+  public synchronized long countRetainedResults() {
+    return results == null ? 0 : results.size();
+  }
+
+  /**
+   * Returns the persisted results in the order they were stored
    *
    * @return Returns the results
    */
-  public List<ResultType> list() {
+  public synchronized List<ResultType> list() {
     return results;
   }
 
   /**
-   * Returns a part of persisted results for given execution following given properties
+   * Returns a part of persisted results for given execution following given properties. Results,
+   * which are equal regarding the sort property, keep the order in which they were stored.
    *
    * @param sortProperty Sort property the list should be sorted on
    * @param ascending    Sort direction
@@ -77,33 +179,176 @@ public abstract class ResultsStore<ResultType> {
    * @param end          Exclusive end index
    * @return Returns a part of persisted results for given execution following given properties
    */
-  public List<ResultType> subList(String sortProperty, boolean ascending,
-                                  int start, int end) {
+  public synchronized List<ResultType> subList(String sortProperty, boolean ascending,
+                                               int start, int end) {
     start = Math.max(0, start);
     end = Math.min(count(), end);
+    if (start >= end) {
+      return new ArrayList<>();
+    }
 
-    // Do not resort if it is not needed
-    if (sortProperty.equals(lastSortProperty) && lastSortAscending == ascending) {
-      return results.subList(start, end);
+    // Use the cached complete sort, if there is one
+    String sortKey = sortProperty + (ascending ? "+" : "-");
+    ResultComparator<ResultType> comparator = getResultComparator(sortProperty, ascending);
+    List<ResultType> sortedResults = this.orderings.get(sortKey);
+    if (sortedResults != null) {
+      if (sortedResults.size() < this.results.size()) {
+        sortedResults = mergeAppended(sortedResults, comparator);
+        this.orderings.put(sortKey, sortedResults);
+      }
+      return sortedResults.subList(start, end);
     }
 
-    // Sort the list
-    sort(sortProperty, ascending);
+    if (count() <= this.synchronousSortLimit) {
+      sortedResults = new ArrayList<>(this.results);
+      Collections.sort(sortedResults, comparator);
+      this.orderings.put(sortKey, sortedResults);
+      return sortedResults.subList(start, end);
+    }
 
-    // Return the requested part
-    return results.subList(start, end);
+    // Sort everything in the background and only select the requested part for now
+    this.sortInBackground(sortKey, comparator);
+    return select(comparator, start, end);
   }
 
   /**
-   * Sorts the persisted results based on given properties
+   * Merges the results, which were appended after the given sorted copy was created, into a new
+   * sorted copy. Only the appended results are sorted. They follow all results they are equal to,
+   * like in a stable sort of all results.
+   *
+   * @param sortedResults Sorted copy of the first stored results
+   * @param comparator    Result comparator
+   * @return Returns a sorted copy of all results
+   */
+  protected List<ResultType> mergeAppended(List<ResultType> sortedResults,
+                                           ResultComparator<ResultType> comparator) {
+    List<ResultType> appendedResults =
+      new ArrayList<>(this.results.subList(sortedResults.size(), this.results.size()));
+    Collections.sort(appendedResults, comparator);
+
+    List<ResultType> mergedResults = new ArrayList<>(this.results.size());
+    int i = 0;
+    int j = 0;
+    while (i < sortedResults.size() && j < appendedResults.size()) {
+      if (comparator.compare(sortedResults.get(i), appendedResults.get(j)) <= 0) {
+        mergedResults.add(sortedResults.get(i++));
+      } else {
+        mergedResults.add(appendedResults.get(j++));
+      }
+    }
+    mergedResults.addAll(sortedResults.subList(i, sortedResults.size()));
+    mergedResults.addAll(appendedResults.subList(j, appendedResults.size()));
+    return mergedResults;
+  }
+
+  /**
+   * Selects the results at the given positions of the sort order by keeping the first end results
+   * in a bounded heap.
+   *
+   * @param comparator Result comparator
+   * @param start      Inclusive start index
+   * @param end        Exclusive end index
+   * @return Returns the results between start and end in sort order
+   */
+  protected List<ResultType> select(final ResultComparator<ResultType> comparator, int start,
+                                    int end) {
+    final List<ResultType> results = this.results;
+    // Ties are broken by the storage order, so that the pages match the stable complete sort
+    Comparator<Integer> order = new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        int comparison = comparator.compare(results.get(o1), results.get(o2));
+        return comparison != 0 ? comparison : Integer.compare(o1, o2);
+      }
+    };
+
+    // The heap head is the last of the first end results seen so far
+    PriorityQueue<Integer> heap = new PriorityQueue<>(end, Collections.reverseOrder(order));
+    for (int i = 0; i < results.size(); i++) {
+      if (heap.size() < end) {
+        heap.add(i);
+      } else if (order.compare(i, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(i);
+      }
+    }
+
+    Integer[] positions = heap.toArray(new Integer[heap.size()]);
+    Arrays.sort(positions, order);
+    List<ResultType> page = new ArrayList<>(end - start);
+    for (int i = start; i < end; i++) {
+      page.add(results.get(positions[i]));
+    }
+    return page;
+  }
+
+  /**
+   * Sorts a copy of the persisted results in the background and caches it. The results are only
+   * copied, when the sort starts, and the sort is skipped, if the results were replaced meanwhile.
+   *
+   * @param sortKey    Key of the sort property and direction
+   * @param comparator Result comparator
+   */
+  protected void sortInBackground(final String sortKey,
+                                  final ResultComparator<ResultType> comparator) {
+    if (this.pendingSorts.containsKey(sortKey)) {
+      return;
+    }
+    final int sortedGeneration = this.generation;
+    this.pendingSorts.put(sortKey, SORT_EXECUTOR.submit(new Runnable() {
+      @Override
+      public void run() {
+        List<ResultType> sortedResults;
+        synchronized (ResultsStore.this) {
+          if (generation != sortedGeneration) {
+            return;
+          }
+          sortedResults = new ArrayList<>(results);
+        }
+        Collections.sort(sortedResults, comparator);
+        synchronized (ResultsStore.this) {
+          if (generation == sortedGeneration) {
+            pendingSorts.remove(sortKey);
+            orderings.put(sortKey, sortedResults);
+          }
+        }
+      }
+    }));
+  }
+
+  /**
+   * Waits for the background sort of the given sort property and direction, if there is one
    *
    * @param sortProperty Sort property
    * @param ascending    Sort direction
+   * @throws InterruptedException if the current thread was interrupted while waiting
+   */
+  public void awaitSort(String sortProperty, boolean ascending) throws InterruptedException {
+    Future<?> sort;
+    synchronized (this) {
+      sort = this.pendingSorts.get(sortProperty + (ascending ? "+" : "-"));
+    }
+    if (sort == null) {
+      return;
+    }
+    try {
+      sort.get();
+    } catch (ExecutionException | CancellationException e) {
+      // The sort is requested again with the next page
+    }
+  }
+
+  /**
+   * Drops all cached sorts and cancels the background sorts, which did not finish yet. A running
+   * sort is finished, but not cached.
    */
-  private void sort(String sortProperty, boolean ascending) {
-    this.lastSortAscending = ascending;
-    this.lastSortProperty = sortProperty;
-    Collections.sort(this.results, getResultComparator(sortProperty, ascending));
+  protected void invalidateOrderings() {
+    this.generation++;
+    this.orderings.clear();
+    for (Future<?> sort : this.pendingSorts.values()) {
+      sort.cancel(false);
+    }
+    this.pendingSorts.clear();
   }
 
   /**
@@ -15,17 +15,35 @@
  */
 package de.metanome.backend.result_postprocessing.result_store;
 
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * "Static" results holder provides the option to register a result store and to clear all
  * registered storage.
+ * <p/>
+ * The stores of recently loaded executions are cached by a key, which identifies the result files
+ * and the kind of analysis. Once the results held in memory exceed the result budget, the stores
+ * of the least recently used executions are dropped. They have to be loaded from the result files
+ * again, if they are requested later on. The selected stores, which are returned by
+ * {@link #getStore(String)}, are never dropped. A dropped store is only cleared, once no request
+ * holds it anymore, which requests announce by {@link #acquireStore(String)} or
+ * {@link #acquireStore(String, String)}.
  */
 public final class ResultsStoreHolder {
 
-  // Results store map
-  protected static Map<String, ResultsStore<?>> resultsStoreMap = new HashMap<>();
+  // Default number of ranking results, which may be held in memory by cached stores
+  public static final long DEFAULT_RESULT_BUDGET = 5000000;
+
+  // Results store map of the selected execution
+  protected static volatile Map<String, ResultsStore<?>> resultsStoreMap =
+    new ConcurrentHashMap<>();
+  // Results store maps of recently loaded executions, least recently used first
+  protected static LinkedHashMap<String, Map<String, ResultsStore<?>>> cachedStoreMaps =
+    new LinkedHashMap<>(16, 0.75f, true);
+  protected static long resultBudget = DEFAULT_RESULT_BUDGET;
 
   /**
    * Registers the given result store under given name
@@ -47,6 +65,43 @@ public final class ResultsStoreHolder {
     return resultsStoreMap.get(storeName);
   }
 
+  /**
+   * Returns the registered store for the given name and retains it, so that it is not cleared
+   * while it is read. The store has to be released by {@link ResultsStore#release()} afterwards.
+   *
+   * @param storeName Name of requested store
+   * @return Returns the retained store for the given name or null, if there is none
+   */
+  public static synchronized ResultsStore<?> acquireStore(String storeName) {
+    ResultsStore<?> resultsStore = resultsStoreMap.get(storeName);
+    if (resultsStore != null) {
+      resultsStore.retain();
+    }
+    return resultsStore;
+  }
+
+  /**
+   * Returns the cached store of the given execution and name and retains it, so that it is not
+   * cleared while it is read. The store has to be released by {@link ResultsStore#release()}
+   * afterwards.
+   *
+   * @param key       Key of the execution
+   * @param storeName Name of requested store
+   * @return Returns the retained store or null, if the stores of the execution are not cached or
+   * contain no store with the given name
+   */
+  public static synchronized ResultsStore<?> acquireStore(String key, String storeName) {
+    Map<String, ResultsStore<?>> stores = cachedStoreMaps.get(key);
+    if (stores == null) {
+      return null;
+    }
+    ResultsStore<?> resultsStore = stores.get(storeName);
+    if (resultsStore != null) {
+      resultsStore.retain();
+    }
+    return resultsStore;
+  }
+
   /**
    * Clears all registered stores
    */
@@ -56,4 +111,85 @@ public final class ResultsStoreHolder {
     }
   }
 
+  /**
+   * Returns the cached stores for the given key
+   *
+   * @param key Key of the execution
+   * @return Returns the stores mapped by their names or null, if they are not cached
+   */
+  public static synchronized Map<String, ResultsStore<?>> getStores(String key) {
+    return cachedStoreMaps.get(key);
+  }
+
+  /**
+   * Caches the given stores under the given key. If stores are already cached under the key,
+   * they are kept and returned instead.
+   *
+   * @param key    Key of the execution
+   * @param stores Stores mapped by their names
+   * @return Returns the stores cached under the given key
+   */
+  public static synchronized Map<String, ResultsStore<?>> cacheStores(
+    String key, Map<String, ResultsStore<?>> stores) {
+    Map<String, ResultsStore<?>> cachedStores = cachedStoreMaps.get(key);
+    if (cachedStores != null) {
+      return cachedStores;
+    }
+    cachedStoreMaps.put(key, stores);
+    evictStores();
+    return stores;
+  }
+
+  /**
+   * Selects the given stores, so that they are returned by {@link #getStore(String)}
+   *
+   * @param stores Stores mapped by their names
+   */
+  public static synchronized void selectStores(Map<String, ResultsStore<?>> stores) {
+    resultsStoreMap = stores;
+  }
+
+  /**
+   * Sets the number of ranking results, which may be held in memory by the cached stores
+   *
+   * @param budget Number of ranking results
+   */
+  public static synchronized void setResultBudget(long budget) {
+    resultBudget = budget;
+    evictStores();
+  }
+
+  /**
+   * Drops the least recently used stores until the results held in memory fit into the budget.
+   * The most recently used and the selected stores are kept in any case. The dropped stores are
+   * cleared, once they are released by all requests reading them.
+   */
+  protected static void evictStores() {
+    long resultCount = 0;
+    for (Map<String, ResultsStore<?>> stores : cachedStoreMaps.values()) {
+      resultCount += countRetainedResults(stores);
+    }
+
+    Iterator<Map<String, ResultsStore<?>>> iterator = cachedStoreMaps.values().iterator();
+    for (int i = cachedStoreMaps.size(); i > 1 && resultCount > resultBudget; i--) {
+      Map<String, ResultsStore<?>> stores = iterator.next();
+      if (stores == resultsStoreMap) {
+        continue;
+      }
+      resultCount -= countRetainedResults(stores);
+      iterator.remove();
+      for (ResultsStore<?> resultsStore : stores.values()) {
+        resultsStore.discard();
+      }
+    }
+  }
+
+  private static long countRetainedResults(Map<String, ResultsStore<?>> stores) {
+    long resultCount = 0;
+    for (ResultsStore<?> resultsStore : stores.values()) {
+      resultCount += resultsStore.countRetainedResults();
+    }
+    return resultCount;
+  }
+
 }
@@ -16,6 +16,7 @@
 package de.metanome.backend.result_postprocessing.visualization.FunctionalDependency;
 
 import de.metanome.algorithm_helper.data_structures.PositionListIndex;
+import de.metanome.algorithm_helper.data_structures.PositionListIndexIntersector;
 import de.metanome.algorithm_integration.ColumnCombination;
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.backend.result_postprocessing.helper.ColumnInformation;
@@ -36,6 +37,7 @@ public class FunctionalDependencyVisualization {
   protected List<FunctionalDependencyResult> results;
   protected TableInformation tableInformation;
   protected String prefixTreeJsonFile;
+  protected PositionListIndexIntersector intersector = new PositionListIndexIntersector();
 
   public FunctionalDependencyVisualization(List<FunctionalDependencyResult> results,
                                            TableInformation tableInformation) {
@@ -246,7 +248,7 @@ public class FunctionalDependencyVisualization {
     // calculate the new PLI
     PositionListIndex pli = PLIs.get(columns.get(0));
     for (int i = 1; i < columns.size(); i++) {
-      pli = pli.intersect(PLIs.get(columns.get(i)));
+      pli = this.intersector.intersectCompact(pli, PLIs.get(columns.get(i)));
     }
     PLIs.put(columnBitSet, pli);
     this.tableInformation.setPLIs(PLIs);
@@ -0,0 +1,299 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchException;
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.result_receiver.OmniscientResultReceiver;
+import de.metanome.algorithm_integration.results.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes all received results to disk like the {@link ResultPrinter}, but on a dedicated writer
+ * thread. The algorithm thread only checks the columns of a result and puts it into a bounded
+ * queue. The writer thread takes the results in batches, converts them and writes them to
+ * buffered streams, which are flushed once per batch.
+ * <p/>
+ * If the queue is full, the algorithm thread waits until the writer has made room. With a
+ * timeout, a {@link CouldNotReceiveResultException} is thrown, if there is still no room after
+ * waiting the given time. Errors of the writer thread are reported on the next received result
+ * or on {@link #close()}, which writes all queued results before closing the files.
+ */
+public class AsyncResultPrinter extends ResultReceiver {
+
+  public static final int DEFAULT_QUEUE_CAPACITY = 16 * 1024;
+  /**
+   * Timeout to wait for room in the queue as long as necessary.
+   */
+  public static final long NO_TIMEOUT = -1;
+
+  protected static final int BATCH_SIZE = 1024;
+  protected static final String MISMATCH_MESSAGE =
+    "The column name of the result does not match with the column names in the input!";
+
+  /**
+   * Marks the end of the results in the queue.
+   */
+  protected static final Result END_OF_RESULTS = new Result() {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public void sendResultTo(OmniscientResultReceiver resultReceiver) {
+    }
+  };
+
+  protected ResultPrinter printer;
+  protected BlockingQueue<Result> queue;
+  protected long offerTimeoutMillis;
+  protected Thread writerThread;
+  protected volatile Exception writerException = null;
+  protected boolean closed = false;
+
+  /**
+   * Initializes the printer with the default queue capacity. The algorithm thread waits as long as
+   * the queue is full.
+   *
+   * @param algorithmExecutionIdentifier the algorithm execution identifier
+   * @param acceptedColumns              a list of accepted column identifiers or null to accept
+   *                                     all columns
+   * @throws FileNotFoundException if the result directory could not be found
+   */
+  public AsyncResultPrinter(String algorithmExecutionIdentifier,
+                            List<ColumnIdentifier> acceptedColumns)
+    throws FileNotFoundException {
+    this(algorithmExecutionIdentifier, acceptedColumns, DEFAULT_QUEUE_CAPACITY, NO_TIMEOUT);
+  }
+
+  /**
+   * Initializes the printer.
+   *
+   * @param algorithmExecutionIdentifier the algorithm execution identifier
+   * @param acceptedColumns              a list of accepted column identifiers or null to accept
+   *                                     all columns
+   * @param queueCapacity                the maximum number of results waiting to be written
+   * @param offerTimeoutMillis           the time to wait for room in a full queue in milliseconds
+   *                                     or {@link #NO_TIMEOUT}
+   * @throws FileNotFoundException if the result directory could not be found
+   */
+  public AsyncResultPrinter(String algorithmExecutionIdentifier,
+                            List<ColumnIdentifier> acceptedColumns, int queueCapacity,
+                            long offerTimeoutMillis)
+    throws FileNotFoundException {
+    super(algorithmExecutionIdentifier, acceptedColumns);
+    this.initialize(new ResultPrinter(algorithmExecutionIdentifier, acceptedColumns),
+      queueCapacity, offerTimeoutMillis);
+  }
+
+  protected AsyncResultPrinter(String algorithmExecutionIdentifier,
+                               List<ColumnIdentifier> acceptedColumns, Boolean test,
+                               int queueCapacity, long offerTimeoutMillis)
+    throws FileNotFoundException {
+    super(algorithmExecutionIdentifier, acceptedColumns, test);
+    this.initialize(new ResultPrinter(algorithmExecutionIdentifier, acceptedColumns, test),
+      queueCapacity, offerTimeoutMillis);
+  }
+
+  private void initialize(ResultPrinter printer, int queueCapacity, long offerTimeoutMillis) {
+    this.printer = printer;
+    // The streams are flushed after every batch.
+    this.printer.autoFlush = false;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.offerTimeoutMillis = offerTimeoutMillis;
+
+    this.writerThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        writeResults();
+      }
+    }, "result-writer-" + this.algorithmExecutionIdentifier);
+    this.writerThread.setDaemon(true);
+    this.writerThread.start();
+  }
+
+  @Override
+  public void setResultTestDir() {
+    super.setResultTestDir();
+    this.printer.setResultTestDir();
+  }
+
+  @Override
+  public void receiveResult(BasicStatistic statistic)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(statistic)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(statistic);
+  }
+
+  @Override
+  public void receiveResult(FunctionalDependency functionalDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(functionalDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(functionalDependency);
+  }
+
+  @Override
+  public void receiveResult(MultivaluedDependency multivaluedDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(multivaluedDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(multivaluedDependency);
+  }
+
+  @Override
+  public void receiveResult(InclusionDependency inclusionDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(inclusionDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(inclusionDependency);
+  }
+
+  @Override
+  public void receiveResult(UniqueColumnCombination uniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(uniqueColumnCombination)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(uniqueColumnCombination);
+  }
+
+  @Override
+  public void receiveResult(ConditionalUniqueColumnCombination conditionalUniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(conditionalUniqueColumnCombination)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(conditionalUniqueColumnCombination);
+  }
+
+  @Override
+  public void receiveResult(OrderDependency orderDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(orderDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    this.enqueue(orderDependency);
+  }
+
+  protected void enqueue(Result result) throws CouldNotReceiveResultException {
+    this.checkWriterException();
+    if (this.closed) {
+      throw new CouldNotReceiveResultException("The result printer is already closed!");
+    }
+
+    try {
+      if (this.offerTimeoutMillis < 0) {
+        this.queue.put(result);
+      } else if (!this.queue.offer(result, this.offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw new CouldNotReceiveResultException(
+          "The results could not be written fast enough, the result queue is full!");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CouldNotReceiveResultException("Interrupted while waiting for the result queue", e);
+    }
+  }
+
+  protected void checkWriterException() throws CouldNotReceiveResultException {
+    if (this.writerException != null) {
+      throw new CouldNotReceiveResultException("Could not write the results!",
+        this.writerException);
+    }
+  }
+
+  /**
+   * Runs on the writer thread. Writes the queued results in batches until the end of the results
+   * is reached. After an error the remaining results are discarded, so that the algorithm thread
+   * does not wait for room in the queue forever.
+   */
+  protected void writeResults() {
+    List<Result> batch = new ArrayList<>(BATCH_SIZE);
+    boolean endOfResults = false;
+    while (!endOfResults) {
+      try {
+        batch.add(this.queue.take());
+      } catch (InterruptedException e) {
+        this.writerException = e;
+        return;
+      }
+      this.queue.drainTo(batch, BATCH_SIZE - 1);
+
+      for (Result result : batch) {
+        if (result == END_OF_RESULTS) {
+          endOfResults = true;
+          break;
+        }
+        if (this.writerException == null) {
+          try {
+            result.sendResultTo(this.printer);
+          } catch (Exception e) {
+            this.writerException = e;
+          }
+        }
+      }
+      this.printer.flush();
+      batch.clear();
+    }
+  }
+
+  /**
+   * Writes all queued results and closes the result files.
+   *
+   * @throws IOException if the results could not be written
+   */
+  @Override
+  public void close() throws IOException {
+    if (!this.closed) {
+      this.closed = true;
+      try {
+        this.queue.put(END_OF_RESULTS);
+        this.writerThread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        this.writerThread.interrupt();
+        throw new IOException("Interrupted while writing the remaining results", e);
+      } finally {
+        this.printer.close();
+      }
+    }
+    if (this.writerException != null) {
+      throw new IOException("Could not write the results!", this.writerException);
+    }
+  }
+
+  /**
+   * Reads the results from disk and returns them. Should be called after {@link #close()}.
+   *
+   * @return all results
+   * @throws java.io.IOException if file could not be read
+   */
+  public List<Result> getResults() throws IOException {
+    return this.printer.getResults();
+  }
+
+}
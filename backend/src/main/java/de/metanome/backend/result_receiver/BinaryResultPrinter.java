@@ -0,0 +1,187 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchException;
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.results.*;
+import de.metanome.backend.results_db.ResultType;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Writes all received results to disk in the binary result format of the {@link
+ * BinaryResultWriter}. The result files have the same names as those of the {@link
+ * ResultPrinter}, the {@link ResultReader} detects the format automatically.
+ */
+public class BinaryResultPrinter extends ResultReceiver {
+
+  protected static final String MISMATCH_MESSAGE =
+    "The column name of the result does not match with the column names in the input!";
+
+  protected EnumMap<ResultType, BinaryResultWriter> openWriters;
+
+  public BinaryResultPrinter(String algorithmExecutionIdentifier,
+                             List<ColumnIdentifier> acceptedColumns)
+    throws FileNotFoundException {
+    super(algorithmExecutionIdentifier, acceptedColumns);
+    this.openWriters = new EnumMap<>(ResultType.class);
+  }
+
+  protected BinaryResultPrinter(String algorithmExecutionIdentifier,
+                                List<ColumnIdentifier> acceptedColumns, Boolean test)
+    throws FileNotFoundException {
+    super(algorithmExecutionIdentifier, acceptedColumns, test);
+    this.openWriters = new EnumMap<>(ResultType.class);
+  }
+
+  @Override
+  public void receiveResult(BasicStatistic statistic)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(statistic)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.STAT).writeJson(statistic);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(FunctionalDependency functionalDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(functionalDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.FD).write(functionalDependency);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(MultivaluedDependency multivaluedDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(multivaluedDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.MVD).write(multivaluedDependency);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(InclusionDependency inclusionDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(inclusionDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.IND).write(inclusionDependency);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(UniqueColumnCombination uniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(uniqueColumnCombination)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.UCC).write(uniqueColumnCombination);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(ConditionalUniqueColumnCombination conditionalUniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(conditionalUniqueColumnCombination)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.CUCC).writeJson(conditionalUniqueColumnCombination);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  @Override
+  public void receiveResult(OrderDependency orderDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    if (!this.acceptedResult(orderDependency)) {
+      throw new ColumnNameMismatchException(MISMATCH_MESSAGE);
+    }
+    try {
+      getWriter(ResultType.OD).writeJson(orderDependency);
+    } catch (IOException e) {
+      throw new CouldNotReceiveResultException("Could not write the result!", e);
+    }
+  }
+
+  protected BinaryResultWriter getWriter(ResultType type) throws CouldNotReceiveResultException {
+    BinaryResultWriter writer = this.openWriters.get(type);
+    if (writer == null) {
+      try {
+        writer = new BinaryResultWriter(
+          new FileOutputStream(getOutputFilePathPrefix() + type.getEnding()));
+      } catch (IOException e) {
+        throw new CouldNotReceiveResultException("Could not open result file for writing", e);
+      }
+      this.openWriters.put(type, writer);
+    }
+    return writer;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (BinaryResultWriter writer : this.openWriters.values()) {
+      writer.close();
+    }
+  }
+
+  /**
+   * Reads the results from disk and returns them. Should be called after {@link #close()}.
+   *
+   * @return all results
+   * @throws java.io.IOException if file could not be read
+   */
+  public List<Result> getResults() throws IOException {
+    List<Result> results = new ArrayList<>();
+    for (ResultType type : this.openWriters.keySet()) {
+      String fileName = getOutputFilePathPrefix() + type.getEnding();
+      if (new File(fileName).exists()) {
+        results.addAll(BinaryResultReader.readResultsFromFile(fileName));
+      }
+    }
+    return results;
+  }
+
+}
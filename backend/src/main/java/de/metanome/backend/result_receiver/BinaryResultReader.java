@@ -0,0 +1,180 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.results.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads results one by one from a file in the binary result format written by the {@link
+ * BinaryResultWriter}. Only the column dictionary is kept in memory, equal columns of different
+ * results are the same {@link ColumnIdentifier} instance.
+ */
+public class BinaryResultReader implements Closeable {
+
+  protected DataInputStream stream;
+  protected List<ColumnIdentifier> columns = new ArrayList<>();
+
+  /**
+   * Creates a reader and checks the file header.
+   *
+   * @param inputStream the stream to read the results from
+   * @throws IOException if the header could not be read or does not belong to the binary format
+   */
+  public BinaryResultReader(InputStream inputStream) throws IOException {
+    this.stream = new DataInputStream(
+      new BufferedInputStream(inputStream, BinaryResultWriter.STREAM_BUFFER_SIZE));
+
+    byte[] magic = new byte[BinaryResultWriter.MAGIC.length];
+    this.stream.readFully(magic);
+    if (!Arrays.equals(magic, BinaryResultWriter.MAGIC)) {
+      throw new IOException("The stream does not contain results in the binary format!");
+    }
+    byte version = this.stream.readByte();
+    if (version != BinaryResultWriter.VERSION) {
+      throw new IOException("Unsupported version " + version + " of the binary result format!");
+    }
+  }
+
+  /**
+   * Checks if the given file starts with the header of the binary result format.
+   *
+   * @param file the result file
+   * @return true, if the file is in the binary format, false otherwise
+   * @throws IOException if the file could not be read
+   */
+  public static boolean isBinaryResultFile(File file) throws IOException {
+    if (!file.isFile() || file.length() < BinaryResultWriter.MAGIC.length) {
+      return false;
+    }
+    byte[] magic = new byte[BinaryResultWriter.MAGIC.length];
+    try (DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+      input.readFully(magic);
+    }
+    return Arrays.equals(magic, BinaryResultWriter.MAGIC);
+  }
+
+  /**
+   * Reads all results of the given file in the binary result format.
+   *
+   * @param fileName the file name
+   * @return all results of the file
+   * @throws IOException if the file could not be read
+   */
+  public static List<Result> readResultsFromFile(String fileName) throws IOException {
+    List<Result> results = new ArrayList<>();
+    try (BinaryResultReader reader = new BinaryResultReader(new FileInputStream(fileName))) {
+      Result result;
+      while ((result = reader.readResult()) != null) {
+        results.add(result);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Reads the next result.
+   *
+   * @return the next result or null, if all results have been read
+   * @throws IOException if the result could not be read
+   */
+  public Result readResult() throws IOException {
+    while (true) {
+      int tag = this.stream.read();
+      switch (tag) {
+        case -1:
+          return null;
+        case BinaryResultWriter.COLUMN_RECORD:
+          String table = this.stream.readUTF();
+          String column = this.stream.readUTF();
+          this.columns.add(new ColumnIdentifier(table, column));
+          break;
+        case BinaryResultWriter.FD_RECORD:
+          ColumnCombination determinant = this.readColumnCombination();
+          return new FunctionalDependency(determinant, this.readColumn());
+        case BinaryResultWriter.UCC_RECORD:
+          return new UniqueColumnCombination(this.readColumnCombination());
+        case BinaryResultWriter.IND_RECORD:
+          ColumnPermutation dependant = this.readColumnPermutation();
+          return new InclusionDependency(dependant, this.readColumnPermutation());
+        case BinaryResultWriter.MVD_RECORD:
+          ColumnCombination mvdDeterminant = this.readColumnCombination();
+          return new MultivaluedDependency(mvdDeterminant, this.readColumnCombination());
+        case BinaryResultWriter.JSON_RECORD:
+          byte[] json = new byte[readVarInt(this.stream)];
+          this.stream.readFully(json);
+          return JsonCodec.getDefault()
+            .fromJsonString(new String(json, BinaryResultWriter.UTF8), Result.class);
+        default:
+          throw new IOException("Unknown record " + tag + " in the binary result file!");
+      }
+    }
+  }
+
+  protected ColumnIdentifier readColumn() throws IOException {
+    int id = readVarInt(this.stream);
+    if (id >= this.columns.size()) {
+      throw new IOException("Undefined column " + id + " in the binary result file!");
+    }
+    return this.columns.get(id);
+  }
+
+  protected ColumnCombination readColumnCombination() throws IOException {
+    ColumnIdentifier[] columns = new ColumnIdentifier[readVarInt(this.stream)];
+    int id = 0;
+    for (int i = 0; i < columns.length; i++) {
+      id += readVarInt(this.stream);
+      if (id >= this.columns.size()) {
+        throw new IOException("Undefined column " + id + " in the binary result file!");
+      }
+      columns[i] = this.columns.get(id);
+    }
+    return new ColumnCombination(columns);
+  }
+
+  protected ColumnPermutation readColumnPermutation() throws IOException {
+    ColumnIdentifier[] columns = new ColumnIdentifier[readVarInt(this.stream)];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = this.readColumn();
+    }
+    return new ColumnPermutation(columns);
+  }
+
+  protected static int readVarInt(DataInput input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte current = input.readByte();
+      value |= (current & 0x7F) << shift;
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint in the binary result file!");
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.stream.close();
+  }
+
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.results.*;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes results in the compact binary result format. A file starts with {@link #MAGIC} and
+ * {@link #VERSION} followed by records, each starting with a tag byte:
+ * <ul>
+ * <li>{@link #COLUMN_RECORD}: table and column name of the next column id. Every column is
+ * defined once, right before the first result using it.</li>
+ * <li>{@link #FD_RECORD}, {@link #UCC_RECORD}, {@link #IND_RECORD}, {@link #MVD_RECORD}: the
+ * column ids of the result. Column combinations are stored as the number of columns followed by
+ * the sorted, delta-encoded ids, column permutations as the number of columns followed by the
+ * ids. All numbers are varints.</li>
+ * <li>{@link #JSON_RECORD}: any other result as UTF-8 encoded JSON string with its length.</li>
+ * </ul>
+ * Use the {@link BinaryResultReader} to read the results.
+ */
+public class BinaryResultWriter implements Closeable, Flushable {
+
+  public static final byte[] MAGIC = {(byte) 0x89, 'M', 'R', 'B'};
+  public static final byte VERSION = 1;
+
+  public static final byte COLUMN_RECORD = 0;
+  public static final byte FD_RECORD = 1;
+  public static final byte UCC_RECORD = 2;
+  public static final byte IND_RECORD = 3;
+  public static final byte MVD_RECORD = 4;
+  public static final byte JSON_RECORD = 5;
+
+  protected static final Charset UTF8 = Charset.forName("UTF-8");
+  protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  protected DataOutputStream stream;
+  protected Map<ColumnIdentifier, Integer> columnIds = new HashMap<>();
+  protected int[] idBuffer = new int[16];
+
+  /**
+   * Creates a writer and writes the file header.
+   *
+   * @param outputStream the stream to write the results to
+   * @throws IOException if the header could not be written
+   */
+  public BinaryResultWriter(OutputStream outputStream) throws IOException {
+    this.stream =
+      new DataOutputStream(new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE));
+    this.stream.write(MAGIC);
+    this.stream.writeByte(VERSION);
+  }
+
+  public void write(FunctionalDependency functionalDependency) throws IOException {
+    this.defineColumns(functionalDependency.getDeterminant());
+    int dependant = this.defineColumn(functionalDependency.getDependant());
+    this.stream.writeByte(FD_RECORD);
+    this.writeColumnCombination(functionalDependency.getDeterminant());
+    writeVarInt(this.stream, dependant);
+  }
+
+  public void write(UniqueColumnCombination uniqueColumnCombination) throws IOException {
+    this.defineColumns(uniqueColumnCombination.getColumnCombination());
+    this.stream.writeByte(UCC_RECORD);
+    this.writeColumnCombination(uniqueColumnCombination.getColumnCombination());
+  }
+
+  public void write(InclusionDependency inclusionDependency) throws IOException {
+    this.defineColumns(inclusionDependency.getDependant());
+    this.defineColumns(inclusionDependency.getReferenced());
+    this.stream.writeByte(IND_RECORD);
+    this.writeColumnPermutation(inclusionDependency.getDependant());
+    this.writeColumnPermutation(inclusionDependency.getReferenced());
+  }
+
+  public void write(MultivaluedDependency multivaluedDependency) throws IOException {
+    this.defineColumns(multivaluedDependency.getDeterminant());
+    this.defineColumns(multivaluedDependency.getDependant());
+    this.stream.writeByte(MVD_RECORD);
+    this.writeColumnCombination(multivaluedDependency.getDeterminant());
+    this.writeColumnCombination(multivaluedDependency.getDependant());
+  }
+
+  /**
+   * Writes a result, which has no compact representation, as JSON string.
+   *
+   * @param result the result
+   * @throws IOException if the result could not be converted or written
+   */
+  public void writeJson(Result result) throws IOException {
+    byte[] json = JsonCodec.getDefault().toJsonString(result).getBytes(UTF8);
+    this.stream.writeByte(JSON_RECORD);
+    writeVarInt(this.stream, json.length);
+    this.stream.write(json);
+  }
+
+  protected void defineColumns(ColumnCombination columnCombination) throws IOException {
+    for (ColumnIdentifier column : columnCombination.getColumnIdentifiers()) {
+      this.defineColumn(column);
+    }
+  }
+
+  protected void defineColumns(ColumnPermutation columnPermutation) throws IOException {
+    for (ColumnIdentifier column : columnPermutation.getColumnIdentifiers()) {
+      this.defineColumn(column);
+    }
+  }
+
+  /**
+   * Writes a column record, if the column is not yet defined.
+   *
+   * @param column the column
+   * @return the id of the column
+   * @throws IOException if the record could not be written
+   */
+  protected int defineColumn(ColumnIdentifier column) throws IOException {
+    Integer id = this.columnIds.get(column);
+    if (id == null) {
+      id = this.columnIds.size();
+      this.columnIds.put(column, id);
+      this.stream.writeByte(COLUMN_RECORD);
+      this.stream.writeUTF(column.getTableIdentifier());
+      this.stream.writeUTF(column.getColumnIdentifier());
+    }
+    return id;
+  }
+
+  protected void writeColumnCombination(ColumnCombination columnCombination)
+    throws IOException {
+    int size = columnCombination.getColumnIdentifiers().size();
+    if (this.idBuffer.length < size) {
+      this.idBuffer = new int[Math.max(size, 2 * this.idBuffer.length)];
+    }
+    int i = 0;
+    for (ColumnIdentifier column : columnCombination.getColumnIdentifiers()) {
+      this.idBuffer[i++] = this.columnIds.get(column);
+    }
+    Arrays.sort(this.idBuffer, 0, size);
+
+    writeVarInt(this.stream, size);
+    int previous = 0;
+    for (i = 0; i < size; i++) {
+      writeVarInt(this.stream, this.idBuffer[i] - previous);
+      previous = this.idBuffer[i];
+    }
+  }
+
+  protected void writeColumnPermutation(ColumnPermutation columnPermutation) throws IOException {
+    writeVarInt(this.stream, columnPermutation.getColumnIdentifiers().size());
+    for (ColumnIdentifier column : columnPermutation.getColumnIdentifiers()) {
+      writeVarInt(this.stream, this.columnIds.get(column));
+    }
+  }
+
+  /**
+   * Writes a non-negative integer with seven bits per byte, least significant bits first. The
+   * highest bit of a byte is set, if another byte follows.
+   */
+  protected static void writeVarInt(DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    this.stream.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.stream.close();
+  }
+
+}
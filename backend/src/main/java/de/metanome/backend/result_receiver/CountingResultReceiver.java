@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchException;
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.results.BasicStatistic;
+import de.metanome.algorithm_integration.results.ConditionalUniqueColumnCombination;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.algorithm_integration.results.InclusionDependency;
+import de.metanome.algorithm_integration.results.MultivaluedDependency;
+import de.metanome.algorithm_integration.results.OrderDependency;
+import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+import de.metanome.backend.results_db.ResultType;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the results an algorithm emits per result type and forwards them to the wrapped
+ * receiver. The counts can be read by another thread while the algorithm is running. The time
+ * spent in the wrapped receiver is measured as well.
+ */
+public class CountingResultReceiver implements CloseableOmniscientResultReceiver {
+
+  protected CloseableOmniscientResultReceiver receiver;
+  // Number of received results by the ordinal of their result type
+  protected AtomicLongArray receivedResults = new AtomicLongArray(ResultType.values().length);
+  protected AtomicLong receiveNanos = new AtomicLong();
+
+  /**
+   * @param receiver the receiver, which handles the results
+   */
+  public CountingResultReceiver(CloseableOmniscientResultReceiver receiver) {
+    this.receiver = receiver;
+  }
+
+  /**
+   * @param type the result type
+   * @return the number of results of the given type received so far
+   */
+  public long getReceivedResultCount(ResultType type) {
+    return this.receivedResults.get(type.ordinal());
+  }
+
+  /**
+   * @return the number of results received so far for each result type, which was received at
+   * least once
+   */
+  public Map<ResultType, Long> getReceivedResultCounts() {
+    Map<ResultType, Long> counts = new EnumMap<>(ResultType.class);
+    for (ResultType type : ResultType.values()) {
+      long count = this.getReceivedResultCount(type);
+      if (count > 0) {
+        counts.put(type, count);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * @return the time spent in the wrapped receiver in nanoseconds
+   */
+  public long getReceiveTime() {
+    return this.receiveNanos.get();
+  }
+
+  public CloseableOmniscientResultReceiver getReceiver() {
+    return this.receiver;
+  }
+
+  @Override
+  public void receiveResult(BasicStatistic statistic)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(statistic);
+    this.received(ResultType.STAT, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(BasicStatistic result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(FunctionalDependency functionalDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(functionalDependency);
+    this.received(ResultType.FD, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(FunctionalDependency result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(InclusionDependency inclusionDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(inclusionDependency);
+    this.received(ResultType.IND, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(InclusionDependency result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(UniqueColumnCombination uniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(uniqueColumnCombination);
+    this.received(ResultType.UCC, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(UniqueColumnCombination result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(ConditionalUniqueColumnCombination conditionalUniqueColumnCombination)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(conditionalUniqueColumnCombination);
+    this.received(ResultType.CUCC, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(ConditionalUniqueColumnCombination result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(OrderDependency orderDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(orderDependency);
+    this.received(ResultType.OD, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(OrderDependency result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  @Override
+  public void receiveResult(MultivaluedDependency multivaluedDependency)
+    throws CouldNotReceiveResultException, ColumnNameMismatchException {
+    long start = System.nanoTime();
+    this.receiver.receiveResult(multivaluedDependency);
+    this.received(ResultType.MVD, start);
+  }
+
+  @Override
+  public Boolean acceptedResult(MultivaluedDependency result) {
+    return this.receiver.acceptedResult(result);
+  }
+
+  protected void received(ResultType type, long start) {
+    this.receiveNanos.addAndGet(System.nanoTime() - start);
+    this.receivedResults.incrementAndGet(type.ordinal());
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.receiver.close();
+  }
+
+}
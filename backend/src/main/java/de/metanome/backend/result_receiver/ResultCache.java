@@ -20,21 +20,43 @@ import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchExcep
 import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
 import de.metanome.algorithm_integration.results.*;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.LinkedList;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 /**
- * Stores all received Results in a list and returns the new results on call to {@link
- * ResultCache#fetchNewResults()}. When all results were received, they are written to disk.
+ * Caches the received results until they are fetched with {@link ResultCache#fetchNewResults()}.
+ * Every received result is also written to the result files right away, so that closing the cache
+ * only flushes the files.
+ * <p/>
+ * At most one segment of unfetched results is held in memory. A full segment is sealed and
+ * spilled to a temporary file, until it is fetched.
  *
  * @author Jakob Zwiener
  */
 public class ResultCache extends ResultReceiver {
 
-  protected List<Result> results = new LinkedList<>();
-  protected int fromIndex = 0;
+  // Default maximal number of unfetched results held in memory
+  public static final int DEFAULT_SEGMENT_SIZE = 10000;
+
+  protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+  protected ResultPrinter printer;
+  protected int segmentSize;
+  // Unfetched results, which were not spilled yet
+  protected List<Result> tail;
+  // Files of the spilled segments in the order they were sealed
+  protected Deque<File> spilledSegments = new ArrayDeque<>();
 
   /**
    * Initializes the result cache. The given algorithm execution identifier and accepted columns are stored.
@@ -48,6 +70,8 @@ public class ResultCache extends ResultReceiver {
   public ResultCache(String algorithmExecutionIdentifier, List<ColumnIdentifier> acceptedColumns)
     throws FileNotFoundException {
     super(algorithmExecutionIdentifier, acceptedColumns);
+    this.initialize(new ResultPrinter(algorithmExecutionIdentifier, acceptedColumns),
+      DEFAULT_SEGMENT_SIZE);
   }
 
   /**
@@ -62,13 +86,42 @@ public class ResultCache extends ResultReceiver {
    */
   protected ResultCache(String algorithmExecutionIdentifier, List<ColumnIdentifier> acceptedColumns, Boolean test)
     throws FileNotFoundException {
+    this(algorithmExecutionIdentifier, acceptedColumns, test, DEFAULT_SEGMENT_SIZE);
+  }
+
+  /**
+   * @param algorithmExecutionIdentifier the algorithm execution identifier
+   * @param acceptedColumns              a list of accepted column identifiers
+   * @param test                         if true, a test directory is used to store the results on disk
+   * @param segmentSize                  the maximal number of unfetched results held in memory
+   * @throws FileNotFoundException if the directory, where all results are stored on disk in a file, could not be found
+   */
+  protected ResultCache(String algorithmExecutionIdentifier, List<ColumnIdentifier> acceptedColumns,
+                        Boolean test, int segmentSize)
+    throws FileNotFoundException {
     super(algorithmExecutionIdentifier, acceptedColumns, test);
+    this.initialize(new ResultPrinter(algorithmExecutionIdentifier, acceptedColumns, test),
+      segmentSize);
+  }
+
+  private void initialize(ResultPrinter printer, int segmentSize) {
+    this.printer = printer;
+    // The streams are flushed, when the cache is closed.
+    this.printer.autoFlush = false;
+    this.segmentSize = Math.max(1, segmentSize);
+    this.tail = new ArrayList<>();
+  }
+
+  @Override
+  public void setResultTestDir() {
+    super.setResultTestDir();
+    this.printer.setResultTestDir();
   }
 
   @Override
   public void receiveResult(BasicStatistic statistic) throws ColumnNameMismatchException {
     if (this.acceptedResult(statistic)) {
-      results.add(statistic);
+      this.cache(statistic);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -78,7 +131,7 @@ public class ResultCache extends ResultReceiver {
   @Override
   public void receiveResult(FunctionalDependency functionalDependency) throws ColumnNameMismatchException {
     if (this.acceptedResult(functionalDependency)) {
-      results.add(functionalDependency);
+      this.cache(functionalDependency);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -87,7 +140,7 @@ public class ResultCache extends ResultReceiver {
   @Override
   public void receiveResult(MultivaluedDependency multivaluedDependency) throws ColumnNameMismatchException {
     if (this.acceptedResult(multivaluedDependency)) {
-      results.add(multivaluedDependency);
+      this.cache(multivaluedDependency);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -96,7 +149,7 @@ public class ResultCache extends ResultReceiver {
   @Override
   public void receiveResult(InclusionDependency inclusionDependency) throws ColumnNameMismatchException {
     if (this.acceptedResult(inclusionDependency)) {
-      results.add(inclusionDependency);
+      this.cache(inclusionDependency);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -105,7 +158,7 @@ public class ResultCache extends ResultReceiver {
   @Override
   public void receiveResult(UniqueColumnCombination uniqueColumnCombination) throws ColumnNameMismatchException {
     if (this.acceptedResult(uniqueColumnCombination)) {
-      results.add(uniqueColumnCombination);
+      this.cache(uniqueColumnCombination);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -113,7 +166,7 @@ public class ResultCache extends ResultReceiver {
 
   public void receiveResult(ConditionalUniqueColumnCombination conditionalUniqueColumnCombination) throws ColumnNameMismatchException {
     if (this.acceptedResult(conditionalUniqueColumnCombination)) {
-      results.add(conditionalUniqueColumnCombination);
+      this.cache(conditionalUniqueColumnCombination);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
@@ -122,55 +175,100 @@ public class ResultCache extends ResultReceiver {
   @Override
   public void receiveResult(OrderDependency orderDependency) throws ColumnNameMismatchException {
     if (this.acceptedResult(orderDependency)) {
-      results.add(orderDependency);
+      this.cache(orderDependency);
     } else {
       throw new ColumnNameMismatchException("The column name of the result does not match with the column names in the input!");
     }
   }
 
   /**
-   * Should return all results once. Copies the new received results and returns them.
+   * Writes the result to the result files and keeps it until it is fetched. The tail is spilled
+   * to disk, once it is full.
+   *
+   * @param result the accepted result
+   */
+  protected synchronized void cache(Result result) {
+    try {
+      result.sendResultTo(this.printer);
+    } catch (CouldNotReceiveResultException e) {
+      e.printStackTrace();
+    } catch (ColumnNameMismatchException ignored) {
+      // should not occur
+    }
+
+    this.tail.add(result);
+    if (this.tail.size() >= this.segmentSize) {
+      this.spill();
+    }
+  }
+
+  /**
+   * Seals the tail and writes it to a temporary file. If the segment could not be written, the
+   * results are kept in memory.
+   */
+  protected void spill() {
+    File segment = null;
+    try {
+      segment = File.createTempFile("metanome_result_cache", ".segment");
+      segment.deleteOnExit();
+      try (ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(
+        new FileOutputStream(segment), STREAM_BUFFER_SIZE))) {
+        output.writeObject(this.tail);
+      }
+      this.spilledSegments.add(segment);
+      this.tail = new ArrayList<>();
+    } catch (IOException e) {
+      e.printStackTrace();
+      if (segment != null) {
+        segment.delete();
+      }
+    }
+  }
+
+  /**
+   * Should return all results once. Returns the results received since the last call. Spilled
+   * segments are read back from disk and deleted afterwards.
    *
    * @return new results
    */
-  public List<Result> fetchNewResults() {
-    int toIndex = this.results.size();
-    List<Result> newResults = results.subList(this.fromIndex, toIndex);
-    this.fromIndex = toIndex;
+  public synchronized List<Result> fetchNewResults() {
+    List<Result> newResults;
+    if (this.spilledSegments.isEmpty()) {
+      newResults = this.tail;
+    } else {
+      newResults = new ArrayList<>();
+      while (!this.spilledSegments.isEmpty()) {
+        File segment = this.spilledSegments.poll();
+        newResults.addAll(this.readSegment(segment));
+        segment.delete();
+      }
+      newResults.addAll(this.tail);
+    }
+    this.tail = new ArrayList<>();
     return newResults;
   }
 
+  @SuppressWarnings("unchecked")
+  protected List<Result> readSegment(File segment) {
+    try (ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(
+      new FileInputStream(segment), STREAM_BUFFER_SIZE))) {
+      return (List<Result>) input.readObject();
+    } catch (IOException | ClassNotFoundException e) {
+      throw new IllegalStateException("Could not read the spilled results!", e);
+    }
+  }
+
   /**
-   * When the result receiver is closed, the results are written to disk.
+   * When the result receiver is closed, the result files are flushed. Unfetched results are
+   * dropped.
    */
   @Override
-  public void close() throws IOException {
-    ResultPrinter
-      printer =
-      new ResultPrinter(this.algorithmExecutionIdentifier, this.acceptedColumns, this.testDirectory);
-    for (Result result : results) {
-      try {
-        if (result instanceof FunctionalDependency) {
-          printer.receiveResult((FunctionalDependency) result);
-        } else if (result instanceof MultivaluedDependency) {
-          printer.receiveResult((MultivaluedDependency) result);
-        } else if (result instanceof InclusionDependency) {
-          printer.receiveResult((InclusionDependency) result);
-        } else if (result instanceof UniqueColumnCombination) {
-          printer.receiveResult((UniqueColumnCombination) result);
-        } else if (result instanceof ConditionalUniqueColumnCombination) {
-          printer.receiveResult((ConditionalUniqueColumnCombination) result);
-        } else if (result instanceof OrderDependency) {
-          printer.receiveResult((OrderDependency) result);
-        } else if (result instanceof BasicStatistic) {
-          printer.receiveResult((BasicStatistic) result);
-        }
-      } catch (CouldNotReceiveResultException e) {
-        e.printStackTrace();
-      } catch (ColumnNameMismatchException ignored) {
-        // should not occur
-      }
+  public synchronized void close() throws IOException {
+    this.printer.close();
+    for (File segment : this.spilledSegments) {
+      segment.delete();
     }
-    printer.close();
+    this.spilledSegments.clear();
+    this.tail = new ArrayList<>();
   }
 }
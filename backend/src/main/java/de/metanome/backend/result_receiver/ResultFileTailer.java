@@ -0,0 +1,149 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.results.Result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Follows a text result file, which is still written by the {@link ResultPrinter} of a running
+ * algorithm execution. Every {@link #poll()} returns the results of the lines, which were
+ * completed since the last call. Incomplete lines are kept until they are completed.
+ * <p/>
+ * Binary result files can not be followed, because their records are not delimited. The tailer
+ * ignores them, {@link #isFollowable()} tells whether the file is supported.
+ *
+ * @param <T> the type of the results
+ */
+public class ResultFileTailer<T extends Result> implements Closeable {
+
+  protected static final int BUFFER_SIZE = 64 * 1024;
+  // The result printer writes with the default charset
+  protected static final Charset CHARSET = Charset.defaultCharset();
+
+  protected File resultFile;
+  protected ResultLineParser<T> parser;
+  protected RandomAccessFile input = null;
+  protected boolean binary = false;
+  protected long position = 0;
+  protected long resultCount = 0;
+  protected byte[] buffer = new byte[BUFFER_SIZE];
+  protected ByteArrayOutputStream incompleteLine = new ByteArrayOutputStream();
+
+  /**
+   * @param resultFile the result file, which does not need to exist yet
+   * @param type       the name of the result type
+   */
+  public ResultFileTailer(File resultFile, String type) {
+    this.resultFile = resultFile;
+    this.parser = new ResultLineParser<>(type);
+  }
+
+  /**
+   * Reads the lines, which were completed since the last call.
+   *
+   * @return the results of the new lines
+   * @throws IOException if the file could not be read or a line could not be parsed
+   */
+  public List<T> poll() throws IOException {
+    List<T> results = new ArrayList<>();
+    if (this.input == null && !this.open()) {
+      return results;
+    }
+
+    long length = this.input.length();
+    while (this.position < length) {
+      this.input.seek(this.position);
+      int read = this.input.read(this.buffer, 0,
+        (int) Math.min(this.buffer.length, length - this.position));
+      if (read < 0) {
+        break;
+      }
+      this.position += read;
+
+      int lineStart = 0;
+      for (int i = 0; i < read; i++) {
+        if (this.buffer[i] == '\n') {
+          this.incompleteLine.write(this.buffer, lineStart, i - lineStart);
+          T result = this.parseLine();
+          if (result != null) {
+            results.add(result);
+          }
+          lineStart = i + 1;
+        }
+      }
+      this.incompleteLine.write(this.buffer, lineStart, read - lineStart);
+    }
+
+    this.resultCount += results.size();
+    return results;
+  }
+
+  /**
+   * @return false, if the result file is in the binary format, true otherwise
+   */
+  public boolean isFollowable() {
+    return !this.binary;
+  }
+
+  /**
+   * @return the number of results read so far
+   */
+  public long getResultCount() {
+    return this.resultCount;
+  }
+
+  protected boolean open() throws IOException {
+    // The format can only be detected, once the header is written
+    if (this.binary || this.resultFile.length() < BinaryResultWriter.MAGIC.length) {
+      return false;
+    }
+    if (BinaryResultReader.isBinaryResultFile(this.resultFile)) {
+      this.binary = true;
+      return false;
+    }
+    this.input = new RandomAccessFile(this.resultFile, "r");
+    return true;
+  }
+
+  protected T parseLine() throws IOException {
+    String line = new String(this.incompleteLine.toByteArray(), CHARSET);
+    this.incompleteLine.reset();
+    if (line.endsWith("\r")) {
+      line = line.substring(0, line.length() - 1);
+    }
+    if (line.isEmpty()) {
+      return null;
+    }
+    return this.parser.parseLine(line);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.input != null) {
+      this.input.close();
+    }
+  }
+
+}
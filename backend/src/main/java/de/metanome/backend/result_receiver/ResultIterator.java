@@ -0,0 +1,145 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.results.Result;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the results of a result file one by one, so that only the current result has to be kept
+ * in memory. Text files of the {@link ResultPrinter} and binary files of the {@link
+ * BinaryResultPrinter} are supported. The iterator has to be closed after use.
+ *
+ * @param <T> the type of the results
+ */
+public abstract class ResultIterator<T extends Result> implements Closeable {
+
+  protected T nextResult = null;
+
+  /**
+   * Opens the given result file and detects its format.
+   *
+   * @param resultFile the result file
+   * @param type       the name of the result type
+   * @param <T>        the type of the results
+   * @return an iterator over the results of the file
+   * @throws IOException if the file could not be opened
+   */
+  public static <T extends Result> ResultIterator<T> open(File resultFile, String type)
+    throws IOException {
+    if (BinaryResultReader.isBinaryResultFile(resultFile)) {
+      return new BinaryResultIterator<>(resultFile);
+    }
+    return new TextResultIterator<>(resultFile, type);
+  }
+
+  /**
+   * @return true, if there is another result, false otherwise
+   * @throws IOException if the next result could not be read
+   */
+  public boolean hasNext() throws IOException {
+    if (this.nextResult == null) {
+      this.nextResult = this.readNext();
+    }
+    return this.nextResult != null;
+  }
+
+  /**
+   * @return the next result
+   * @throws IOException if the next result could not be read
+   */
+  public T next() throws IOException {
+    if (!this.hasNext()) {
+      throw new NoSuchElementException("There are no more results in the result file!");
+    }
+    T result = this.nextResult;
+    this.nextResult = null;
+    return result;
+  }
+
+  /**
+   * @return the next result of the file or null, if all results have been read
+   * @throws IOException if the result could not be read
+   */
+  protected abstract T readNext() throws IOException;
+
+  /**
+   * Iterates the lines of a text result file. The table and column mappings of the header are
+   * read on the fly.
+   */
+  protected static class TextResultIterator<T extends Result> extends ResultIterator<T> {
+
+    protected BufferedReader reader;
+    protected ResultLineParser<T> parser;
+
+    protected TextResultIterator(File resultFile, String type) throws IOException {
+      this(new BufferedReader(new FileReader(resultFile)), type);
+    }
+
+    protected TextResultIterator(BufferedReader reader, String type) {
+      this.reader = reader;
+      this.parser = new ResultLineParser<>(type);
+    }
+
+    @Override
+    protected T readNext() throws IOException {
+      String line;
+      while ((line = this.reader.readLine()) != null) {
+        T result = this.parser.parseLine(line);
+        if (result != null) {
+          return result;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.reader.close();
+    }
+  }
+
+  /**
+   * Iterates the records of a binary result file.
+   */
+  protected static class BinaryResultIterator<T extends Result> extends ResultIterator<T> {
+
+    protected BinaryResultReader reader;
+
+    protected BinaryResultIterator(File resultFile) throws IOException {
+      this.reader = new BinaryResultReader(new FileInputStream(resultFile));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T readNext() throws IOException {
+      return (T) this.reader.readResult();
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.reader.close();
+    }
+  }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.results.Result;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the lines of a text result file written by the {@link ResultPrinter} one by one. The
+ * table and column mappings of the header are collected on the fly and used to convert the
+ * following result lines.
+ *
+ * @param <T> the type of the results
+ */
+public class ResultLineParser<T extends Result> {
+
+  protected String type;
+  protected Map<String, String> tableMapping = new HashMap<>();
+  protected Map<String, String> columnMapping = new HashMap<>();
+  protected boolean isTableMapping = false;
+  protected boolean isColumnMapping = false;
+
+  /**
+   * @param type the name of the result type
+   */
+  public ResultLineParser(String type) {
+    this.type = type;
+  }
+
+  /**
+   * Parses the given line of a text result file. Lines of the header update the table and column
+   * mappings.
+   *
+   * @param line the line
+   * @return the result of the line or null, if the line belongs to the header
+   * @throws IOException if the result could not be parsed
+   */
+  @SuppressWarnings("unchecked")
+  public T parseLine(String line) throws IOException {
+    if (line.startsWith(ResultPrinter.TABLE_MARKER)) {
+      this.isTableMapping = true;
+      this.isColumnMapping = false;
+    } else if (line.startsWith(ResultPrinter.COLUMN_MARKER)) {
+      this.isTableMapping = false;
+      this.isColumnMapping = true;
+    } else if (line.startsWith(ResultPrinter.RESULT_MARKER)) {
+      this.isTableMapping = false;
+      this.isColumnMapping = false;
+    } else if (this.isTableMapping) {
+      String[] parts = line.split(ResultReceiver.MAPPING_SEPARATOR);
+      this.tableMapping.put(parts[1], parts[0]);
+    } else if (this.isColumnMapping) {
+      String[] parts = line.split(ResultReceiver.MAPPING_SEPARATOR);
+      this.columnMapping.put(parts[1], parts[0]);
+    } else {
+      return (T) ResultReader.convertStringToResult(line, this.type, this.tableMapping,
+        this.columnMapping);
+    }
+    return null;
+  }
+
+}
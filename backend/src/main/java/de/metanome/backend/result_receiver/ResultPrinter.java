@@ -34,11 +34,15 @@ public class ResultPrinter extends ResultReceiver {
   protected static final String TABLE_MARKER = "# TABLES";
   protected static final String COLUMN_MARKER = "# COLUMN";
   protected static final String RESULT_MARKER = "# RESULTS";
+  protected static final int STREAM_BUFFER_SIZE = 64 * 1024;
+  protected static final JsonCodec JSON_CODEC = JsonCodec.getDefault();
 
   protected EnumMap<ResultType, PrintStream> openStreams;
   protected EnumMap<ResultType, Boolean> headerWritten;
   protected Map<String, String> columnMapping;
   protected Map<String, String> tableMapping;
+  // If false, the streams are buffered and only flushed on flush() and close()
+  protected boolean autoFlush = true;
 
   /**
    * Initializes the result printer. The given algorithm execution identifier and accepted columns are stored.
@@ -90,8 +94,7 @@ public class ResultPrinter extends ResultReceiver {
     throws CouldNotReceiveResultException, ColumnNameMismatchException {
     if (this.acceptedResult(statistic)) {
       try {
-        JsonConverter<BasicStatistic> jsonConverter = new JsonConverter<>();
-        getStream(ResultType.STAT).println(jsonConverter.toJsonString(statistic));
+        getStream(ResultType.STAT).println(JSON_CODEC.toJsonString(statistic));
       } catch (JsonProcessingException e) {
         throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
       }
@@ -120,8 +123,7 @@ public class ResultPrinter extends ResultReceiver {
         // the acceptableColumnNames are null, that means a database connection was used
         // we do not know which columns are in the result
         try {
-          JsonConverter<FunctionalDependency> jsonConverter = new JsonConverter<>();
-          getStream(ResultType.FD).println(jsonConverter.toJsonString(functionalDependency));
+          getStream(ResultType.FD).println(JSON_CODEC.toJsonString(functionalDependency));
         } catch (JsonProcessingException e) {
           throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
         }
@@ -151,8 +153,7 @@ public class ResultPrinter extends ResultReceiver {
         // the acceptableColumnNames are null, that means a database connection was used
         // we do not know which columns are in the result
         try {
-          JsonConverter<MultivaluedDependency> jsonConverter = new JsonConverter<>();
-          getStream(ResultType.MVD).println(jsonConverter.toJsonString(multivaluedDependency));
+          getStream(ResultType.MVD).println(JSON_CODEC.toJsonString(multivaluedDependency));
         } catch (JsonProcessingException e) {
           throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
         }
@@ -182,8 +183,7 @@ public class ResultPrinter extends ResultReceiver {
         // the acceptableColumnNames are null, that means a database connection was used
         // we do not know which columns are in the result
         try {
-          JsonConverter<InclusionDependency> jsonConverter = new JsonConverter<>();
-          getStream(ResultType.IND).println(jsonConverter.toJsonString(inclusionDependency));
+          getStream(ResultType.IND).println(JSON_CODEC.toJsonString(inclusionDependency));
         } catch (JsonProcessingException e) {
           throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
         }
@@ -213,8 +213,7 @@ public class ResultPrinter extends ResultReceiver {
         // the acceptableColumnNames are null, that means a database connection was used
         // we do not know which columns are in the result
         try {
-          JsonConverter<UniqueColumnCombination> jsonConverter = new JsonConverter<>();
-          getStream(ResultType.UCC).println(jsonConverter.toJsonString(uniqueColumnCombination));
+          getStream(ResultType.UCC).println(JSON_CODEC.toJsonString(uniqueColumnCombination));
         } catch (JsonProcessingException e) {
           throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
         }
@@ -229,9 +228,8 @@ public class ResultPrinter extends ResultReceiver {
     throws CouldNotReceiveResultException, ColumnNameMismatchException {
     if (this.acceptedResult(conditionalUniqueColumnCombination)) {
       try {
-        JsonConverter<ConditionalUniqueColumnCombination> jsonConverter = new JsonConverter<>();
         getStream(ResultType.CUCC)
-          .println(jsonConverter.toJsonString(conditionalUniqueColumnCombination));
+          .println(JSON_CODEC.toJsonString(conditionalUniqueColumnCombination));
       } catch (JsonProcessingException e) {
         throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
       }
@@ -260,8 +258,7 @@ public class ResultPrinter extends ResultReceiver {
         // the acceptableColumnNames are null, that means a database connection was used
         // we do not know which columns are in the result
         try {
-          JsonConverter<OrderDependency> jsonConverter = new JsonConverter<>();
-          getStream(ResultType.OD).println(jsonConverter.toJsonString(orderDependency));
+          getStream(ResultType.OD).println(JSON_CODEC.toJsonString(orderDependency));
         } catch (JsonProcessingException e) {
           throw new CouldNotReceiveResultException("Could not convert the result to JSON!");
         }
@@ -280,7 +277,11 @@ public class ResultPrinter extends ResultReceiver {
 
   protected PrintStream openStream(String fileSuffix) throws CouldNotReceiveResultException {
     try {
-      return new PrintStream(new FileOutputStream(getOutputFilePathPrefix() + fileSuffix), true);
+      FileOutputStream outputStream = new FileOutputStream(getOutputFilePathPrefix() + fileSuffix);
+      if (this.autoFlush) {
+        return new PrintStream(outputStream, true);
+      }
+      return new PrintStream(new BufferedOutputStream(outputStream, STREAM_BUFFER_SIZE), false);
     } catch (FileNotFoundException e) {
       throw new CouldNotReceiveResultException("Could not open result file for writing", e);
     }
@@ -311,6 +312,15 @@ public class ResultPrinter extends ResultReceiver {
     this.headerWritten.put(resultType, true);
   }
 
+  /**
+   * Flushes all open result files.
+   */
+  public void flush() {
+    for (PrintStream stream : openStreams.values()) {
+      stream.flush();
+    }
+  }
+
   @Override
   public void close() throws IOException {
     for (PrintStream stream : openStreams.values()) {
@@ -23,12 +23,13 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class ResultReader<T extends Result> {
 
+  protected static final JsonCodec JSON_CODEC = JsonCodec.getDefault();
+
   private ResultType type;
 
   public ResultReader(ResultType type) {
@@ -38,99 +39,75 @@ public class ResultReader<T extends Result> {
   public static List<Result> readResultsFromFile(String fileName, String type)
     throws IOException, NullPointerException, IndexOutOfBoundsException {
     List<Result> results = new ArrayList<>();
-    Map<String, String> tableMapping = new HashMap<>();
-    Map<String, String> columnMapping = new HashMap<>();
-
-    Boolean isTableMapping = false;
-    Boolean isColumnMapping = false;
+    try (ResultIterator<Result> iterator = openResultsFromFile(fileName, type)) {
+      while (iterator.hasNext()) {
+        results.add(iterator.next());
+      }
+    }
+    return results;
+  }
 
+  /**
+   * Opens the given result file for reading the results one by one instead of loading all of them
+   * into memory. The format of the file is detected automatically.
+   *
+   * @param fileName the name of the result file
+   * @param type     the name of the result type
+   * @return an iterator over the results, which has to be closed after use
+   * @throws IOException if the file could not be opened
+   */
+  public static ResultIterator<Result> openResultsFromFile(String fileName, String type)
+    throws IOException {
     File resultFile = new File(fileName);
     if (!resultFile.exists()) {
       resultFile.createNewFile();
     }
-
-    BufferedReader br = new BufferedReader(new FileReader(resultFile));
-    String line;
-    while ((line = br.readLine()) != null) {
-      if (line.startsWith(ResultPrinter.TABLE_MARKER)) {
-        isTableMapping = true;
-        isColumnMapping = false;
-        continue;
-      } else if (line.startsWith(ResultPrinter.COLUMN_MARKER)) {
-        isTableMapping = false;
-        isColumnMapping = true;
-        continue;
-      } else if (line.startsWith(ResultPrinter.RESULT_MARKER)) {
-        isTableMapping = false;
-        isColumnMapping = false;
-        continue;
-      }
-
-      if (isTableMapping) {
-        String[] parts = line.split(ResultReceiver.MAPPING_SEPARATOR);
-        tableMapping.put(parts[1], parts[0]);
-      } else if (isColumnMapping) {
-        String[] parts = line.split(ResultReceiver.MAPPING_SEPARATOR);
-        columnMapping.put(parts[1], parts[0]);
-      } else {
-        results.add(ResultReader.convertStringToResult(line, type, tableMapping, columnMapping));
-      }
-    }
-
-    br.close();
-    return results;
+    return ResultIterator.open(resultFile, type);
   }
 
   protected static Result convertStringToResult(String str, String name, Map<String, String> tableMapping,
                                              Map<String, String> columnMapping)
     throws IOException, NullPointerException, IndexOutOfBoundsException {
     if (name.equals(ResultType.CUCC.getName())) {
-      JsonConverter<ConditionalUniqueColumnCombination> jsonConverter = new JsonConverter<>();
-      return jsonConverter.fromJsonString(str, ConditionalUniqueColumnCombination.class);
+      return JSON_CODEC.fromJsonString(str, ConditionalUniqueColumnCombination.class);
 
     } else if (name.equals(ResultType.OD.getName())) {
       if (tableMapping.isEmpty() && columnMapping.isEmpty()) {
-        JsonConverter<OrderDependency> jsonConverter = new JsonConverter<>();
-        return jsonConverter.fromJsonString(str, OrderDependency.class);
+        return JSON_CODEC.fromJsonString(str, OrderDependency.class);
       } else {
         return OrderDependency.fromString(tableMapping, columnMapping, str);
       }
 
     } else if (name.equals(ResultType.IND.getName())) {
       if (tableMapping.isEmpty() && columnMapping.isEmpty()) {
-        JsonConverter<InclusionDependency> jsonConverter = new JsonConverter<>();
-        return jsonConverter.fromJsonString(str, InclusionDependency.class);
+        return JSON_CODEC.fromJsonString(str, InclusionDependency.class);
       } else {
         return InclusionDependency.fromString(tableMapping, columnMapping, str);
       }
 
     } else if (name.equals(ResultType.FD.getName())) {
       if (tableMapping.isEmpty() && columnMapping.isEmpty()) {
-        JsonConverter<FunctionalDependency> jsonConverter = new JsonConverter<>();
-        return jsonConverter.fromJsonString(str, FunctionalDependency.class);
+        return JSON_CODEC.fromJsonString(str, FunctionalDependency.class);
       } else {
         return FunctionalDependency.fromString(tableMapping, columnMapping, str);
       }
       
     } else if (name.equals(ResultType.MVD.getName())) {
       if (tableMapping.isEmpty() && columnMapping.isEmpty()) {
-        JsonConverter<MultivaluedDependency> jsonConverter = new JsonConverter<>();
-        return jsonConverter.fromJsonString(str, MultivaluedDependency.class);
+        return JSON_CODEC.fromJsonString(str, MultivaluedDependency.class);
       } else {
         return MultivaluedDependency.fromString(tableMapping, columnMapping, str);
       }
 
     } else if (name.equals(ResultType.UCC.getName())) {
       if (tableMapping.isEmpty() && columnMapping.isEmpty()) {
-        JsonConverter<UniqueColumnCombination> jsonConverter = new JsonConverter<>();
-        return jsonConverter.fromJsonString(str, UniqueColumnCombination.class);
+        return JSON_CODEC.fromJsonString(str, UniqueColumnCombination.class);
       } else {
         return UniqueColumnCombination.fromString(tableMapping, columnMapping, str);
       }
 
     } else if (name.equals(ResultType.STAT.getName())) {
-      JsonConverter<BasicStatistic> jsonConverter = new JsonConverter<>();
-      return jsonConverter.fromJsonString(str, BasicStatistic.class);
+      return JSON_CODEC.fromJsonString(str, BasicStatistic.class);
 
     }
 
@@ -162,4 +139,19 @@ public class ResultReader<T extends Result> {
     return (List<T>) ResultReader.readResultsFromFile(fileName, this.type.getName());
   }
 
+  /**
+   * Opens the given result file for reading the results of this reader's type one by one.
+   *
+   * @param fileName the name of the result file
+   * @return an iterator over the results, which has to be closed after use
+   * @throws IOException if the file could not be opened
+   */
+  public ResultIterator<T> openResultsFromFile(String fileName) throws IOException {
+    File resultFile = new File(fileName);
+    if (!resultFile.exists()) {
+      resultFile.createNewFile();
+    }
+    return ResultIterator.open(resultFile, this.type.getName());
+  }
+
 }
@@ -17,10 +17,14 @@ package de.metanome.backend.result_receiver;
 
 import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.results.*;
+import de.metanome.backend.results_db.ResultType;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public abstract class ResultReceiver implements CloseableOmniscientResultReceiver {
 
@@ -32,6 +36,10 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
   protected String directory;
   protected Boolean testDirectory;
   protected List<ColumnIdentifier> acceptedColumns;
+  // Hash index of the accepted columns, checked for every column of every result
+  protected Set<ColumnIdentifier> acceptedColumnSet;
+  // Number of rejected results by the ordinal of their result type
+  protected AtomicLongArray rejectedResults = new AtomicLongArray(ResultType.values().length);
 
   public ResultReceiver(String algorithmExecutionIdentifier, List<ColumnIdentifier> acceptedColumns)
     throws FileNotFoundException {
@@ -42,6 +50,9 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     throws FileNotFoundException {
     this.testDirectory = testDirectory;
     this.acceptedColumns = acceptedColumns;
+    if (acceptedColumns != null) {
+      this.acceptedColumnSet = new HashSet<>(acceptedColumns);
+    }
 
     if (testDirectory) {
       this.directory = RESULT_TEST_DIR;
@@ -82,11 +93,11 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
       return true;
     }
     if (!this.columnAccepted(result.getDependant())) {
-      return false;
+      return this.rejectResult(ResultType.FD);
     }
     for (ColumnIdentifier ci : result.getDeterminant().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.FD);
       }
     }
     return true;
@@ -104,12 +115,12 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getDependant().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.MVD);
       }
 	}
     for (ColumnIdentifier ci : result.getDeterminant().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.MVD);
       }
     }
     return true;
@@ -127,7 +138,7 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getColumnCombination().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.UCC);
       }
     }
     return true;
@@ -145,12 +156,12 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getDependant().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.IND);
       }
     }
     for (ColumnIdentifier ci : result.getReferenced().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.IND);
       }
     }
     return true;
@@ -168,12 +179,12 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getLhs().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.OD);
       }
     }
     for (ColumnIdentifier ci : result.getRhs().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.OD);
       }
     }
     return true;
@@ -191,7 +202,7 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getColumnCombination().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.CUCC);
       }
     }
     return true;
@@ -209,7 +220,7 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
     }
     for (ColumnIdentifier ci : result.getColumnCombination().getColumnIdentifiers()) {
       if (! this.columnAccepted(ci)) {
-        return false;
+        return this.rejectResult(ResultType.STAT);
       }
     }
     return true;
@@ -222,6 +233,31 @@ public abstract class ResultReceiver implements CloseableOmniscientResultReceive
    * @return true, if the name is accepted, false otherwise
    */
   private Boolean columnAccepted(ColumnIdentifier ci) {
-    return this.acceptedColumns.contains(ci);
+    return this.acceptedColumnSet.contains(ci);
+  }
+
+  private Boolean rejectResult(ResultType type) {
+    this.rejectedResults.incrementAndGet(type.ordinal());
+    return false;
+  }
+
+  /**
+   * @param type the result type
+   * @return the number of results of the given type, which were rejected, because they contain
+   * columns, which are not accepted
+   */
+  public long getRejectedResultCount(ResultType type) {
+    return this.rejectedResults.get(type.ordinal());
+  }
+
+  /**
+   * @return the number of results of all types, which were rejected
+   */
+  public long getRejectedResultCount() {
+    long count = 0;
+    for (int i = 0; i < this.rejectedResults.length(); i++) {
+      count += this.rejectedResults.get(i);
+    }
+    return count;
   }
 }
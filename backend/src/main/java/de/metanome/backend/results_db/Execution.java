@@ -67,6 +67,7 @@ public class Execution implements Serializable, Comparable<Execution> {
   protected String hardwareDescription;
   protected String description;
   protected ExecutionSetting executionSetting;
+  protected ExecutionMetrics executionMetrics;
   protected boolean aborted;
   protected boolean running;
 
@@ -141,6 +142,20 @@ public class Execution implements Serializable, Comparable<Execution> {
     return this;
   }
 
+  /**
+   * @return the performance measurements of the execution or null, if they were not recorded
+   */
+  @OneToOne(cascade = CascadeType.ALL)
+  @OnDelete(action = OnDeleteAction.CASCADE)
+  public ExecutionMetrics getExecutionMetrics() {
+    return executionMetrics;
+  }
+
+  public Execution setExecutionMetrics(ExecutionMetrics executionMetrics) {
+    this.executionMetrics = executionMetrics;
+    return this;
+  }
+
   @Column(name = "begin")
   public long getBegin() {
     return begin;
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.results_db;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Transient;
+
+/**
+ * Represents the performance measurements of an {@link Execution} in the database. The metrics
+ * are sampled in the executor process. Times are given in milliseconds, memory in bytes.
+ */
+@Entity
+public class ExecutionMetrics implements Serializable {
+
+  private static final long serialVersionUID = -2165004592843120847L;
+
+  public static final long UNKNOWN = -1;
+
+  protected long id;
+  // Loading the algorithm and setting its configuration values, including the inputs
+  protected long loadTime;
+  protected long algorithmTime;
+  // Part of the algorithm time spent in the result receiver
+  protected long resultEmitTime;
+  protected long cpuTime = UNKNOWN;
+  protected long gcTime;
+  protected long gcCount;
+  protected long peakHeap;
+  protected int peakThreadCount;
+  // Number of results by the names of their result types
+  protected Map<String, Long> resultCounts = new HashMap<>();
+
+  /**
+   * Exists for hibernate serialization
+   */
+  public ExecutionMetrics() {
+
+  }
+
+  @Id
+  @GeneratedValue
+  public long getId() {
+    return id;
+  }
+
+  public ExecutionMetrics setId(long id) {
+    this.id = id;
+
+    return this;
+  }
+
+  public long getLoadTime() {
+    return loadTime;
+  }
+
+  public ExecutionMetrics setLoadTime(long loadTime) {
+    this.loadTime = loadTime;
+
+    return this;
+  }
+
+  public long getAlgorithmTime() {
+    return algorithmTime;
+  }
+
+  public ExecutionMetrics setAlgorithmTime(long algorithmTime) {
+    this.algorithmTime = algorithmTime;
+
+    return this;
+  }
+
+  public long getResultEmitTime() {
+    return resultEmitTime;
+  }
+
+  public ExecutionMetrics setResultEmitTime(long resultEmitTime) {
+    this.resultEmitTime = resultEmitTime;
+
+    return this;
+  }
+
+  /**
+   * @return the cpu time of the executor process during the execution or {@link #UNKNOWN}, if the
+   * jvm does not measure it
+   */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  public ExecutionMetrics setCpuTime(long cpuTime) {
+    this.cpuTime = cpuTime;
+
+    return this;
+  }
+
+  /**
+   * @return the accumulated time of all garbage collections during the execution
+   */
+  public long getGcTime() {
+    return gcTime;
+  }
+
+  public ExecutionMetrics setGcTime(long gcTime) {
+    this.gcTime = gcTime;
+
+    return this;
+  }
+
+  public long getGcCount() {
+    return gcCount;
+  }
+
+  public ExecutionMetrics setGcCount(long gcCount) {
+    this.gcCount = gcCount;
+
+    return this;
+  }
+
+  /**
+   * @return the sum of the peak usages of all heap memory pools, which is an upper bound of the
+   * peak heap usage
+   */
+  public long getPeakHeap() {
+    return peakHeap;
+  }
+
+  public ExecutionMetrics setPeakHeap(long peakHeap) {
+    this.peakHeap = peakHeap;
+
+    return this;
+  }
+
+  public int getPeakThreadCount() {
+    return peakThreadCount;
+  }
+
+  public ExecutionMetrics setPeakThreadCount(int peakThreadCount) {
+    this.peakThreadCount = peakThreadCount;
+
+    return this;
+  }
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  public Map<String, Long> getResultCounts() {
+    return resultCounts;
+  }
+
+  public ExecutionMetrics setResultCounts(Map<String, Long> resultCounts) {
+    this.resultCounts = resultCounts;
+
+    return this;
+  }
+
+  /**
+   * @return the number of results per second of algorithm time by the names of their result types
+   */
+  @Transient
+  public Map<String, Double> getResultsPerSecond() {
+    Map<String, Double> resultsPerSecond = new HashMap<>();
+    for (Map.Entry<String, Long> resultCount : this.resultCounts.entrySet()) {
+      resultsPerSecond.put(resultCount.getKey(),
+        resultCount.getValue() * 1000.0 / Math.max(1, this.algorithmTime));
+    }
+    return resultsPerSecond;
+  }
+
+}
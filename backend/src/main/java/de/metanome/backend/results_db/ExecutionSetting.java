@@ -38,6 +38,8 @@ public class ExecutionSetting implements Serializable {
   private Boolean cacheResults = false;
   private Boolean writeResults = false;
   private Boolean countResults = false;
+  private Boolean writeResultsAsynchronously = false;
+  private Boolean writeBinaryResults = false;
 
   /**
    * Exists for hibernate serialization
@@ -109,6 +111,24 @@ public class ExecutionSetting implements Serializable {
     return this;
   }
 
+  public Boolean getWriteResultsAsynchronously() {
+    return writeResultsAsynchronously;
+  }
+
+  public ExecutionSetting setWriteResultsAsynchronously(Boolean writeResultsAsynchronously) {
+    this.writeResultsAsynchronously = writeResultsAsynchronously;
+    return this;
+  }
+
+  public Boolean getWriteBinaryResults() {
+    return writeBinaryResults;
+  }
+
+  public ExecutionSetting setWriteBinaryResults(Boolean writeBinaryResults) {
+    this.writeBinaryResults = writeBinaryResults;
+    return this;
+  }
+
   @Id
   @GeneratedValue
   public long getId() {
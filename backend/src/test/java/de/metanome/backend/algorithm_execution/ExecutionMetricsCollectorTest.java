@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+import de.metanome.backend.result_receiver.CountingResultReceiver;
+import de.metanome.backend.result_receiver.ResultCounter;
+import de.metanome.backend.results_db.ExecutionMetrics;
+import de.metanome.backend.results_db.ResultType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ExecutionMetricsCollector}
+ */
+public class ExecutionMetricsCollectorTest {
+
+  /**
+   * Test method for {@link ExecutionMetricsCollector#collect(CountingResultReceiver)}
+   * <p/>
+   * The metrics should contain the phase times and the number of results of each type.
+   */
+  @Test
+  public void testCollect() throws Exception {
+    // Setup
+    CountingResultReceiver resultReceiver =
+      new CountingResultReceiver(new ResultCounter("metrics", true));
+    ColumnIdentifier column = new ColumnIdentifier("table", "column");
+
+    // Execute functionality
+    ExecutionMetricsCollector collector = new ExecutionMetricsCollector();
+    Thread.sleep(20);
+    collector.algorithmStarted();
+    resultReceiver.receiveResult(
+      new FunctionalDependency(new ColumnCombination(column), column));
+    resultReceiver.receiveResult(new UniqueColumnCombination(column));
+    resultReceiver.receiveResult(new UniqueColumnCombination(column));
+    Thread.sleep(20);
+    collector.algorithmFinished();
+    ExecutionMetrics metrics = collector.collect(resultReceiver);
+
+    // Check result
+    assertTrue(metrics.getLoadTime() >= 20);
+    assertTrue(metrics.getAlgorithmTime() >= 20);
+    assertTrue(metrics.getResultEmitTime() <= metrics.getAlgorithmTime());
+    assertTrue(metrics.getGcTime() >= 0);
+    assertTrue(metrics.getGcCount() >= 0);
+    assertTrue(metrics.getPeakHeap() > 0);
+    assertTrue(metrics.getPeakThreadCount() > 0);
+    assertTrue(metrics.getCpuTime() == ExecutionMetrics.UNKNOWN || metrics.getCpuTime() >= 0);
+    assertEquals(2, metrics.getResultCounts().size());
+    assertEquals(Long.valueOf(1), metrics.getResultCounts().get(ResultType.FD.getName()));
+    assertEquals(Long.valueOf(2), metrics.getResultCounts().get(ResultType.UCC.getName()));
+  }
+
+  /**
+   * Test method for {@link ExecutionMetrics#getResultsPerSecond()}
+   */
+  @Test
+  public void testResultsPerSecond() {
+    // Setup
+    ExecutionMetrics metrics = new ExecutionMetrics()
+      .setAlgorithmTime(500);
+    metrics.getResultCounts().put(ResultType.FD.getName(), 100L);
+
+    // Execute functionality
+    Double fdsPerSecond = metrics.getResultsPerSecond().get(ResultType.FD.getName());
+
+    // Check result
+    assertEquals(200.0, fdsPerSecond, 0.001);
+  }
+
+}
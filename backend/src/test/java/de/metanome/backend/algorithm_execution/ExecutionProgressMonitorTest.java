@@ -0,0 +1,178 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import de.metanome.algorithm_integration.AlgorithmExecutionException;
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.algorithm_integration.results.UniqueColumnCombination;
+import de.metanome.backend.input.InputProgress;
+import de.metanome.backend.result_receiver.CountingResultReceiver;
+import de.metanome.backend.result_receiver.ResultCounter;
+import de.metanome.backend.results_db.ResultType;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ExecutionProgressReporter}, {@link ExecutionProgressMonitor} and the progress
+ * of an {@link ExecutionJob}
+ */
+public class ExecutionProgressMonitorTest {
+
+  File progressFile;
+
+  @Before
+  public void setUp() throws Exception {
+    this.progressFile =
+      File.createTempFile("execution", ExecutionProgressReporter.PROGRESS_FILE_ENDING);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    this.progressFile.delete();
+  }
+
+  /**
+   * Test method for {@link ExecutionProgressReporter#report()} and {@link
+   * ExecutionProgressMonitor#poll()}
+   * <p/>
+   * The progress reported by the executor process should be published to the job and its
+   * listeners, only if it changed.
+   */
+  @Test
+  public void testReportAndPoll() throws Exception {
+    // Setup
+    ExecutionJob<String> job = createJob("progress");
+    RecordingListener listener = new RecordingListener();
+    job.addProgressListener(listener);
+
+    ExecutionProgressMonitor monitor = new ExecutionProgressMonitor(job, this.progressFile);
+    ExecutionProgressReporter reporter = new ExecutionProgressReporter("progress",
+      this.progressFile);
+    CountingResultReceiver resultReceiver =
+      new CountingResultReceiver(new ResultCounter("progress", true));
+    reporter.setResultReceiver(resultReceiver);
+
+    // Execute functionality
+    reporter.setPhase(ExecutionProgress.Phase.EXECUTING);
+    InputProgress.addRows(42);
+    ColumnIdentifier column = new ColumnIdentifier("table", "column");
+    resultReceiver.receiveResult(
+      new FunctionalDependency(new ColumnCombination(column), column));
+    resultReceiver.receiveResult(new UniqueColumnCombination(column));
+    resultReceiver.receiveResult(new UniqueColumnCombination(column));
+    reporter.report();
+    ExecutionProgress progress = monitor.poll();
+
+    // Check result
+    assertNotNull(progress);
+    assertSame(progress, job.getProgress());
+    assertEquals("progress", progress.getExecutionIdentifier());
+    assertEquals(ExecutionProgress.Phase.EXECUTING, progress.getPhase());
+    assertEquals(42, progress.getRowsRead());
+    assertEquals(Long.valueOf(1), progress.getResultCounts().get(ResultType.FD));
+    assertEquals(Long.valueOf(2), progress.getResultCounts().get(ResultType.UCC));
+    assertFalse(progress.getResultCounts().containsKey(ResultType.IND));
+    assertTrue(progress.getHeapUsed() > 0);
+    assertNull(progress.getError());
+    // The current and the polled progress
+    assertEquals(2, listener.progresses.size());
+    assertSame(progress, listener.progresses.get(1));
+
+    // Execute functionality
+    // Nothing was reported meanwhile
+    assertNull(monitor.poll());
+
+    reporter.failed(new AlgorithmExecutionException("Algorithm execution failed.",
+      new IllegalArgumentException("wrong parameter")));
+    reporter.close();
+    monitor.close();
+
+    // Check result
+    assertEquals(ExecutionProgress.Phase.FAILED, job.getProgress().getPhase());
+    assertEquals("java.lang.IllegalArgumentException: wrong parameter",
+      job.getProgress().getError());
+    assertFalse(this.progressFile.exists());
+  }
+
+  /**
+   * Test method for {@link ExecutionJob#addProgressListener(ExecutionProgressListener)}
+   * <p/>
+   * Listeners should be notified about the end of the job exactly once, even if they were added
+   * after the job finished.
+   */
+  @Test
+  public void testJobFinished() throws Exception {
+    // Setup
+    ExecutionJob<String> job = createJob("finished");
+    RecordingListener listener = new RecordingListener();
+    job.addProgressListener(listener);
+
+    // Execute functionality
+    job.starting();
+    job.run();
+
+    // Check result
+    assertEquals(1, listener.finished);
+    assertEquals(ExecutionProgress.Phase.FINISHED, job.getProgress().getPhase());
+
+    // Execute functionality
+    RecordingListener lateListener = new RecordingListener();
+    job.addProgressListener(lateListener);
+    job.setPhase(ExecutionProgress.Phase.FINISHED);
+
+    // Check result
+    assertEquals(1, listener.finished);
+    assertEquals(1, lateListener.finished);
+    assertEquals(1, lateListener.progresses.size());
+  }
+
+  protected ExecutionJob<String> createJob(final String identifier) {
+    return new ExecutionJob<>(identifier, 0, 10, new Callable<String>() {
+      @Override
+      public String call() {
+        return identifier;
+      }
+    });
+  }
+
+  protected static class RecordingListener implements ExecutionProgressListener {
+
+    protected List<ExecutionProgress> progresses = new ArrayList<>();
+    protected int finished = 0;
+
+    @Override
+    public void progressChanged(ExecutionJob<?> job, ExecutionProgress progress) {
+      this.progresses.add(progress);
+    }
+
+    @Override
+    public void jobFinished(ExecutionJob<?> job) {
+      this.finished++;
+    }
+  }
+
+}
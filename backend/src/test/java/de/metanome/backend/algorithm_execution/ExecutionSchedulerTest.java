@@ -0,0 +1,257 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ExecutionScheduler}
+ */
+public class ExecutionSchedulerTest {
+
+  /**
+   * Test method for {@link ExecutionScheduler#submit(ExecutionJob)}
+   * <p/>
+   * No more than the maximal number of jobs should run at the same time and queued jobs should be
+   * started by priority and then in the order of submission.
+   */
+  @Test
+  public void testSubmitByPriority() throws Exception {
+    // Setup
+    ExecutionScheduler scheduler = new ExecutionScheduler(1, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+
+    ExecutionJob<String> blocking = createJob("blocking", 0, 10, release, started);
+    ExecutionJob<String> low = createJob("low", 0, 10, null, started);
+    ExecutionJob<String> high1 = createJob("high1", 5, 10, null, started);
+    ExecutionJob<String> high2 = createJob("high2", 5, 10, null, started);
+
+    // Execute functionality
+    scheduler.submit(blocking);
+    scheduler.submit(low);
+    scheduler.submit(high1);
+    scheduler.submit(high2);
+
+    // Check result
+    assertEquals(1, scheduler.getRunning());
+    assertEquals(3, scheduler.getQueueLength());
+    assertTrue(low.isQueued());
+
+    // Execute functionality
+    release.countDown();
+    low.get(5, TimeUnit.SECONDS);
+
+    // Check result
+    assertEquals("blocking", started.get(0));
+    assertEquals("high1", started.get(1));
+    assertEquals("high2", started.get(2));
+    assertEquals("low", started.get(3));
+    assertEquals(ExecutionJob.State.FINISHED, blocking.getState());
+    assertEquals(ExecutionJob.State.FINISHED, low.getState());
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#submit(ExecutionJob)}
+   * <p/>
+   * A job should only be started, if its memory fits into the budget, unless nothing else is
+   * running.
+   */
+  @Test
+  public void testSubmitWithinMemoryBudget() throws Exception {
+    // Setup
+    ExecutionScheduler scheduler = new ExecutionScheduler(4, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+
+    ExecutionJob<String> big = createJob("big", 0, 1500, release, started);
+    ExecutionJob<String> small = createJob("small", 0, 100, null, started);
+
+    // Execute functionality
+    scheduler.submit(big);
+    scheduler.submit(small);
+
+    // Check result
+    // The big job exceeds the budget, but nothing else was running
+    assertEquals(1, scheduler.getRunning());
+    assertTrue(small.isQueued());
+
+    // Execute functionality
+    release.countDown();
+    small.get(5, TimeUnit.SECONDS);
+
+    // Check result
+    assertEquals("small", started.get(1));
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#cancel(String)}
+   * <p/>
+   * A queued job should be removed from the queue and must not be started anymore.
+   */
+  @Test
+  public void testCancelQueuedJob() throws Exception {
+    // Setup
+    ExecutionScheduler scheduler = new ExecutionScheduler(1, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+
+    ExecutionJob<String> blocking = createJob("blocking cancel", 0, 10, release, started);
+    ExecutionJob<String> queued = createJob("queued cancel", 0, 10, null, started);
+    scheduler.submit(blocking);
+    scheduler.submit(queued);
+
+    // Execute functionality
+    // Check result
+    assertTrue(scheduler.cancel("queued cancel"));
+    assertFalse(scheduler.cancel("unknown"));
+    assertEquals(0, scheduler.getQueueLength());
+    assertEquals(ExecutionJob.State.CANCELED, queued.getState());
+    assertTrue(queued.isCancelled());
+
+    release.countDown();
+    blocking.get(5, TimeUnit.SECONDS);
+    assertEquals(1, started.size());
+    assertSame(queued, scheduler.getJob("queued cancel"));
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#cancel(String)}
+   * <p/>
+   * A running job, which did not register its process yet, should be requested to stop.
+   */
+  @Test
+  public void testCancelStartingJob() throws Exception {
+    // Setup
+    ExecutionScheduler scheduler = new ExecutionScheduler(1, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+    ExecutionJob<String> running = createJob("starting cancel", 0, 10, release, started);
+    scheduler.submit(running);
+
+    // Execute functionality
+    // Check result
+    assertFalse(running.isCancelRequested());
+    assertTrue(scheduler.cancel("starting cancel"));
+    assertTrue(running.isCancelRequested());
+
+    release.countDown();
+    running.get(5, TimeUnit.SECONDS);
+    assertFalse(scheduler.cancel("starting cancel"));
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#submit(ExecutionJob)}
+   * <p/>
+   * An identifier should not be scheduled twice, while its execution is unfinished.
+   */
+  @Test
+  public void testSubmitDuplicateIdentifier() throws Exception {
+    // Setup
+    ExecutionScheduler scheduler = new ExecutionScheduler(1, 1000);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+    ExecutionJob<String> job = createJob("duplicate", 0, 10, release, started);
+    scheduler.submit(job);
+
+    // Execute functionality
+    try {
+      scheduler.submit(createJob("duplicate", 0, 10, null, started));
+      fail("Exception should have been thrown.");
+    } catch (IllegalStateException e) {
+      // Intentionally left blank
+    }
+
+    // Check result
+    release.countDown();
+    assertEquals("duplicate", job.get(5, TimeUnit.SECONDS));
+    // A finished identifier may be executed again
+    assertEquals("duplicate",
+      scheduler.submit(createJob("duplicate", 0, 10, null, started)).get(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#refillWorkerPool(String)}
+   * <p/>
+   * The idle workers should be pre-forked only within the memory budget and give way to a job,
+   * which does not fit besides them.
+   */
+  @Test
+  public void testIdleWorkersWithinBudget() throws Exception {
+    // Setup
+    ExecutorWorkerPoolTest.FakeWorkerPool pool = new ExecutorWorkerPoolTest.FakeWorkerPool(5);
+    ExecutionScheduler scheduler = new ExecutionScheduler(2, 1000, pool);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> started = Collections.synchronizedList(new ArrayList<String>());
+    ExecutionJob<String> large = createJob("large refill", 0, 600, release, started);
+    ExecutionJob<String> small = createJob("small refill", 0, 300, release, started);
+    scheduler.submit(large);
+
+    // Execute functionality
+    // Check result
+    assertNull(scheduler.refillWorkerPool("600"));
+    assertTrue(scheduler.refillWorkerPool("300").get(5, TimeUnit.SECONDS));
+    assertEquals(300, pool.getIdleMemory());
+    // There are enough idle workers with this memory setting
+    assertNull(scheduler.refillWorkerPool("300"));
+
+    scheduler.submit(small);
+    assertEquals(0, pool.getIdleMemory());
+    assertNull(scheduler.refillWorkerPool("200"));
+
+    release.countDown();
+    large.get(5, TimeUnit.SECONDS);
+    small.get(5, TimeUnit.SECONDS);
+    assertEquals(2, started.size());
+  }
+
+  /**
+   * Test method for {@link ExecutionScheduler#parseMemory(String)}
+   */
+  @Test
+  public void testParseMemory() {
+    // Execute functionality
+    // Check result
+    assertEquals(1024, ExecutionScheduler.parseMemory("1024"));
+    assertEquals(ExecutionScheduler.getPhysicalMemory() / 4, ExecutionScheduler.parseMemory(""));
+    assertEquals(ExecutionScheduler.getPhysicalMemory() / 4, ExecutionScheduler.parseMemory(null));
+  }
+
+  protected ExecutionJob<String> createJob(final String identifier, int priority, long memory,
+                                           final CountDownLatch release,
+                                           final List<String> started) {
+    return new ExecutionJob<>(identifier, priority, memory, new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        started.add(identifier);
+        if (release != null) {
+          release.await(5, TimeUnit.SECONDS);
+        }
+        return identifier;
+      }
+    });
+  }
+
+}
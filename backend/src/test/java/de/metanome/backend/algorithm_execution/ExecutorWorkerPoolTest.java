@@ -0,0 +1,376 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_execution;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link ExecutorWorkerPool} and {@link ExecutorWorker}
+ */
+public class ExecutorWorkerPoolTest {
+
+  /**
+   * Test method for {@link ExecutorWorker#getOutput()} and {@link ExecutorWorker#getExitValue()}
+   * <p/>
+   * The output of an execution should end at the finished line of the worker, which carries the
+   * exit status.
+   */
+  @Test
+  public void testWorkerOutput() throws Exception {
+    // Setup
+    FakeProcess process = new FakeProcess(
+      "output1\n" + AlgorithmExecutionWorker.EXECUTION_FINISHED + "0\n",
+      "output2\n" + AlgorithmExecutionWorker.EXECUTION_FINISHED + "1\n");
+    ExecutorWorker worker = new ExecutorWorker(process, "");
+
+    // Execute functionality
+    // Check result
+    worker.execute(1, "execution 1");
+    BufferedReader output = worker.getOutput();
+    assertEquals("output1", output.readLine());
+    assertNull(output.readLine());
+    assertNull(output.readLine());
+    assertEquals(0, worker.getExitValue());
+    assertTrue(worker.isReusable(2));
+
+    worker.execute(2, "execution2");
+    assertEquals("output2", output.readLine());
+    assertNull(output.readLine());
+    assertEquals(1, worker.getExitValue());
+    assertFalse(worker.isReusable(5));
+
+    assertEquals("1 execution 1\n2 execution2\n", process.input.toString());
+  }
+
+  /**
+   * Test method for {@link ExecutorWorkerPool#acquire(String)} and {@link
+   * ExecutorWorkerPool#release(ExecutorWorker)}
+   * <p/>
+   * Workers should be reused per memory setting, until they failed or reached the maximal number
+   * of runs.
+   */
+  @Test
+  public void testAcquireAndRelease() throws Exception {
+    // Setup
+    String finished = AlgorithmExecutionWorker.EXECUTION_FINISHED;
+    FakeWorkerPool pool = new FakeWorkerPool(2,
+      new String[]{finished + "0\n", finished + "0\n"},
+      new String[]{finished + "1\n"});
+
+    // Execute functionality
+    ExecutorWorker worker1 = pool.acquire("");
+    assertTrue(pool.refill("").get(5, TimeUnit.SECONDS));
+
+    // Check result
+    assertEquals(1, pool.getIdleWorkers("").size());
+    assertEquals(2, pool.started);
+    // The pool is full
+    assertNull(pool.refill(""));
+
+    // Execute functionality
+    worker1.execute(1, "execution1");
+    assertNull(worker1.getOutput().readLine());
+    pool.release(worker1);
+
+    // Check result
+    assertEquals(2, pool.getIdleWorkers("").size());
+    // The used worker is preferred and no worker is forked
+    assertSame(worker1, pool.acquire(""));
+    ExecutorWorker worker2 = pool.getIdleWorkers("").peekFirst();
+    assertEquals(2, pool.started);
+
+    // Execute functionality
+    worker1.execute(2, "execution2");
+    assertNull(worker1.getOutput().readLine());
+    pool.release(worker1);
+
+    // Check result
+    // The worker reached the maximal number of runs
+    assertTrue(((FakeProcess) worker1.getProcess()).destroyed);
+    assertSame(worker2, pool.acquire(""));
+    assertTrue(pool.refill("").get(5, TimeUnit.SECONDS));
+    assertEquals(3, pool.started);
+
+    // Execute functionality
+    worker2.execute(3, "execution3");
+    assertNull(worker2.getOutput().readLine());
+    pool.release(worker2);
+
+    // Check result
+    // The execution failed
+    assertTrue(((FakeProcess) worker2.getProcess()).destroyed);
+    assertEquals(1, pool.getIdleWorkers("").size());
+    assertTrue(pool.getIdleWorkers("1024").isEmpty());
+
+    // Execute functionality
+    pool.shutdown();
+
+    // Check result
+    assertTrue(pool.getIdleWorkers("").isEmpty());
+  }
+
+  /**
+   * Test method for {@link ExecutorWorker#setIdle(boolean)}
+   * <p/>
+   * The output of an idle worker should be dropped, so that the worker never blocks on a full
+   * pipe, and should not show up in the output of the next execution.
+   */
+  @Test
+  public void testIdleWorkerOutput() throws Exception {
+    // Setup
+    FakeProcess process = new FakeProcess(
+      "output1\n" + AlgorithmExecutionWorker.EXECUTION_FINISHED + "0\n");
+    ExecutorWorker worker = new ExecutorWorker(process, "");
+
+    // Execute functionality
+    worker.setIdle(true);
+    process.emit("warm up\n");
+    for (int i = 0; i < 100 && worker.getDroppedLines() == 0; i++) {
+      Thread.sleep(10);
+    }
+    worker.setIdle(false);
+    worker.execute(1, "execution1");
+
+    // Check result
+    assertEquals(1, worker.getDroppedLines());
+    assertEquals("output1", worker.getOutput().readLine());
+    assertNull(worker.getOutput().readLine());
+    assertEquals(0, worker.getExitValue());
+  }
+
+  /**
+   * Test method for {@link ExecutorWorkerPool#pruneIdleWorkers()} and {@link
+   * ExecutorWorkerPool#getIdleMemory()}
+   * <p/>
+   * The longest idle workers exceeding the maximal number of idle workers and the timed out idle
+   * workers should be killed.
+   */
+  @Test
+  public void testPruneIdleWorkers() throws Exception {
+    // Setup
+    FakeWorkerPool pool = new FakeWorkerPool(5);
+    pool.maxIdleWorkers = 2;
+
+    // Execute functionality
+    pool.refill("1").get(5, TimeUnit.SECONDS);
+    Thread.sleep(5);
+    pool.refill("2").get(5, TimeUnit.SECONDS);
+    Thread.sleep(5);
+    pool.refill("3").get(5, TimeUnit.SECONDS);
+
+    // Check result
+    assertEquals(5, pool.getIdleMemory());
+    assertFalse(pool.idle.containsKey("1"));
+
+    // Execute functionality
+    pool.idleTimeout = 0;
+    synchronized (pool) {
+      pool.pruneIdleWorkers();
+    }
+
+    // Check result
+    assertTrue(pool.idle.isEmpty());
+    assertEquals(0, pool.getIdleMemory());
+  }
+
+  /**
+   * Test method for {@link ExecutorWorkerPool#refill(String)}
+   * <p/>
+   * A starting worker should count as idle memory and be killed, if the idle workers were killed
+   * while it started.
+   */
+  @Test
+  public void testRefillInBackground() throws Exception {
+    // Setup
+    FakeWorkerPool pool = new FakeWorkerPool(5);
+    pool.startLatch = new CountDownLatch(1);
+
+    // Execute functionality
+    Future<Boolean> refill = pool.refill("300");
+
+    // Check result
+    assertFalse(refill.isDone());
+    assertEquals(300, pool.getIdleMemory());
+    assertNull(pool.refill("300"));
+
+    // Execute functionality
+    pool.shutdown();
+    pool.startLatch.countDown();
+
+    // Check result
+    assertFalse(refill.get(5, TimeUnit.SECONDS));
+    assertEquals(1, pool.started);
+    assertEquals(0, pool.getIdleMemory());
+    assertTrue(pool.idle.isEmpty());
+
+    // Execute functionality
+    pool.startLatch = new CountDownLatch(1);
+    refill = pool.refill("300");
+    Future<Boolean> cancelledRefill = pool.refill("400");
+    cancelledRefill.cancel(false);
+    pool.startLatch.countDown();
+
+    // Check result
+    assertTrue(refill.get(5, TimeUnit.SECONDS));
+    assertEquals(300, pool.getIdleMemory());
+    assertEquals(2, pool.started);
+  }
+
+  protected static class FakeWorkerPool extends ExecutorWorkerPool {
+
+    protected String[][] outputs;
+    protected int started = 0;
+    // Blocks the start of the workers, if set
+    protected volatile CountDownLatch startLatch = null;
+
+    protected FakeWorkerPool(int maxRunsPerWorker, String[]... outputs) {
+      super(1, maxRunsPerWorker, DEFAULT_MAX_IDLE_WORKERS, DEFAULT_IDLE_TIMEOUT);
+      this.outputs = outputs;
+    }
+
+    @Override
+    protected ExecutorWorker startWorker(String memory) {
+      if (this.startLatch != null) {
+        try {
+          this.startLatch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          // The worker starts right away
+        }
+      }
+      String[] output =
+        this.started < this.outputs.length ? this.outputs[this.started] : new String[0];
+      this.started++;
+      return new ExecutorWorker(new FakeProcess(output), memory);
+    }
+  }
+
+  /**
+   * Writes the given output of an execution, once the execution was sent to the process.
+   */
+  protected static class FakeProcess extends Process {
+
+    protected ByteArrayOutputStream input = new ByteArrayOutputStream() {
+      @Override
+      public synchronized void write(int b) {
+        super.write(b);
+        if (b == '\n') {
+          executionReceived();
+        }
+      }
+
+      @Override
+      public synchronized void write(byte[] b, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+          this.write(b[i]);
+        }
+      }
+    };
+    protected final BlockingQueue<Integer> output = new LinkedBlockingQueue<>();
+    protected String[] executionOutputs;
+    protected int executions = 0;
+    protected boolean destroyed = false;
+
+    protected FakeProcess(String... executionOutputs) {
+      this.executionOutputs = executionOutputs;
+    }
+
+    protected void executionReceived() {
+      if (this.executions < this.executionOutputs.length) {
+        this.emit(this.executionOutputs[this.executions]);
+      }
+      this.executions++;
+    }
+
+    protected void emit(String text) {
+      for (byte b : text.getBytes()) {
+        this.output.add(b & 0xff);
+      }
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return this.input;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new InputStream() {
+        @Override
+        public int read() {
+          try {
+            return output.take();
+          } catch (InterruptedException e) {
+            return -1;
+          }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          // Blocks only for the first byte like the output of a process
+          int read = 0;
+          do {
+            int next = this.read();
+            if (next == -1) {
+              return read == 0 ? -1 : read;
+            }
+            b[off + read++] = (byte) next;
+          } while (read < len && !output.isEmpty());
+          return read;
+        }
+      };
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public int waitFor() {
+      return this.exitValue();
+    }
+
+    @Override
+    public int exitValue() {
+      if (!this.destroyed) {
+        throw new IllegalThreadStateException();
+      }
+      return 1;
+    }
+
+    @Override
+    public void destroy() {
+      if (!this.destroyed) {
+        this.output.add(-1);
+      }
+      this.destroyed = true;
+    }
+  }
+
+}
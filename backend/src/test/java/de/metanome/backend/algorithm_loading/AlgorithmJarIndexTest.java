@@ -0,0 +1,198 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.algorithm_loading;
+
+import de.metanome.algorithm_integration.algorithm_types.UniqueColumnCombinationsAlgorithm;
+import de.metanome.algorithm_integration.configuration.ConfigurationRequirementInteger;
+import de.metanome.algorithms.testing.example_ucc_algorithm.ExampleAlgorithm;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test for {@link AlgorithmJarIndex}
+ */
+public class AlgorithmJarIndexTest {
+
+  File directory;
+
+  @Before
+  public void setUp() throws Exception {
+    this.directory = Files.createTempDirectory("algorithms").toFile();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(this.directory);
+  }
+
+  /**
+   * Test method for {@link AlgorithmJarIndex#getMetadata(java.io.File)}
+   * <p/>
+   * The metadata of a jar should be analyzed once and read from the index file afterwards.
+   */
+  @Test
+  public void testGetMetadata() throws Exception {
+    // Setup
+    File jarFile = createJar("example_ucc_algorithm.jar", ExampleAlgorithm.class.getName());
+    AlgorithmJarIndex index = new AlgorithmJarIndex(indexFile());
+
+    // Execute functionality
+    AlgorithmJarMetadata metadata = index.getMetadata(jarFile);
+
+    // Check result
+    assertEquals(ExampleAlgorithm.class.getName(), metadata.getBootstrapClassName());
+    assertTrue(metadata.getInterfaceNames()
+      .contains(UniqueColumnCombinationsAlgorithm.class.getName()));
+    assertEquals(ExampleAlgorithm.AUTHORS, metadata.getAuthors());
+    assertEquals(ExampleAlgorithm.DESCRIPTION, metadata.getDescription());
+    assertEquals(3, metadata.getConfigurationRequirements().size());
+    assertSame(metadata, index.getMetadata(jarFile));
+    assertTrue(index.getInterfaces(jarFile, metadata)
+      .contains(UniqueColumnCombinationsAlgorithm.class));
+    assertTrue(indexFile().exists());
+
+    // Execute functionality
+    // A restarted backend reads the index file
+    AlgorithmJarMetadata readMetadata = new AlgorithmJarIndex(indexFile())
+      .getIndexedMetadata(jarFile);
+
+    // Check result
+    assertNotNull(readMetadata);
+    assertEquals(metadata.getInterfaceNames(), readMetadata.getInterfaceNames());
+    assertEquals(ExampleAlgorithm.AUTHORS, readMetadata.getAuthors());
+    assertEquals(3, readMetadata.getConfigurationRequirements().size());
+    assertTrue(readMetadata.getConfigurationRequirements().get(2)
+      instanceof ConfigurationRequirementInteger);
+    assertEquals(ExampleAlgorithm.INTEGER_IDENTIFIER,
+      readMetadata.getConfigurationRequirements().get(2).getIdentifier());
+  }
+
+  /**
+   * Test method for {@link AlgorithmJarIndex#refresh(java.io.File[])}
+   * <p/>
+   * Changed jars should be analyzed again and removed jars should be dropped from the index. A jar
+   * without a loadable bootstrap class should not fail the refresh.
+   */
+  @Test
+  public void testRefresh() throws Exception {
+    // Setup
+    File jarFile = createJar("example_ucc_algorithm.jar", ExampleAlgorithm.class.getName());
+    File wrongJarFile = createJar("wrong_bootstrap.jar", "de.metanome.NotExisting");
+    AlgorithmJarIndex index = new AlgorithmJarIndex(indexFile());
+
+    // Execute functionality
+    List<AlgorithmJarMetadata> metadata = index.refresh(new File[]{jarFile, wrongJarFile});
+
+    // Check result
+    assertEquals(2, metadata.size());
+    assertFalse(metadata.get(0).getInterfaceNames().isEmpty());
+    assertTrue(metadata.get(1).getInterfaceNames().isEmpty());
+    assertNull(metadata.get(1).getConfigurationRequirements());
+
+    // Execute functionality
+    AlgorithmJarMetadata unchanged = metadata.get(0);
+    assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000));
+    metadata = index.refresh(new File[]{jarFile});
+
+    // Check result
+    assertEquals(1, metadata.size());
+    assertNotSame(unchanged, metadata.get(0));
+    assertEquals(jarFile.lastModified(), metadata.get(0).getLastModified());
+    assertNull(index.getIndexedMetadata(wrongJarFile));
+    assertNull(new AlgorithmJarIndex(indexFile()).getIndexedMetadata(wrongJarFile));
+  }
+
+  /**
+   * Test method for {@link AlgorithmJarIndex#getMetadata(java.io.File)} and {@link
+   * AlgorithmJarIndex#refresh(java.io.File[])}
+   * <p/>
+   * An index file, which cannot be written, should not fail the analysis of the jars.
+   */
+  @Test
+  public void testUnwritableIndex() throws Exception {
+    // Setup
+    File jarFile = createJar("example_ucc_algorithm.jar", ExampleAlgorithm.class.getName());
+    File indexFile =
+      new File(new File(this.directory, "missing"), AlgorithmJarIndex.INDEX_FILE_NAME);
+    AlgorithmJarIndex index = new AlgorithmJarIndex(indexFile);
+
+    // Execute functionality
+    AlgorithmJarMetadata metadata = index.getMetadata(jarFile);
+    assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000));
+    List<AlgorithmJarMetadata> refreshedMetadata = index.refresh(new File[]{jarFile});
+
+    // Check result
+    assertEquals(ExampleAlgorithm.class.getName(), metadata.getBootstrapClassName());
+    assertEquals(1, refreshedMetadata.size());
+    assertEquals(ExampleAlgorithm.AUTHORS, refreshedMetadata.get(0).getAuthors());
+    assertFalse(indexFile.exists());
+  }
+
+  /**
+   * Test method for {@link AlgorithmJarIndex#getClassLoader(java.io.File)}
+   * <p/>
+   * The class loader of a jar should be reused until the jar changes.
+   */
+  @Test
+  public void testGetClassLoader() throws Exception {
+    // Setup
+    File jarFile = createJar("example_ucc_algorithm.jar", ExampleAlgorithm.class.getName());
+    AlgorithmJarIndex index = new AlgorithmJarIndex(indexFile());
+
+    // Execute functionality
+    ClassLoader loader = index.getClassLoader(jarFile);
+
+    // Check result
+    assertSame(loader, index.getClassLoader(jarFile));
+
+    // Execute functionality
+    assertTrue(jarFile.setLastModified(jarFile.lastModified() - 10000));
+
+    // Check result
+    assertNotSame(loader, index.getClassLoader(jarFile));
+  }
+
+  protected File indexFile() {
+    return new File(this.directory, AlgorithmJarIndex.INDEX_FILE_NAME);
+  }
+
+  protected File createJar(String fileName, String bootstrapClassName) throws IOException {
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().putValue(AlgorithmJarIndex.bootstrapClassTagName,
+      bootstrapClassName);
+
+    File jarFile = new File(this.directory, fileName);
+    JarOutputStream jar = new JarOutputStream(new FileOutputStream(jarFile), manifest);
+    jar.close();
+    return jarFile;
+  }
+
+}
@@ -16,6 +16,7 @@
 package de.metanome.backend.input.database;
 
 import com.google.common.collect.ImmutableList;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputIterationException;
 import org.junit.After;
 import org.junit.Before;
@@ -27,6 +28,8 @@ import java.sql.Statement;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -121,6 +124,35 @@ public class ResultSetIteratorTest {
     verify(resultSet, times(2)).next();
   }
 
+  /**
+   * Test method for {@link ResultSetIterator#nextBatch(int)}
+   * <p/>
+   * The batch should contain the rows of the result set, respect a previous call to hasNext and
+   * not advance the result set again after its end was reached.
+   */
+  @Test
+  public void testNextBatch() throws SQLException, InputIterationException {
+    // Setup
+    ResultSet resultSet = twoLinesResultSetFixture.getTestData();
+    ResultSetIterator resultSetIterator = new ResultSetIterator(resultSet);
+    List<ImmutableList<String>> expectedRecords = twoLinesResultSetFixture.getExpectedRecords();
+
+    // Execute functionality
+    assertTrue(resultSetIterator.hasNext());
+    ColumnBatch batch = resultSetIterator.nextBatch(10);
+
+    // Check result
+    assertEquals(twoLinesResultSetFixture.numberOfRows(), batch.size());
+    for (int row = 0; row < twoLinesResultSetFixture.numberOfRows(); row++) {
+      for (int column = 0; column < twoLinesResultSetFixture.numberOfColumns(); column++) {
+        assertEquals(expectedRecords.get(row).get(column), batch.getValue(row, column));
+      }
+    }
+    assertFalse(resultSetIterator.hasNext());
+    assertTrue(resultSetIterator.nextBatch(10).isEmpty());
+    verify(resultSet, times(3)).next();
+  }
+
   /**
    * Test method for {@link ResultSetIterator#numberOfColumns()} <p/> A {@link ResultSetIterator}
    * should return the correct number of columns of the result.
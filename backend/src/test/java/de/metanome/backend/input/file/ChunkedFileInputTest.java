@@ -0,0 +1,164 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link ChunkedFileInput}
+ */
+public class ChunkedFileInputTest {
+
+  protected String csvData;
+  protected File file;
+  protected ConfigurationSettingFileInput setting;
+  protected List<List<String>> expectedLines;
+
+  @Before
+  public void setUp() throws Exception {
+    // quoted values with line breaks and quotes make most naive split points invalid
+    StringBuilder data = new StringBuilder("\"one\",\"two\",\"three\"\n");
+    for (int i = 0; i < 200; i++) {
+      data.append(i).append(",\"multi\nline ").append(i).append("\",\"\"\"quoted\"\", \\\" ")
+        .append(i % 7).append("\"\n");
+      if (i % 50 == 0) {
+        data.append("short,line\n");
+      }
+    }
+    this.csvData = data.toString();
+    this.file = new FileFixture(csvData).getTestData("chunked.csv");
+    this.setting = new ConfigurationSettingFileInput("some relation")
+      .setSkipDifferingLines(true);
+
+    this.expectedLines = new ArrayList<>();
+    FileIterator expectedIterator =
+      new FileIterator("some relation", new StringReader(csvData), setting);
+    while (expectedIterator.hasNext()) {
+      this.expectedLines.add(expectedIterator.next());
+    }
+  }
+
+  /**
+   * Test method for {@link ChunkedFileInput#next()}
+   * <p/>
+   * The ordered iteration should return the same lines as the {@link FileIterator} independent of
+   * the number of chunks.
+   */
+  @Test
+  public void testNextEqualsFileIterator() throws InputIterationException {
+    for (int numberOfChunks = 1; numberOfChunks <= 16; numberOfChunks++) {
+      // Execute functionality
+      ChunkedFileInput input =
+        new ChunkedFileInput(file, setting, Charset.defaultCharset(), 3, numberOfChunks)
+          .setBatchSize(7);
+      List<List<String>> actualLines = new ArrayList<>();
+      while (input.hasNext()) {
+        actualLines.add(input.next());
+      }
+      input.close();
+
+      // Check result
+      assertEquals(expectedLines, actualLines);
+      assertEquals(4, input.getNumberOfSkippedDifferingLines());
+      assertEquals(3, input.numberOfColumns());
+    }
+  }
+
+  /**
+   * Test method for {@link ChunkedFileInput#parse(ChunkedFileInput.BatchHandler)}
+   * <p/>
+   * The batches of all chunks should contain all lines. The returned line counts should allow to
+   * restore the order.
+   */
+  @Test
+  public void testParse() throws InputIterationException {
+    // Setup
+    ChunkedFileInput input = new ChunkedFileInput(file, setting, Charset.defaultCharset(), 4, 8)
+      .setBatchSize(10);
+    final SortedMap<Long, List<String>> linesByNumber = new TreeMap<>();
+    final List<List<List<String>>> batchesByChunk = new ArrayList<>();
+    for (int chunk = 0; chunk < input.getNumberOfChunks(); chunk++) {
+      batchesByChunk.add(new ArrayList<List<String>>());
+    }
+
+    // Execute functionality
+    long[] lineCounts = input.parse(new ChunkedFileInput.BatchHandler() {
+      @Override
+      public void handle(int chunk, long firstLine, List<List<String>> lines) {
+        synchronized (batchesByChunk) {
+          List<List<String>> chunkLines = batchesByChunk.get(chunk);
+          assertEquals(firstLine, chunkLines.size());
+          chunkLines.addAll(lines);
+        }
+      }
+    });
+    input.close();
+
+    // Check result
+    assertTrue(input.getNumberOfChunks() > 1);
+    long firstLineOfChunk = 0;
+    for (int chunk = 0; chunk < lineCounts.length; chunk++) {
+      List<List<String>> chunkLines = batchesByChunk.get(chunk);
+      assertEquals(lineCounts[chunk], chunkLines.size());
+      for (int i = 0; i < chunkLines.size(); i++) {
+        linesByNumber.put(firstLineOfChunk + i, chunkLines.get(i));
+      }
+      firstLineOfChunk += lineCounts[chunk];
+    }
+    assertEquals(expectedLines, new ArrayList<>(linesByNumber.values()));
+  }
+
+  /**
+   * Test method for {@link ChunkedFileInput#next()}
+   * <p/>
+   * Lines with a differing number of columns should fail the iteration, if they are not skipped.
+   */
+  @Test
+  public void testDifferingLineFails() throws InputIterationException {
+    // Setup
+    setting.setSkipDifferingLines(false);
+    ChunkedFileInput input = new ChunkedFileInput(file, setting, Charset.defaultCharset(), 2, 4);
+
+    // Execute functionality
+    // Check result
+    try {
+      while (input.hasNext()) {
+        input.next();
+      }
+      fail("Expected an InputIterationException to be thrown.");
+    } catch (InputIterationException e) {
+      // Intentionally left blank
+    } finally {
+      input.close();
+    }
+  }
+
+}
@@ -27,6 +27,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests for {@link DefaultFileInputGenerator}
@@ -135,6 +136,48 @@ public class DefaultFileInputGeneratorTest {
     assertEquals(csvFileFixture.expectedSecondLine(), csv2.next());
   }
 
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateNewCopy()}
+   * <p/>
+   * A memory-mapped generator should generate {@link MappedFileIterator}s with the same lines.
+   */
+  @Test
+  public void testGenerateNewMappedCopy() throws InputGenerationException, InputIterationException {
+    // Setup
+    generator.setMemoryMapped(true);
+
+    // Execute functionality
+    RelationalInput fileInput = generator.generateNewCopy();
+
+    // Check result
+    assertTrue(fileInput instanceof MappedFileIterator);
+    assertEquals(csvFileFixture.expectedHeader(), fileInput.columnNames());
+    assertEquals(csvFileFixture.expectedFirstLine(), fileInput.next());
+    assertEquals(csvFileFixture.expectedSecondLine(), fileInput.next());
+  }
+
+  /**
+   * Test method for {@link DefaultFileInputGenerator#generateNewCopy()}
+   * <p/>
+   * A generator with a parallelism above one should generate {@link ChunkedFileInput}s with the
+   * same lines.
+   */
+  @Test
+  public void testGenerateNewChunkedCopy() throws Exception {
+    // Setup
+    generator.setParallelism(2);
+
+    // Execute functionality
+    RelationalInput fileInput = generator.generateNewCopy();
+
+    // Check result
+    assertTrue(fileInput instanceof ChunkedFileInput);
+    assertEquals(csvFileFixture.expectedHeader(), fileInput.columnNames());
+    assertEquals(csvFileFixture.expectedFirstLine(), fileInput.next());
+    assertEquals(csvFileFixture.expectedSecondLine(), fileInput.next());
+    fileInput.close();
+  }
+
   /**
    * Test method for {@link DefaultFileInputGenerator#getInputFile()}
    */
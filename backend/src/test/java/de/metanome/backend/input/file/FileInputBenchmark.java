@@ -0,0 +1,112 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.RelationalInput;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the read throughput of the {@link FileIterator}, the {@link MappedFileIterator} and the
+ * {@link ChunkedFileInput}. The benchmark is not run as part of the tests. Usage:
+ * FileInputBenchmark [size in MB] [file], the file is generated with the given size, if it does
+ * not exist. Run it with a file of several GB to see the effect of the mapped windows.
+ */
+public class FileInputBenchmark {
+
+  protected static final int COLUMNS = 10;
+  protected static final int RUNS = 3;
+
+  public static void main(String[] args) throws Exception {
+    long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+    File file = args.length > 1 ? new File(args[1]) : new File(
+      System.getProperty("java.io.tmpdir"), "metanome_benchmark_" + megabytes + "mb.csv");
+    if (!file.exists()) {
+      System.out.println("Generating " + file + " ...");
+      generateFile(file, megabytes * 1024 * 1024);
+    }
+
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput(file.getPath());
+    for (int run = 0; run < RUNS; run++) {
+      long start = System.nanoTime();
+      long values = readAll(new FileIterator(file.getName(), new FileReader(file), setting));
+      report("FileIterator", file, values, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      values = readAll(new MappedFileIterator(file.getName(), file, setting));
+      report("MappedFileIterator", file, values, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      values = readAll(new ChunkedFileInput(file, setting, Charset.defaultCharset(),
+        Runtime.getRuntime().availableProcessors()));
+      report("ChunkedFileInput", file, values, System.nanoTime() - start);
+    }
+  }
+
+  protected static void generateFile(File file, long bytes) throws IOException {
+    Random random = new Random(42);
+    long written = 0;
+    try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+      StringBuilder line = new StringBuilder();
+      for (int column = 0; column < COLUMNS; column++) {
+        line.append(column == 0 ? "" : ",").append("column").append(column);
+      }
+      while (written < bytes) {
+        writer.write(line.append('\n').toString());
+        written += line.length();
+
+        line.setLength(0);
+        for (int column = 0; column < COLUMNS; column++) {
+          if (column > 0) {
+            line.append(',');
+          }
+          // a mix of plain, quoted and empty values
+          int value = random.nextInt(100000);
+          if (column % 3 == 1) {
+            line.append("\"value ").append(value).append(", quoted\"");
+          } else if (column % 3 == 2 && value % 10 != 0) {
+            line.append(value);
+          }
+        }
+      }
+    }
+  }
+
+  protected static long readAll(RelationalInput iterator) throws Exception {
+    long values = 0;
+    while (iterator.hasNext()) {
+      List<String> line = iterator.next();
+      values += line.size();
+    }
+    iterator.close();
+    return values;
+  }
+
+  protected static void report(String name, File file, long values, long nanos) {
+    double seconds = nanos / 1e9;
+    System.out.printf("%-20s %,d values in %.2f s (%.1f MB/s)%n", name, values, seconds,
+      file.length() / 1024.0 / 1024.0 / seconds);
+  }
+
+}
@@ -16,8 +16,10 @@
 package de.metanome.backend.input.file;
 
 import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.ColumnBatch;
 import de.metanome.algorithm_integration.input.InputGenerationException;
 import de.metanome.algorithm_integration.input.InputIterationException;
+import de.metanome.backend.input.InputProgress;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -104,6 +106,57 @@ public class FileIteratorTest {
     assertEquals(2, csvFileThroughErrors.getNumberOfSkippedDifferingLines());
   }
 
+  /**
+   * Test method for {@link FileIterator#nextBatch(int)}
+   * <p/>
+   * Batches should return the same lines as next, skip differing lines and can be mixed with next.
+   */
+  @Test
+  public void testNextBatch() throws InputGenerationException, InputIterationException {
+    // Setup
+    CsvFileShortLineFixture shortLineFixture = new CsvFileShortLineFixture();
+    FileIterator csvFileThroughErrors = shortLineFixture.getTestData(true);
+
+    // Execute functionality
+    ColumnBatch firstBatch = csvFileThroughErrors.nextBatch(1);
+
+    // Check result
+    assertEquals(1, firstBatch.size());
+    assertEquals(3, firstBatch.numberOfColumns());
+    assertEquals("one", firstBatch.getValue(0, 0));
+    assertEquals("three", firstBatch.getValue(0, 2));
+
+    // Execute functionality
+    ColumnBatch secondBatch = csvFileThroughErrors.nextBatch(10);
+
+    // Check result
+    assertEquals(1, secondBatch.size());
+    assertArrayEquals(new String[]{"six", "seven", "eight"}, new String[]{
+      secondBatch.getValue(0, 0), secondBatch.getValue(0, 1), secondBatch.getValue(0, 2)});
+    assertFalse(csvFileThroughErrors.hasNext());
+    assertTrue(csvFileThroughErrors.nextBatch(10).isEmpty());
+    assertEquals(2, csvFileThroughErrors.getNumberOfSkippedDifferingLines());
+  }
+
+  /**
+   * Test method for {@link FileIterator#nextBatch(int)}
+   * <p/>
+   * Differing lines should fail the batch like they fail next, if they are not skipped.
+   */
+  @Test
+  public void testNextBatchShort() throws InputIterationException, InputGenerationException {
+    // Setup
+    FileIterator shortCsvFile = new CsvFileShortLineFixture().getTestData();
+
+    // Check result
+    try {
+      shortCsvFile.nextBatch(10);
+      fail("Expected an InputIterationException to be thrown.");
+    } catch (InputIterationException e) {
+      assertTrue(e.getMessage().contains("2"));
+    }
+  }
+
   /**
    * Test method for {@link FileIterator#next()} <p/> The first line in the file should determine
    * the line length (it could be the header). Every next line should have this length or an {@link
@@ -322,4 +375,40 @@ public class FileIteratorTest {
     // Cleanup
     fileIterator.close();
   }
+
+  /**
+   * Test method for {@link FileIterator#next()} and {@link FileIterator#close()} <p/> The read
+   * lines should be added to the {@link InputProgress} in steps and completely after closing.
+   */
+  @Test
+  public void testReportReadLines() throws InputIterationException, IOException {
+    // Setup
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput("testRelation")
+      .setSeparatorChar(",")
+      .setQuoteChar("\"")
+      .setHeader(false)
+      .setSkipLines(0);
+    StringBuilder csv = new StringBuilder();
+    int numberOfLines = InputProgress.REPORT_INTERVAL + 10;
+    for (int i = 0; i < numberOfLines; i++) {
+      csv.append(i).append(",value\n");
+    }
+    InputProgress.reset();
+    FileIterator fileIterator =
+      new FileIterator("testRelation", new StringReader(csv.toString()), setting);
+
+    // Execute functionality
+    while (fileIterator.hasNext()) {
+      fileIterator.next();
+    }
+
+    // Check result
+    assertEquals(InputProgress.REPORT_INTERVAL, InputProgress.getRowsRead());
+
+    // Execute functionality
+    fileIterator.close();
+
+    // Check result
+    assertEquals(numberOfLines, InputProgress.getRowsRead());
+  }
 }
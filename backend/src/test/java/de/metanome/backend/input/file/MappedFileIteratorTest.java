@@ -0,0 +1,132 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.input.file;
+
+import de.metanome.algorithm_integration.configuration.ConfigurationSettingFileInput;
+import de.metanome.algorithm_integration.input.InputIterationException;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link MappedFileIterator}
+ */
+public class MappedFileIteratorTest {
+
+  protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+  protected static final String CSV_DATA = "\"one\",\"two\",\"three\"\n" +
+    "a,\"b, with separator\",\"c \"\"quoted\"\"\"\r\n" +
+    "\"multi\nline\",\"escaped \\\" quote\",embedded\"quote\"\n" +
+    ",\"\",plain\n" +
+    "short,line\n" +
+    "x,y,z";
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * The mapped iterator should return the same lines as the {@link FileIterator}, even if the
+   * lines span several mapped windows.
+   */
+  @Test
+  public void testNextEqualsFileIterator() throws IOException, InputIterationException {
+    // Setup
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput("some relation")
+      .setSkipDifferingLines(true);
+    File file = new FileFixture(CSV_DATA).getTestData("mapped.csv");
+
+    // Expected values
+    FileIterator expectedIterator =
+      new FileIterator("some relation", new StringReader(CSV_DATA), setting);
+
+    // Execute functionality
+    MappedFileIterator actualIterator =
+      new MappedFileIterator("some relation", file, setting, Charset.defaultCharset(), 3);
+
+    // Check result
+    assertEquals(expectedIterator.columnNames(), actualIterator.columnNames());
+    assertEquals(expectedIterator.numberOfColumns(), actualIterator.numberOfColumns());
+    while (expectedIterator.hasNext()) {
+      assertTrue(actualIterator.hasNext());
+      assertEquals(expectedIterator.next(), actualIterator.next());
+    }
+    assertFalse(actualIterator.hasNext());
+    assertEquals(expectedIterator.getNumberOfSkippedDifferingLines(),
+      actualIterator.getNumberOfSkippedDifferingLines());
+
+    actualIterator.close();
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#next()}
+   * <p/>
+   * Values equal to the null value should be returned as null and the configured number of lines
+   * should be skipped.
+   */
+  @Test
+  public void testNullValuesAndSkipLines() throws IOException, InputIterationException {
+    // Setup
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput("some relation")
+      .setSeparatorChar(";")
+      .setSkipLines(1)
+      .setHeader(false)
+      .setNullValue("NULL");
+    File file = new FileFixture("skipped line\nNULL;b;\n\"NULL\";NULLx;c").getTestData(
+      "mapped_null.csv");
+
+    // Execute functionality
+    MappedFileIterator iterator = new MappedFileIterator("some relation", file, setting);
+
+    // Check result
+    assertEquals(Arrays.asList("column1", "column2", "column3"), iterator.columnNames());
+    assertEquals(Arrays.asList(null, "b", ""), iterator.next());
+    assertEquals(Arrays.asList(null, "NULLx", "c"), iterator.next());
+    assertFalse(iterator.hasNext());
+    assertNull(iterator.next());
+
+    iterator.close();
+  }
+
+  /**
+   * Test method for {@link MappedFileIterator#isSupported(ConfigurationSettingFileInput, Charset)}
+   * <p/>
+   * Only ASCII special characters in charsets encoding them as single bytes are supported.
+   */
+  @Test
+  public void testIsSupported() {
+    // Setup
+    ConfigurationSettingFileInput setting = new ConfigurationSettingFileInput("some relation");
+    ConfigurationSettingFileInput nonAsciiSetting =
+      new ConfigurationSettingFileInput("some relation").setSeparatorChar("§");
+
+    // Execute functionality
+    // Check result
+    assertTrue(MappedFileIterator.isSupported(setting, UTF8));
+    assertTrue(MappedFileIterator.isSupported(setting, Charset.forName("ISO-8859-1")));
+    assertFalse(MappedFileIterator.isSupported(setting, Charset.forName("UTF-16")));
+    assertFalse(MappedFileIterator.isSupported(nonAsciiSetting, UTF8));
+  }
+
+}
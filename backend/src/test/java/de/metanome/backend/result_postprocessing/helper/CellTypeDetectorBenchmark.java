@@ -0,0 +1,87 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing.helper;
+
+import de.metanome.backend.result_postprocessing.helper.ColumnInformation.ColumnType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the throughput of the {@link CellTypeDetector} on a mix of boolean, integer, float,
+ * date and string values. The benchmark is not run as part of the tests. Usage:
+ * CellTypeDetectorBenchmark [number of values in millions].
+ */
+public class CellTypeDetectorBenchmark {
+
+  protected static final int DISTINCT_VALUES = 100000;
+  protected static final int WARM_UP_RUNS = 2;
+  protected static final int RUNS = 5;
+
+  public static void main(String[] args) {
+    long values = (args.length > 0 ? Long.parseLong(args[0]) : 10) * 1000000;
+    String[] cells = generateCells(new Random(42));
+    CellTypeDetector detector = new CellTypeDetector();
+
+    for (int run = 0; run < WARM_UP_RUNS + RUNS; run++) {
+      Map<ColumnType, Long> typeCounts = new EnumMap<>(ColumnType.class);
+      for (ColumnType type : ColumnType.values()) {
+        typeCounts.put(type, 0L);
+      }
+
+      long start = System.nanoTime();
+      for (long i = 0; i < values; i++) {
+        ColumnType type = detector.getCellType(cells[(int) (i % cells.length)]);
+        typeCounts.put(type, typeCounts.get(type) + 1);
+      }
+      long nanos = System.nanoTime() - start;
+
+      System.out.printf("%s %,d values in %.2f s (%.1f ns/value) %s%n",
+        run < WARM_UP_RUNS ? "warm-up" : "run    ", values, nanos / 1e9,
+        (double) nanos / values, typeCounts);
+    }
+  }
+
+  protected static String[] generateCells(Random random) {
+    String[] cells = new String[DISTINCT_VALUES];
+    for (int i = 0; i < cells.length; i++) {
+      switch (i % 6) {
+        case 0:
+          cells[i] = random.nextBoolean() ? "true" : "N";
+          break;
+        case 1:
+          cells[i] = String.valueOf(random.nextInt(1000000));
+          break;
+        case 2:
+          cells[i] = random.nextInt(1000) + "." + random.nextInt(100);
+          break;
+        case 3:
+          cells[i] = (random.nextInt(28) + 1) + "." + (random.nextInt(12) + 1) + "."
+            + (1900 + random.nextInt(200));
+          break;
+        case 4:
+          // invalid dates are the most expensive values
+          cells[i] = (random.nextInt(12) + 1) + "-" + random.nextInt(1000);
+          break;
+        default:
+          cells[i] = "value " + random.nextInt(1000000);
+      }
+    }
+    return cells;
+  }
+
+}
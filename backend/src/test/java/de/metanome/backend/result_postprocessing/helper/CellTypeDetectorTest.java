@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing.helper;
+
+import de.metanome.backend.result_postprocessing.helper.ColumnInformation.ColumnType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link CellTypeDetector}
+ */
+public class CellTypeDetectorTest {
+
+  protected CellTypeDetector detector = new CellTypeDetector();
+
+  @Test
+  public void testIsBooleanValue() {
+    // Check
+    assertTrue(detector.isBooleanValue("y"));
+    assertTrue(detector.isBooleanValue("FaLsE"));
+    assertTrue(detector.isBooleanValue("0"));
+    assertFalse(detector.isBooleanValue("this is true"));
+    assertFalse(detector.isBooleanValue("yess"));
+    assertFalse(detector.isBooleanValue(""));
+  }
+
+  @Test
+  public void testIsIntegerValue() {
+    // Check
+    assertTrue(detector.isIntegerValue("0123"));
+    assertFalse(detector.isIntegerValue(""));
+    assertFalse(detector.isIntegerValue("-1"));
+    assertFalse(detector.isIntegerValue("12a"));
+  }
+
+  @Test
+  public void testIsFloatValue() {
+    // Check
+    assertTrue(detector.isFloatValue("112.32142"));
+    assertTrue(detector.isFloatValue("-.5"));
+    assertTrue(detector.isFloatValue("5."));
+    assertTrue(detector.isFloatValue("+1e-10"));
+    assertTrue(detector.isFloatValue("1.5E3"));
+    assertFalse(detector.isFloatValue("1234"));
+    assertFalse(detector.isFloatValue("."));
+    assertFalse(detector.isFloatValue("e5"));
+    assertFalse(detector.isFloatValue("1e"));
+    assertFalse(detector.isFloatValue("1.2.3"));
+  }
+
+  @Test
+  public void testIsDateValue() {
+    // Check
+    assertTrue(detector.isDateValue("12.12.2001"));
+    assertTrue(detector.isDateValue("2/28/2015"));
+    assertTrue(detector.isDateValue(" 2/28/2015"));
+    // Trailing characters are ignored by the date formats.
+    assertTrue(detector.isDateValue("2/28/2015 is a date"));
+    assertFalse(detector.isDateValue("2/29/2015"));
+    assertFalse(detector.isDateValue("12121212"));
+    assertFalse(detector.isDateValue("-1.12.2001"));
+    assertFalse(detector.isDateValue("no date"));
+  }
+
+  @Test
+  public void testGetCellType() {
+    // Check
+    assertEquals(ColumnType.BOOLEAN_COLUMN, detector.getCellType("1"));
+    assertEquals(ColumnType.INTEGER_COLUMN, detector.getCellType("42"));
+    assertEquals(ColumnType.FLOAT_COLUMN, detector.getCellType("4.2"));
+    assertEquals(ColumnType.DATE_COLUMN, detector.getCellType("24.12.2016"));
+    assertEquals(ColumnType.STRING_COLUMN, detector.getCellType("some string"));
+  }
+
+}
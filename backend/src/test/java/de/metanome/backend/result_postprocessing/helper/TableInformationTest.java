@@ -84,4 +84,34 @@ public class TableInformationTest {
     assertEquals(expectedBitSet, tableInformation.getBitSet());
   }
 
+  /**
+   * Test method for {@link TableInformation#TableInformation(RelationalInputGenerator, boolean, BitSet)}
+   * <p/>
+   * The statistics collected in a single pass over the table should equal the statistics of each
+   * column computed on its own.
+   */
+  @Test
+  public void testSinglePassEqualsColumnStatistics()
+    throws InputIterationException, InputGenerationException, AlgorithmConfigurationException {
+    // Execute Functionality
+    TableInformation tableInformation =
+      new TableInformation(relationalInputGenerator, false, new BitSet());
+
+    // Check
+    for (int columnIndex = 0; columnIndex < tableInformation.getColumnCount(); columnIndex++) {
+      ColumnInformation actualColumn = tableInformation.getColumn(columnIndex);
+      ColumnInformation expectedColumn = new ColumnInformation(actualColumn.getColumnName(),
+        columnIndex, actualColumn.getBitSet(), relationalInputGenerator.generateNewCopy(), true);
+
+      assertEquals(expectedColumn.getColumnType(), actualColumn.getColumnType());
+      assertEquals(expectedColumn.getRowCount(), actualColumn.getRowCount());
+      assertEquals(expectedColumn.getDistinctValuesCount(), actualColumn.getDistinctValuesCount());
+      assertEquals(expectedColumn.getNullValuesCount(), actualColumn.getNullValuesCount());
+      assertEquals(expectedColumn.getAverageValueLength(), actualColumn.getAverageValueLength(),
+        0.0001);
+      assertEquals(expectedColumn.getHistogram().getHistogramData(),
+        actualColumn.getHistogram().getHistogramData());
+    }
+  }
+
 }
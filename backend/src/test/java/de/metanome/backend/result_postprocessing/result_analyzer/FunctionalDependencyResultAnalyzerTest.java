@@ -25,11 +25,13 @@ import de.metanome.algorithm_integration.input.RelationalInputGenerator;
 import de.metanome.algorithm_integration.results.FunctionalDependency;
 import de.metanome.backend.result_postprocessing.file_fixture.FileFixtureFunctionalDependency;
 import de.metanome.backend.result_postprocessing.results.FunctionalDependencyResult;
+import de.metanome.backend.result_receiver.ResultIterator;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -187,4 +189,37 @@ public class FunctionalDependencyResultAnalyzerTest {
     assertEquals(expectedBitSet, actualResults.get(2).getExtendedDependantAsBitSet());
   }
 
+  @Test
+  public void testAnalyzeResultsFromIterator() throws Exception {
+    // Set Up
+    FunctionalDependencyResultAnalyzer analyzer =
+      new FunctionalDependencyResultAnalyzer(this.generators, false);
+    ResultIterator<FunctionalDependency> iterator = new ResultIterator<FunctionalDependency>() {
+      Iterator<FunctionalDependency> fds = prevResults.iterator();
+
+      @Override
+      protected FunctionalDependency readNext() {
+        return fds.hasNext() ? fds.next() : null;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    // Expected Value
+    List<FunctionalDependencyResult> expectedResults = analyzer.analyzeResults(this.prevResults);
+
+    // Execute
+    List<FunctionalDependencyResult> actualResults = analyzer.analyzeResults(iterator);
+
+    // Check
+    assertEquals(expectedResults.size(), actualResults.size());
+    for (int i = 0; i < expectedResults.size(); i++) {
+      assertEquals(expectedResults.get(i).getResult(), actualResults.get(i).getResult());
+      assertEquals(expectedResults.get(i).getExtendedDependant(),
+        actualResults.get(i).getExtendedDependant());
+    }
+  }
+
 }
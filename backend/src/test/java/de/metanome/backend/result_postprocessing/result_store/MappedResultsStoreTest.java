@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_postprocessing.result_store;
+
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.results.InclusionDependency;
+import de.metanome.backend.result_postprocessing.result_comparator.InclusionDependencyResultComparator;
+import de.metanome.backend.result_postprocessing.results.InclusionDependencyResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link MappedResultsStore}
+ */
+public class MappedResultsStoreTest {
+
+  protected List<InclusionDependencyResult> results;
+  protected MappedResultsStore<InclusionDependencyResult> resultsStore;
+
+  @Before
+  public void setUp() {
+    results = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      InclusionDependency ind = new InclusionDependency(
+        new ColumnPermutation(new ColumnIdentifier("table" + (i % 3), "column" + (i * 7 % 50))),
+        new ColumnPermutation(new ColumnIdentifier("table" + (i % 5), "column" + i)));
+      InclusionDependencyResult result = new InclusionDependencyResult(ind);
+      result.setDependantTableName("table" + (i % 3));
+      result.setReferencedTableName("table" + (i % 5));
+      results.add(result);
+    }
+
+    resultsStore = new MappedResultsStore<>(new InclusionDependencyResultsStore(),
+      InclusionDependencyResult.class, 1);
+  }
+
+  @After
+  public void tearDown() {
+    resultsStore.clear();
+  }
+
+  /**
+   * Test method for {@link MappedResultsStore#store(java.util.List)} and {@link
+   * MappedResultsStore#list()}
+   * <p/>
+   * The results should be read from disk in the order they were stored.
+   */
+  @Test
+  public void testStoreAndList() {
+    // Execute functionality
+    resultsStore.store(results);
+
+    // Check result
+    assertEquals(Integer.valueOf(50), resultsStore.count());
+    assertEquals(results, resultsStore.list());
+  }
+
+  /**
+   * Test method for {@link MappedResultsStore#append(java.util.List)}
+   * <p/>
+   * Appended results should follow the stored results on disk and be included in the next sort.
+   */
+  @Test
+  public void testAppend() {
+    // Setup
+    resultsStore.append(results.subList(0, 20));
+    resultsStore.subList(InclusionDependencyResultComparator.DEPENDANT_COLUMN, true, 0, 10);
+
+    // Expected values
+    List<InclusionDependencyResult> expectedByDependant = new ArrayList<>(results);
+    Collections.sort(expectedByDependant, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true));
+
+    // Execute functionality
+    resultsStore.append(results.subList(20, 35));
+    resultsStore.append(results.subList(35, 50));
+
+    // Check result
+    assertEquals(Integer.valueOf(50), resultsStore.count());
+    assertEquals(results, resultsStore.list());
+    assertEquals(expectedByDependant, resultsStore.subList(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true, 0, 50));
+  }
+
+  /**
+   * Test method for {@link MappedResultsStore#subList(String, boolean, int, int)}
+   * <p/>
+   * The pages should equal the pages of the sorted in-memory results, also after switching the
+   * sort property and evicting the cached permutation.
+   */
+  @Test
+  public void testSubList() {
+    // Setup
+    resultsStore.store(results);
+
+    // Expected values
+    List<InclusionDependencyResult> expectedByDependant = new ArrayList<>(results);
+    Collections.sort(expectedByDependant, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true));
+    List<InclusionDependencyResult> expectedByReferenced = new ArrayList<>(results);
+    Collections.sort(expectedByReferenced, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false));
+
+    // Execute functionality
+    // Check result
+    assertEquals(expectedByDependant.subList(10, 20), resultsStore.subList(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true, 10, 20));
+    assertEquals(expectedByReferenced.subList(0, 50), resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false, -5, 70));
+    assertEquals(expectedByDependant.subList(40, 50), resultsStore.subList(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true, 40, 60));
+    assertTrue(resultsStore.subList(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, true, 60, 70).isEmpty());
+  }
+
+  /**
+   * Test method for {@link MappedResultsStore#sort(String, boolean)}
+   * <p/>
+   * Results sorted in several chunks should be merged into one stable sort.
+   */
+  @Test
+  public void testSortInChunks() throws Exception {
+    // Setup
+    resultsStore.sortChunkSize = 7;
+    resultsStore.store(results);
+
+    // Expected values
+    List<InclusionDependencyResult> expectedByDependant = new ArrayList<>(results);
+    Collections.sort(expectedByDependant, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, false));
+
+    // Execute functionality
+    int[] byDependant =
+      resultsStore.sort(InclusionDependencyResultComparator.DEPENDANT_COLUMN, false);
+    // All ratios are equal
+    int[] byRatio =
+      resultsStore.sort(InclusionDependencyResultComparator.DEPENDANT_COLUMN_RATIO, true);
+
+    // Check result
+    for (int i = 0; i < 50; i++) {
+      assertEquals(expectedByDependant.get(i), results.get(byDependant[i]));
+      assertEquals(i, byRatio[i]);
+    }
+    assertEquals(expectedByDependant.subList(5, 25), resultsStore.subList(
+      InclusionDependencyResultComparator.DEPENDANT_COLUMN, false, 5, 25));
+  }
+
+  /**
+   * Test method for {@link MappedResultsStore#clear()}
+   * <p/>
+   * The store should be empty after clearing it.
+   */
+  @Test
+  public void testClear() {
+    // Setup
+    resultsStore.store(results);
+
+    // Execute functionality
+    resultsStore.clear();
+
+    // Check result
+    assertEquals(Integer.valueOf(0), resultsStore.count());
+    assertFalse(resultsStore.list().iterator().hasNext());
+  }
+
+}
@@ -19,12 +19,17 @@ import de.metanome.algorithm_integration.ColumnIdentifier;
 import de.metanome.algorithm_integration.ColumnPermutation;
 import de.metanome.algorithm_integration.results.InclusionDependency;
 import de.metanome.backend.result_postprocessing.results.InclusionDependencyResult;
+import org.junit.After;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class ResultsStoreHolderTest {
@@ -74,4 +79,121 @@ public class ResultsStoreHolderTest {
     assertTrue(ResultsStoreHolder.getStore("IND").count() == 0);
   }
 
+  @Test
+  public void testCacheStores() {
+    // Set up
+    Map<String, ResultsStore<?>> expectedStores = createStores();
+
+    // Execute functionality
+    Map<String, ResultsStore<?>> actualStores =
+      ResultsStoreHolder.cacheStores("execution1", expectedStores);
+
+    // Check
+    assertSame(expectedStores, actualStores);
+    assertSame(expectedStores, ResultsStoreHolder.getStores("execution1"));
+    // Stores cached under the same key are not replaced
+    assertSame(expectedStores, ResultsStoreHolder.cacheStores("execution1", createStores()));
+    assertNull(ResultsStoreHolder.getStores("execution2"));
+  }
+
+  @Test
+  public void testEvictStores() {
+    // Set up
+    Map<String, ResultsStore<?>> selectedStores = createStores();
+    Map<String, ResultsStore<?>> evictedStores = createStores();
+    Map<String, ResultsStore<?>> recentStores = createStores();
+    ResultsStoreHolder.setResultBudget(2);
+
+    // Execute functionality
+    ResultsStoreHolder.cacheStores("execution1", selectedStores);
+    ResultsStoreHolder.selectStores(selectedStores);
+    ResultsStoreHolder.cacheStores("execution2", evictedStores);
+    ResultsStoreHolder.cacheStores("execution3", recentStores);
+
+    // Check
+    assertSame(selectedStores, ResultsStoreHolder.getStores("execution1"));
+    assertNull(ResultsStoreHolder.getStores("execution2"));
+    assertSame(recentStores, ResultsStoreHolder.getStores("execution3"));
+    assertEquals(0, (int) evictedStores.get("IND").count());
+    assertEquals(1, (int) ResultsStoreHolder.getStore("IND").count());
+  }
+
+  /**
+   * Stores, which are evicted while a request reads them, should be cleared only after the
+   * request released them.
+   */
+  @Test
+  public void testEvictAcquiredStores() {
+    // Set up
+    Map<String, ResultsStore<?>> acquiredStores = createStores();
+    ResultsStoreHolder.setResultBudget(1);
+    ResultsStoreHolder.cacheStores("execution1", acquiredStores);
+    ResultsStoreHolder.selectStores(acquiredStores);
+    ResultsStore<?> acquiredStore = ResultsStoreHolder.acquireStore("IND");
+
+    // Execute functionality
+    ResultsStoreHolder.selectStores(ResultsStoreHolder.cacheStores("execution2", createStores()));
+    ResultsStoreHolder.cacheStores("execution3", createStores());
+
+    // Check
+    assertNull(ResultsStoreHolder.getStores("execution1"));
+    assertEquals(1, (int) acquiredStore.count());
+
+    // Execute functionality
+    acquiredStore.release();
+
+    // Check
+    assertEquals(0, (int) acquiredStore.count());
+  }
+
+  /**
+   * Stores of an execution, which are evicted while a request reads them, should be cleared only
+   * after the request released them.
+   */
+  @Test
+  public void testEvictAcquiredExecutionStores() {
+    // Set up
+    Map<String, ResultsStore<?>> acquiredStores = createStores();
+    ResultsStoreHolder.setResultBudget(1);
+    ResultsStoreHolder.cacheStores("execution1", acquiredStores);
+
+    // Execute functionality
+    ResultsStore<?> acquiredStore = ResultsStoreHolder.acquireStore("execution1", "IND");
+    ResultsStoreHolder.cacheStores("execution2", createStores());
+
+    // Check
+    assertSame(acquiredStores.get("IND"), acquiredStore);
+    assertNull(ResultsStoreHolder.getStores("execution1"));
+    assertNull(ResultsStoreHolder.acquireStore("execution1", "IND"));
+    assertNull(ResultsStoreHolder.acquireStore("execution2", "FD"));
+    assertEquals(1, (int) acquiredStore.count());
+
+    // Execute functionality
+    acquiredStore.release();
+
+    // Check
+    assertEquals(0, (int) acquiredStore.count());
+  }
+
+  @After
+  public void tearDown() {
+    ResultsStoreHolder.cachedStoreMaps.clear();
+    ResultsStoreHolder.setResultBudget(ResultsStoreHolder.DEFAULT_RESULT_BUDGET);
+    ResultsStoreHolder.selectStores(new HashMap<String, ResultsStore<?>>());
+  }
+
+  private Map<String, ResultsStore<?>> createStores() {
+    InclusionDependency result = new InclusionDependency(
+      new ColumnPermutation(new ColumnIdentifier("table1", "column1")),
+      new ColumnPermutation(new ColumnIdentifier("table1", "column2")));
+    List<InclusionDependencyResult> results = new ArrayList<>();
+    results.add(new InclusionDependencyResult(result));
+
+    InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
+    resultsStore.store(results);
+    Map<String, ResultsStore<?>> stores = new HashMap<>();
+    stores.put("IND", resultsStore);
+    return stores;
+  }
+
 }
@@ -24,7 +24,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -116,6 +119,71 @@ public class ResultsStoreTest {
     assertEquals(expectedResults.size(), count);
   }
 
+  @Test
+  public void testAppend() {
+    // Set Up
+    List<InclusionDependencyResult> results = new ArrayList<>();
+    results.add(ind1);
+    results.add(ind2);
+
+    InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
+
+    // Execute functionality
+    resultsStore.append(results.subList(0, 1));
+    List<InclusionDependencyResult> actualResults = resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, true, 0, 2);
+
+    // Check
+    assertEquals(results.subList(0, 1), actualResults);
+
+    // Execute functionality
+    resultsStore.append(results.subList(1, 2));
+    actualResults = resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, true, 0, 2);
+
+    // Check
+    // The cached ordering of the first result is not served anymore
+    assertEquals(2, actualResults.size());
+    assertEquals(ind2, actualResults.get(0));
+    assertEquals(ind1, actualResults.get(1));
+  }
+
+  /**
+   * Results appended after a complete sort was cached should be merged into the cached sort, as if
+   * all results were sorted stably.
+   */
+  @Test
+  public void testAppendMergesCachedSort() {
+    // Set Up
+    List<InclusionDependencyResult> results = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      results.add(new InclusionDependencyResult(new InclusionDependency(
+        new ColumnPermutation(new ColumnIdentifier("table1", "column" + (i * 37 % 100))),
+        new ColumnPermutation(new ColumnIdentifier("table1", "column" + (i % 10))))));
+    }
+
+    InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
+    resultsStore.append(results.subList(0, 60));
+    resultsStore.subList(InclusionDependencyResultComparator.REFERENCED_COLUMN, false, 0, 10);
+
+    // Expected values
+    List<InclusionDependencyResult> expectedResults = new ArrayList<>(results);
+    Collections.sort(expectedResults, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false));
+
+    // Execute functionality
+    resultsStore.append(results.subList(60, 100));
+    List<InclusionDependencyResult> actualResults = resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false, 0, 100);
+
+    // Check
+    assertEquals(expectedResults, actualResults);
+    synchronized (resultsStore) {
+      assertEquals(100, resultsStore.orderings.get(
+        InclusionDependencyResultComparator.REFERENCED_COLUMN + "-").size());
+    }
+  }
+
   @Test
   public void testSubList1() {
     // Set Up
@@ -163,4 +231,96 @@ public class ResultsStoreTest {
     assertEquals(ind2, actualResults.get(0));
   }
 
+  @Test
+  public void testSubListWithBackgroundSort() throws InterruptedException {
+    // Set Up
+    List<InclusionDependencyResult> results = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      results.add(new InclusionDependencyResult(new InclusionDependency(
+        new ColumnPermutation(new ColumnIdentifier("table1", "column" + (i * 37 % 100))),
+        new ColumnPermutation(new ColumnIdentifier("table1", "column" + (i % 10))))));
+    }
+
+    InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
+    // Force the selection of pages
+    resultsStore.synchronousSortLimit = 0;
+    resultsStore.store(results);
+
+    // Expected values
+    List<InclusionDependencyResult> expectedResults = new ArrayList<>(results);
+    Collections.sort(expectedResults, new InclusionDependencyResultComparator(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false));
+
+    // Execute functionality
+    List<InclusionDependencyResult> actualResults = resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false, 10, 30);
+
+    // Check
+    assertEquals(expectedResults.subList(10, 30), actualResults);
+    // The stored order is not changed
+    assertEquals(results.get(0), resultsStore.list().get(0));
+
+    // Wait for the background sort
+    resultsStore.awaitSort(InclusionDependencyResultComparator.REFERENCED_COLUMN, false);
+    synchronized (resultsStore) {
+      assertTrue(resultsStore.orderings.containsKey(
+        InclusionDependencyResultComparator.REFERENCED_COLUMN + "-"));
+    }
+
+    // Execute functionality
+    actualResults = resultsStore.subList(
+      InclusionDependencyResultComparator.REFERENCED_COLUMN, false, 90, 120);
+
+    // Check
+    assertEquals(expectedResults.subList(90, 100), actualResults);
+  }
+
+  /**
+   * Background sorts, which did not start before the results were replaced, should be cancelled
+   * and never cached.
+   */
+  @Test
+  public void testInvalidateCancelsBackgroundSort() throws Exception {
+    // Set Up
+    List<InclusionDependencyResult> results = new ArrayList<>();
+    results.add(ind1);
+    results.add(ind2);
+    results.add(ind3);
+
+    InclusionDependencyResultsStore resultsStore = new InclusionDependencyResultsStore();
+    resultsStore.synchronousSortLimit = 0;
+    resultsStore.store(results);
+
+    // Keep the sort executor busy
+    final CountDownLatch latch = new CountDownLatch(1);
+    ResultsStore.SORT_EXECUTOR.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          // Intentionally left blank
+        }
+      }
+    });
+
+    // Execute functionality
+    resultsStore.subList(InclusionDependencyResultComparator.REFERENCED_COLUMN, true, 0, 2);
+    Future<?> sort;
+    synchronized (resultsStore) {
+      sort = resultsStore.pendingSorts.get(
+        InclusionDependencyResultComparator.REFERENCED_COLUMN + "+");
+    }
+    resultsStore.store(new ArrayList<>(results));
+    latch.countDown();
+
+    // Check
+    assertTrue(sort.isCancelled());
+    resultsStore.awaitSort(InclusionDependencyResultComparator.REFERENCED_COLUMN, true);
+    synchronized (resultsStore) {
+      assertTrue(resultsStore.orderings.isEmpty());
+      assertTrue(resultsStore.pendingSorts.isEmpty());
+    }
+  }
+
 }
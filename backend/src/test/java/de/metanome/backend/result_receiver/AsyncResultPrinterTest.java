@@ -0,0 +1,143 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchException;
+import de.metanome.algorithm_integration.result_receiver.CouldNotReceiveResultException;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.algorithm_integration.results.InclusionDependency;
+import de.metanome.algorithm_integration.results.Result;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link AsyncResultPrinter}
+ */
+public class AsyncResultPrinterTest {
+
+  protected static final int NUMBER_OF_RESULTS = 5000;
+
+  protected AsyncResultPrinter printer;
+  protected List<ColumnIdentifier> columns;
+
+  @Before
+  public void setUp() throws Exception {
+    columns = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      columns.add(new ColumnIdentifier("table1", "column" + i));
+    }
+
+    // A small queue makes the algorithm thread wait for the writer.
+    printer = new AsyncResultPrinter("testAsyncAlgoExecution", columns, true, 16,
+      AsyncResultPrinter.NO_TIMEOUT);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    printer.close();
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
+  /**
+   * Test method for {@link AsyncResultPrinter#receiveResult(FunctionalDependency)} and {@link
+   * AsyncResultPrinter#close()}
+   * <p/>
+   * All results should be written in the received order, when the printer is closed.
+   */
+  @Test
+  public void testWriteResults() throws Exception {
+    // Setup
+    List<FunctionalDependency> expectedFds = new ArrayList<>();
+    for (int i = 0; i < NUMBER_OF_RESULTS; i++) {
+      expectedFds.add(new FunctionalDependency(
+        new ColumnCombination(columns.get(i % 10), columns.get((i / 10) % 10)),
+        columns.get((i / 100) % 10)));
+    }
+    InclusionDependency expectedInd = new InclusionDependency(
+      new ColumnPermutation(columns.get(0)), new ColumnPermutation(columns.get(1)));
+
+    // Execute functionality
+    for (FunctionalDependency fd : expectedFds) {
+      printer.receiveResult(fd);
+    }
+    printer.receiveResult(expectedInd);
+    printer.close();
+
+    // Check result
+    File fdFile = new File(printer.getOutputFilePathPrefix() + "_fds");
+    List<String> lines = Files.readLines(fdFile, Charsets.UTF_8);
+    List<String> resultLines = lines.subList(lines.indexOf(ResultPrinter.RESULT_MARKER) + 1,
+      lines.size());
+    assertEquals(NUMBER_OF_RESULTS, resultLines.size());
+    for (int i = 0; i < NUMBER_OF_RESULTS; i++) {
+      assertEquals(expectedFds.get(i).toString(printer.printer.tableMapping,
+        printer.printer.columnMapping), resultLines.get(i));
+    }
+
+    List<Result> results = printer.getResults();
+    assertEquals(NUMBER_OF_RESULTS + 1, results.size());
+    assertTrue(results.contains(expectedInd));
+  }
+
+  /**
+   * Test method for {@link AsyncResultPrinter#receiveResult(FunctionalDependency)}
+   * <p/>
+   * Results with unknown columns should be rejected on the algorithm thread.
+   */
+  @Test(expected = ColumnNameMismatchException.class)
+  public void testColumnNameMismatch() throws Exception {
+    // Execute functionality
+    printer.receiveResult(new FunctionalDependency(
+      new ColumnCombination(columns.get(0)), new ColumnIdentifier("table2", "column1")));
+  }
+
+  /**
+   * Test method for {@link AsyncResultPrinter#receiveResult(FunctionalDependency)}
+   * <p/>
+   * Results received after closing the printer cannot be written.
+   */
+  @Test
+  public void testReceiveAfterClose() throws Exception {
+    // Setup
+    printer.close();
+
+    // Execute functionality
+    // Check result
+    try {
+      printer.receiveResult(new FunctionalDependency(
+        new ColumnCombination(columns.get(0)), columns.get(1)));
+      fail("Expected a CouldNotReceiveResultException to be thrown.");
+    } catch (CouldNotReceiveResultException e) {
+      // Intentionally left blank
+    }
+  }
+
+}
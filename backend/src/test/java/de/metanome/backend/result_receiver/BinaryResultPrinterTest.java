@@ -0,0 +1,165 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.ColumnPermutation;
+import de.metanome.algorithm_integration.result_receiver.ColumnNameMismatchException;
+import de.metanome.algorithm_integration.results.*;
+import de.metanome.algorithm_integration.results.basic_statistic_values.BasicStatisticValueString;
+import de.metanome.backend.results_db.ResultType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link BinaryResultPrinter}, {@link BinaryResultWriter} and {@link BinaryResultReader}
+ */
+public class BinaryResultPrinterTest {
+
+  protected BinaryResultPrinter printer;
+  protected List<ColumnIdentifier> columns;
+
+  @Before
+  public void setUp() throws Exception {
+    columns = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      columns.add(new ColumnIdentifier("table" + (i % 2), "column" + i));
+    }
+
+    printer = new BinaryResultPrinter("testBinaryAlgoExecution", columns, true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    printer.close();
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
+  /**
+   * Test method for {@link BinaryResultPrinter#receiveResult(FunctionalDependency)} and {@link
+   * ResultReader#readResultsFromFile(String, String)}
+   * <p/>
+   * The written dependencies should be read in the same order by the {@link ResultReader}, which
+   * detects the binary format.
+   */
+  @Test
+  public void testWriteAndReadDependencies() throws Exception {
+    // Setup
+    List<Result> expectedFds = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      expectedFds.add(new FunctionalDependency(
+        new ColumnCombination(columns.get(199 - i % 200), columns.get(i % 150), columns.get(7)),
+        columns.get((i * 31) % 200)));
+    }
+    expectedFds.add(new FunctionalDependency(new ColumnCombination(), columns.get(0)));
+
+    // Execute functionality
+    for (Result fd : expectedFds) {
+      printer.receiveResult((FunctionalDependency) fd);
+    }
+    printer.close();
+
+    // Check result
+    String fileName = printer.getOutputFilePathPrefix() + ResultType.FD.getEnding();
+    assertTrue(BinaryResultReader.isBinaryResultFile(new File(fileName)));
+    List<Result> actualFds = ResultReader.readResultsFromFile(fileName, ResultType.FD.getName());
+    assertEquals(expectedFds, actualFds);
+    // Equal columns are shared
+    assertSame(((FunctionalDependency) actualFds.get(0)).getDependant(),
+      ((FunctionalDependency) actualFds.get(200)).getDependant());
+  }
+
+  /**
+   * Test method for {@link BinaryResultPrinter#getResults()}
+   * <p/>
+   * Results of all types should be written to their files and read again.
+   */
+  @Test
+  public void testGetResults() throws Exception {
+    // Setup
+    UniqueColumnCombination expectedUcc =
+      new UniqueColumnCombination(columns.get(3), columns.get(150));
+    InclusionDependency expectedInd = new InclusionDependency(
+      new ColumnPermutation(columns.get(9), columns.get(2)),
+      new ColumnPermutation(columns.get(2), columns.get(9)));
+    MultivaluedDependency expectedMvd = new MultivaluedDependency(
+      new ColumnCombination(columns.get(1)), new ColumnCombination(columns.get(4), columns.get(5)));
+    OrderDependency expectedOd = new OrderDependency(
+      new ColumnPermutation(columns.get(4)), new ColumnPermutation(columns.get(6)),
+      OrderDependency.OrderType.LEXICOGRAPHICAL, OrderDependency.ComparisonOperator.SMALLER_EQUAL);
+    BasicStatistic expectedStatistic = new BasicStatistic(columns.get(8));
+    expectedStatistic.addStatistic("Min", new BasicStatisticValueString("minValue"));
+
+    // Execute functionality
+    printer.receiveResult(expectedUcc);
+    printer.receiveResult(expectedInd);
+    printer.receiveResult(expectedMvd);
+    printer.receiveResult(expectedOd);
+    printer.receiveResult(expectedStatistic);
+    printer.close();
+    List<Result> actualResults = printer.getResults();
+
+    // Check result
+    assertEquals(5, actualResults.size());
+    assertTrue(actualResults.contains(expectedUcc));
+    assertTrue(actualResults.contains(expectedInd));
+    assertTrue(actualResults.contains(expectedMvd));
+    assertTrue(actualResults.contains(expectedOd));
+    assertTrue(actualResults.contains(expectedStatistic));
+  }
+
+  /**
+   * Test method for {@link BinaryResultReader#isBinaryResultFile(File)}
+   * <p/>
+   * Text result files should not be detected as binary.
+   */
+  @Test
+  public void testIsBinaryResultFile() throws Exception {
+    // Setup
+    ResultPrinter textPrinter = new ResultPrinter("testTextAlgoExecution", columns, true);
+    textPrinter.receiveResult(new UniqueColumnCombination(columns.get(0)));
+    textPrinter.close();
+
+    // Execute functionality
+    // Check result
+    assertFalse(BinaryResultReader.isBinaryResultFile(
+      new File(textPrinter.getOutputFilePathPrefix() + ResultType.UCC.getEnding())));
+  }
+
+  /**
+   * Test method for {@link BinaryResultPrinter#receiveResult(UniqueColumnCombination)}
+   * <p/>
+   * Results with unknown columns should be rejected.
+   */
+  @Test(expected = ColumnNameMismatchException.class)
+  public void testColumnNameMismatch() throws Exception {
+    // Execute functionality
+    printer.receiveResult(new UniqueColumnCombination(new ColumnIdentifier("table9", "column1")));
+  }
+
+}
@@ -99,6 +99,44 @@ public class ResultCacheTest {
     assertEquals(0, resultCache.fetchNewResults().size());
   }
 
+  /**
+   * Test method for {@link ResultCache#fetchNewResults()} <p/> Results of full segments are
+   * spilled to disk and should be fetched in the order they were received.
+   */
+  @Test
+  public void testFetchSpilledResults() throws IOException, ColumnNameMismatchException {
+    // Set up
+    ResultCache resultCache = new ResultCache("testSpill", null, true, 3);
+    List<FunctionalDependency> expectedFds = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      expectedFds.add(new FunctionalDependency(
+        new ColumnCombination(new ColumnIdentifier("table1", "column" + i)),
+        new ColumnIdentifier("table1", "column" + (i + 1))));
+    }
+
+    // Execute functionality
+    for (FunctionalDependency fd : expectedFds.subList(0, 7)) {
+      resultCache.receiveResult(fd);
+    }
+
+    // Check result
+    assertEquals(2, resultCache.spilledSegments.size());
+    assertEquals(1, resultCache.tail.size());
+    assertEquals(expectedFds.subList(0, 7), resultCache.fetchNewResults());
+    assertTrue(resultCache.spilledSegments.isEmpty());
+
+    // Execute functionality
+    resultCache.receiveResult(expectedFds.get(7));
+
+    // Check result
+    assertEquals(expectedFds.subList(7, 8), resultCache.fetchNewResults());
+    assertEquals(0, resultCache.fetchNewResults().size());
+
+    // Cleanup
+    resultCache.close();
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
   /**
    * Test method for {@link de.metanome.backend.result_receiver.ResultCache#close()}
    */
@@ -166,4 +204,43 @@ public class ResultCacheTest {
     FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
   }
 
+  /**
+   * Test method for {@link ResultReceiver#getRejectedResultCount(ResultType)}
+   * <p/>
+   * Results with columns, which are not accepted, should be counted by their type.
+   */
+  @Test
+  public void testRejectedResultCount() throws IOException {
+    // Set up
+    ColumnIdentifier column1 = new ColumnIdentifier("table1", "column1");
+    ColumnIdentifier column2 = new ColumnIdentifier("table1", "column2");
+    ColumnIdentifier column3 = new ColumnIdentifier("table2", "column3");
+
+    List<ColumnIdentifier> acceptableColumnNames = new ArrayList<>();
+    acceptableColumnNames.add(column1);
+    acceptableColumnNames.add(column2);
+
+    ResultCache resultCache = new ResultCache("identifier", acceptableColumnNames);
+    resultCache.setResultTestDir();
+
+    // Execute functionality
+    // Check result
+    assertTrue(resultCache.acceptedResult(
+      new FunctionalDependency(new ColumnCombination(column1), column2)));
+    assertFalse(resultCache.acceptedResult(
+      new FunctionalDependency(new ColumnCombination(column1), column3)));
+    assertFalse(resultCache.acceptedResult(
+      new FunctionalDependency(new ColumnCombination(column3), column2)));
+    assertFalse(resultCache.acceptedResult(
+      new UniqueColumnCombination(column1, column3)));
+
+    assertEquals(2, resultCache.getRejectedResultCount(ResultType.FD));
+    assertEquals(1, resultCache.getRejectedResultCount(ResultType.UCC));
+    assertEquals(0, resultCache.getRejectedResultCount(ResultType.IND));
+    assertEquals(3, resultCache.getRejectedResultCount());
+
+    // Cleanup
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
 }
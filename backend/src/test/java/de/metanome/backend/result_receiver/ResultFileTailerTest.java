@@ -0,0 +1,160 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.backend.results_db.ResultType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test for {@link ResultFileTailer}
+ */
+public class ResultFileTailerTest {
+
+  protected List<ColumnIdentifier> columns;
+  protected List<FunctionalDependency> expectedFds;
+
+  @Before
+  public void setUp() throws Exception {
+    columns = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      columns.add(new ColumnIdentifier("table1", "column" + i));
+    }
+
+    expectedFds = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expectedFds.add(new FunctionalDependency(
+        new ColumnCombination(columns.get(i % 5), columns.get((i + 1) % 5)),
+        columns.get((i + 2) % 5)));
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
+  /**
+   * Test method for {@link ResultFileTailer#poll()}
+   * <p/>
+   * The results should be returned as soon as the printer wrote them, also if the file uses table
+   * and column mappings.
+   */
+  @Test
+  public void testPollWhileWriting() throws Exception {
+    // Setup
+    ResultPrinter printer = new ResultPrinter("testTailerMapping", columns, true);
+    File resultFile = new File(printer.getOutputFilePathPrefix() + ResultType.FD.getEnding());
+    ResultFileTailer<FunctionalDependency> tailer =
+      new ResultFileTailer<>(resultFile, ResultType.FD.getName());
+
+    // Execute functionality
+    List<FunctionalDependency> actualFds = new ArrayList<>();
+    actualFds.addAll(tailer.poll());
+    for (int i = 0; i < expectedFds.size(); i++) {
+      printer.receiveResult(expectedFds.get(i));
+      if (i % 7 == 0) {
+        actualFds.addAll(tailer.poll());
+      }
+    }
+    printer.close();
+    actualFds.addAll(tailer.poll());
+    tailer.close();
+
+    // Check result
+    assertEquals(expectedFds, actualFds);
+    assertEquals(expectedFds.size(), tailer.getResultCount());
+    assertTrue(tailer.isFollowable());
+  }
+
+  /**
+   * Test method for {@link ResultFileTailer#poll()}
+   * <p/>
+   * Incomplete lines should be kept until they are completed.
+   */
+  @Test
+  public void testPollIncompleteLine() throws Exception {
+    // Setup
+    ResultPrinter printer = new ResultPrinter("testTailerJson", null, true);
+    printer.receiveResult(expectedFds.get(0));
+    printer.close();
+    File resultFile = new File(printer.getOutputFilePathPrefix() + ResultType.FD.getEnding());
+    String line = FileUtils.readFileToString(resultFile).trim();
+    FileUtils.deleteQuietly(resultFile);
+
+    ResultFileTailer<FunctionalDependency> tailer =
+      new ResultFileTailer<>(resultFile, ResultType.FD.getName());
+    int split = line.length() / 2;
+
+    // Execute functionality
+    // Check result
+    try (FileOutputStream output = new FileOutputStream(resultFile)) {
+      output.write(line.substring(0, split).getBytes());
+      output.flush();
+      assertTrue(tailer.poll().isEmpty());
+
+      output.write((line.substring(split) + "\n" + line).getBytes());
+      output.flush();
+      assertEquals(expectedFds.subList(0, 1), tailer.poll());
+
+      output.write("\n".getBytes());
+      output.flush();
+      assertEquals(expectedFds.subList(0, 1), tailer.poll());
+    }
+    tailer.close();
+  }
+
+  /**
+   * Test method for {@link ResultFileTailer#isFollowable()}
+   * <p/>
+   * Binary result files should not be followed.
+   */
+  @Test
+  public void testBinaryFileIsNotFollowable() throws Exception {
+    // Setup
+    BinaryResultPrinter printer = new BinaryResultPrinter("testTailerBinary", columns, true);
+    for (FunctionalDependency fd : expectedFds) {
+      printer.receiveResult(fd);
+    }
+    printer.close();
+    File resultFile = new File(printer.getOutputFilePathPrefix() + ResultType.FD.getEnding());
+    ResultFileTailer<FunctionalDependency> tailer =
+      new ResultFileTailer<>(resultFile, ResultType.FD.getName());
+
+    // Execute functionality
+    List<FunctionalDependency> actualFds = tailer.poll();
+    tailer.close();
+
+    // Check result
+    assertTrue(actualFds.isEmpty());
+    assertFalse(tailer.isFollowable());
+  }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2016 by Metanome Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.metanome.backend.result_receiver;
+
+import de.metanome.algorithm_integration.ColumnCombination;
+import de.metanome.algorithm_integration.ColumnIdentifier;
+import de.metanome.algorithm_integration.results.FunctionalDependency;
+import de.metanome.backend.results_db.ResultType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test for {@link ResultIterator}
+ */
+public class ResultIteratorTest {
+
+  protected List<ColumnIdentifier> columns;
+  protected List<FunctionalDependency> expectedFds;
+
+  @Before
+  public void setUp() throws Exception {
+    columns = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      columns.add(new ColumnIdentifier("table1", "column" + i));
+    }
+
+    expectedFds = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      expectedFds.add(new FunctionalDependency(
+        new ColumnCombination(columns.get(i % 5), columns.get((i + 1) % 5)),
+        columns.get((i + 2) % 5)));
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(new File(ResultPrinter.RESULT_TEST_DIR).getParentFile());
+  }
+
+  /**
+   * Test method for {@link ResultReader#openResultsFromFile(String, String)}
+   * <p/>
+   * The results of a text file with table and column mappings should be read one by one.
+   */
+  @Test
+  public void testIterateTextFile() throws Exception {
+    // Setup
+    ResultPrinter printer = new ResultPrinter("testIteratorMapping", columns, true);
+    writeAndAssertIteration(printer);
+  }
+
+  /**
+   * Test method for {@link ResultReader#openResultsFromFile(String, String)}
+   * <p/>
+   * The results of a text file in JSON format should be read one by one.
+   */
+  @Test
+  public void testIterateJsonFile() throws Exception {
+    // Setup
+    ResultPrinter printer = new ResultPrinter("testIteratorJson", null, true);
+    writeAndAssertIteration(printer);
+  }
+
+  /**
+   * Test method for {@link ResultReader#openResultsFromFile(String, String)}
+   * <p/>
+   * The results of a binary file should be read one by one.
+   */
+  @Test
+  public void testIterateBinaryFile() throws Exception {
+    // Setup
+    BinaryResultPrinter printer = new BinaryResultPrinter("testIteratorBinary", columns, true);
+    writeAndAssertIteration(printer);
+  }
+
+  protected void writeAndAssertIteration(ResultReceiver printer) throws Exception {
+    for (FunctionalDependency fd : expectedFds) {
+      printer.receiveResult(fd);
+    }
+    printer.close();
+    String fileName = printer.getOutputFilePathPrefix() + ResultType.FD.getEnding();
+
+    // Execute functionality
+    List<FunctionalDependency> actualFds = new ArrayList<>();
+    ResultReader<FunctionalDependency> reader = new ResultReader<>(ResultType.FD);
+    ResultIterator<FunctionalDependency> iterator = reader.openResultsFromFile(fileName);
+    while (iterator.hasNext()) {
+      // Calling hasNext repeatedly should not skip results
+      assertTrue(iterator.hasNext());
+      actualFds.add(iterator.next());
+    }
+
+    // Check result
+    assertEquals(expectedFds, actualFds);
+    assertFalse(iterator.hasNext());
+    try {
+      iterator.next();
+      fail("Expected a NoSuchElementException to be thrown.");
+    } catch (NoSuchElementException e) {
+      // Intentionally left blank
+    }
+    iterator.close();
+  }
+
+}